@@ -101,6 +101,13 @@ public class PelletClassify extends PelletCmdApp {
 		option.setArg( NONE );
 		options.add( option );
 		
+		option = new PelletCmdOption( "modular" );
+		option.setShortOption( "m" );
+		option.setDescription( "Classify the ontology by splitting it into modules of related classes and classifying the modules in parallel. The consistency of the whole ontology is still checked before classification. This option can only be used with OWLAPIv3 loader." );
+		option.setIsMandatory( false );
+		option.setArg( NONE );
+		options.add( option );
+		
 		options.add( getLoaderOption() );
 		options.add( getIgnoreImportsOption() );
 		options.add( getInputFormatOption() );
@@ -110,7 +117,7 @@ public class PelletClassify extends PelletCmdApp {
 
 	@Override
 	public void run() {
-		if( options.getOption("persist").getValueAsBoolean() ) {
+		if( options.getOption("persist").getValueAsBoolean() || options.getOption("modular").getValueAsBoolean() ) {
 			runIncrementalClassify();
 		}
 		else {
@@ -140,13 +147,14 @@ public class PelletClassify extends PelletCmdApp {
 	}
 	
 	/**
-	 * Performs classification using the incremental classifier (and persisted data)
+	 * Performs classification using the incremental classifier (and persisted data if persistence is enabled)
 	 */
 	private void runIncrementalClassify() {
 		String loaderName = options.getOption( "loader" ).getValueAsString();
+		boolean persist = options.getOption( "persist" ).getValueAsBoolean();
 		
 		if( !"OWLAPIv3".equals( loaderName ) ) {
-			logger.log( Level.WARNING, "Ignoring -l " + loaderName + " option. When using --persist the only allowed loader is OWLAPIv3" );
+			logger.log( Level.WARNING, "Ignoring -l " + loaderName + " option. When using --persist or --modular the only allowed loader is OWLAPIv3" );
 		}
 		
 		OWLAPILoader loader = (OWLAPILoader) getLoader( "OWLAPIv3" );
@@ -154,7 +162,8 @@ public class PelletClassify extends PelletCmdApp {
 		loader.parse( getInputFiles() );
 		OWLOntology ontology = loader.getOntology();
 		
-		IncrementalClassifier incrementalClassifier = createIncrementalClassifier( ontology );
+		IncrementalClassifier incrementalClassifier = createIncrementalClassifier( ontology, persist );
+		incrementalClassifier.setModularClassification( options.getOption( "modular" ).getValueAsBoolean() );
 		
 		if ( !incrementalClassifier.isClassified() ) {
 			startTask( "consistency check" );
@@ -172,7 +181,7 @@ public class PelletClassify extends PelletCmdApp {
 		TaxonomyPrinter<OWLClass> printer = new OWLClassTreePrinter();
 		printer.print( incrementalClassifier.getTaxonomy() );
 		
-		if( !currentStateSaved ) {
+		if( persist && !currentStateSaved ) {
 			persistIncrementalClassifier( incrementalClassifier, ontology );
 		}
 	}
@@ -180,15 +189,18 @@ public class PelletClassify extends PelletCmdApp {
 	/**
 	 * Creates incremental classifier by either creating it from scratch or by reading its state from file (if there exists such a state)
 	 * @param ontology the ontology (the current state of it)
+	 * @param persist whether the state should be read from a file
 	 * @return the incremental classifier
 	 */
-	private IncrementalClassifier createIncrementalClassifier( OWLOntology ontology ) {
-		File saveFile = determineSaveFile( ontology );
+	private IncrementalClassifier createIncrementalClassifier( OWLOntology ontology, boolean persist ) {
 		IncrementalClassifier result = null;
 		
 		// first try to restore the classifier from the file (if one exists)
-		if( saveFile.exists() ) {
-			result = loadIncrementalClassifier( ontology, saveFile );
+		if( persist ) {
+			File saveFile = determineSaveFile( ontology );
+			if( saveFile.exists() ) {
+				result = loadIncrementalClassifier( ontology, saveFile );
+			}
 		} 
 		
 		// if it was not possible to restore the classifier, create one from scratch
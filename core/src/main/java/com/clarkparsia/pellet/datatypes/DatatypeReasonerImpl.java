@@ -3,6 +3,8 @@ package com.clarkparsia.pellet.datatypes;
 import static java.lang.String.format;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -12,11 +14,14 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.mindswap.pellet.Literal;
 import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.PelletOptions.UndefinedDatatypeHandling;
 import org.mindswap.pellet.utils.ATermUtils;
 
 import aterm.ATermAppl;
@@ -229,10 +234,10 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 		return dtName;
 	}
 
-	private static int inequalityCount(Set<Integer>[] nes, int xIndex) {
+	private static int inequalityCount(BitSet[] nes, int xIndex) {
 
-		final Set<Integer> others = nes[xIndex];
-		return others == null ? 0 : others.size();
+		final BitSet others = nes[xIndex];
+		return others == null ? 0 : others.cardinality();
 	}
 
 	private static <T> void partitionDConjunction(Collection<DataRange<? extends T>> dconjunction,
@@ -265,35 +270,137 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 		}
 	}
 
-	private static boolean removeInequalities(Set<Integer>[] nes, int xIndex) {
+	private static boolean removeInequalities(BitSet[] nes, int xIndex) {
 
-		final Set<Integer> others = nes[xIndex];
+		final BitSet others = nes[xIndex];
 
 		if (others == null) {
 	        return false;
         }
         else {
-			for (Integer yIndex : others) {
-				Set<Integer> s = nes[yIndex];
-				if (s == null) {
-	                throw new IllegalStateException();
-                }
-				if (!s.remove(xIndex)) {
+			for (int yIndex = others.nextSetBit(0); yIndex >= 0; yIndex = others.nextSetBit(yIndex + 1)) {
+				BitSet s = nes[yIndex];
+				if (s == null || !s.get(xIndex)) {
 	                throw new IllegalStateException();
                 }
+				s.clear(xIndex);
 			}
 			return true;
 		}
 	}
 
+	/**
+	 * A cache with at most {@link PelletOptions#MAX_DATA_RANGE_CACHE} entries that can be read and updated by several
+	 * threads without locking. Entries are marked when they are read and a thread that fills the cache removes the
+	 * entries that have not been read since the previous eviction, i.e. the clock approximation of least recently
+	 * used eviction.
+	 */
+	private static class Cache<K, V> {
+		private static class Entry<V> {
+			private final V				value;
+			private volatile boolean	used;
+
+			private Entry(V value) {
+				this.value = value;
+			}
+		}
+
+		private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<K, Entry<V>>();
+		private final AtomicBoolean evicting = new AtomicBoolean();
+		private final int maxSize = PelletOptions.MAX_DATA_RANGE_CACHE;
+
+		public void clear() {
+			map.clear();
+		}
+
+		private void evict() {
+			int excess = map.size() - maxSize;
+
+			/*
+			 * The first pass clears the marks it does not remove so the second pass is guaranteed to remove enough
+			 * entries unless other threads keep reading them
+			 */
+			for (int pass = 0; pass < 2 && excess > 0; pass++) {
+				for (Iterator<Entry<V>> i = map.values().iterator(); i.hasNext() && excess > 0;) {
+					Entry<V> e = i.next();
+					if (e.used) {
+						e.used = false;
+					}
+					else {
+						i.remove();
+						excess--;
+					}
+				}
+			}
+		}
+
+		public V get(K key) {
+			Entry<V> e = map.get(key);
+			if (e == null) {
+	            return null;
+            }
+
+			if (!e.used) {
+	            e.used = true;
+            }
+
+			return e.value;
+		}
+
+		public void put(K key, V value) {
+			if (maxSize <= 0) {
+	            return;
+            }
+
+			map.put(key, new Entry<V>(value));
+
+			if (map.size() > maxSize && evicting.compareAndSet(false, true)) {
+				try {
+					evict();
+				}
+				finally {
+					evicting.set(false);
+				}
+			}
+		}
+	}
+
 	private final Set<ATermAppl> declaredUndefined;
 	private final NamedDataRangeExpander expander;
 	private final Map<ATermAppl, ATermAppl> namedDataRanges;
 
+	/**
+	 * The D-conjunctions in the DNF of the conjunction of a set of data ranges
+	 */
+	private final Cache<Set<ATermAppl>, List<ATermAppl>> dnfCache;
+
+	/**
+	 * The normalized data range for the conjunction of a set of data ranges
+	 */
+	private final Cache<Set<ATermAppl>, DataRange<?>> rangeCache;
+
+	/**
+	 * The handling of undefined datatypes the normalized data ranges in the cache were computed with
+	 */
+	private UndefinedDatatypeHandling cachedHandling;
+
 	public DatatypeReasonerImpl() {
 		declaredUndefined = new HashSet<ATermAppl>();
 		expander = new NamedDataRangeExpander();
 		namedDataRanges = new HashMap<ATermAppl, ATermAppl>();
+		dnfCache = new Cache<Set<ATermAppl>, List<ATermAppl>>();
+		rangeCache = new Cache<Set<ATermAppl>, DataRange<?>>();
+		cachedHandling = PelletOptions.UNDEFINED_DATATYPE_HANDLING;
+	}
+
+	private boolean containedIn(Object value, List<ATermAppl> dnfDisjuncts) throws InvalidConstrainingFacetException,
+	                InvalidLiteralException, UnrecognizedDatatypeException {
+		for (ATermAppl a : dnfDisjuncts) {
+			if (containedIn(value, a)) {
+	            return true;
+            }
+		}
+		return false;
 	}
 
 	private boolean containedIn(Object value, ATermAppl dconjunction) throws InvalidConstrainingFacetException,
@@ -314,25 +421,7 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 	public boolean containsAtLeast(int n, Collection<ATermAppl> ranges) throws UnrecognizedDatatypeException,
 	                InvalidConstrainingFacetException, InvalidLiteralException {
 
-		ATermAppl and = ATermUtils.makeAnd(ATermUtils.makeList(ranges));
-		ATermAppl dnf = DNF.dnf(expander.expand(and, namedDataRanges));
-		if (ATermUtils.isOr(dnf)) {
-			List<DataRange<?>> disjuncts = new ArrayList<DataRange<?>>();
-			for (ATermList l = (ATermList) dnf.getArgument(0); !l.isEmpty(); l = l.getNext()) {
-				final DataRange<?> dr = normalizeVarRanges((ATermAppl) l.getFirst());
-				if (!dr.isEmpty()) {
-	                disjuncts.add(dr);
-                }
-			}
-
-			final DataRange<?> disjunction = getDisjunction(disjuncts);
-			return disjunction.containsAtLeast(n);
-		}
-		else {
-			final DataRange<?> dr = normalizeVarRanges(dnf);
-			return dr.containsAtLeast(n);
-		}
-
+		return getNormalizedRange(ranges).containsAtLeast(n);
 	}
 
 	public boolean declare(ATermAppl name) {
@@ -628,143 +717,38 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 
 	public boolean isSatisfiable(Collection<ATermAppl> dataranges, Object value)
 	                throws InvalidConstrainingFacetException, InvalidLiteralException, UnrecognizedDatatypeException {
-		Set<Integer> consts, vars;
-
+		/*
+		 * A single variable without inequalities is satisfiable iff its normalized data range is not empty, a single
+		 * constant iff it is contained in one of the D-conjunctions
+		 */
 		if (value == null) {
-			/*
-			 * TODO: See if code in next method can be restructured to avoid this allocation.
-			 */
-			consts = new HashSet<Integer>();
-			vars = new HashSet<Integer>(Collections.singleton(0));
-		}
-		else {
-			consts = Collections.singleton(0);
-			vars = Collections.emptySet();
-		}
-
-		ATermAppl and = ATermUtils.makeAnd(ATermUtils.makeList(dataranges));
-		ATermAppl dnf = DNF.dnf(expander.expand(and, namedDataRanges));
-		Collection<ATermAppl> dnfDisjuncts;
-		if (ATermUtils.isOr(dnf)) {
-			List<ATermAppl> disjuncts = new ArrayList<ATermAppl>();
-			for (ATermList l = (ATermList) dnf.getArgument(0); !l.isEmpty(); l = l.getNext()) {
-	            disjuncts.add((ATermAppl) l.getFirst());
-            }
-			dnfDisjuncts = disjuncts;
-		}
+	        return !getNormalizedRange(dataranges).isEmpty();
+        }
         else {
-	        dnfDisjuncts = Collections.singleton(dnf);
+	        return containedIn(value, getDNFDisjuncts(dataranges));
         }
-
-		@SuppressWarnings("unchecked")
-		final Collection<ATermAppl>[] dnfTypes = new Collection[] { dnfDisjuncts };
-
-		@SuppressWarnings("unchecked")
-		final Set<Integer>[] ne = new Set[] { Collections.<Integer> emptySet() };
-
-		return isSatisfiable(consts, vars, dnfTypes, new Object[] { value }, ne);
 	}
 
-	private boolean isSatisfiable(Set<Integer> consts, Set<Integer> vars, Collection<ATermAppl>[] dnfTypes,
-	                Object[] constValues, Set<Integer>[] ne) throws InvalidConstrainingFacetException,
-	                InvalidLiteralException, UnrecognizedDatatypeException {
-
-		/*
-		 * TODO: Remove need for consts and vars sets by using null in constValues array
-		 */
+	private boolean isSatisfiable(boolean[] isConst, DataRange<?>[] normalized, Object[] constValues, BitSet[] ne) {
 
-		final int n = dnfTypes.length;
+		final int n = normalized.length;
+		final boolean[] isVar = new boolean[n];
 
 		/*
-		 * 1. Loop and eliminate any easy, obvious unsats
+		 * Alg lines 7 - 22 (without the 12-13 or 19-20 blocks). Empty data ranges have already been rejected and the
+		 * data ranges of constants already checked.
 		 */
 		for (int i = 0; i < n; i++) {
-			final Collection<ATermAppl> drs = dnfTypes[i];
-			for (Iterator<ATermAppl> it = drs.iterator(); it.hasNext();) {
-				ATermAppl dr = it.next();
-				if (ATermUtils.BOTTOM_LIT.equals(dr)) {
-	                it.remove();
-                }
-			}
-			if (drs.isEmpty()) {
-	            return false;
+			if (isConst[i]) {
+	            continue;
             }
-		}
-
-		/*
-		 * 2. Get normalized form of data ranges
-		 */
-		DataRange<?>[] normalized = new DataRange[n];
-		for (int i = 0; i < n; i++) {
-
-			if (consts.contains(i)) {
-
-				boolean satisfied = false;
-				for (ATermAppl a : dnfTypes[i]) {
-					if (containedIn(constValues[i], a)) {
-						satisfied = true;
-						break;
-					}
-				}
-				if (satisfied) {
-	                normalized[i] = TRIVIALLY_SATISFIABLE;
-                }
-                else {
-	                return false;
-                }
-
-			}
-			else {
-
-				List<DataRange<?>> drs = new ArrayList<DataRange<?>>();
-				for (ATermAppl a : dnfTypes[i]) {
-					DataRange<?> dr = normalizeVarRanges(a);
-					if (dr == TRIVIALLY_SATISFIABLE) {
-						drs = Collections.<DataRange<?>> singletonList(TRIVIALLY_SATISFIABLE);
-						break;
-					}
-					else if (!dr.isEmpty()) {
-						drs.add(dr);
-					}
-				}
-				if (drs.isEmpty()) {
-	                return false;
-                }
-                else {
-	                normalized[i] = getDisjunction(drs);
-                }
 
-			}
-		}
-
-		/*
-		 * Alg lines 7 - 22 (without the 12-13 or 19-20 blocks)
-		 */
-		for (Iterator<Integer> it = vars.iterator(); it.hasNext();) {
-			Integer i = it.next();
 			final DataRange<?> dr = normalized[i];
 
 			/*
-			 * First half of condition 9 - 11 block
+			 * Condition 9 - 11 block
 			 */
-			if (TRIVIALLY_SATISFIABLE == dr) {
-				it.remove();
-				removeInequalities(ne, i);
-				continue;
-			}
-
-			/*
-			 * Line 15
-			 */
-			if (dr.isEmpty()) {
-	            return false;
-            }
-
-			/*
-			 * Second half of condition 9 - 11 block
-			 */
-			if (dr.containsAtLeast(inequalityCount(ne, i) + 1)) {
-				it.remove();
+			if (TRIVIALLY_SATISFIABLE == dr || dr.containsAtLeast(inequalityCount(ne, i) + 1)) {
 				removeInequalities(ne, i);
 				continue;
 			}
@@ -773,41 +757,36 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 			 * Data range is a singleton, replace variable with constant (lines 17 - 18)
 			 */
 			if (dr.isFinite() && dr.isEnumerable() && !dr.containsAtLeast(2)) {
-				final Object c = dr.valueIterator().next();
-				it.remove();
-				consts.add(i);
-				constValues[i] = c;
+				isConst[i] = true;
+				constValues[i] = dr.valueIterator().next();
 				normalized[i] = TRIVIALLY_SATISFIABLE;
 				continue;
 			}
-		}
 
-		if (log.isLoggable(Level.FINEST)) {
-			log.finest(format("After variable data range normalization %d variables and %d constants", vars.size(),
-			                consts.size()));
+			isVar[i] = true;
 		}
 
 		/*
 		 * Constant checks (alg lines 23 - 30)
 		 */
-		for (Integer i : consts) {
+		for (int i = 0; i < n; i++) {
+			final BitSet diffs = ne[i];
+			if (!isConst[i] || diffs == null) {
+	            continue;
+            }
 
 			/*
 			 * Check that any constant,constant inequalities are satisfied
 			 */
-			Set<Integer> diffs = ne[i];
-			if (diffs != null) {
-				for (Iterator<Integer> it = diffs.iterator(); it.hasNext();) {
-					final int j = it.next();
-					if (consts.contains(j)) {
-
-						if (constValues[i].equals(constValues[j])) {
-	                        return false;
-                        }
+			for (int j = diffs.nextSetBit(0); j >= 0; j = diffs.nextSetBit(j + 1)) {
+				if (isConst[j]) {
 
-						it.remove();
-						ne[j].remove(i);
-					}
+					if (constValues[i].equals(constValues[j])) {
+	                    return false;
+                    }
+
+					diffs.clear(j);
+					ne[j].clear(i);
 				}
 			}
 		}
@@ -815,30 +794,35 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 		/*
 		 * Try to eliminate any more variables that can be removed
 		 */
-		for (Iterator<Integer> it = vars.iterator(); it.hasNext();) {
-			final int i = it.next();
-
-			final DataRange<?> dr = normalized[i];
+		int varCount = 0;
+		for (int i = 0; i < n; i++) {
+			if (!isVar[i]) {
+	            continue;
+            }
 
-			final Set<Integer> diffs = ne[i];
-			final int min = (diffs == null) ? 1 : diffs.size() + 1;
-			if (dr.containsAtLeast(min)) {
-				it.remove();
-				for (int j : diffs) {
-					if (ne[j] != null) {
-	                    ne[j].remove(i);
-                    }
+			final BitSet diffs = ne[i];
+			final int min = (diffs == null) ? 1 : diffs.cardinality() + 1;
+			if (normalized[i].containsAtLeast(min)) {
+				isVar[i] = false;
+				if (diffs != null) {
+					for (int j = diffs.nextSetBit(0); j >= 0; j = diffs.nextSetBit(j + 1)) {
+						if (ne[j] != null) {
+	                        ne[j].clear(i);
+                        }
+					}
 				}
 				ne[i] = null;
-				vars.remove(i);
 			}
+            else {
+	            varCount++;
+            }
 		}
 
 		if (log.isLoggable(Level.FINEST)) {
-			log.finest(format("After size check on variable data ranges %d variables", vars.size()));
+			log.finest(format("After size check on variable data ranges %d variables", varCount));
 		}
 
-		if (vars.isEmpty()) {
+		if (varCount == 0) {
 	        return true;
         }
 
@@ -847,114 +831,106 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 		 */
 
 		/*
-		 * Partition remaining variables into disjoint collections
+		 * Partition remaining variables into disjoint collections and enumerate each until a solution is found. The
+		 * position array maps the variables in the current partition to their position in the partition and all other
+		 * nodes to -1.
 		 */
-		Set<Integer> remaining = new HashSet<Integer>(vars);
-		List<Set<Integer>> partitions = new ArrayList<Set<Integer>>();
-		while (!remaining.isEmpty()) {
-			Set<Integer> p = new HashSet<Integer>();
-			Iterator<Integer> it = remaining.iterator();
-			int i = it.next();
-			it.remove();
-			p.add(i);
-			if (ne[i] != null) {
-				Set<Integer> others = new HashSet<Integer>();
-				others.addAll(ne[i]);
-				while (!others.isEmpty()) {
-					Iterator<Integer> jt = others.iterator();
-					int j = jt.next();
-					jt.remove();
-					if (remaining.contains(j)) {
-						p.add(j);
-						remaining.remove(j);
-						if (ne[j] != null) {
-	                        others.addAll(ne[j]);
-                        }
+		final int[] partition = new int[varCount];
+		final int[] position = new int[n];
+		Arrays.fill(position, -1);
+		final boolean[] partitioned = new boolean[n];
+		for (int start = 0; start < n; start++) {
+			if (!isVar[start] || partitioned[start]) {
+	            continue;
+            }
+
+			int nPart = 0;
+			partition[nPart++] = start;
+			partitioned[start] = true;
+			for (int k = 0; k < nPart; k++) {
+				final BitSet diffs = ne[partition[k]];
+				if (diffs == null) {
+	                continue;
+                }
+				for (int j = diffs.nextSetBit(0); j >= 0; j = diffs.nextSetBit(j + 1)) {
+					if (isVar[j] && !partitioned[j]) {
+						partitioned[j] = true;
+						partition[nPart++] = j;
 					}
 				}
-
 			}
-			partitions.add(p);
-		}
 
-		if (log.isLoggable(Level.FINEST)) {
-			log.finest(format("Enumerating to find solutions for %d partitions", partitions.size()));
+			for (int k = 0; k < nPart; k++) {
+	            position[partition[k]] = k;
+            }
+
+			if (!enumerate(partition, nPart, position, normalized, constValues, ne)) {
+	            return false;
+            }
+
+			for (int k = 0; k < nPart; k++) {
+	            position[partition[k]] = -1;
+            }
 		}
 
+		return true;
+	}
+
+	/**
+	 * Enumerate the values of the variables in a partition until a solution satisfying all the inequalities is found
+	 */
+	private static boolean enumerate(int[] partition, int nPart, int[] position, DataRange<?>[] normalized,
+	                Object[] constValues, BitSet[] ne) {
+
+		Iterator<?>[] its = new Iterator[nPart];
+		for (int i = 0; i < nPart; i++) {
+            its[i] = normalized[partition[i]].valueIterator();
+        }
+
+		Object[] values = new Object[nPart];
 		/*
-		 * Enumerate until a solution is found
+		 * Assign a value to each
 		 */
-		for (Set<Integer> p : partitions) {
-			final int nPart = p.size();
-
-			int[] indices = new int[nPart];
-			Map<Integer, Integer> revInd = new HashMap<Integer, Integer>();
-			DataRange<?>[] drs = new DataRange[nPart];
-
-			int i = 0;
-			for (int j : p) {
-				drs[i] = normalized[j];
-				indices[i] = j;
-				revInd.put(j, i);
-				i++;
-			}
-
-			Iterator<?>[] its = new Iterator[nPart];
-			for (i = 0; i < nPart; i++) {
-	            its[i] = drs[i].valueIterator();
-            }
+		for (int i = 0; i < nPart; i++) {
+            values[i] = its[i].next();
+        }
 
-			Object[] values = new Object[nPart];
+		boolean solutionFound = false;
+		while (!solutionFound) {
 			/*
-			 * Assign a value to each
+			 * Check solution
 			 */
-			for (i = 0; i < nPart; i++) {
-	            values[i] = its[i].next();
-            }
+			solutionFound = true;
+			for (int i = 0; i < nPart && solutionFound; i++) {
+				final BitSet diffs = ne[partition[i]];
+				if (diffs != null) {
+					final Object a = values[i];
+					for (int j = diffs.nextSetBit(0); j >= 0; j = diffs.nextSetBit(j + 1)) {
+
+						final Object b = position[j] >= 0 ? values[position[j]] : constValues[j];
 
-			boolean solutionFound = false;
-			while (!solutionFound) {
-				/*
-				 * Check solution
-				 */
-				solutionFound = true;
-				for (i = 0; i < nPart && solutionFound; i++) {
-					Set<Integer> diffs = ne[indices[i]];
-					if (diffs != null) {
-						final Object a = values[i];
-						for (int j : diffs) {
-
-							Object b;
-							if (p.contains(j)) {
-	                            b = values[revInd.get(j)];
-                            }
-                            else {
-	                            b = constValues[j];
-                            }
-
-							if (a.equals(b)) {
-								solutionFound = false;
-								break;
-							}
+						if (a.equals(b)) {
+							solutionFound = false;
+							break;
 						}
 					}
 				}
+			}
 
-				/*
-				 * If current values are not a solution try a new solution. If no more combinations are available, fail.
-				 */
-				if (!solutionFound) {
-					i = nPart - 1;
-					while (!its[i].hasNext()) {
-						if (i == 0) {
-	                        return false;
-                        }
-						its[i] = drs[i].valueIterator();
-						values[i] = its[i].next();
-						i--;
-					}
+			/*
+			 * If current values are not a solution try a new solution. If no more combinations are available, fail.
+			 */
+			if (!solutionFound) {
+				int i = nPart - 1;
+				while (!its[i].hasNext()) {
+					if (i == 0) {
+                        return false;
+                    }
+					its[i] = normalized[partition[i]].valueIterator();
 					values[i] = its[i].next();
+					i--;
 				}
+				values[i] = its[i].next();
 			}
 		}
 
@@ -965,62 +941,50 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 	                throws InvalidConstrainingFacetException, InvalidLiteralException, UnrecognizedDatatypeException {
 
 		Literal[] literals = nodes.toArray(new Literal[0]);
+		final int n = literals.length;
 
-		// TODO: Evaluate replacing with intset or just int arrays.
-		Set<Integer> vars = new HashSet<Integer>();
-		Set<Integer> consts = new HashSet<Integer>();
-		Object[] constValues = new Object[literals.length];
+		boolean[] isConst = new boolean[n];
+		Object[] constValues = new Object[n];
+		DataRange<?>[] normalized = new DataRange[n];
 
 		Map<Literal, Integer> rev = new HashMap<Literal, Integer>();
 
-		for (int i = 0; i < literals.length; i++) {
+		/*
+		 * Get normalized form of data ranges. Constants are checked against the D-conjunctions in the DNF of their
+		 * types, of which they must satisfy at least one, and variables get the normalized data range of their types.
+		 */
+		for (int i = 0; i < n; i++) {
 			rev.put(literals[i], i);
 			if (literals[i].isNominal()) {
-				consts.add(i);
+				isConst[i] = true;
 				constValues[i] = literals[i].getValue();
+				if (!containedIn(constValues[i], getDNFDisjuncts(literals[i].getTypes()))) {
+	                return false;
+                }
+				normalized[i] = TRIVIALLY_SATISFIABLE;
 			}
             else {
-	            vars.add(i);
+				normalized[i] = getNormalizedRange(literals[i].getTypes());
+				if (normalized[i].isEmpty()) {
+	                return false;
+                }
             }
 		}
 
-		@SuppressWarnings("unchecked")
-		Set<Integer>[] ne = new Set[literals.length];
+		BitSet[] ne = new BitSet[n];
 		for (Map.Entry<Literal, Set<Literal>> e : neqs.entrySet()) {
 			int index = rev.get(e.getKey());
-			ne[index] = new HashSet<Integer>();
+			ne[index] = new BitSet(n);
 			for (Literal l : e.getValue()) {
-	            ne[index].add(rev.get(l));
+	            ne[index].set(rev.get(l));
             }
-
 		}
 
 		if (log.isLoggable(Level.FINEST)) {
-			log.finest(format("Checking satisfiability for %d variables and %d constants", vars.size(), consts.size()));
-		}
-
-		/*
-		 * 1. Get to DNF. After this step <code>dnfMap</code> associates literals with a collection of D-conjunctions,
-		 * of which it must satisfy at least one to be generally satisfied.
-		 */
-		@SuppressWarnings("unchecked")
-		Collection<ATermAppl>[] dnfs = new Collection[literals.length];
-		for (int i = 0; i < literals.length; i++) {
-			ATermAppl and = ATermUtils.makeAnd(ATermUtils.makeList(literals[i].getTypes()));
-			ATermAppl dnf = DNF.dnf(expander.expand(and, namedDataRanges));
-			if (ATermUtils.isOr(dnf)) {
-				List<ATermAppl> disjuncts = new ArrayList<ATermAppl>();
-				for (ATermList l = (ATermList) dnf.getArgument(0); !l.isEmpty(); l = l.getNext()) {
-	                disjuncts.add((ATermAppl) l.getFirst());
-                }
-				dnfs[i] = disjuncts;
-			}
-            else {
-	            dnfs[i] = Collections.singleton(dnf);
-            }
+			log.finest(format("Checking satisfiability for %d literals", n));
 		}
 
-		return isSatisfiable(consts, vars, dnfs, constValues, ne);
+		return isSatisfiable(isConst, normalized, constValues, ne);
 	}
 
 	public boolean define(ATermAppl name, ATermAppl datarange) {
@@ -1035,9 +999,88 @@ public class DatatypeReasonerImpl implements DatatypeReasoner {
 		namedDataRanges.put(name, datarange);
 		declaredUndefined.remove(name);
 
+		dnfCache.clear();
+		rangeCache.clear();
+
 		return true;
 	}
 
+	/**
+	 * Returns the D-conjunctions in the DNF of the conjunction of the given data ranges after named data ranges are
+	 * expanded. D-conjunctions that are trivially unsatisfiable are not included in the result.
+	 */
+	private List<ATermAppl> getDNFDisjuncts(Set<ATermAppl> key, Collection<ATermAppl> dataranges) {
+		List<ATermAppl> disjuncts = dnfCache.get(key);
+		if (disjuncts == null) {
+			ATermAppl and = ATermUtils.makeAnd(ATermUtils.makeList(dataranges));
+			ATermAppl dnf = DNF.dnf(expander.expand(and, namedDataRanges));
+			disjuncts = new ArrayList<ATermAppl>();
+			if (ATermUtils.isOr(dnf)) {
+				for (ATermList l = (ATermList) dnf.getArgument(0); !l.isEmpty(); l = l.getNext()) {
+					ATermAppl disjunct = (ATermAppl) l.getFirst();
+					if (!ATermUtils.BOTTOM_LIT.equals(disjunct)) {
+	                    disjuncts.add(disjunct);
+                    }
+				}
+			}
+			else if (!ATermUtils.BOTTOM_LIT.equals(dnf)) {
+	            disjuncts.add(dnf);
+            }
+
+			disjuncts = Collections.unmodifiableList(disjuncts);
+			dnfCache.put(new HashSet<ATermAppl>(key), disjuncts);
+		}
+
+		return disjuncts;
+	}
+
+	private List<ATermAppl> getDNFDisjuncts(Collection<ATermAppl> dataranges) {
+		return getDNFDisjuncts(getKey(dataranges), dataranges);
+	}
+
+	/**
+	 * Returns the set of the given data ranges to look up the caches. The given collection is used without a copy if
+	 * it is a set so the key is copied when a cache entry is added.
+	 */
+	private static Set<ATermAppl> getKey(Collection<ATermAppl> dataranges) {
+		return dataranges instanceof Set
+		                ? (Set<ATermAppl>) dataranges
+		                : new HashSet<ATermAppl>(dataranges);
+	}
+
+	/**
+	 * Returns the normalized data range for the conjunction of the given data ranges, i.e. the disjunction of the
+	 * non-empty normalized D-conjunctions in its DNF. Returns an empty data range if there are no such D-conjunctions.
+	 */
+	private DataRange<?> getNormalizedRange(Collection<ATermAppl> dataranges) throws InvalidConstrainingFacetException,
+	                InvalidLiteralException, UnrecognizedDatatypeException {
+		if (cachedHandling != PelletOptions.UNDEFINED_DATATYPE_HANDLING) {
+			rangeCache.clear();
+			cachedHandling = PelletOptions.UNDEFINED_DATATYPE_HANDLING;
+		}
+
+		Set<ATermAppl> key = getKey(dataranges);
+		DataRange<?> range = rangeCache.get(key);
+		if (range == null) {
+			List<DataRange<?>> drs = new ArrayList<DataRange<?>>();
+			for (ATermAppl a : getDNFDisjuncts(key, dataranges)) {
+				DataRange<?> dr = normalizeVarRanges(a);
+				if (dr == TRIVIALLY_SATISFIABLE) {
+					drs = Collections.<DataRange<?>> singletonList(TRIVIALLY_SATISFIABLE);
+					break;
+				}
+				else if (!dr.isEmpty()) {
+					drs.add(dr);
+				}
+			}
+
+			range = drs.isEmpty() ? EMPTY_RANGE : getDisjunction(drs);
+			rangeCache.put(new HashSet<ATermAppl>(key), range);
+		}
+
+		return range;
+	}
+
 	private DataRange<?> normalizeVarRanges(ATermAppl dconjunction) throws InvalidConstrainingFacetException,
 	                InvalidLiteralException, UnrecognizedDatatypeException {
 
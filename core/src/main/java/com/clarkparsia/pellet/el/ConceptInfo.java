@@ -6,7 +6,9 @@
 
 package com.clarkparsia.pellet.el;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -79,6 +81,20 @@ class ConceptInfo {
 		return triggers.add(trigger);
 	}
 
+	/**
+	 * Removes all the super classes, links and triggers of this concept.
+	 */
+	public void clear() {
+		superClasses.clear();
+		predecessors.clear();
+		if( successors != null ) {
+			successors.clear();
+		}
+		if( triggers != null ) {
+			triggers.clear();
+		}
+	}
+
 	@Override
     public boolean equals(Object obj) {
 		return (obj instanceof ConceptInfo) && ((ConceptInfo) obj).concept == concept;
@@ -96,6 +112,20 @@ class ConceptInfo {
 		return predecessors;
 	}
 
+	/**
+	 * Removes the given concepts from the predecessors of this concept.
+	 */
+	public void removePredecessors(Collection<ConceptInfo> cis) {
+		Iterator<Set<ConceptInfo>> i = predecessors.values().iterator();
+		while( i.hasNext() ) {
+			Set<ConceptInfo> preds = i.next();
+			preds.removeAll( cis );
+			if( preds.isEmpty() ) {
+				i.remove();
+			}
+		}
+	}
+
 	public Set<ConceptInfo> getSuperClasses() {
 		return superClasses;
 	}
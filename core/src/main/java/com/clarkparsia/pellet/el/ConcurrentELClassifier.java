@@ -0,0 +1,861 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.pellet.el;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.Role;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
+import org.mindswap.pellet.taxonomy.CDOptimizedTaxonomyBuilder;
+import org.mindswap.pellet.taxonomy.Taxonomy;
+import org.mindswap.pellet.taxonomy.TaxonomyBuilder;
+import org.mindswap.pellet.utils.ATermUtils;
+import org.mindswap.pellet.utils.MultiValueMap;
+import org.mindswap.pellet.utils.Timer;
+import org.mindswap.pellet.utils.Timers;
+import org.mindswap.pellet.utils.intset.ArrayIntSet;
+import org.mindswap.pellet.utils.intset.IntIterator;
+
+import aterm.AFun;
+import aterm.ATermAppl;
+import aterm.ATermList;
+
+import com.clarkparsia.pellet.utils.CollectionUtils;
+import com.clarkparsia.pellet.utils.ExecutorUtils;
+import com.clarkparsia.pellet.utils.TermFactory;
+
+/**
+ * <p>
+ * Title: Concurrent EL Classifier
+ * </p>
+ * <p>
+ * Description: An EL classifier that computes the same subsumptions as
+ * {@link SimplifiedELClassifier} with compact data structures and multiple
+ * threads. Concepts and roles are identified by dense integer ids, the told
+ * structure of concepts is stored in integer arrays, and the subsumers of a
+ * concept are stored in sorted integer arrays.
+ * </p>
+ * <p>
+ * Saturation is done on contexts which exist only for named classes and the
+ * fillers of existential restrictions. Each context has a queue of
+ * conclusions, i.e. new subsumers and links to other contexts, and is
+ * processed by at most one thread at a time so the data of a context is only
+ * modified by the thread that processes the context. Rules that derive
+ * conclusions for other contexts add the conclusions to the queue of those
+ * contexts and activate them. Saturation is complete when there are no
+ * unprocessed conclusions left.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class ConcurrentELClassifier extends CDOptimizedTaxonomyBuilder implements TaxonomyBuilder {
+	public static final Logger		logger			= Logger.getLogger( ConcurrentELClassifier.class.getName() );
+
+	private static final int		SUBSUMER		= 0;
+	private static final int		FORWARD_LINK	= 1;
+	private static final int		BACKWARD_LINK	= 2;
+
+	private static final int[]		EMPTY			= new int[0];
+
+	private static ExecutorService	executor;
+
+	private static synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			executor = ExecutorUtils.newDaemonThreadPool( PelletOptions.EL_CLASSIFIER_THREADS, "pellet-el" );
+		}
+
+		return executor;
+	}
+
+	/**
+	 * A conclusion waiting to be processed in a context. For a subsumer only
+	 * the concept is used, for a link the concept is the context on the other
+	 * end of the link.
+	 */
+	private static class Conclusion {
+		private final int	type;
+		private final int	role;
+		private final int	concept;
+
+		public Conclusion(int type, int role, int concept) {
+			this.type = type;
+			this.role = role;
+			this.concept = concept;
+		}
+	}
+
+	/**
+	 * Links of a context grouped by role. Roles are searched linearly since
+	 * a context is typically linked with only a few roles.
+	 */
+	private static class LinkTable {
+		private int[]			roles		= EMPTY;
+		private ArrayIntSet[]	targets		= new ArrayIntSet[0];
+		private int				size		= 0;
+
+		public boolean add(int role, int target) {
+			int index = indexOf( role );
+			if( index < 0 ) {
+				if( size == roles.length ) {
+					int capacity = size * 2 + 1;
+					roles = Arrays.copyOf( roles, capacity );
+					targets = Arrays.copyOf( targets, capacity );
+				}
+				index = size++;
+				roles[index] = role;
+				targets[index] = new ArrayIntSet();
+			}
+			else if( targets[index].contains( target ) ) {
+				return false;
+			}
+
+			targets[index].add( target );
+
+			return true;
+		}
+
+		private int indexOf(int role) {
+			for( int i = 0; i < size; i++ ) {
+				if( roles[i] == role )
+					return i;
+			}
+
+			return -1;
+		}
+	}
+
+	private class Context {
+		private final int						id;
+		private final ArrayIntSet				superClasses;
+		private final LinkTable					predecessors;
+		private final LinkTable					successors;
+		private final Queue<Conclusion>			todo;
+		private final AtomicBoolean				active;
+
+		public Context(int id) {
+			this.id = id;
+
+			superClasses = new ArrayIntSet();
+			predecessors = new LinkTable();
+			successors = hasComplexRoles
+				? new LinkTable()
+				: null;
+			todo = new ConcurrentLinkedQueue<Conclusion>();
+			active = new AtomicBoolean();
+		}
+	}
+
+	public final Timers						timers	= new Timers();
+
+	private boolean							hasComplexRoles;
+
+	private RoleChainCache					roleChains;
+	private RoleRestrictionCache			roleRestrictions;
+
+	private Map<ATermAppl, Integer>			conceptIds;
+	private List<ATermAppl>					conceptList;
+	private List<ArrayIntSet>				toldList;
+	private List<ArrayIntSet>				conjunctionList;
+	private Set<Integer>					fillers;
+
+	private Map<ATermAppl, Integer>			roleIds;
+	private List<ATermAppl>					roleList;
+
+	private int								TOP;
+	private int								BOTTOM;
+
+	/**
+	 * Concepts indexed by id
+	 */
+	private ATermAppl[]						concepts;
+
+	/**
+	 * Told subsumers of each concept including the conjuncts of conjunctions
+	 */
+	private int[][]							toldSupers;
+
+	/**
+	 * Conjuncts of each conjunction, empty for other concepts
+	 */
+	private int[][]							conjuncts;
+
+	/**
+	 * Conjunctions each concept occurs in
+	 */
+	private int[][]							conjunctionsOf;
+
+	/**
+	 * Role of each existential restriction, -1 for other concepts
+	 */
+	private int[]							existentialRoles;
+
+	/**
+	 * Filler of each existential restriction, -1 for other concepts
+	 */
+	private int[]							existentialFillers;
+
+	/**
+	 * Existential restrictions each concept is the filler of
+	 */
+	private int[][]							existentialsOf;
+
+	/**
+	 * Super roles of each role, including itself, as a sorted array
+	 */
+	private int[][]							superRoles;
+
+	/**
+	 * Domain concept of each role, -1 if there is no domain
+	 */
+	private int[]							domains;
+
+	/**
+	 * Super roles of binary role chains keyed by the pair of role ids
+	 */
+	private Map<Long, int[]>				chains;
+
+	private Context[]						contexts;
+
+	private Queue<Context>					activeContexts;
+	private AtomicInteger					pending;
+	private volatile boolean				failed;
+
+	public ConcurrentELClassifier() {
+	}
+
+	@Override
+	protected void reset() {
+		super.reset();
+
+		hasComplexRoles = kb.getExpressivity().hasTransitivity()
+				|| kb.getExpressivity().hasComplexSubRoles();
+
+		roleChains = new RoleChainCache( kb );
+		roleRestrictions = new RoleRestrictionCache( kb.getRBox() );
+
+		conceptIds = CollectionUtils.makeMap();
+		conceptList = new ArrayList<ATermAppl>();
+		toldList = new ArrayList<ArrayIntSet>();
+		conjunctionList = new ArrayList<ArrayIntSet>();
+		fillers = CollectionUtils.makeSet();
+
+		roleIds = CollectionUtils.makeMap();
+		roleList = new ArrayList<ATermAppl>();
+
+		chains = new HashMap<Long, int[]>();
+
+		activeContexts = new ConcurrentLinkedQueue<Context>();
+		pending = new AtomicInteger();
+		failed = false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean classify() {
+		logger.fine( "Reset" );
+		reset();
+
+		Timer t = timers.startTimer( "createConcepts" );
+		logger.fine( "Creating structures" );
+		createConcepts();
+		createRoles();
+		createContexts();
+		logger.fine( "Created structures" );
+		t.stop();
+
+		monitor.setProgressTitle( "Classifiying" );
+		monitor.setProgressLength( contexts.length );
+		monitor.taskStarted();
+
+		logger.fine( "Saturating" );
+		t = timers.startTimer( "saturate" );
+		saturate();
+		t.stop();
+		logger.fine( "Saturated" );
+
+		monitor.setProgress( contexts.length );
+
+		logger.fine( "Building hierarchy" );
+		t = timers.startTimer( "buildHierarchy" );
+
+		taxonomy = new ELTaxonomyBuilder().build( createConceptInfos() );
+
+		t.stop();
+		logger.fine( "Builded hierarchy" );
+
+		monitor.taskFinished();
+
+		return true;
+	}
+
+	private int newConcept(ATermAppl c) {
+		int id = conceptList.size();
+
+		conceptIds.put( c, id );
+		conceptList.add( c );
+		toldList.add( new ArrayIntSet() );
+		conjunctionList.add( new ArrayIntSet() );
+
+		return id;
+	}
+
+	private int createConcept(ATermAppl c) {
+		Integer id = conceptIds.get( c );
+		if( id != null )
+			return id;
+
+		if( ATermUtils.isAnd( c ) ) {
+			int and = newConcept( c );
+
+			ATermList list = (ATermList) c.getArgument( 0 );
+			for( ; !list.isEmpty(); list = list.getNext() ) {
+				int conj = createConcept( (ATermAppl) list.getFirst() );
+
+				toldList.get( and ).add( conj );
+				conjunctionList.get( conj ).add( and );
+			}
+
+			return and;
+		}
+		else if( ATermUtils.isSomeValues( c ) ) {
+			ATermAppl p = (ATermAppl) c.getArgument( 0 );
+			ATermAppl q = (ATermAppl) c.getArgument( 1 );
+
+			if( ATermUtils.isInv( p ) )
+				throw new UnsupportedOperationException( "Anonmyous inverse found in restriction: "
+						+ ATermUtils.toString( c ) );
+
+			ATermAppl range = roleRestrictions.getRange( p );
+			if( range != null ) {
+				ATermAppl newQ = ATermUtils.makeSimplifiedAnd( Arrays.asList( range, q ) );
+				if( !newQ.equals( q ) ) {
+					int some = createConcept( ATermUtils.makeSomeValues( p, newQ ) );
+					conceptIds.put( c, some );
+					return some;
+				}
+			}
+
+			createRole( p );
+			fillers.add( createConcept( q ) );
+
+			return newConcept( c );
+		}
+		else {
+			return newConcept( c );
+		}
+	}
+
+	private int createRole(ATermAppl p) {
+		Integer id = roleIds.get( p );
+		if( id == null ) {
+			id = roleList.size();
+			roleIds.put( p, id );
+			roleList.add( p );
+		}
+
+		return id;
+	}
+
+	private void createConceptsFromAxiom(ATermAppl sub, ATermAppl sup) {
+		int subId = createConcept( sub );
+		int supId = createConcept( sup );
+
+		toldList.get( subId ).add( supId );
+	}
+
+	private void createDisjointAxiom(ATermAppl c1, ATermAppl c2) {
+		createConcept( c1 );
+		createConcept( c2 );
+
+		ATermAppl and = ATermUtils.makeSimplifiedAnd( Arrays.asList( c1, c2 ) );
+		createConceptsFromAxiom( and, ATermUtils.BOTTOM );
+	}
+
+	private void processAxiom(ATermAppl axiom) {
+		AFun fun = axiom.getAFun();
+
+		if( fun.equals( ATermUtils.DISJOINTSFUN ) ) {
+			ATermList concepts = (ATermList) axiom.getArgument( 0 );
+			int n = concepts.getLength();
+			ATermAppl[] simplified = new ATermAppl[n];
+			for( int i = 0; !concepts.isEmpty(); concepts = concepts.getNext(), i++ ) {
+				simplified[i] = ELSyntaxUtils.simplify( (ATermAppl) concepts.getFirst() );
+			}
+			for( int i = 0; i < n - 1; i++ ) {
+				for( int j = i + 1; j < n; j++ ) {
+					createDisjointAxiom( simplified[i], simplified[j] );
+				}
+			}
+		}
+		else {
+			ATermAppl sub = ELSyntaxUtils.simplify( (ATermAppl) axiom.getArgument( 0 ) );
+			ATermAppl sup = ELSyntaxUtils.simplify( (ATermAppl) axiom.getArgument( 1 ) );
+
+			if( fun.equals( ATermUtils.SUBFUN ) ) {
+				createConceptsFromAxiom( sub, sup );
+			}
+			else if( fun.equals( ATermUtils.EQCLASSFUN ) ) {
+				createConceptsFromAxiom( sub, sup );
+				createConceptsFromAxiom( sup, sub );
+			}
+			else if( fun.equals( ATermUtils.DISJOINTFUN ) ) {
+				createDisjointAxiom( sub, sup );
+			}
+			else {
+				throw new IllegalArgumentException( "Axiom " + axiom + " is not EL." );
+			}
+		}
+	}
+
+	private void createConcepts() {
+		TOP = createConcept( ATermUtils.TOP );
+		BOTTOM = createConcept( ATermUtils.BOTTOM );
+
+		for( ATermAppl c : kb.getClasses() ) {
+			createConcept( c );
+		}
+
+		for( ATermAppl axiom : kb.getTBox().getAssertedAxioms() ) {
+			processAxiom( axiom );
+		}
+
+		for( Role role : kb.getRBox().getRoles() ) {
+			if( role.isReflexive() ) {
+				ATermAppl range = roleRestrictions.getRange( role.getName() );
+				if( range != null ) {
+					createConceptsFromAxiom( ATermUtils.TOP, range );
+				}
+			}
+		}
+
+		for( ATermAppl c : roleRestrictions.getRanges().values() ) {
+			createConcept( c );
+		}
+
+		for( ATermAppl c : roleRestrictions.getDomains().values() ) {
+			createConcept( c );
+		}
+
+		int n = conceptList.size();
+		concepts = conceptList.toArray( new ATermAppl[n] );
+		toldSupers = new int[n][];
+		conjuncts = new int[n][];
+		conjunctionsOf = new int[n][];
+		existentialRoles = new int[n];
+		existentialFillers = new int[n];
+
+		List<ArrayIntSet> existentialList = new ArrayList<ArrayIntSet>( n );
+		for( int i = 0; i < n; i++ ) {
+			existentialList.add( null );
+		}
+
+		for( int i = 0; i < n; i++ ) {
+			ATermAppl c = concepts[i];
+
+			toldSupers[i] = toArray( toldList.get( i ) );
+			conjunctionsOf[i] = toArray( conjunctionList.get( i ) );
+			conjuncts[i] = ATermUtils.isAnd( c )
+				? conjunctsOf( c )
+				: EMPTY;
+
+			if( ATermUtils.isSomeValues( c ) ) {
+				int filler = conceptIds.get( c.getArgument( 1 ) );
+
+				existentialRoles[i] = roleIds.get( c.getArgument( 0 ) );
+				existentialFillers[i] = filler;
+
+				ArrayIntSet existentials = existentialList.get( filler );
+				if( existentials == null ) {
+					existentials = new ArrayIntSet();
+					existentialList.set( filler, existentials );
+				}
+				existentials.add( i );
+			}
+			else {
+				existentialRoles[i] = -1;
+				existentialFillers[i] = -1;
+			}
+		}
+
+		existentialsOf = new int[n][];
+		for( int i = 0; i < n; i++ ) {
+			existentialsOf[i] = toArray( existentialList.get( i ) );
+		}
+
+		conceptList = null;
+		toldList = null;
+		conjunctionList = null;
+	}
+
+	private int[] conjunctsOf(ATermAppl and) {
+		ATermList list = (ATermList) and.getArgument( 0 );
+		int[] result = new int[list.getLength()];
+		for( int i = 0; !list.isEmpty(); list = list.getNext(), i++ ) {
+			result[i] = conceptIds.get( list.getFirst() );
+		}
+
+		return result;
+	}
+
+	private void createRoles() {
+		for( Role role : kb.getRBox().getRoles() ) {
+			if( !role.isAnon() )
+				createRole( role.getName() );
+		}
+
+		for( Entry<ATermAppl, MultiValueMap<ATermAppl, ATermAppl>> entry : roleChains
+				.getRoleInclusions().entrySet() ) {
+			int r1 = createRole( entry.getKey() );
+			for( Entry<ATermAppl, Set<ATermAppl>> inner : entry.getValue().entrySet() ) {
+				int r2 = createRole( inner.getKey() );
+
+				ArrayIntSet sups = new ArrayIntSet();
+				for( ATermAppl sup : inner.getValue() ) {
+					sups.add( createRole( sup ) );
+				}
+
+				chains.put( pair( r1, r2 ), toArray( sups ) );
+			}
+		}
+
+		int n = roleList.size();
+		superRoles = new int[n][];
+		domains = new int[n];
+
+		for( int i = 0; i < n; i++ ) {
+			ATermAppl p = roleList.get( i );
+
+			ArrayIntSet sups = new ArrayIntSet();
+			sups.add( i );
+			Role role = kb.getRole( p );
+			if( role != null ) {
+				for( Role sup : role.getSuperRoles() ) {
+					Integer id = roleIds.get( sup.getName() );
+					if( id != null )
+						sups.add( id );
+				}
+			}
+			superRoles[i] = toArray( sups );
+
+			ATermAppl domain = roleRestrictions.getDomain( p );
+			domains[i] = domain == null
+				? -1
+				: conceptIds.get( domain );
+		}
+	}
+
+	private void createContexts() {
+		contexts = new Context[concepts.length];
+		for( int i = 0; i < concepts.length; i++ ) {
+			if( ATermUtils.isPrimitive( concepts[i] ) || fillers.contains( i ) ) {
+				contexts[i] = new Context( i );
+			}
+		}
+		fillers = null;
+	}
+
+	private static int[] toArray(ArrayIntSet set) {
+		if( set == null || set.isEmpty() )
+			return EMPTY;
+
+		int[] result = new int[set.size()];
+		IntIterator i = set.iterator();
+		for( int j = 0; i.hasNext(); j++ ) {
+			result[j] = i.next();
+		}
+
+		return result;
+	}
+
+	private static Long pair(int r1, int r2) {
+		return (((long) r1) << 32) | r2;
+	}
+
+	private void saturate() {
+		for( Context context : contexts ) {
+			if( context != null ) {
+				send( context, SUBSUMER, -1, context.id );
+				send( context, SUBSUMER, -1, TOP );
+			}
+		}
+
+		int threads = PelletOptions.EL_CLASSIFIER_THREADS;
+		if( threads <= 1 ) {
+			work();
+			return;
+		}
+
+		List<Future<Object>> results = new ArrayList<Future<Object>>( threads );
+		for( int i = 0; i < threads; i++ ) {
+			results.add( getExecutor().submit( new Callable<Object>() {
+				public Object call() {
+					try {
+						work();
+					} catch( RuntimeException e ) {
+						failed = true;
+						throw e;
+					}
+					return null;
+				}
+			} ) );
+		}
+
+		try {
+			for( Future<Object> result : results ) {
+				result.get();
+			}
+		} catch( InterruptedException e ) {
+			throw new TimerInterruptedException( e );
+		} catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			throw new InternalReasonerException( cause );
+		} finally {
+			failed = true;
+			for( Future<Object> result : results )
+				result.cancel( true );
+		}
+	}
+
+	/**
+	 * Processes active contexts until all conclusions are processed.
+	 */
+	private void work() {
+		while( !failed ) {
+			Context context = activeContexts.poll();
+			if( context != null ) {
+				process( context );
+			}
+			else if( pending.get() == 0 ) {
+				return;
+			}
+			else {
+				Thread.yield();
+			}
+		}
+	}
+
+	private void send(Context context, int type, int role, int concept) {
+		pending.incrementAndGet();
+		context.todo.add( new Conclusion( type, role, concept ) );
+
+		if( context.active.compareAndSet( false, true ) ) {
+			activeContexts.add( context );
+		}
+	}
+
+	private void process(Context context) {
+		Conclusion conclusion;
+		while( (conclusion = context.todo.poll()) != null ) {
+			switch ( conclusion.type ) {
+			case SUBSUMER:
+				addSuperClass( context, conclusion.concept );
+				break;
+			case FORWARD_LINK:
+				addSuccessor( context, conclusion.role, conclusion.concept );
+				break;
+			case BACKWARD_LINK:
+				addPredecessor( context, conclusion.role, conclusion.concept );
+				break;
+			default:
+				throw new InternalReasonerException( "Unknown conclusion type " + conclusion.type );
+			}
+
+			pending.decrementAndGet();
+		}
+
+		context.active.set( false );
+
+		// conclusions added after the queue was found empty but before the
+		// context is deactivated would not be processed otherwise
+		if( !context.todo.isEmpty() && context.active.compareAndSet( false, true ) ) {
+			activeContexts.add( context );
+		}
+	}
+
+	private void addSuperClass(Context context, int sup) {
+		if( context.superClasses.contains( sup ) )
+			return;
+
+		context.superClasses.add( sup );
+
+		for( int told : toldSupers[sup] ) {
+			send( context, SUBSUMER, -1, told );
+		}
+
+		for( int and : conjunctionsOf[sup] ) {
+			if( hasAll( context, conjuncts[and] ) ) {
+				send( context, SUBSUMER, -1, and );
+			}
+		}
+
+		if( existentialRoles[sup] >= 0 ) {
+			send( context, FORWARD_LINK, existentialRoles[sup], existentialFillers[sup] );
+		}
+
+		LinkTable preds = context.predecessors;
+		for( int i = 0; i < preds.size; i++ ) {
+			int role = preds.roles[i];
+			IntIterator j = preds.targets[i].iterator();
+			while( j.hasNext() ) {
+				Context pred = contexts[j.next()];
+				if( sup == BOTTOM )
+					send( pred, SUBSUMER, -1, BOTTOM );
+				else
+					propagateExistentials( pred, role, sup );
+			}
+		}
+	}
+
+	private void addSuccessor(Context context, int role, int succ) {
+		if( hasComplexRoles && !context.successors.add( role, succ ) )
+			return;
+
+		send( contexts[succ], BACKWARD_LINK, role, context.id );
+
+		if( domains[role] >= 0 ) {
+			send( context, SUBSUMER, -1, domains[role] );
+		}
+
+		if( hasComplexRoles ) {
+			LinkTable preds = context.predecessors;
+			for( int i = 0; i < preds.size; i++ ) {
+				int[] sups = chains.get( pair( preds.roles[i], role ) );
+				if( sups == null )
+					continue;
+
+				IntIterator j = preds.targets[i].iterator();
+				while( j.hasNext() ) {
+					Context pred = contexts[j.next()];
+					for( int sup : sups ) {
+						send( pred, FORWARD_LINK, sup, succ );
+					}
+				}
+			}
+		}
+	}
+
+	private void addPredecessor(Context context, int role, int pred) {
+		if( !context.predecessors.add( role, pred ) )
+			return;
+
+		Context predContext = contexts[pred];
+
+		IntIterator i = context.superClasses.iterator();
+		while( i.hasNext() ) {
+			int sup = i.next();
+			if( sup == BOTTOM )
+				send( predContext, SUBSUMER, -1, BOTTOM );
+			else
+				propagateExistentials( predContext, role, sup );
+		}
+
+		if( hasComplexRoles ) {
+			LinkTable succs = context.successors;
+			for( int j = 0; j < succs.size; j++ ) {
+				int[] sups = chains.get( pair( role, succs.roles[j] ) );
+				if( sups == null )
+					continue;
+
+				IntIterator k = succs.targets[j].iterator();
+				while( k.hasNext() ) {
+					int succ = k.next();
+					for( int sup : sups ) {
+						send( predContext, FORWARD_LINK, sup, succ );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the existential restrictions <code>some(s, filler)</code> where
+	 * <code>s</code> is a super role of the given role to the predecessor.
+	 */
+	private void propagateExistentials(Context pred, int role, int filler) {
+		for( int some : existentialsOf[filler] ) {
+			if( Arrays.binarySearch( superRoles[role], existentialRoles[some] ) >= 0 ) {
+				send( pred, SUBSUMER, -1, some );
+			}
+		}
+	}
+
+	private boolean hasAll(Context context, int[] list) {
+		for( int c : list ) {
+			if( !context.superClasses.contains( c ) )
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Creates the {@link ConceptInfo} objects {@link ELTaxonomyBuilder} uses
+	 * for the named classes with only the named subsumers.
+	 */
+	private Map<ATermAppl, ConceptInfo> createConceptInfos() {
+		Map<ATermAppl, ConceptInfo> infos = CollectionUtils.makeMap();
+		ConceptInfo[] infoArray = new ConceptInfo[concepts.length];
+
+		for( Context context : contexts ) {
+			if( context != null && ATermUtils.isPrimitive( concepts[context.id] ) ) {
+				ConceptInfo info = new ConceptInfo( concepts[context.id], false, true );
+				infoArray[context.id] = info;
+				infos.put( info.getConcept(), info );
+			}
+		}
+
+		for( Context context : contexts ) {
+			ConceptInfo info = context == null
+				? null
+				: infoArray[context.id];
+			if( info == null )
+				continue;
+
+			IntIterator i = context.superClasses.iterator();
+			while( i.hasNext() ) {
+				ConceptInfo sup = infoArray[i.next()];
+				if( sup != null )
+					info.addSuperClass( sup );
+			}
+		}
+
+		return infos;
+	}
+
+	@Override
+	public Map<ATermAppl, Set<ATermAppl>> getToldDisjoints() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	public Taxonomy<ATermAppl> getToldTaxonomy() {
+		return new Taxonomy<ATermAppl>( kb.getTBox().getClasses(), TermFactory.TOP, TermFactory.BOTTOM );
+	}
+}
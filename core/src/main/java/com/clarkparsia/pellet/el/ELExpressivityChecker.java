@@ -209,4 +209,20 @@ public class ELExpressivityChecker extends ProfileBasedExpressivityChecker {
     public boolean updateWith(Expressivity expressivity, ATermAppl term) {
 		return false;
 	}
+
+	@Override
+	public boolean updateWith(Expressivity expressivity, Collection<ATermAppl> types,
+			boolean classesChanged, boolean rolesChanged) {
+		m_Expressivity = expressivity;
+
+		for( ATermAppl term : types ) {
+			if( !isEL( term ) )
+				return false;
+		}
+		if( classesChanged && !processClasses() )
+			return false;
+		if( rolesChanged && !processRoles() )
+			return false;
+		return true;
+	}
 }
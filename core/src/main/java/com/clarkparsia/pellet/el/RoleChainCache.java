@@ -86,6 +86,14 @@ public class RoleChainCache {
 		return superRoles;
 	}	
 	
+	/**
+	 * Returns the binary role inclusions <code>r1 o r2 -> r</code> as a map
+	 * from <code>r1</code> to a map from <code>r2</code> to the super roles.
+	 */
+	public Map<ATermAppl, MultiValueMap<ATermAppl, ATermAppl>> getRoleInclusions() {
+		return m_BinaryRoleInclusions;
+	}
+	
 	private ATermAppl createSuperRoleFor(ATermAppl r1, ATermAppl r2) {
 		Set<ATermAppl> superRoles = getAllSuperRoles(r1, r2);
 		if (superRoles.isEmpty()) {
@@ -6,7 +6,6 @@
 
 package com.clarkparsia.pellet.el;
 
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -24,7 +23,10 @@ import com.clarkparsia.pellet.utils.CollectionUtils;
  * Title: 
  * </p>
  * <p>
- * Description: 
+ * Description: Caches the domain and range of each role as a single EL
+ * concept. The domains and ranges asserted for the super roles of a role are
+ * included so the classifiers do not need to walk the role hierarchy when a
+ * link is created.
  * </p>
  * <p>
  * Copyright: Copyright (c) 2008
@@ -48,15 +50,26 @@ public class RoleRestrictionCache {
 
 	private void prepareDomainsRanges(RBox rbox) {
 		for (Role role : rbox.getRoles()) {
-			Iterator<ATermAppl> assertedDomains = rbox.getAssertedDomains(role);
-			if (assertedDomains.hasNext()) {
-				addTo(m_Domains, role.getName(), IteratorUtils.toSet(assertedDomains));
+			if (role.isAnon()) {
+				continue;
 			}
 			
-			Iterator<ATermAppl> assertedRanges = rbox.getAssertedRanges(role);
-			if (assertedRanges.hasNext()) {
-				addTo(m_Ranges, role.getName(), IteratorUtils.toSet(assertedRanges));
+			Set<ATermAppl> domains = CollectionUtils.makeSet();
+			Set<ATermAppl> ranges = CollectionUtils.makeSet();
+			
+			domains.addAll(IteratorUtils.toSet(rbox.getAssertedDomains(role)));
+			ranges.addAll(IteratorUtils.toSet(rbox.getAssertedRanges(role)));
+			for (Role superRole : role.getSuperRoles()) {
+				if (superRole.isAnon()) {
+					continue;
+				}
+				
+				domains.addAll(IteratorUtils.toSet(rbox.getAssertedDomains(superRole)));
+				ranges.addAll(IteratorUtils.toSet(rbox.getAssertedRanges(superRole)));
 			}
+			
+			addTo(m_Domains, role.getName(), domains);
+			addTo(m_Ranges, role.getName(), ranges);
 		}
 	}
 
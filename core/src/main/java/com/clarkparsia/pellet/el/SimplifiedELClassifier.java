@@ -6,11 +6,14 @@
 
 package com.clarkparsia.pellet.el;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -84,6 +87,22 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 	private RoleChainCache							roleChains;
 	private RoleRestrictionCache					roleRestrictions;
 
+	/**
+	 * Axioms and classes the current saturation was computed for
+	 */
+	private Set<ATermAppl>							processedAxioms;
+	private Set<ATermAppl>							processedClasses;
+
+	private boolean									updateRequested;
+
+	/**
+	 * Concepts created and subsumptions asserted while processing the axioms
+	 * added since the last classification, <code>null</code> when the
+	 * classifier is not updating a previous saturation
+	 */
+	private List<ConceptInfo>						newConcepts;
+	private List<ConceptInfo[]>						newSubsumptions;
+
 	public SimplifiedELClassifier() {
 	}
 	
@@ -103,6 +122,27 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 		
 		roleChains = new RoleChainCache(kb);
 		roleRestrictions = new RoleRestrictionCache( kb.getRBox() );
+		
+		processedAxioms = null;
+		processedClasses = null;
+	}
+
+	/**
+	 * Keeps the saturation computed by the previous classification so the
+	 * next classification only processes the changes to the TBox. Axioms
+	 * added to the TBox are saturated as usual. For the axioms removed from
+	 * the TBox, the subsumers of all the concepts that might depend on the
+	 * removed axioms are deleted and derived again. The RBox should not
+	 * change in between.
+	 * 
+	 * @return <code>false</code> if there is no previous saturation or the
+	 *         KB is not in EL anymore
+	 */
+	@Override
+	public boolean prepareUpdate() {
+		updateRequested = processedAxioms != null && kb.getExpressivity().isEL();
+		
+		return updateRequested;
 	}
 
 	/**
@@ -110,14 +150,28 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 	 */
 	@Override
     public boolean classify() {
-		logger.fine( "Reset" );
-		reset();
+		boolean update = updateRequested && processedAxioms != null
+				&& kb.getClasses().containsAll( processedClasses );
+		updateRequested = false;
 		
-		Timer t = timers.startTimer( "createConcepts" );
-		logger.fine( "Creating structures" );
-		createConcepts();
-		logger.fine( "Created structures" );
-		t.stop();
+		Timer t;
+		if( update ) {
+			t = timers.startTimer( "updateConcepts" );
+			logger.fine( "Updating structures" );
+			updateConcepts();
+			logger.fine( "Updated structures" );
+			t.stop();
+		}
+		else {
+			logger.fine( "Reset" );
+			reset();
+			
+			t = timers.startTimer( "createConcepts" );
+			logger.fine( "Creating structures" );
+			createConcepts();
+			logger.fine( "Created structures" );
+			t.stop();
+		}
 		
 		int queueSize =  primaryQueue.size();
 		monitor.setProgressTitle( "Classifiying" );
@@ -143,6 +197,9 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 		
 		t.stop();
 		logger.fine( "Builded hierarchy" );
+		
+		processedAxioms = new HashSet<ATermAppl>( kb.getTBox().getAssertedAxioms() );
+		processedClasses = new HashSet<ATermAppl>( kb.getClasses() );
 
 		monitor.taskFinished();
 		
@@ -362,6 +419,10 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 			
 			concepts.put( c, concept );
 			
+			if( newConcepts != null ) {
+				newConcepts.add( concept );
+			}
+			
 			concept.addSuperClass( concept );
 			
 			if( TOP != null ) {
@@ -373,7 +434,14 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 	}
 
 	private void createConceptsFromAxiom(ATermAppl sub, ATermAppl sup) {
-		addToQueue( createConcept( sub ), createConcept( sup ) );
+		ConceptInfo subInfo = createConcept( sub );
+		ConceptInfo supInfo = createConcept( sup );
+		
+		if( newSubsumptions != null ) {
+			newSubsumptions.add( new ConceptInfo[] { subInfo, supInfo } );
+		}
+		
+		addToQueue( subInfo, supInfo );
 	}	
 	
 	private void createDisjointAxiom(ATermAppl c1, ATermAppl c2) {
@@ -441,6 +509,10 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 			}
 		}
 		
+		processReflexiveRoles();
+	}
+	
+	private void processReflexiveRoles() {
 		//Convert Reflexive Roles to axioms
 		for (Role role : kb.getRBox().getRoles()) {
 			if (role.isReflexive()) {
@@ -474,6 +546,203 @@ public class SimplifiedELClassifier extends CDOptimizedTaxonomyBuilder implement
 		}
 	}
 
+	/**
+	 * Returns the concepts on the left hand side of the subsumptions an axiom
+	 * is turned into by {@link #processAxiom(ATermAppl)}.
+	 */
+	private List<ATermAppl> getSubClasses(ATermAppl axiom) {
+		List<ATermAppl> subs = new ArrayList<ATermAppl>();
+		AFun fun = axiom.getAFun();
+
+		if( fun.equals( ATermUtils.DISJOINTSFUN ) ) {
+			ATermList list = (ATermList) axiom.getArgument( 0 );
+			List<ATermAppl> simplified = new ArrayList<ATermAppl>();
+			for( ; !list.isEmpty(); list = list.getNext() ) {
+				simplified.add( ELSyntaxUtils.simplify( (ATermAppl) list.getFirst() ) );
+			}
+			for( int i = 0; i < simplified.size() - 1; i++ ) {
+				for( int j = i + 1; j < simplified.size(); j++ ) {
+					subs.add( ATermUtils.makeSimplifiedAnd( Arrays.asList( simplified.get( i ),
+							simplified.get( j ) ) ) );
+				}
+			}
+		}
+		else {
+			ATermAppl sub = ELSyntaxUtils.simplify( (ATermAppl) axiom.getArgument( 0 ) );
+			ATermAppl sup = ELSyntaxUtils.simplify( (ATermAppl) axiom.getArgument( 1 ) );
+
+			if( fun.equals( ATermUtils.DISJOINTFUN ) ) {
+				subs.add( ATermUtils.makeSimplifiedAnd( Arrays.asList( sub, sup ) ) );
+			}
+			else {
+				subs.add( sub );
+				if( fun.equals( ATermUtils.EQCLASSFUN ) ) {
+					subs.add( sup );
+				}
+			}
+		}
+
+		return subs;
+	}
+	
+	/**
+	 * Updates the saturation computed in the previous classification with the
+	 * changes to the TBox.
+	 */
+	private void updateConcepts() {
+		Collection<ATermAppl> axioms = kb.getTBox().getAssertedAxioms();
+		
+		Set<ATermAppl> addedAxioms = new HashSet<ATermAppl>();
+		for( ATermAppl axiom : axioms ) {
+			if( !processedAxioms.remove( axiom ) ) {
+				addedAxioms.add( axiom );
+			}
+		}
+		Set<ATermAppl> removedAxioms = processedAxioms;
+		
+		if( !removedAxioms.isEmpty() ) {
+			Set<ConceptInfo> affected = getAffectedConcepts( removedAxioms );
+			
+			if( logger.isLoggable( Level.FINE ) ) {
+				logger.fine( "Removed axioms: " + removedAxioms.size() + " Affected concepts: "
+						+ affected.size() );
+			}
+			
+			// over delete the subsumers that might have been derived from the
+			// removed axioms
+			for( ConceptInfo ci : CollectionUtils.makeSet( concepts.values() ) ) {
+				if( affected.contains( ci ) ) {
+					ci.clear();
+				}
+				else {
+					ci.removePredecessors( affected );
+				}
+			}
+			
+			// derive the subsumers again from the remaining axioms
+			for( ConceptInfo ci : affected ) {
+				addToQueue( ci, ci );
+				addToQueue( ci, TOP );
+			}
+			for( ATermAppl axiom : axioms ) {
+				if( !addedAxioms.contains( axiom ) ) {
+					processAxiom( axiom );
+				}
+			}
+			processReflexiveRoles();
+		}
+		
+		newConcepts = new ArrayList<ConceptInfo>();
+		newSubsumptions = new ArrayList<ConceptInfo[]>();
+		
+		for( ATermAppl c : kb.getClasses() ) {
+			createConcept( c );
+		}
+		for( ATermAppl axiom : addedAxioms ) {
+			processAxiom( axiom );
+		}
+		
+		if( logger.isLoggable( Level.FINE ) ) {
+			logger.fine( "Added axioms: " + addedAxioms.size() + " New concepts: "
+					+ newConcepts.size() );
+		}
+		
+		addSubsumptionsForNewStructures();
+		
+		newConcepts = null;
+		newSubsumptions = null;
+	}
+	
+	/**
+	 * Returns the concepts whose subsumers might have been derived using the
+	 * removed axioms, i.e. the concepts subsumed by the left hand side of a
+	 * removed axiom and the predecessors of such concepts.
+	 */
+	private Set<ConceptInfo> getAffectedConcepts(Set<ATermAppl> removedAxioms) {
+		Set<ConceptInfo> subs = new HashSet<ConceptInfo>();
+		for( ATermAppl axiom : removedAxioms ) {
+			for( ATermAppl sub : getSubClasses( axiom ) ) {
+				ConceptInfo ci = concepts.get( sub );
+				if( ci != null ) {
+					subs.add( ci );
+				}
+			}
+		}
+		
+		Set<ConceptInfo> affected = new HashSet<ConceptInfo>();
+		List<ConceptInfo> toProcess = new ArrayList<ConceptInfo>();
+		for( ConceptInfo ci : concepts.values() ) {
+			if( !affected.contains( ci ) && !Collections.disjoint( ci.getSuperClasses(), subs ) ) {
+				affected.add( ci );
+				toProcess.add( ci );
+			}
+		}
+		
+		while( !toProcess.isEmpty() ) {
+			ConceptInfo ci = toProcess.remove( toProcess.size() - 1 );
+			Iterator<ConceptInfo> preds = ci.getPredecessors().flattenedValues();
+			while( preds.hasNext() ) {
+				ConceptInfo pred = preds.next();
+				if( affected.add( pred ) ) {
+					toProcess.add( pred );
+				}
+			}
+		}
+		
+		return affected;
+	}
+	
+	/**
+	 * The rules are applied to a concept when a subsumer is added but the
+	 * subsumptions, conjunctions and existential restrictions of the new
+	 * axioms might also apply to the subsumers concepts already have. 
+	 */
+	private void addSubsumptionsForNewStructures() {
+		if( newSubsumptions.isEmpty() && newConcepts.isEmpty() ) {
+			return;
+		}
+		
+		for( ConceptInfo ci : CollectionUtils.makeSet( concepts.values() ) ) {
+			for( ConceptInfo[] subsumption : newSubsumptions ) {
+				if( ci.hasSuperClass( subsumption[0] ) ) {
+					addToQueue( ci, subsumption[1] );
+				}
+			}
+			
+			for( ConceptInfo newConcept : newConcepts ) {
+				ATermAppl c = newConcept.getConcept();
+				if( ATermUtils.isAnd( c ) ) {
+					ATermList list = (ATermList) c.getArgument( 0 );
+					for( ; !list.isEmpty(); list = list.getNext() ) {
+						if( !ci.hasSuperClass( concepts.get( list.getFirst() ) ) ) {
+							break;
+						}
+					}
+					
+					if( list.isEmpty() ) {
+						addToQueue( ci, newConcept );
+					}
+				}
+				else if( ATermUtils.isSomeValues( c ) ) {
+					Role role = kb.getRole( c.getArgument( 0 ) );
+					ConceptInfo qualification = concepts.get( c.getArgument( 1 ) );
+					if( role == null || !ci.hasSuperClass( qualification ) ) {
+						continue;
+					}
+					
+					for( Entry<ATermAppl, Set<ConceptInfo>> e : ci.getPredecessors().entrySet() ) {
+						Role predRole = kb.getRole( e.getKey() );
+						if( predRole != null && predRole.getSuperRoles().contains( role ) ) {
+							for( ConceptInfo pred : e.getValue() ) {
+								addToQueue( pred, newConcept );
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
 	public void print() {
 		for( ATermAppl c : concepts.keySet() ) {
 			log.finer( c + " " + concepts.get( c ).getSuperClasses() );
@@ -6,6 +6,7 @@
 
 package com.clarkparsia.pellet.expressivity;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -68,6 +69,24 @@ public class DLExpressivityChecker extends ProfileBasedExpressivityChecker {
 		m_Visitor.visit(term);
 		return true;
 	}
+
+	public boolean updateWith(Expressivity expressivity, Collection<ATermAppl> types,
+			boolean classesChanged, boolean rolesChanged) {
+		m_Expressivity = expressivity;
+
+		if (!m_KB.getABox().isEmpty()) {
+			m_Expressivity.setHasIndividual(true);
+		}
+		for( ATermAppl term : types ) {
+			m_Visitor.visit( term );
+		}
+		if( classesChanged )
+			processClasses();
+		if( rolesChanged )
+			processRoles();
+
+		return true;
+	}
 	
 	private void processIndividuals() {
 		if (!m_KB.getABox().isEmpty()) {
@@ -6,7 +6,13 @@
 
 package com.clarkparsia.pellet.expressivity;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 import org.mindswap.pellet.KnowledgeBase;
+import org.mindswap.pellet.KnowledgeBase.ChangeType;
+import org.mindswap.pellet.PelletOptions;
 import org.mindswap.pellet.utils.ATermUtils;
 
 import com.clarkparsia.pellet.el.ELExpressivityChecker;
@@ -35,6 +41,17 @@ public class ExpressivityChecker {
 	private DLExpressivityChecker m_DLChecker;
 	private Expressivity m_Expressivity;
 	
+	/**
+	 * Types asserted since the expressivity was last computed
+	 */
+	private List<ATermAppl> m_AddedTypes;
+	
+	/**
+	 * Set if the current expressivity has been computed by this checker and
+	 * can be updated with additions
+	 */
+	private boolean m_Prepared;
+	
 	public ExpressivityChecker(KnowledgeBase kb) {
 		this( kb, new Expressivity() );
 	}
@@ -44,9 +61,14 @@ public class ExpressivityChecker {
 		m_ELChecker = new ELExpressivityChecker(m_KB);
 		m_DLChecker = new DLExpressivityChecker(m_KB);
 		m_Expressivity = expr;
+		m_AddedTypes = new ArrayList<ATermAppl>();
+		m_Prepared = false;
 	}
 	
 	public void prepare() {
+		m_AddedTypes.clear();
+		m_Prepared = true;
+		
 		m_Expressivity = new Expressivity();
 		if (m_ELChecker.compute(m_Expressivity)) return;
 		
@@ -56,6 +78,51 @@ public class ExpressivityChecker {
 		m_DLChecker.compute(m_Expressivity);
 	}
 	
+	/**
+	 * Updates the expressivity after the given changes to the KB. If there
+	 * are only additions, the previous expressivity is updated with the types
+	 * recorded by {@link #addType(ATermAppl, ATermAppl)} and, if the TBox or
+	 * RBox changed, with the classes or roles. Otherwise, the expressivity is
+	 * computed from scratch since a deletion might lower it.
+	 */
+	public void prepare(Set<ChangeType> changes) {
+		if( !PelletOptions.USE_INCREMENTAL_EXPRESSIVITY || !m_Prepared
+				|| changes.contains( ChangeType.ABOX_DEL ) || changes.contains( ChangeType.TBOX_DEL )
+				|| changes.contains( ChangeType.RBOX_DEL ) ) {
+			prepare();
+			return;
+		}
+		
+		boolean classesChanged = changes.contains( ChangeType.TBOX_ADD );
+		boolean rolesChanged = changes.contains( ChangeType.RBOX_ADD );
+		
+		// the previous expressivity might be shared with a copy of the KB
+		Expressivity newExp = new Expressivity(m_Expressivity);
+		boolean updated = newExp.isEL()
+			? m_ELChecker.updateWith(newExp, m_AddedTypes, classesChanged, rolesChanged)
+			: m_DLChecker.updateWith(newExp, m_AddedTypes, classesChanged, rolesChanged);
+		
+		if( updated ) {
+			m_Expressivity = newExp;
+			m_AddedTypes.clear();
+		}
+		else {
+			// the KB is no longer in EL
+			prepare();
+		}
+	}
+	
+	/**
+	 * Records a type assertion so the expressivity can be updated without
+	 * visiting all the individuals in the next {@link #prepare(Set)}.
+	 */
+	public void addType(ATermAppl i, ATermAppl concept) {
+		if( !m_Prepared || concept.equals( ATermUtils.makeValue( i ) ) )
+			return;
+		
+		m_AddedTypes.add( concept );
+	}
+	
 	public Expressivity getExpressivity() {
 		return m_Expressivity; 
 	}
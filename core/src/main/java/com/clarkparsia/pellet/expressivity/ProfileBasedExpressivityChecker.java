@@ -6,6 +6,8 @@
 
 package com.clarkparsia.pellet.expressivity;
 
+import java.util.Collection;
+
 import org.mindswap.pellet.KnowledgeBase;
 
 import aterm.ATermAppl;
@@ -50,4 +52,19 @@ public abstract class ProfileBasedExpressivityChecker {
 	 * <code>false</code> otherwise.
 	 */
 	public abstract boolean updateWith(Expressivity expressivity, ATermAppl term);
+	
+	/**
+	 * Update the given {@link com.clarkparsia.pellet.expressivity.Expressivity}, previously
+	 * computed by this checker, after axioms and assertions have been added to the
+	 * {@link org.mindswap.pellet.KnowledgeBase}. Individuals are not revisited, only the
+	 * given types are processed.
+	 * 
+	 * @param types the types asserted for individuals since the last update
+	 * @param classesChanged if TBox axioms have been added
+	 * @param rolesChanged if RBox axioms have been added
+	 * @return <code>true</code> if the new expressivity is within the profile defined by the implementation,
+	 * <code>false</code> otherwise.
+	 */
+	public abstract boolean updateWith(Expressivity expressivity, Collection<ATermAppl> types,
+			boolean classesChanged, boolean rolesChanged);
 }
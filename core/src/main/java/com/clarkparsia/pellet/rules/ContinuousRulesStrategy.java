@@ -238,7 +238,7 @@ public class ContinuousRulesStrategy extends SROIQStrategy {
 					interpreter.alphaNet.print();
 				}
 
-				IndividualIterator i = abox.getIndIterator();
+				IndividualIterator i = getPassIterator();
 
 				for( TableauRule tableauRule : tableauRules ) {
 					tableauRule.apply( i );
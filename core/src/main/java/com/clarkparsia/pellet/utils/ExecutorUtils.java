@@ -0,0 +1,49 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.pellet.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Title:
+ * </p>
+ * <p>
+ * Description: Utility functions for the thread pools shared by the concurrent
+ * parts of the reasoner.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class ExecutorUtils {
+	/**
+	 * Creates a thread pool with a fixed number of daemon threads so an idle
+	 * pool does not keep the JVM from exiting. The threads are named with the
+	 * given prefix followed by a counter, e.g. <code>pellet-el-1</code>.
+	 *
+	 * @param threads
+	 *            number of threads, at least one thread is created
+	 * @param name
+	 *            prefix of the thread names
+	 * @return a new thread pool
+	 */
+	public static ExecutorService newDaemonThreadPool(int threads, final String name) {
+		return Executors.newFixedThreadPool( Math.max( 1, threads ), new ThreadFactory() {
+			private AtomicInteger	count	= new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread( r, name + "-" + count.incrementAndGet() );
+				t.setDaemon( true );
+				return t;
+			}
+		} );
+	}
+}
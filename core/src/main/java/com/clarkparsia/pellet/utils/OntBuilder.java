@@ -7,6 +7,7 @@ import java.util.Set;
 
 import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.UnsupportedFeatureException;
 import org.mindswap.pellet.output.ATermBaseVisitor;
 import org.mindswap.pellet.utils.ATermUtils;
 
@@ -366,7 +367,7 @@ public class OntBuilder {
 			}
 		}
 		else {
-			throw new InternalReasonerException( "Unknown axiom " + axiom );
+			throw new UnsupportedFeatureException( "Unknown axiom " + axiom );
 		}
 	}
 	
@@ -433,7 +434,7 @@ public class OntBuilder {
 			atom = new BuiltInAtom( builtin.toString(), list );			
 		}
 		else {
-			throw new InternalReasonerException( "Unknown rule atom " + term );
+			throw new UnsupportedFeatureException( "Unknown rule atom " + term );
 		}
 
 		return atom;
@@ -459,6 +460,13 @@ public class OntBuilder {
 		throw new InternalReasonerException( "Unrecognized term: " + t );
 	}	
 
+	/**
+	 * Creates a new KB with the given axioms.
+	 * 
+	 * @throws UnsupportedFeatureException
+	 *             if an axiom cannot be created from its ATerm representation,
+	 *             e.g. a datatype definition
+	 */
 	public KnowledgeBase build(Set<ATermAppl> axioms) {
 		reset();
 
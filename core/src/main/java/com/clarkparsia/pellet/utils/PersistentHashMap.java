@@ -0,0 +1,545 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public
+// License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of
+// proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.pellet.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * Title: Persistent Hash Map
+ * </p>
+ * <p>
+ * Description: A hash array mapped trie (HAMT) that implements the mutable
+ * {@link Map} interface but can be copied in constant time. A copy shares the
+ * trie with the original map and the first modification of a shared trie node
+ * on either side copies only the nodes on the path to the modified entry.
+ * Trie nodes that are not shared are modified in place so a map that is never
+ * copied behaves like an ordinary mutable hash map.
+ * </p>
+ * <p>
+ * Null keys are not supported. This class is not thread-safe, a map and its
+ * copies should be accessed from a single thread.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+	private static final int	BITS		= 5;
+	private static final int	MASK		= (1 << BITS) - 1;
+	private static final Object	NOT_FOUND	= new Object();
+
+	/**
+	 * Token identifying the trie nodes this map is allowed to modify in place.
+	 * The token is replaced when the map is frozen so all the existing nodes
+	 * become read-only and can be shared with copies.
+	 */
+	private Object				owner;
+	private TrieNode			root;
+	private int					size;
+	private Set<Entry<K, V>>	entrySet;
+
+	public PersistentHashMap() {
+		owner = new Object();
+	}
+
+	/**
+	 * Creates a map with the same mappings as the given map. If the given map
+	 * is a {@link PersistentHashMap} that has been {@link #freeze() frozen}
+	 * the trie is shared and the copy is done in constant time. The given map
+	 * is only read so it is safe to copy a frozen map from multiple threads.
+	 */
+	@SuppressWarnings("unchecked")
+	public PersistentHashMap(Map<? extends K, ? extends V> map) {
+		owner = new Object();
+
+		if( map instanceof PersistentHashMap && ((PersistentHashMap<K, V>) map).isFrozen() ) {
+			PersistentHashMap<K, V> other = (PersistentHashMap<K, V>) map;
+			root = other.root;
+			size = other.size;
+		}
+		else {
+			putAll( map );
+		}
+	}
+
+	/**
+	 * Returns a copy of this map. The underlying trie is shared if this map
+	 * has been frozen.
+	 */
+	public PersistentHashMap<K, V> copy() {
+		return new PersistentHashMap<K, V>( this );
+	}
+
+	/**
+	 * Makes the current trie read-only so it can be shared by the copies of
+	 * this map. This map remains modifiable and the first modification after
+	 * freezing copies the nodes on the path to the modified entry. Freezing
+	 * should be done by the thread that owns the map before copies are
+	 * created.
+	 */
+	public void freeze() {
+		if( !isFrozen() )
+			owner = new Object();
+	}
+
+	/**
+	 * Returns true if this map has not been modified since the last time it
+	 * was {@link #freeze() frozen}, i.e. no trie node can be modified in place.
+	 */
+	public boolean isFrozen() {
+		// modifications copy every node on the path from the root so the
+		// trie has a modifiable node only if the root is modifiable
+		return root == null || root.owner != owner;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return root != null && root.find( 0, key.hashCode(), key ) != NOT_FOUND;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		if( root == null )
+			return null;
+
+		Object value = root.find( 0, key.hashCode(), key );
+
+		return value == NOT_FOUND
+			? null
+			: (V) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(K key, V value) {
+		if( key == null )
+			throw new NullPointerException();
+
+		int hash = key.hashCode();
+		Object[] result = new Object[] { NOT_FOUND };
+		if( root == null )
+			root = new BitmapNode( owner, 0, new Object[0] );
+		root = root.put( owner, 0, hash, key, value, result );
+
+		if( result[0] == NOT_FOUND ) {
+			size++;
+			return null;
+		}
+
+		return (V) result[0];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		if( root == null || key == null )
+			return null;
+
+		Object[] result = new Object[] { NOT_FOUND };
+		root = root.remove( owner, 0, key.hashCode(), key, result );
+
+		if( result[0] == NOT_FOUND )
+			return null;
+
+		size--;
+		return (V) result[0];
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if( entrySet == null ) {
+			entrySet = new AbstractSet<Entry<K, V>>() {
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new EntryIterator();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+
+				@Override
+				public void clear() {
+					PersistentHashMap.this.clear();
+				}
+			};
+		}
+
+		return entrySet;
+	}
+
+	private static int bitpos(int hash, int shift) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static abstract class TrieNode {
+		Object	owner;
+		Object[]	array;
+
+		TrieNode(Object owner, Object[] array) {
+			this.owner = owner;
+			this.array = array;
+		}
+
+		abstract Object find(int shift, int hash, Object key);
+
+		abstract TrieNode put(Object owner, int shift, int hash, Object key, Object value, Object[] result);
+
+		abstract TrieNode remove(Object owner, int shift, int hash, Object key, Object[] result);
+	}
+
+	/**
+	 * Trie node where the array contains key-value pairs or, when the key slot
+	 * is null, a child node in the value slot.
+	 */
+	private static final class BitmapNode extends TrieNode {
+		int	bitmap;
+
+		BitmapNode(Object owner, int bitmap, Object[] array) {
+			super( owner, array );
+			this.bitmap = bitmap;
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount( bitmap & (bit - 1) );
+		}
+
+		private BitmapNode editable(Object owner) {
+			return this.owner == owner
+				? this
+				: new BitmapNode( owner, bitmap, array.clone() );
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int bit = bitpos( hash, shift );
+			if( (bitmap & bit) == 0 )
+				return NOT_FOUND;
+
+			int idx = index( bit );
+			Object k = array[2 * idx];
+			Object v = array[2 * idx + 1];
+			if( k == null )
+				return ((TrieNode) v).find( shift + BITS, hash, key );
+			if( key.equals( k ) )
+				return v;
+
+			return NOT_FOUND;
+		}
+
+		@Override
+		TrieNode put(Object owner, int shift, int hash, Object key, Object value, Object[] result) {
+			int bit = bitpos( hash, shift );
+			int idx = index( bit );
+
+			if( (bitmap & bit) != 0 ) {
+				Object k = array[2 * idx];
+				Object v = array[2 * idx + 1];
+				if( k == null ) {
+					TrieNode child = (TrieNode) v;
+					TrieNode newChild = child.put( owner, shift + BITS, hash, key, value, result );
+					if( newChild == child )
+						return this;
+					BitmapNode node = editable( owner );
+					node.array[2 * idx + 1] = newChild;
+					return node;
+				}
+				if( key.equals( k ) ) {
+					result[0] = v;
+					if( v == value )
+						return this;
+					BitmapNode node = editable( owner );
+					node.array[2 * idx + 1] = value;
+					return node;
+				}
+
+				TrieNode child = createNode( owner, shift + BITS, k, v, hash, key, value );
+				BitmapNode node = editable( owner );
+				node.array[2 * idx] = null;
+				node.array[2 * idx + 1] = child;
+				return node;
+			}
+
+			int n = Integer.bitCount( bitmap );
+			Object[] newArray = new Object[2 * (n + 1)];
+			System.arraycopy( array, 0, newArray, 0, 2 * idx );
+			newArray[2 * idx] = key;
+			newArray[2 * idx + 1] = value;
+			System.arraycopy( array, 2 * idx, newArray, 2 * (idx + 1), 2 * (n - idx) );
+
+			if( this.owner == owner ) {
+				bitmap |= bit;
+				array = newArray;
+				return this;
+			}
+
+			return new BitmapNode( owner, bitmap | bit, newArray );
+		}
+
+		@Override
+		TrieNode remove(Object owner, int shift, int hash, Object key, Object[] result) {
+			int bit = bitpos( hash, shift );
+			if( (bitmap & bit) == 0 )
+				return this;
+
+			int idx = index( bit );
+			Object k = array[2 * idx];
+			Object v = array[2 * idx + 1];
+			if( k == null ) {
+				TrieNode child = (TrieNode) v;
+				TrieNode newChild = child.remove( owner, shift + BITS, hash, key, result );
+				if( newChild == child )
+					return this;
+				if( newChild != null ) {
+					BitmapNode node = editable( owner );
+					node.array[2 * idx + 1] = newChild;
+					return node;
+				}
+			}
+			else if( key.equals( k ) ) {
+				result[0] = v;
+			}
+			else {
+				return this;
+			}
+
+			if( bitmap == bit )
+				return null;
+
+			int n = Integer.bitCount( bitmap );
+			Object[] newArray = new Object[2 * (n - 1)];
+			System.arraycopy( array, 0, newArray, 0, 2 * idx );
+			System.arraycopy( array, 2 * (idx + 1), newArray, 2 * idx, 2 * (n - idx - 1) );
+
+			if( this.owner == owner ) {
+				bitmap ^= bit;
+				array = newArray;
+				return this;
+			}
+
+			return new BitmapNode( owner, bitmap ^ bit, newArray );
+		}
+
+		private static TrieNode createNode(Object owner, int shift, Object key1, Object value1, int hash2,
+				Object key2, Object value2) {
+			int hash1 = key1.hashCode();
+			if( hash1 == hash2 )
+				return new CollisionNode( owner, hash1, new Object[] { key1, value1, key2, value2 } );
+
+			Object[] result = new Object[1];
+			return new BitmapNode( owner, 0, new Object[0] )
+				.put( owner, shift, hash1, key1, value1, result )
+				.put( owner, shift, hash2, key2, value2, result );
+		}
+	}
+
+	/**
+	 * Trie node for keys whose hash codes are identical. The array contains
+	 * key-value pairs.
+	 */
+	private static final class CollisionNode extends TrieNode {
+		final int	hash;
+
+		CollisionNode(Object owner, int hash, Object[] array) {
+			super( owner, array );
+			this.hash = hash;
+		}
+
+		private int index(Object key) {
+			for( int i = 0; i < array.length; i += 2 ) {
+				if( key.equals( array[i] ) )
+					return i;
+			}
+			return -1;
+		}
+
+		@Override
+		Object find(int shift, int hash, Object key) {
+			int idx = index( key );
+			return idx < 0
+				? NOT_FOUND
+				: array[idx + 1];
+		}
+
+		@Override
+		TrieNode put(Object owner, int shift, int hash, Object key, Object value, Object[] result) {
+			if( hash != this.hash ) {
+				return new BitmapNode( owner, bitpos( this.hash, shift ), new Object[] { null, this } )
+					.put( owner, shift, hash, key, value, result );
+			}
+
+			int idx = index( key );
+			if( idx >= 0 ) {
+				result[0] = array[idx + 1];
+				if( array[idx + 1] == value )
+					return this;
+				CollisionNode node = this.owner == owner
+					? this
+					: new CollisionNode( owner, hash, array.clone() );
+				node.array[idx + 1] = value;
+				return node;
+			}
+
+			Object[] newArray = new Object[array.length + 2];
+			System.arraycopy( array, 0, newArray, 0, array.length );
+			newArray[array.length] = key;
+			newArray[array.length + 1] = value;
+
+			if( this.owner == owner ) {
+				array = newArray;
+				return this;
+			}
+
+			return new CollisionNode( owner, hash, newArray );
+		}
+
+		@Override
+		TrieNode remove(Object owner, int shift, int hash, Object key, Object[] result) {
+			int idx = index( key );
+			if( idx < 0 )
+				return this;
+
+			result[0] = array[idx + 1];
+			if( array.length == 2 )
+				return null;
+
+			Object[] newArray = new Object[array.length - 2];
+			System.arraycopy( array, 0, newArray, 0, idx );
+			System.arraycopy( array, idx + 2, newArray, idx, array.length - idx - 2 );
+
+			if( this.owner == owner ) {
+				array = newArray;
+				return this;
+			}
+
+			return new CollisionNode( owner, hash, newArray );
+		}
+	}
+
+	/**
+	 * Iterates over the trie depth-first. Modifications through the iterator
+	 * first make the trie read-only so that the nodes being traversed are never
+	 * modified in place.
+	 */
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+		private final List<Object[]>	arrays		= new ArrayList<Object[]>();
+		private final List<Integer>		positions	= new ArrayList<Integer>();
+		private Entry<K, V>				next;
+		private K						lastKey		= null;
+		private boolean					frozen		= false;
+
+		EntryIterator() {
+			if( root != null )
+				push( root.array );
+			findNext();
+		}
+
+		private void push(Object[] array) {
+			arrays.add( array );
+			positions.add( 0 );
+		}
+
+		@SuppressWarnings("unchecked")
+		private void findNext() {
+			next = null;
+			while( !arrays.isEmpty() ) {
+				int top = arrays.size() - 1;
+				Object[] array = arrays.get( top );
+				int pos = positions.get( top );
+				if( pos >= array.length ) {
+					arrays.remove( top );
+					positions.remove( top );
+					continue;
+				}
+				positions.set( top, pos + 2 );
+
+				Object k = array[pos];
+				Object v = array[pos + 1];
+				if( k == null ) {
+					push( ((TrieNode) v).array );
+				}
+				else {
+					next = new MapEntry( (K) k, (V) v );
+					return;
+				}
+			}
+		}
+
+		private void freezeOnce() {
+			if( !frozen ) {
+				freeze();
+				frozen = true;
+			}
+		}
+
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		public Entry<K, V> next() {
+			if( next == null )
+				throw new NoSuchElementException();
+
+			Entry<K, V> result = next;
+			lastKey = result.getKey();
+			findNext();
+			return result;
+		}
+
+		public void remove() {
+			if( lastKey == null )
+				throw new IllegalStateException();
+
+			freezeOnce();
+			PersistentHashMap.this.remove( lastKey );
+			lastKey = null;
+		}
+
+		private class MapEntry extends SimpleEntry<K, V> {
+			private static final long	serialVersionUID	= 1L;
+
+			MapEntry(K key, V value) {
+				super( key, value );
+			}
+
+			@Override
+			public V setValue(V value) {
+				freezeOnce();
+				PersistentHashMap.this.put( getKey(), value );
+				return super.setValue( value );
+			}
+		}
+	}
+}
@@ -33,6 +33,7 @@ package org.mindswap.pellet;
 import static java.lang.String.format;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -45,11 +46,13 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.tableau.blocking.BlockingIndex;
 import org.mindswap.pellet.tableau.branch.Branch;
 import org.mindswap.pellet.tableau.cache.CachedNode;
 import org.mindswap.pellet.tableau.cache.CachedNodeFactory;
 import org.mindswap.pellet.tableau.cache.ConceptCache;
 import org.mindswap.pellet.tableau.cache.ConceptCacheLRU;
+import org.mindswap.pellet.tableau.cache.NogoodCache;
 import org.mindswap.pellet.tableau.completion.CompletionStrategy;
 import org.mindswap.pellet.tableau.completion.SROIQIncStrategy;
 import org.mindswap.pellet.tableau.completion.queue.BasicCompletionQueue;
@@ -63,9 +66,8 @@ import org.mindswap.pellet.utils.Bool;
 import org.mindswap.pellet.utils.CandidateSet;
 import org.mindswap.pellet.utils.SetUtils;
 import org.mindswap.pellet.utils.Timer;
-import org.mindswap.pellet.utils.fsm.State;
-import org.mindswap.pellet.utils.fsm.Transition;
-import org.mindswap.pellet.utils.fsm.TransitionGraph;
+import org.mindswap.pellet.utils.Timers;
+import org.mindswap.pellet.utils.fsm.TransitionTable;
 import org.mindswap.pellet.utils.iterator.MultiListIterator;
 
 import aterm.ATerm;
@@ -130,14 +132,34 @@ public class ABox {
 	 */
 	private boolean							changed				= false;
 
+	/**
+	 * Stamp given to the nodes modified by the completion rules. The
+	 * completion strategy increments the stamp at every pass so the nodes
+	 * modified since a pass can be found by comparing stamps.
+	 */
+	private int								changeStamp			= 0;
+
+	// nodes modified since the change stamp was last incremented
+	private List<Node>						changedNodes		= new ArrayList<Node>();
+
 	private boolean							doExplanation;
 
+	// true if explanations were on when this ABox itself was completed
+	private boolean							completedWithExplanation;
+
 	// cached satisfiability results
 	// the table maps every atomic concept A (and also its negation not(A))
 	// to the root node of its completed tree. If a concept is mapped to
 	// null value it means it is not satisfiable
 	protected ConceptCache					cache;
 
+	// sets of concepts learned to be unsatisfiable together, shared by the
+	// copies of this ABox like the satisfiability cache
+	private NogoodCache						nogoods;
+
+	// timers used for this ABox, null if the timers of the KB are used
+	private Timers							timers;
+
 	// pseudo model for this Abox. This is the ABox that results from
 	// completing to the original Abox
 	// private ABox pseudoModel;
@@ -184,6 +206,12 @@ public class ABox {
 	private BranchEffectTracker				branchEffects;
 	private CompletionQueue					completionQueue;
 	private IncrementalChangeTracker		incChangeTracker;
+	
+	// index of blocker candidates, created on demand when anywhere blocking is used
+	private BlockingIndex					blockingIndex;
+
+	// index of the literal values of named individuals, created on demand
+	private DataValueIndex					dataValueIndex;
 
 	// flag set when incrementally updating the abox with explicit assertions
 	private boolean							syntacticUpdate		= false;
@@ -234,17 +262,23 @@ public class ABox {
 
 	public ABox(KnowledgeBase kb, ABox abox, ATermAppl extraIndividual, boolean copyIndividuals) {
 		this.kb = kb;
-		Timer timer = kb.timers.startTimer( "cloneABox" );
+		if( kb == abox.kb ) {
+	        timers = abox.timers;
+        }
+		Timer timer = getTimers().startTimer( "cloneABox" );
 
 
 		this.rulesNotApplied = true;
 		initialized = abox.initialized;
 		setChanged( abox.isChanged() );
+		changeStamp = abox.changeStamp;
 		setAnonCount( abox.getAnonCount() );
 		cache = abox.cache;
+		nogoods = abox.nogoods;
 		clash = abox.clash;		
 		dtReasoner = abox.dtReasoner;
 		doExplanation = abox.doExplanation;
+		completedWithExplanation = abox.completedWithExplanation;
 		setDisjBranchStats( abox.getDisjBranchStats() );
 
 		int extra = (extraIndividual == null)
@@ -402,12 +436,54 @@ public class ABox {
 		return new ABox( kb, this, extraIndividual, copyIndividuals );
 	}
 
+	/**
+	 * Replaces the completion graph of this ABox with the completion graph of
+	 * the given ABox. The given ABox is expected to be a copy of this ABox
+	 * that has been completed further, e.g. by a speculative completion
+	 * running in another thread. The nodes and edges of the given ABox are
+	 * moved to this ABox without being copied so the given ABox should be
+	 * discarded afterwards.
+	 * 
+	 * @param other
+	 *            ABox whose nodes and branches will be adopted
+	 */
+	public void replaceWith(ABox other) {
+		Timer t = getTimers().startTimer( "cloneABox" );
+
+		nodes = other.nodes;
+		nodeList = other.nodeList;
+		for( Node node : nodes.values() ) {
+			node.setABox( this );
+		}
+
+		branches = new ArrayList<Branch>( other.branches.size() );
+		for( Branch branch : other.branches ) {
+			branches.add( branch.copyTo( this ) );
+		}
+
+		setBranch( other.branch );
+		setAnonCount( other.getAnonCount() );
+		clash = (other.clash == null)
+			? null
+			: other.clash.copyTo( this );
+		setChanged( other.isChanged() );
+		changeStamp = other.changeStamp;
+		changedNodes = other.changedNodes;
+		setComplete( other.isComplete() );
+
+		sourceABox = null;
+		blockingIndex = null;
+		dataValueIndex = null;
+
+		t.stop();
+	}
+
 	public void copyOnWrite() {
 		if( sourceABox == null ) {
 	        return;
         }
 
-		Timer t = kb.timers.startTimer( "copyOnWrite" );
+		Timer t = getTimers().startTimer( "copyOnWrite" );
 
 		List<ATermAppl> currentNodeList = new ArrayList<ATermAppl>( nodeList );
 		int currentSize = currentNodeList.size();
@@ -420,6 +496,8 @@ public class ABox {
 			ATermAppl x = sourceABox.nodeList.get( i );
 			Node node = sourceABox.getNode( x );
 			Node copyNode = node.copyTo( this );
+			// nodes of the source ABox were not visible to the rules so far
+			copyNode.updateChangeStamp();
 			nodes.put( x, copyNode );
 			nodeList.add( x );
 		}
@@ -428,6 +506,9 @@ public class ABox {
 	        nodeList.addAll( currentNodeList.subList( 1, currentSize ) );
         }
 
+		// the copied nodes have not been indexed
+		blockingIndex = null;
+
 		for( Iterator<Node> i = nodes.values().iterator(); i.hasNext(); ) {
 			Node node = i.next();
 
@@ -454,6 +535,8 @@ public class ABox {
 		t.stop();
 
 		sourceABox = null;
+		blockingIndex = null;
+		dataValueIndex = null;
 	}
 
 	/**
@@ -468,9 +551,20 @@ public class ABox {
 
 		if( clearSatCache ) {
 			cache = new ConceptCacheLRU( kb );
+			nogoods = PelletOptions.USE_NOGOOD_CACHE
+				? new NogoodCache( PelletOptions.MAX_NOGOODS )
+				: null;
 		}
 	}
 
+	/**
+	 * Returns the nogoods learned from the unsatisfiable conjunctions or
+	 * <code>null</code> if nogoods are not being learned.
+	 */
+	public NogoodCache getNogoods() {
+		return nogoods;
+	}
+
 	public Bool getCachedSat(ATermAppl c) {
 		return cache.getSat( c );
 	}
@@ -479,6 +573,14 @@ public class ABox {
 		return cache;
 	}
 
+	/**
+	 * Sets the concept cache used by this ABox. Copies of this ABox created
+	 * afterwards will share the given cache.
+	 */
+	public void setCache(ConceptCache cache) {
+		this.cache = cache;
+	}
+
 	public CachedNode getCached(ATermAppl c) {
 		if (ATermUtils.isNominal(c)) {
 	        return getIndividual(c.getArgument(0)).getSame();
@@ -529,15 +631,15 @@ public class ABox {
 		}
 		
 		if( log.isLoggable( Level.FINE ) ) {
-			long count = kb.timers.getTimer( "subClassSat" ) == null
+			long count = getTimers().getTimer( "subClassSat" ) == null
 				? 0
-				: kb.timers.getTimer( "subClassSat" ).getCount();
+				: getTimers().getTimer( "subClassSat" ).getCount();
 			log.fine( count + ") Checking subclass [" + ATermUtils.toString( c1 ) + " " + ATermUtils.toString( c2 ) + "]" );
 		}
 
 		ATermAppl notC2 = ATermUtils.negate( c2 );
 		ATermAppl c = ATermUtils.makeAnd( c1, notC2 );
-		Timer t = kb.timers.startTimer( "subClassSat" );
+		Timer t = getTimers().startTimer( "subClassSat" );
 		boolean sub = !isSatisfiable( c, false );
 		t.stop();
 
@@ -591,10 +693,14 @@ public class ABox {
 
 		stats.satisfiabilityCount++;
 
-		Timer t = kb.timers.startTimer( "satisfiability" );
+		Timer t = getTimers().startTimer( "satisfiability" );
 		boolean isSat = isConsistent( SetUtils.<ATermAppl>emptySet(), c, cacheModel );
 		t.stop();
 
+		if( !isSat && nogoods != null && ATermUtils.isAnd( c ) ) {
+			nogoods.add( ATermUtils.listToSet( (ATermList) c.getArgument( 0 ) ) );
+		}
+
 		return isSat;
 	}
 
@@ -703,6 +809,50 @@ public class ABox {
         }
 	}
 
+	/**
+	 * Returns the axioms recorded in the completion graph for the given type
+	 * of the individual if the type was added without depending on any
+	 * non-deterministic choice, or <code>null</code> otherwise. The axioms are
+	 * recorded only if explanations were enabled when the ABox was completed,
+	 * so <code>null</code> is also returned if the last consistency check ran
+	 * without explanations. The returned set is not guaranteed to be minimal.
+	 * 
+	 * @param x
+	 *            a named individual
+	 * @param c
+	 *            a class expression
+	 * @return the axioms that caused the individual to have the type or
+	 *         <code>null</code> if there are no such axioms recorded
+	 */
+	public Set<ATermAppl> getKnownTypeExplanation(ATermAppl x, ATermAppl c) {
+		if( !isComplete() || !completedWithExplanation ) {
+	        return null;
+        }
+
+		Individual pNode = getIndividual( x );
+		if( pNode == null ) {
+	        return null;
+        }
+
+		DependencySet ds = DependencySet.INDEPENDENT;
+		if( pNode.isMerged() ) {
+			ds = pNode.getMergeDependency( true );
+			pNode = pNode.getSame();
+		}
+
+		DependencySet typeDS = pNode.getDepends( ATermUtils.normalize( c ) );
+		if( typeDS == null ) {
+	        return null;
+        }
+
+		ds = ds.union( typeDS, true );
+		if( !ds.isIndependent() || ds.getExplain().isEmpty() ) {
+	        return null;
+        }
+
+		return ds.getExplain();
+	}
+
 	public Bool isKnownType(Individual pNode, ATermAppl concept, Collection<ATermAppl> subs) {
 		// Timer t = kb.timers.startTimer( "isKnownType" );
 		Bool isType = isType( pNode, concept );
@@ -848,7 +998,7 @@ public class ABox {
 
 		ATermAppl notC = ATermUtils.negate( c );
 
-		Timer t = kb.timers.startTimer( "isType" );
+		Timer t = getTimers().startTimer( "isType" );
 		boolean isType = !isConsistent( SetUtils.singleton( x ), notC, false );
 		t.stop();
 
@@ -1092,9 +1242,9 @@ public class ABox {
 					new HashMap<Individual,Set<Role>>(), true );
         }
         else {
-			TransitionGraph<Role> tg = role.getFSM();
-			getComplexObjectPropertyValues( subj, tg.getInitialState(), tg, knowns, unknowns,
-					getSames, new HashMap<Individual,Set<State<Role>>>(), true );
+			TransitionTable<Role> tt = role.getFSMTable();
+			getComplexObjectPropertyValues( subj, tt.getInitialState(), tt, knowns, unknowns,
+					getSames, new HashMap<Individual,BitSet>(), true );
 		}
 
 		if( !isIndependent ) {
@@ -1179,14 +1329,20 @@ public class ABox {
 		}
 	}
 
-	void getComplexObjectPropertyValues(Individual subj, State<Role> st, TransitionGraph<Role> tg,
+	void getComplexObjectPropertyValues(Individual subj, int st, TransitionTable<Role> tt,
 			Set<ATermAppl> knowns, Set<ATermAppl> unknowns, boolean getSames,
-			HashMap<Individual,Set<State<Role>>> visited, boolean isIndependent) {
-		if( !MultiMapUtils.add( visited, subj, st ) ) {
-	        return;
-        }
+			Map<Individual,BitSet> visited, boolean isIndependent) {
+		BitSet visitedStates = visited.get( subj );
+		if( visitedStates == null ) {
+			visitedStates = new BitSet( tt.size() );
+			visited.put( subj, visitedStates );
+		}
+		else if( visitedStates.get( st ) ) {
+			return;
+		}
+		visitedStates.set( st );
 
-		if( tg.isFinal( st ) && subj.isRootNominal() ) {
+		if( tt.isFinal( st ) && subj.isRootNominal() ) {
 			log.fine( "add " + subj );
 			if( isIndependent ) {
 				if( getSames ) {
@@ -1208,15 +1364,16 @@ public class ABox {
 
 		log.fine( subj.toString() );
 
-		for( Transition<Role> t : st.getTransitions() ) {
-			Role r = t.getName();
+		for( int t = 0, n = tt.getTransitionCount( st ); t < n; t++ ) {
+			Role r = tt.getSymbol( st, t );
+			int next = tt.getTarget( st, t );
 			EdgeList edges = subj.getRNeighborEdges( r );
 			for( int i = 0; i < edges.size(); i++ ) {
 				Edge edge = edges.edgeAt( i );
 				DependencySet ds = edge.getDepends();
 				Individual value = (Individual) edge.getNeighbor( subj );
 
-				getComplexObjectPropertyValues( value, t.getTo(), tg, knowns, unknowns, getSames,
+				getComplexObjectPropertyValues( value, next, tt, knowns, unknowns, getSames,
 						visited, isIndependent && ds.isIndependent() );
 			}
 		}
@@ -1339,7 +1496,7 @@ public class ABox {
 	 * @return
 	 */
 	private boolean isConsistent(Collection<ATermAppl> individuals, ATermAppl c, boolean cacheModel) {
-		Timer t = kb.timers.startTimer( "isConsistent" );
+		Timer t = getTimers().startTimer( "isConsistent" );
 
 		if( log.isLoggable( Level.FINE ) ) {
 			if( c == null ) {
@@ -1401,6 +1558,10 @@ public class ABox {
 				? this
 				: this.copy( x, true );
 
+		if( initialConsistencyCheck ) {
+	        completedWithExplanation = doExplanation;
+        }
+
 		for( ATermAppl ind : individuals ) {
 			abox.setSyntacticUpdate( true );
 			abox.addType( ind, c );
@@ -1417,7 +1578,7 @@ public class ABox {
 	        log.fine( "Strategy: " + strategy.getClass().getName() );
         }
 
-		Timer completionTimer = kb.timers.getTimer( "complete" );
+		Timer completionTimer = getTimers().getTimer( "complete" );
 		completionTimer.start();
 		try {
 			strategy.complete( expr );
@@ -1455,8 +1616,9 @@ public class ABox {
 					ATermAppl ind = individuals.iterator().next();
 
 					ATermAppl tempAxiom = ATermUtils.makeTypeAtom( ind, c );
-					Set<ATermAppl> explanationSet = getExplanationSet();
+					Set<ATermAppl> explanationSet = new HashSet<ATermAppl>( getExplanationSet() );
 					boolean removed = explanationSet.remove( tempAxiom );
+					lastClash.getDepends().setExplain( explanationSet );
 					if( !removed ) {
 						if( log.isLoggable( Level.FINE ) ) {
 	                        log.fine( "Explanation set is missing an axiom.\n\tAxiom: " + tempAxiom
@@ -1496,8 +1658,8 @@ public class ABox {
 	boolean isIncConsistent() {
 		assert isComplete() : "Initial consistency check has not been performed!";
 
-		Timer incT = kb.timers.startTimer( "isIncConsistent" );
-		Timer t = kb.timers.startTimer( "isConsistent" );
+		Timer incT = getTimers().startTimer( "isIncConsistent" );
+		Timer t = getTimers().startTimer( "isConsistent" );
 
 		// throw away old information to let gc do its work
 		lastCompletion = null;
@@ -1513,9 +1675,13 @@ public class ABox {
 	        log.fine( "Strategy: " + incStrategy.getClass().getName() );
         }
 
+		// types added now are recorded with their axioms only if
+		// explanations are on
+		completedWithExplanation &= doExplanation;
+
 		// set abox to not being complete
 		setComplete( false );
-		Timer completionTimer = kb.timers.getTimer( "complete" );
+		Timer completionTimer = getTimers().getTimer( "complete" );
 		completionTimer.start();
 		try {
 			incStrategy.complete(kb.getExpressivityChecker().getExpressivity());
@@ -1675,7 +1841,11 @@ public class ABox {
 	 * @return
 	 */
 	public boolean removeNode(ATermAppl x) {
-		return (nodes.remove( x ) != null);
+		Node node = nodes.remove( x );
+		if( node != null && blockingIndex != null ) {
+	        blockingIndex.remove( node );
+        }
+		return (node != null);
 	}
 	
 	public void removeType(ATermAppl x, ATermAppl c) {
@@ -2057,6 +2227,25 @@ public class ABox {
 		return kb;
 	}
 
+	/**
+	 * Returns the timers used for the operations on this ABox. Unless set
+	 * otherwise these are the timers of the KB.
+	 */
+	public Timers getTimers() {
+		return (timers == null)
+			? kb.timers
+			: timers;
+	}
+
+	/**
+	 * Sets the timers used for the operations on this ABox and the copies of
+	 * this ABox created afterwards. Timers are not thread-safe so an ABox
+	 * completed in a separate thread needs its own timers.
+	 */
+	public void setTimers(Timers timers) {
+		this.timers = timers;
+	}
+
 	/**
 	 * Convenience function to get the named role.
 	 */
@@ -2472,6 +2661,63 @@ public class ABox {
 		return completionQueue;
 	}
 
+	/**
+	 * Returns the index of blocker candidates for this ABox. The index is
+	 * created on first access and maintained afterwards as individual labels
+	 * change.
+	 * 
+	 * @return the blocking index
+	 */
+	public BlockingIndex getBlockingIndex() {
+		if( blockingIndex == null ) {
+	        blockingIndex = new BlockingIndex( this );
+        }
+		return blockingIndex;
+	}
+
+	void updateBlockingIndex(Individual ind, ATermAppl c, boolean added) {
+		if( blockingIndex != null ) {
+			if( added ) {
+		        blockingIndex.addType( ind, c );
+	        }
+	        else {
+		        blockingIndex.removeType( ind, c );
+	        }
+        }
+	}
+
+	void updateBlockingIndex(Individual ind, Role incomingRole) {
+		if( blockingIndex != null ) {
+	        blockingIndex.addIncomingRole( ind, incomingRole );
+        }
+	}
+
+	/**
+	 * Returns the index of the literal values of the named individuals in this
+	 * ABox. The index is created on first access and maintained afterwards as
+	 * edges are added and removed, so it is not rebuilt by later consistency
+	 * checks.
+	 * 
+	 * @return the data value index
+	 */
+	public DataValueIndex getDataValueIndex() {
+		if( dataValueIndex == null ) {
+	        dataValueIndex = new DataValueIndex( this );
+        }
+		return dataValueIndex;
+	}
+
+	void updateDataValueIndex(Edge edge, boolean added) {
+		if( dataValueIndex != null ) {
+			if( added ) {
+		        dataValueIndex.add( edge );
+	        }
+	        else {
+		        dataValueIndex.remove( edge );
+	        }
+        }
+	}
+
 	/**
 	 * Reset the ABox to contain only asserted information. Any ABox assertion
 	 * added by tableau rules will be removed.
@@ -2498,6 +2744,7 @@ public class ABox {
 		
 		setComplete( false );
 		setInitialized( false );
+		blockingIndex = null;
 		// clear the clash. we can safely clear the clash because
 		// either this was an asserted clash and already stored in the
 		// assertedClashes (and will be verified before consistency change)
@@ -2560,6 +2807,45 @@ public class ABox {
 		return changed;
 	}
 
+	/**
+	 * Returns the stamp given to the nodes that are modified now.
+	 */
+	public int getChangeStamp() {
+		return changeStamp;
+	}
+
+	/**
+	 * Increments the change stamp so the nodes modified from now on can be
+	 * distinguished from the nodes modified before. The list of changed nodes
+	 * is cleared.
+	 * 
+	 * @return the previous value of the stamp
+	 */
+	public int nextChangeStamp() {
+		changedNodes = new ArrayList<Node>();
+		return changeStamp++;
+	}
+
+	/**
+	 * Returns the nodes that have been created or modified since the change
+	 * stamp was last incremented. The list may contain nodes that have been
+	 * pruned or removed from the ABox afterwards.
+	 */
+	public List<Node> getChangedNodes() {
+		return changedNodes;
+	}
+
+	/**
+	 * Adds the node to the list of changed nodes unless it has already been
+	 * added since the change stamp was last incremented.
+	 */
+	void addChangedNode(Node node) {
+		if( node.queuedStamp != changeStamp ) {
+			node.queuedStamp = changeStamp;
+			changedNodes.add( node );
+		}
+	}
+
 	/**
 	 * @return the toBeMerged
 	 */
@@ -0,0 +1,276 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.clarkparsia.pellet.datatypes.OWLRealUtils;
+
+/**
+ * <p>
+ * An index from data properties to the literal values of the named
+ * individuals in an ABox. Values in the value space of <code>owl:real</code>
+ * (integers, decimals and rationals) are kept in a map sorted with
+ * {@link OWLRealUtils#compare(Number, Number)} so the edges whose value falls
+ * in an interval can be found without looking at the other values. All the
+ * other values (strings, floating point numbers, dates, etc.) are hashed so
+ * the edges with a given value can be found directly. Edges to literals
+ * without a known value, e.g. the literals created for min cardinality
+ * restrictions, are kept separately and returned by every lookup whose value
+ * they may have.
+ * </p>
+ * <p>
+ * The index is created by {@link ABox#getDataValueIndex()} from the edges of
+ * the ABox and is then updated by the individuals whenever an edge is added
+ * or removed, including the edges removed by backtracking. Edges of pruned
+ * individuals are kept in the index since they are restored when the
+ * individual is unpruned, but are not returned. The edges are indexed under
+ * their own role, queries for a property should also look at its sub
+ * properties.
+ * </p>
+ */
+public class DataValueIndex {
+	private static final Comparator<Number>				COMPARATOR	= new Comparator<Number>() {
+		public int compare(Number n1, Number n2) {
+			return OWLRealUtils.compare( n1, n2 );
+		}
+	};
+
+	private Map<Role, NavigableMap<Number, Set<Edge>>>	realValues;
+
+	private Map<Role, Map<Object, Set<Edge>>>			otherValues;
+
+	private Map<Role, Set<Edge>>						unknownValues;
+
+	/**
+	 * Creates an index for the literal values of the named individuals in the
+	 * given ABox.
+	 */
+	public DataValueIndex(ABox abox) {
+		realValues = new HashMap<Role, NavigableMap<Number, Set<Edge>>>();
+		otherValues = new HashMap<Role, Map<Object, Set<Edge>>>();
+		unknownValues = new HashMap<Role, Set<Edge>>();
+
+		for( IndividualIterator i = abox.getIndIterator(); i.hasNext(); ) {
+			for( Edge edge : i.next().getOutEdges() )
+				add( edge );
+		}
+	}
+
+	private static boolean isReal(Object value) {
+		return value instanceof Number && OWLRealUtils.acceptable( ((Number) value).getClass() );
+	}
+
+	/**
+	 * Adds the given edge to the index if it is an edge from a named
+	 * individual for a data property.
+	 */
+	public void add(Edge edge) {
+		if( !edge.getRole().isDatatypeRole() || !edge.getFrom().isRootNominal() )
+			return;
+
+		Role role = edge.getRole();
+		Object value = ((Literal) edge.getTo()).getValue();
+		Set<Edge> edges;
+		if( value == null ) {
+			edges = unknownValues.get( role );
+			if( edges == null ) {
+				edges = new LinkedHashSet<Edge>();
+				unknownValues.put( role, edges );
+			}
+		}
+		else if( isReal( value ) ) {
+			NavigableMap<Number, Set<Edge>> values = realValues.get( role );
+			if( values == null ) {
+				values = new TreeMap<Number, Set<Edge>>( COMPARATOR );
+				realValues.put( role, values );
+			}
+
+			edges = values.get( (Number) value );
+			if( edges == null ) {
+				edges = new LinkedHashSet<Edge>( 2 );
+				values.put( (Number) value, edges );
+			}
+		}
+		else {
+			Map<Object, Set<Edge>> values = otherValues.get( role );
+			if( values == null ) {
+				values = new LinkedHashMap<Object, Set<Edge>>();
+				otherValues.put( role, values );
+			}
+
+			edges = values.get( value );
+			if( edges == null ) {
+				edges = new LinkedHashSet<Edge>( 2 );
+				values.put( value, edges );
+			}
+		}
+
+		edges.add( edge );
+	}
+
+	/**
+	 * Removes the given edge from the index.
+	 */
+	public void remove(Edge edge) {
+		if( !edge.getRole().isDatatypeRole() )
+			return;
+
+		Role role = edge.getRole();
+		Object value = ((Literal) edge.getTo()).getValue();
+		if( value == null ) {
+			Set<Edge> edges = unknownValues.get( role );
+			if( edges != null )
+				edges.remove( edge );
+		}
+		else if( isReal( value ) ) {
+			NavigableMap<Number, Set<Edge>> values = realValues.get( role );
+			Set<Edge> edges = values == null
+				? null
+				: values.get( (Number) value );
+			if( edges != null && edges.remove( edge ) && edges.isEmpty() )
+				values.remove( (Number) value );
+		}
+		else {
+			Map<Object, Set<Edge>> values = otherValues.get( role );
+			Set<Edge> edges = values == null
+				? null
+				: values.get( value );
+			if( edges != null && edges.remove( edge ) && edges.isEmpty() )
+				values.remove( value );
+		}
+	}
+
+	/**
+	 * Returns all the indexed edges for the given role.
+	 */
+	public List<Edge> getEdges(Role role) {
+		List<Edge> result = new ArrayList<Edge>();
+
+		NavigableMap<Number, Set<Edge>> reals = realValues.get( role );
+		if( reals != null )
+			addEdges( reals.values(), result );
+
+		Map<Object, Set<Edge>> others = otherValues.get( role );
+		if( others != null )
+			addEdges( others.values(), result );
+
+		addUnknownEdges( role, null, result );
+
+		return result;
+	}
+
+	/**
+	 * Returns the indexed edges for the given role whose value is equal to the
+	 * given value.
+	 */
+	public List<Edge> getEdges(Role role, Object value) {
+		List<Edge> result = new ArrayList<Edge>();
+
+		Set<Edge> edges;
+		if( isReal( value ) ) {
+			NavigableMap<Number, Set<Edge>> values = realValues.get( role );
+			edges = values == null
+				? null
+				: values.get( (Number) value );
+		}
+		else {
+			Map<Object, Set<Edge>> values = otherValues.get( role );
+			edges = values == null
+				? null
+				: values.get( value );
+		}
+
+		if( edges != null )
+			addEdges( Collections.singleton( edges ), result );
+
+		addUnknownEdges( role, value, result );
+
+		return result;
+	}
+
+	/**
+	 * Returns the indexed edges for the given role whose value may be a real
+	 * number in the given interval. A <code>null</code> bound means the
+	 * interval is unbounded in that direction. The values of the returned edges
+	 * to literals that did not have a known value when they were indexed still
+	 * need to be checked.
+	 */
+	public List<Edge> getEdges(Role role, Number lower, boolean inclusiveLower, Number upper,
+			boolean inclusiveUpper) {
+		List<Edge> result = new ArrayList<Edge>();
+
+		if( lower != null && upper != null ) {
+			int cmp = COMPARATOR.compare( lower, upper );
+			if( cmp > 0 || (cmp == 0 && !(inclusiveLower && inclusiveUpper)) )
+				return result;
+		}
+
+		NavigableMap<Number, Set<Edge>> range = realValues.get( role );
+		if( range != null ) {
+			if( lower != null )
+				range = range.tailMap( lower, inclusiveLower );
+			if( upper != null )
+				range = range.headMap( upper, inclusiveUpper );
+
+			addEdges( range.values(), result );
+		}
+
+		addUnknownEdges( role, null, result );
+
+		return result;
+	}
+
+	private static void addEdges(Collection<Set<Edge>> sets, List<Edge> result) {
+		for( Set<Edge> edges : sets ) {
+			for( Edge edge : edges ) {
+				if( !edge.getFrom().isPruned() )
+					result.add( edge );
+			}
+		}
+	}
+
+	/**
+	 * Adds the edges to literals without a known value when they were indexed
+	 * that now have a value equal to the given value, or any value if the
+	 * given value is <code>null</code>.
+	 */
+	private void addUnknownEdges(Role role, Object value, List<Edge> result) {
+		Set<Edge> edges = unknownValues.get( role );
+		if( edges == null )
+			return;
+
+		for( Edge edge : edges ) {
+			if( edge.getFrom().isPruned() )
+				continue;
+
+			Object sameValue = ((Literal) edge.getTo().getSame()).getValue();
+			if( sameValue == null )
+				continue;
+
+			if( value == null )
+				result.add( edge );
+			else if( isReal( value ) ) {
+				if( isReal( sameValue ) && COMPARATOR.compare( (Number) value, (Number) sameValue ) == 0 )
+					result.add( edge );
+			}
+			else if( value.equals( sameValue ) )
+				result.add( edge );
+		}
+	}
+}
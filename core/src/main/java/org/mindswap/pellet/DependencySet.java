@@ -30,13 +30,11 @@
 
 package org.mindswap.pellet;
 
-import java.util.HashSet;
 import java.util.Set;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.mindswap.pellet.tableau.completion.incremental.DependencyIndex;
-import org.mindswap.pellet.utils.SetUtils;
 import org.mindswap.pellet.utils.intset.IntSet;
 import org.mindswap.pellet.utils.intset.IntSetFactory;
 
@@ -89,14 +87,18 @@ public class DependencySet {
 	 */
 	private int							branch		= NO_BRANCH;
 
-	private Set<ATermAppl>				explain;
+	/**
+	 * axioms this assertion depends on, shared between dependency sets since
+	 * it is never modified
+	 */
+	private ExplanationSet				explain;
 
 	/**
 	 * Create an empty set
 	 */
 	private DependencySet() {
 		depends = IntSetFactory.create();
-		setExplain( SetUtils.<ATermAppl>emptySet() );
+		explain = ExplanationSet.EMPTY;
 	}
 
 	/**
@@ -109,7 +111,7 @@ public class DependencySet {
 		this.depends = IntSetFactory.create();
 
 		depends.add( branch );
-		setExplain( SetUtils.<ATermAppl>emptySet() );
+		explain = ExplanationSet.EMPTY;
 	}
 
 	/**
@@ -117,10 +119,10 @@ public class DependencySet {
 	 * IntSet is created so if IntSet is modified this DependencySet will be
 	 * affected).
 	 */
-	private DependencySet(int branch, IntSet depends, Set<ATermAppl> explain) {
+	private DependencySet(int branch, IntSet depends, ExplanationSet explain) {
 		this.branch = branch;
 		this.depends = depends;
-		this.setExplain( explain );
+		this.explain = explain;
 	}
 
 	/**
@@ -128,8 +130,7 @@ public class DependencySet {
 	 */
 	public DependencySet(ATermAppl explainAtom) {
 		this.depends = DependencySet.ZERO;
-		this.setExplain( SetUtils.singleton( explainAtom ) );
-
+		this.explain = ExplanationSet.singleton( explainAtom );
 	}
 
 	/**
@@ -235,19 +236,23 @@ public class DependencySet {
 	 */
 	public DependencySet union(DependencySet ds, boolean doExplanation) {
 		IntSet newDepends = depends.union( ds.depends );
-		Set<ATermAppl> newExplain;
+		ExplanationSet newExplain;
 		
 		if( doExplanation ) {
-			newExplain = SetUtils.union( explain, ds.explain );
+			newExplain = explain.union( ds.explain );
 		}
 		else {
-			newExplain = SetUtils.emptySet();
+			newExplain = ExplanationSet.EMPTY;
 		}
 
 		return new DependencySet( branch, newDepends, newExplain );
 	}
 
 	/**
+	 * Create a new DependencySet with the elements of <code>this</code> and
+	 * the union of the explanation of <code>this</code> with
+	 * <code>explain</code>. If the explanation does not change
+	 * <code>this</code> is returned.
 	 * 
 	 * @param explain
 	 * @param doExplanation
@@ -257,7 +262,11 @@ public class DependencySet {
 		if( !doExplanation || explain.isEmpty() )
 			return this;
 
-		return new DependencySet( branch, depends.copy(), SetUtils.union( this.explain, explain ) );
+		ExplanationSet newExplain = this.explain.union( explain );
+		if( newExplain == this.explain )
+			return this;
+
+		return new DependencySet( branch, depends.copy(), newExplain );
 	}
 
 	public String toString() {
@@ -280,8 +289,8 @@ public class DependencySet {
 	 * @param assertion
 	 */
 	public void removeExplain(ATermAppl assertion) {
-		if( getExplain().contains( assertion ) ) {
-			setExplain( new HashSet<ATermAppl>() );
+		if( explain.contains( assertion ) ) {
+			explain = ExplanationSet.EMPTY;
 			if( DependencyIndex.log.isLoggable( Level.FINE ) )
 				DependencyIndex.log.fine( "             Explain: removed " );
 		}
@@ -297,14 +306,18 @@ public class DependencySet {
 	}
 
 	/**
+	 * Set the explanation of this DependencySet. The given set is copied
+	 * unless it is an {@link ExplanationSet}.
+	 * 
 	 * @param explain the explain to set
 	 */
 	public void setExplain(Set<ATermAppl> explain) {
-		this.explain = explain;
+		this.explain = ExplanationSet.create( explain );
 	}
 
 	/**
-	 * Return the set of explanations associated with this DependencySet.
+	 * Return the set of explanations associated with this DependencySet. The
+	 * returned set cannot be modified.
 	 * 
 	 * @return
 	 */
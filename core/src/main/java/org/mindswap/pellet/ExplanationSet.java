@@ -0,0 +1,226 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import aterm.ATermAppl;
+
+/**
+ * <p>
+ * An immutable set of axioms used as the explanation component of a
+ * {@link DependencySet}. The axioms are stored in an array sorted by the unique
+ * identifier the ATerm factory assigns to each (maximally shared) term, so the
+ * union of two sets is computed with a single merge and membership is checked
+ * with a binary search. Since the sets are never modified they are shared
+ * between dependency sets, and a union that does not add any new axioms
+ * returns one of its arguments instead of creating a copy.
+ * </p>
+ * <p>
+ * Methods that would modify the set throw an
+ * {@link UnsupportedOperationException}.
+ * </p>
+ */
+public final class ExplanationSet extends AbstractSet<ATermAppl> {
+	private static final Comparator<ATermAppl>	COMPARATOR	= new Comparator<ATermAppl>() {
+		public int compare(ATermAppl a1, ATermAppl a2) {
+			return compareIds( a1.getUniqueIdentifier(), a2.getUniqueIdentifier() );
+		}
+	};
+
+	/**
+	 * An empty explanation set
+	 */
+	public static final ExplanationSet			EMPTY		= new ExplanationSet( new ATermAppl[0] );
+
+	/**
+	 * axioms sorted by their unique identifier without duplicates
+	 */
+	private final ATermAppl[]					axioms;
+
+	private ExplanationSet(ATermAppl[] axioms) {
+		this.axioms = axioms;
+	}
+
+	/**
+	 * Creates an explanation set with a single axiom.
+	 */
+	public static ExplanationSet singleton(ATermAppl axiom) {
+		return new ExplanationSet( new ATermAppl[] { axiom } );
+	}
+
+	/**
+	 * Returns an explanation set with the given axioms. If the given
+	 * collection is already an explanation set it is returned as is.
+	 */
+	public static ExplanationSet create(Collection<ATermAppl> axioms) {
+		if( axioms instanceof ExplanationSet )
+			return (ExplanationSet) axioms;
+
+		if( axioms.isEmpty() )
+			return EMPTY;
+
+		ATermAppl[] sorted = axioms.toArray( new ATermAppl[axioms.size()] );
+		Arrays.sort( sorted, COMPARATOR );
+
+		int size = 1;
+		for( int i = 1; i < sorted.length; i++ ) {
+			if( sorted[i].getUniqueIdentifier() != sorted[size - 1].getUniqueIdentifier() )
+				sorted[size++] = sorted[i];
+		}
+
+		return new ExplanationSet( size == sorted.length
+			? sorted
+			: Arrays.copyOf( sorted, size ) );
+	}
+
+	private static int compareIds(int id1, int id2) {
+		return id1 < id2
+			? -1
+			: (id1 == id2
+				? 0
+				: 1);
+	}
+
+	/**
+	 * Returns the union of this set and the given set. If one of the sets
+	 * contains all the axioms of the other that set is returned without
+	 * creating a new set.
+	 */
+	public ExplanationSet union(ExplanationSet other) {
+		if( this == other || other.axioms.length == 0 )
+			return this;
+		if( axioms.length == 0 )
+			return other;
+
+		ATermAppl[] a1 = axioms;
+		ATermAppl[] a2 = other.axioms;
+		ATermAppl[] merged = new ATermAppl[a1.length + a2.length];
+		int i = 0, j = 0, size = 0;
+		while( i < a1.length && j < a2.length ) {
+			int cmp = COMPARATOR.compare( a1[i], a2[j] );
+			if( cmp < 0 )
+				merged[size++] = a1[i++];
+			else if( cmp > 0 )
+				merged[size++] = a2[j++];
+			else {
+				merged[size++] = a1[i++];
+				j++;
+			}
+		}
+
+		if( size == i && j == a2.length )
+			return this;
+		if( size == j && i == a1.length )
+			return other;
+
+		while( i < a1.length )
+			merged[size++] = a1[i++];
+		while( j < a2.length )
+			merged[size++] = a2[j++];
+
+		return new ExplanationSet( size == merged.length
+			? merged
+			: Arrays.copyOf( merged, size ) );
+	}
+
+	/**
+	 * Returns the union of this set and the given axioms. If this set already
+	 * contains all the given axioms it is returned without creating a new set.
+	 */
+	public ExplanationSet union(Collection<ATermAppl> other) {
+		if( other instanceof ExplanationSet )
+			return union( (ExplanationSet) other );
+
+		if( containsAll( other ) )
+			return this;
+
+		return union( create( other ) );
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if( !(o instanceof ATermAppl) )
+			return false;
+
+		ATermAppl axiom = (ATermAppl) o;
+		int index = Arrays.binarySearch( axioms, axiom, COMPARATOR );
+
+		return index >= 0 && axioms[index].equals( axiom );
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if( !(c instanceof ExplanationSet) )
+			return super.containsAll( c );
+
+		ATermAppl[] other = ((ExplanationSet) c).axioms;
+		if( other.length > axioms.length )
+			return false;
+
+		int i = 0;
+		for( ATermAppl axiom : other ) {
+			while( i < axioms.length && COMPARATOR.compare( axioms[i], axiom ) < 0 )
+				i++;
+			if( i == axioms.length || !axioms[i].equals( axiom ) )
+				return false;
+			i++;
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if( o instanceof ExplanationSet )
+			return Arrays.equals( axioms, ((ExplanationSet) o).axioms );
+
+		return super.equals( o );
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return axioms.length == 0;
+	}
+
+	@Override
+	public Iterator<ATermAppl> iterator() {
+		return new Iterator<ATermAppl>() {
+			private int	index	= 0;
+
+			public boolean hasNext() {
+				return index < axioms.length;
+			}
+
+			public ATermAppl next() {
+				if( !hasNext() )
+					throw new NoSuchElementException();
+
+				return axioms[index++];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return axioms.length;
+	}
+}
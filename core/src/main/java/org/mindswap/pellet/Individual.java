@@ -61,6 +61,12 @@ public class Individual extends Node implements CachedNode {
 	@SuppressWarnings("unchecked")
 	private ArrayList<ATermAppl>[] types = new ArrayList[TYPES]; // Known warning message
 	public int[] applyNext = new int[TYPES];
+	
+	/**
+	 * Set when the type lists are frozen, i.e. may be shared with a copy of
+	 * this individual, and need to be copied before they are modified
+	 */
+	private boolean sharedTypes = false;
 
 	private int nominalLevel;
 	
@@ -100,8 +106,11 @@ public class Individual extends Node implements CachedNode {
 		nominalLevel = ind.nominalLevel;
 		parent = ind.parent;
 
+		// the source individual has been frozen by the super constructor so
+		// type lists are copied lazily when either individual is modified
+		types = ind.types;
+		sharedTypes = true;
 		for(int i = 0; i < TYPES; i++) {
-			types[i] = new ArrayList<ATermAppl>(ind.types[i]);		
 			applyNext[i] = ind.applyNext[i];		
 		}
 			
@@ -214,6 +223,24 @@ public class Individual extends Node implements CachedNode {
         }
 	}
 	
+	@Override
+	protected void freeze() {
+		super.freeze();
+		sharedTypes = true;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void unshareTypes() {
+		if( sharedTypes ) {
+			ArrayList<ATermAppl>[] sharedLists = types;
+			types = new ArrayList[TYPES];
+			for(int i = 0; i < TYPES; i++) {
+				types[i] = new ArrayList<ATermAppl>(sharedLists[i]);
+			}
+			sharedTypes = false;
+		}
+	}
+	
 	public boolean canApply(int type) {
 		return applyNext[type] < types[type].size();
 	}
@@ -257,6 +284,12 @@ public class Individual extends Node implements CachedNode {
 		ds = ds.copy( b );
 		
 		depends.put(c, ds);
+		
+		abox.updateBlockingIndex( this, c, true );
+		
+		unshareTypes();
+
+		updateChangeStamp();
 
 		abox.setChanged( true );
 
@@ -592,6 +625,11 @@ public class Individual extends Node implements CachedNode {
 	
 	public boolean removeType(ATermAppl c) {
 		boolean removed = super.removeType( c );
+		
+		if( removed )
+			abox.updateBlockingIndex( this, c, false );
+		
+		unshareTypes();
 
 		// it is important to continue removal here because restore function
 		// modified depends map directly 
@@ -954,6 +992,9 @@ public class Individual extends Node implements CachedNode {
 		applyNext[MAX] = 0;
         
 		inEdges.addEdge( edge );
+		
+		if( parent != null && edge.getFrom().equals( parent ) )
+			abox.updateBlockingIndex( this, edge.getRole() );
 	}	
 
 	protected void addOutEdge(Edge edge) {
@@ -965,6 +1006,7 @@ public class Individual extends Node implements CachedNode {
 			abox.setClash( Clash.bottomProperty( edge.getFrom(), edge.getDepends(), edge.getRole().getName() ) );
 		} else {
 			outEdges.addEdge(edge);
+			abox.updateDataValueIndex( edge, true );
 		}
 	}
 	
@@ -997,6 +1039,8 @@ public class Individual extends Node implements CachedNode {
 		setChanged(ALL);
 		setChanged(MAX);
 		applyNext[MAX] = 0;
+		updateChangeStamp();
+		x.updateChangeStamp();
 		
 		ds = ds.copy( abox.getBranch() );
 		
@@ -1004,6 +1048,7 @@ public class Individual extends Node implements CachedNode {
 	    
 		outEdges.addEdge(edge);
 		x.addInEdge(edge);
+		abox.updateDataValueIndex( edge, true );
 		
 		return edge;
 	}
@@ -1032,10 +1077,16 @@ public class Individual extends Node implements CachedNode {
     	if( onlyApplyTypes )
 			return;
 		
+		for( Edge edge : outEdges ) {
+			if( edge.getDepends().getBranch() != DependencySet.NO_BRANCH )
+				abox.updateDataValueIndex( edge, false );
+		}
     	outEdges.reset();
     }
     
     protected void resetTypes() {
+    	unshareTypes();
+    	
     	for(int type = 0; type < TYPES; type++) {
     		ArrayList<ATermAppl> list = types[type];
     		int size = list.size();
@@ -1090,6 +1141,7 @@ public class Individual extends Node implements CachedNode {
 				if( log.isLoggable( Level.FINE ) ) 
                     log.fine("RESTORE: " + name + " remove edge " + e + " " + d.max() + " " + branch);
 				i.remove();		
+				abox.updateDataValueIndex( e, false );
 				
 				restored = true;
 				removed = true;
@@ -1122,6 +1174,10 @@ public class Individual extends Node implements CachedNode {
 			modifiedAfterMerge = false;
 		}
 		
+		if( restored ) {
+			updateChangeStamp();
+		}
+		
 		return restored;
 	}
 	
@@ -1132,6 +1188,8 @@ public class Individual extends Node implements CachedNode {
             throw new InternalReasonerException(
                 "Trying to remove a non-existing edge " + edge);
 		
+		abox.updateDataValueIndex( edge, false );
+		
 		return true;
 	}
 	
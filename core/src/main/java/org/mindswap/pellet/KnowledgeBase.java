@@ -91,9 +91,15 @@ import aterm.ATermAppl;
 import aterm.ATermFactory;
 import aterm.ATermList;
 
+import com.clarkparsia.pellet.datatypes.Datatype;
 import com.clarkparsia.pellet.datatypes.DatatypeReasoner;
+import com.clarkparsia.pellet.datatypes.Facet;
+import com.clarkparsia.pellet.datatypes.OWLRealUtils;
+import com.clarkparsia.pellet.datatypes.exceptions.DatatypeReasonerException;
 import com.clarkparsia.pellet.datatypes.exceptions.InvalidLiteralException;
 import com.clarkparsia.pellet.datatypes.exceptions.UnrecognizedDatatypeException;
+import com.clarkparsia.pellet.datatypes.types.real.RestrictedRealDatatype;
+import com.clarkparsia.pellet.el.ConcurrentELClassifier;
 import com.clarkparsia.pellet.el.SimplifiedELClassifier;
 import com.clarkparsia.pellet.expressivity.Expressivity;
 import com.clarkparsia.pellet.expressivity.ExpressivityChecker;
@@ -858,6 +864,11 @@ public class KnowledgeBase {
 			// not have to reperform if from scratch!
 			updateExpressivity( i, c );
 		}
+		else {
+			// record the type so that the expressivity can be updated without
+			// visiting all the individuals
+			expChecker.addType( i, c );
+		}
 
 		if( log.isLoggable( Level.FINER ) )
 			log.finer( "type " + i + " " + c );
@@ -1817,6 +1828,16 @@ public class KnowledgeBase {
 			rbox.propagateDomainRange();
 		}
 
+		// classification may be updated instead of being repeated if ...
+		boolean updateTaxonomy = PelletOptions.USE_INCREMENTAL_CLASSIFICATION
+				&& !reuseTaxonomy
+				// there is a taxonomy that can be updated
+				&& builder instanceof CDOptimizedTaxonomyBuilder
+				// only axioms were added to TBox (absorption may add to RBox)
+				// unless the EL classifier which also handles removals is used
+				&& (!changes.contains( ChangeType.TBOX_DEL ) || builder instanceof SimplifiedELClassifier)
+				&& !isRBoxChanged();
+
 		canUseIncConsistency = canUseIncConsistency();
 
 		if( abox.isComplete() ) {
@@ -1833,6 +1854,9 @@ public class KnowledgeBase {
 			}
 		}
 
+		// remember the changes to update the expressivity
+		Set<ChangeType> changed = EnumSet.copyOf( changes );
+
 		// reset flags
 		changes.clear();
 
@@ -1845,7 +1869,7 @@ public class KnowledgeBase {
 			if( log.isLoggable( Level.FINER ) )
 				log.finer( "Expressivity..." );
 
-			expChecker.prepare();
+			expChecker.prepare( changed );
 		}
 		
 		abox.clearCaches( !reuseTaxonomy );
@@ -1853,7 +1877,15 @@ public class KnowledgeBase {
 
 		if( !reuseTaxonomy ) {
 			state.remove( ReasoningState.CLASSIFY );
-			builder = null;
+
+			// there are no nominals after the changes
+			if( updateTaxonomy && !expChecker.getExpressivity().hasNominal() )
+				updateTaxonomy = ((CDOptimizedTaxonomyBuilder) builder).prepareUpdate();
+			else
+				updateTaxonomy = false;
+
+			if( !updateTaxonomy )
+				builder = null;
 			// taxonomy = null;
 		}
 
@@ -4102,7 +4134,10 @@ public class KnowledgeBase {
 
 	/**
 	 * List all subjects with the given literal value for the specified data
-	 * property.
+	 * property. The values of the property and its sub properties are looked
+	 * up in the data value index of the ABox, so values that are equal to the
+	 * given literal in the value space are found even if they are written
+	 * differently.
 	 * 
 	 * @param r
 	 *            An ATerm object that contains the literal value in the form
@@ -4118,12 +4153,14 @@ public class KnowledgeBase {
 
 		ensureConsistency();
 		
-		List<ATermAppl> knowns = new ArrayList<ATermAppl>();
-		List<ATermAppl> unknowns = new ArrayList<ATermAppl>();
+		Role role = getRole( r );
+		if( role == null || !role.isDatatypeRole() ) {
+			return Collections.emptyList();
+		}
 
-		ATermAppl canonicalLit;
+		Object value;
 		try {
-			canonicalLit = getDatatypeReasoner().getCanonicalRepresentation( litValue );
+			value = getDatatypeReasoner().getValue( litValue );
 		} catch( InvalidLiteralException e ) {
 			log.warning( format("Invalid literal '%s' passed as input, returning empty set of individuals: %s", litValue, e.getMessage()) );
 			return Collections.emptyList();
@@ -4131,29 +4168,195 @@ public class KnowledgeBase {
 			log.warning( format("Unrecognized datatype for literal '%s' passed as input, returning empty set of individuals: %s", litValue, e.getMessage()) );
 			return Collections.emptyList();
 		}
-		Literal literal = abox.getLiteral( canonicalLit );
+		if( value == null ) {
+			return Collections.emptyList();
+		}
 
-		if( literal != null ) {
-			Role role = getRole( r );
-			EdgeList edges = literal.getInEdges();
-			for( Edge edge : edges ) {
-				if( edge.getRole().isSubRoleOf( role ) ) {
-					ATermAppl subj = edge.getFrom().getName();
-					if( edge.getDepends().isIndependent() )
-						knowns.add( subj );
-					else
-						unknowns.add( subj );
+		DataValueIndex index = abox.getDataValueIndex();
+
+		Set<ATermAppl> knowns = new LinkedHashSet<ATermAppl>();
+		Set<ATermAppl> unknowns = new LinkedHashSet<ATermAppl>();
+		for( Role subRole : role.getSubRoles() ) {
+			for( Edge edge : index.getEdges( subRole, value ) ) {
+				ATermAppl subj = edge.getFrom().getName();
+				if( edge.getDepends().isIndependent() ) {
+					knowns.add( subj );
+					unknowns.remove( subj );
 				}
+				else if( !knowns.contains( subj ) )
+					unknowns.add( subj );
 			}
+		}
 
-			if( !unknowns.isEmpty() ) {
-				ATermAppl c = ATermUtils.normalize( ATermUtils.makeHasValue( r, litValue ) );
+		List<ATermAppl> result = new ArrayList<ATermAppl>( knowns );
+		if( !unknowns.isEmpty() ) {
+			ATermAppl c = ATermUtils.normalize( ATermUtils.makeHasValue( r, litValue ) );
+
+			binaryInstanceRetrieval( c, new ArrayList<ATermAppl>( unknowns ), result );
+		}
 
-				binaryInstanceRetrieval( c, unknowns, knowns );
+		return result;
+	}
+
+	/**
+	 * Returns the individuals that may have a value for the given data
+	 * property. These are the named individuals that have a value for the
+	 * property or one of its sub properties in the data value index of the
+	 * ABox, and the individuals merged to them. The values of these
+	 * individuals can be retrieved with
+	 * {@link #getDataPropertyValues(ATermAppl, ATermAppl)}; no other
+	 * individual has a value for the property.
+	 * 
+	 * @param r
+	 *            a data property
+	 * @return the set of individuals that may have a value for the property
+	 */
+	public Set<ATermAppl> getIndividualsWithDataPropertyValues(ATermAppl r) {
+		ensureConsistency();
+
+		Role role = getRole( r );
+		if( role == null || !role.isDatatypeRole() ) {
+			handleUndefinedEntity( r + " is not a known data property!" );
+			return Collections.emptySet();
+		}
+
+		if( role.isTop() ) {
+			return getIndividuals();
+		}
+		else if( role.isBottom() ) {
+			return Collections.emptySet();
+		}
+
+		DataValueIndex index = abox.getDataValueIndex();
+
+		Set<ATermAppl> subjects = new LinkedHashSet<ATermAppl>();
+		for( Role subRole : role.getSubRoles() ) {
+			for( Edge edge : index.getEdges( subRole ) ) {
+				Individual subj = edge.getFrom();
+				if( subjects.add( subj.getName() ) ) {
+					for( Node node : subj.getAllMerged().keySet() ) {
+						if( node.isRootNominal() )
+							subjects.add( node.getName() );
+					}
+				}
 			}
 		}
 
-		return knowns;
+		return subjects;
+	}
+
+	/**
+	 * List all subjects that have a value in the given data range for the
+	 * specified data property. If the data range is a numeric datatype
+	 * restricted with min/max facets only the values within those bounds are
+	 * looked at, otherwise every value of the property is checked against the
+	 * data range.
+	 * 
+	 * @param r
+	 *            a data property
+	 * @param dataRange
+	 *            a data range, e.g. a datatype or a restricted datatype
+	 * @return List of ATermAppl objects.
+	 */
+	public List<ATermAppl> getIndividualsWithDataPropertyInRange(ATermAppl r, ATermAppl dataRange) {
+		ensureConsistency();
+
+		Role role = getRole( r );
+		if( role == null || !role.isDatatypeRole() ) {
+			handleUndefinedEntity( r + " is not a known data property!" );
+			return Collections.emptyList();
+		}
+
+		DatatypeReasoner dtReasoner = getDatatypeReasoner();
+		Collection<ATermAppl> ranges = Collections.singleton( dataRange );
+
+		Number lower = null, upper = null;
+		boolean inclusiveLower = true, inclusiveUpper = true;
+		boolean useBounds = false;
+		try {
+			ATermAppl baseType = ATermUtils.isRestrictedDatatype( dataRange )
+				? (ATermAppl) dataRange.getArgument( 0 )
+				: dataRange;
+			Datatype<?> datatype = dtReasoner.getDatatype( baseType );
+			useBounds = datatype != null
+					&& datatype.asDataRange() instanceof RestrictedRealDatatype;
+
+			if( useBounds && ATermUtils.isRestrictedDatatype( dataRange ) ) {
+				for( ATermList l = (ATermList) dataRange.getArgument( 1 ); !l.isEmpty(); l = l.getNext() ) {
+					ATermAppl restriction = (ATermAppl) l.getFirst();
+					Facet facet = Facet.Registry.get( (ATermAppl) restriction.getArgument( 0 ) );
+					Object value = dtReasoner.getValue( (ATermAppl) restriction.getArgument( 1 ) );
+					if( !(value instanceof Number)
+							|| !OWLRealUtils.acceptable( ((Number) value).getClass() ) )
+						continue;
+
+					Number n = (Number) value;
+					if( facet == Facet.XSD.MIN_INCLUSIVE || facet == Facet.XSD.MIN_EXCLUSIVE ) {
+						boolean inclusive = facet == Facet.XSD.MIN_INCLUSIVE;
+						int cmp = lower == null ? 1 : OWLRealUtils.compare( n, lower );
+						if( cmp > 0 || (cmp == 0 && !inclusive) ) {
+							lower = n;
+							inclusiveLower = inclusive;
+						}
+					}
+					else if( facet == Facet.XSD.MAX_INCLUSIVE || facet == Facet.XSD.MAX_EXCLUSIVE ) {
+						boolean inclusive = facet == Facet.XSD.MAX_INCLUSIVE;
+						int cmp = upper == null ? -1 : OWLRealUtils.compare( n, upper );
+						if( cmp < 0 || (cmp == 0 && !inclusive) ) {
+							upper = n;
+							inclusiveUpper = inclusive;
+						}
+					}
+				}
+			}
+		} catch( InvalidLiteralException e ) {
+			log.warning( format("Invalid facet value in data range '%s', returning empty set of individuals: %s", dataRange, e.getMessage()) );
+			return Collections.emptyList();
+		} catch( UnrecognizedDatatypeException e ) {
+			log.warning( format("Unrecognized datatype in data range '%s', returning empty set of individuals: %s", dataRange, e.getMessage()) );
+			return Collections.emptyList();
+		}
+
+		DataValueIndex index = abox.getDataValueIndex();
+
+		Set<ATermAppl> knowns = new LinkedHashSet<ATermAppl>();
+		Set<ATermAppl> unknowns = new LinkedHashSet<ATermAppl>();
+		for( Role subRole : role.getSubRoles() ) {
+			List<Edge> edges = useBounds
+				? index.getEdges( subRole, lower, inclusiveLower, upper, inclusiveUpper )
+				: index.getEdges( subRole );
+
+			for( Edge edge : edges ) {
+				ATermAppl subj = edge.getFrom().getName();
+				if( knowns.contains( subj ) )
+					continue;
+
+				Object value = ((Literal) edge.getTo().getSame()).getValue();
+				try {
+					if( !dtReasoner.isSatisfiable( ranges, value ) )
+						continue;
+				} catch( DatatypeReasonerException e ) {
+					log.warning( format("Unable to check data range '%s', returning empty set of individuals: %s", dataRange, e.getMessage()) );
+					return Collections.emptyList();
+				}
+
+				if( edge.getDepends().isIndependent() ) {
+					knowns.add( subj );
+					unknowns.remove( subj );
+				}
+				else
+					unknowns.add( subj );
+			}
+		}
+
+		List<ATermAppl> result = new ArrayList<ATermAppl>( knowns );
+		if( !unknowns.isEmpty() ) {
+			ATermAppl c = ATermUtils.normalize( ATermUtils.makeSomeValues( r, dataRange ) );
+
+			binaryInstanceRetrieval( c, new ArrayList<ATermAppl>( unknowns ), result );
+		}
+
+		return result;
 	}
 
 	/**
@@ -4562,7 +4765,9 @@ public class KnowledgeBase {
 			prepare();
 
 			if( expChecker.getExpressivity().isEL() && !PelletOptions.DISABLE_EL_CLASSIFIER ) {
-				builder = new SimplifiedELClassifier();
+				builder = PelletOptions.USE_CONCURRENT_EL_CLASSIFIER
+					? new ConcurrentELClassifier()
+					: new SimplifiedELClassifier();
 			}
 			else {
 				builder = new CDOptimizedTaxonomyBuilder();
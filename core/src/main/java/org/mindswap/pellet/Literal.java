@@ -441,6 +441,9 @@ public class Literal extends Node {
 		if (clashed) {
 			checkClash();
 		}
+		
+		if( restored )
+			updateChangeStamp();
 
 		return restored;
 	}
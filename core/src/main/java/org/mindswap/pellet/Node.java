@@ -55,6 +55,7 @@ import aterm.ATermAppl;
 import aterm.ATermList;
 
 import com.clarkparsia.pellet.utils.CollectionUtils;
+import com.clarkparsia.pellet.utils.PersistentHashMap;
 
 /**
  * @author Evren Sirin
@@ -79,7 +80,7 @@ public abstract class Node {
 	
 	protected ABox abox;
 	protected ATermAppl name;
-	protected Map<ATermAppl, DependencySet> depends;
+	protected PersistentHashMap<ATermAppl, DependencySet> depends;
 	private boolean isRoot;
 	private boolean isConceptRoot;		
 	
@@ -108,6 +109,17 @@ public abstract class Node {
 	
 	protected Map<Node, DependencySet> differents;
 	
+	/**
+	 * The change stamp of the ABox when this node was last modified
+	 */
+	private int changeStamp;
+	
+	/**
+	 * The change stamp of the ABox when this node was last added to the list
+	 * of changed nodes
+	 */
+	int queuedStamp = Integer.MIN_VALUE;
+	
 	protected Node(ATermAppl name, ABox abox) {
 		this.name = name;
 		this.abox = abox;		
@@ -117,9 +129,12 @@ public abstract class Node {
 		
 		mergeDepends = DependencySet.INDEPENDENT; 
 		differents = CollectionUtils.makeMap();
-		depends = CollectionUtils.makeMap();
+		depends = new PersistentHashMap<ATermAppl, DependencySet>();
 
         inEdges = new EdgeList();
+        
+        changeStamp = abox.getChangeStamp();
+        abox.addChangedNode( this );
 	}
 
 	protected Node(Node node, ABox abox) {
@@ -137,9 +152,31 @@ public abstract class Node {
 		// do not copy differents right now because we need to
 		// update node references later anyway
 		differents = node.differents;
-		depends = CollectionUtils.makeMap(node.depends);
+		// labels are persistent maps so the label is frozen and shared, only
+		// the entries modified later in either ABox will be copied
+		node.freeze();
+		depends = new PersistentHashMap<ATermAppl, DependencySet>(node.depends);
 		        
         inEdges = node.inEdges;
+        
+        changeStamp = node.changeStamp;
+	}
+	
+	/**
+	 * Makes the label of this node read-only so it can be shared with a copy
+	 * of this node without being copied. This function is called when the node
+	 * is copied so only the nodes that are actually copied are frozen.
+	 */
+	protected void freeze() {
+		depends.freeze();
+	}
+
+	/**
+	 * Moves this node to the given ABox without copying it. The ABox this
+	 * node currently belongs to should not be used afterwards.
+	 */
+	void setABox(ABox abox) {
+		this.abox = abox;
 	}
 	
 	@Override
@@ -449,6 +486,9 @@ public abstract class Node {
 			abox.getCompletionQueue().add( qe, NodeSelector.EXISTENTIAL );
 			abox.getCompletionQueue().add( qe, NodeSelector.MIN_NUMBER );
 		}
+		
+		if( restored )
+			updateChangeStamp();
 
 		return restored;
 	}
@@ -472,11 +512,33 @@ public abstract class Node {
 		ds = ds.copy( b );
 		depends.put(c, ds);
 		
+		updateChangeStamp();
+		
 		abox.setChanged( true );
 	}
+	
+	/**
+	 * Records that this node has been modified so the completion rules will be
+	 * applied to this node and its neighbors in the next pass.
+	 */
+	public void updateChangeStamp() {
+		changeStamp = abox.getChangeStamp();
+		abox.addChangedNode( this );
+	}
+	
+	/**
+	 * Returns the change stamp of the ABox when this node was last modified.
+	 */
+	public int getChangeStamp() {
+		return changeStamp;
+	}
 
 	public boolean removeType(ATermAppl c) {
-		return depends.remove(c) != null;
+		if( depends.remove(c) == null )
+			return false;
+		
+		updateChangeStamp();
+		return true;
 	}
 
 	public boolean hasType(ATerm c) {
@@ -818,6 +880,7 @@ public abstract class Node {
 		ds = ds.copy( abox.getBranch() );
 		differents.put(node, ds);
 		node.setDifferent(this, ds);
+		updateChangeStamp();
 		abox.setChanged( true );
 		return true;
 	}
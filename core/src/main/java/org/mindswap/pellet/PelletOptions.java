@@ -142,6 +142,14 @@ public class PelletOptions {
 		MAX_ANONYMOUS_CACHE = getIntProperty( newOptions, "MAX_ANONYMOUS_CACHE",
 				MAX_ANONYMOUS_CACHE, oldOptions );
 
+		USE_NOGOOD_CACHE = getBooleanProperty( newOptions, "USE_NOGOOD_CACHE",
+				USE_NOGOOD_CACHE, oldOptions );
+
+		MAX_NOGOODS = getIntProperty( newOptions, "MAX_NOGOODS", MAX_NOGOODS, oldOptions );
+
+		MAX_DATA_RANGE_CACHE = getIntProperty( newOptions, "MAX_DATA_RANGE_CACHE",
+				MAX_DATA_RANGE_CACHE, oldOptions );
+
 		OPTIMIZE_DOWN_MONOTONIC = getBooleanProperty( newOptions, "OPTIMIZE_DOWN_MONOTONIC",
 				OPTIMIZE_DOWN_MONOTONIC, oldOptions );
 
@@ -185,6 +193,9 @@ public class PelletOptions {
 		
 		USE_RULE_ABSORPTION = getBooleanProperty( newOptions, "USE_RULE_ABSORPTION", USE_RULE_ABSORPTION,
 				oldOptions );
+
+		USE_INCREMENTAL_TBOX_PREPARATION = getBooleanProperty( newOptions,
+				"USE_INCREMENTAL_TBOX_PREPARATION", USE_INCREMENTAL_TBOX_PREPARATION, oldOptions );
 		
 		USE_ADVANCED_CACHING = getBooleanProperty( newOptions, "USE_ADVANCED_CACHING",
 				USE_ADVANCED_CACHING, oldOptions );
@@ -200,12 +211,18 @@ public class PelletOptions {
 		USE_CD_CLASSIFICATION = getBooleanProperty( newOptions, "USE_CD_CLASSIFICATION",
 				USE_CD_CLASSIFICATION, oldOptions );
 
+		USE_INCREMENTAL_CLASSIFICATION = getBooleanProperty( newOptions,
+				"USE_INCREMENTAL_CLASSIFICATION", USE_INCREMENTAL_CLASSIFICATION, oldOptions );
+
 		USE_CLASSIFICATION_MONITOR = getEnumProperty( newOptions, "USE_CLASSIFICATION_MONITOR",
 				USE_CLASSIFICATION_MONITOR, oldOptions );
 
 		USE_COMPLETION_QUEUE = getBooleanProperty( newOptions, "USE_COMPLETION_QUEUE",
 				USE_COMPLETION_QUEUE, oldOptions );
 
+		USE_WORKLIST_COMPLETION = getBooleanProperty( newOptions, "USE_WORKLIST_COMPLETION",
+				USE_WORKLIST_COMPLETION, oldOptions );
+
 		USE_CONTINUOUS_RULES = getBooleanProperty( newOptions, "USE_CONTINUOUS_RULES",
 				USE_CONTINUOUS_RULES, oldOptions );
 
@@ -218,6 +235,18 @@ public class PelletOptions {
 		USE_INCREMENTAL_DELETION = getBooleanProperty( newOptions, "USE_INCREMENTAL_DELETION",
 				USE_INCREMENTAL_DELETION, oldOptions );
 
+		USE_INCREMENTAL_EXPRESSIVITY = getBooleanProperty( newOptions,
+				"USE_INCREMENTAL_EXPRESSIVITY", USE_INCREMENTAL_EXPRESSIVITY, oldOptions );
+
+		USE_INDEXED_ANYWHERE_BLOCKING = getBooleanProperty( newOptions, "USE_INDEXED_ANYWHERE_BLOCKING",
+				USE_INDEXED_ANYWHERE_BLOCKING, oldOptions );
+
+		USE_PARALLEL_DISJUNCTIONS = getBooleanProperty( newOptions, "USE_PARALLEL_DISJUNCTIONS",
+				USE_PARALLEL_DISJUNCTIONS, oldOptions );
+
+		PARALLEL_DISJUNCTION_THREADS = getIntProperty( newOptions, "PARALLEL_DISJUNCTION_THREADS",
+				PARALLEL_DISJUNCTION_THREADS, oldOptions );
+
 		USE_NAIVE_QUERY_ENGINE = getBooleanProperty( newOptions, "USE_NAIVE_QUERY_ENGINE",
 				USE_NAIVE_QUERY_ENGINE, oldOptions );
 
@@ -243,6 +272,24 @@ public class PelletOptions {
 		DISABLE_EL_CLASSIFIER = getBooleanProperty( newOptions, "DISABLE_EL_CLASSIFIER", DISABLE_EL_CLASSIFIER, 
 				oldOptions );
 		
+		USE_CONCURRENT_EL_CLASSIFIER = getBooleanProperty( newOptions, "USE_CONCURRENT_EL_CLASSIFIER",
+				USE_CONCURRENT_EL_CLASSIFIER, oldOptions );
+		
+		EL_CLASSIFIER_THREADS = getIntProperty( newOptions, "EL_CLASSIFIER_THREADS",
+				EL_CLASSIFIER_THREADS, oldOptions );
+		
+		MODULE_EXTRACTION_THREADS = getIntProperty( newOptions, "MODULE_EXTRACTION_THREADS",
+				MODULE_EXTRACTION_THREADS, oldOptions );
+		
+		INCREMENTAL_CLASSIFICATION_THREADS = getIntProperty( newOptions, "INCREMENTAL_CLASSIFICATION_THREADS",
+				INCREMENTAL_CLASSIFICATION_THREADS, oldOptions );
+		
+		EXPLANATION_THREADS = getIntProperty( newOptions, "EXPLANATION_THREADS",
+				EXPLANATION_THREADS, oldOptions );
+		
+		INDEX_INFERRED_TRIPLES = getBooleanProperty( newOptions, "INDEX_INFERRED_TRIPLES",
+				INDEX_INFERRED_TRIPLES, oldOptions );
+		
 		PROCESS_JENA_UPDATES_INCREMENTALLY = getBooleanProperty(newOptions, "PROCESS_JENA_UPDATES_INCREMENTALLY",
 		                PROCESS_JENA_UPDATES_INCREMENTALLY, oldOptions);
 		
@@ -424,6 +471,14 @@ public class PelletOptions {
 	
 	public static boolean								USE_BINARY_ABSORPTION					= true;
 
+	/**
+	 * When only new axioms have been added to the TBox since it was last
+	 * prepared, absorb and normalize only the new axioms rather than
+	 * processing the whole TBox again. Removals always cause the TBox to be
+	 * processed from scratch.
+	 */
+	public static boolean								USE_INCREMENTAL_TBOX_PREPARATION		= true;
+
 	/**
 	 * Use dependency directed backjumping
 	 */
@@ -454,6 +509,39 @@ public class PelletOptions {
 	public static boolean								USE_INVERSE_CACHING						= true;
 	
 	public static boolean								USE_ANYWHERE_BLOCKING					= true;
+
+	/**
+	 * When anywhere blocking is used, find blocker candidates through an
+	 * inverted index from concepts and incoming roles to individuals rather
+	 * than traversing the whole completion tree. The candidates are the
+	 * individuals whose label contains the label of the blocked individual so
+	 * the same blockers are found as with the traversal. The index is built
+	 * the first time a blocker is searched in an ABox and updated as labels
+	 * change afterwards.
+	 */
+	public static boolean								USE_INDEXED_ANYWHERE_BLOCKING			= true;
+
+	/**
+	 * Explore the alternatives of the first disjunction branch created during
+	 * completion concurrently. Each disjunct is tried on a separate copy of the
+	 * ABox and the lowest indexed disjunct that results in a clash-free
+	 * completion is selected so the results are the same as sequential
+	 * exploration. Only the general SROIQ completion strategy supports this
+	 * option and it is ignored when incremental reasoning options are enabled.
+	 * <p>
+	 * Only the first disjunction branch of a completion is forked since the
+	 * copies share dependency sets that later branches would modify. The
+	 * copies run on a fixed size thread pool rather than a work-stealing pool
+	 * because the copies do not fork further tasks and the fork/join framework
+	 * is not available on the Java version targeted by Pellet.
+	 */
+	public static boolean								USE_PARALLEL_DISJUNCTIONS				= false;
+
+	/**
+	 * The number of threads used when {@link #USE_PARALLEL_DISJUNCTIONS} is
+	 * enabled.
+	 */
+	public static int									PARALLEL_DISJUNCTION_THREADS			= Runtime.getRuntime().availableProcessors();
 	
 	/**
 	 * The maximum number of cached pseudo models for anonymous classes. The
@@ -468,6 +556,30 @@ public class PelletOptions {
 	 */
 	public static int									MAX_ANONYMOUS_CACHE						= 20000;
 
+	/**
+	 * Learn nogoods, i.e. sets of concepts that cannot be in the label of the
+	 * same node, and use them to prune the disjuncts of a disjunction before a
+	 * branch is created. Nogoods are learned from the conjunctions found to be
+	 * unsatisfiable by satisfiability checks and from the clashes caused by
+	 * the disjuncts of a tree node when backjumping. Nogoods are not used when
+	 * explanations are being generated.
+	 */
+	public static boolean								USE_NOGOOD_CACHE						= true;
+
+	/**
+	 * The maximum number of nogoods remembered when {@link #USE_NOGOOD_CACHE}
+	 * is enabled. The oldest nogood is removed when the limit is reached.
+	 */
+	public static int									MAX_NOGOODS								= 10000;
+
+	/**
+	 * The maximum number of data range combinations for which the datatype
+	 * reasoner remembers the normalized (DNF) form and the resulting data
+	 * range. Entries that have not been used recently are removed when the
+	 * limit is reached. Setting this value to zero disables the cache.
+	 */
+	public static int									MAX_DATA_RANGE_CACHE					= 10000;
+
 	/**
 	 * To decide if individual <code>i</code> has type class <code>c</code>
 	 * check if the edges from cached model of <code>c</code> to nominal nodes
@@ -707,6 +819,16 @@ public class PelletOptions {
 	 */
 	public static boolean								USE_COMPLETION_QUEUE					= false;
 
+	/**
+	 * When the completion queue is not used, apply the completion rules only
+	 * to the individuals that have been modified since the previous pass (and
+	 * their neighbors) rather than iterating over all individuals in every
+	 * pass. Modified nodes are recorded by the ABox when they change so a pass
+	 * does not scan the unmodified nodes. Individuals are visited in the order
+	 * of their depth in the completion graph.
+	 */
+	public static boolean								USE_WORKLIST_COMPLETION					= true;
+
 	/**
 	 * Flag set if the optimized basic completion queue should be used. The
 	 * difference between the basic completion queue is that it maintains queues
@@ -737,6 +859,14 @@ public class PelletOptions {
 																										&& USE_INCREMENTAL_CONSISTENCY
 																										&& USE_TRACING;
 
+	/**
+	 * When there are only additions to the KB since the expressivity was last
+	 * computed, update the previous expressivity with the new axioms and
+	 * assertions instead of computing it from scratch. Any deletion causes
+	 * the expressivity to be recomputed since it might become lower.
+	 */
+	public static boolean								USE_INCREMENTAL_EXPRESSIVITY			= true;
+
 	/**
 	 * Flag if the completion queue should be maintained through incremental
 	 * deletions. It can be the case that a removal of a syntactic assertion
@@ -759,6 +889,18 @@ public class PelletOptions {
 	 */
 	public static boolean								USE_CD_CLASSIFICATION					= true;
 
+	/**
+	 * When only TBox axioms have been added since the last classification,
+	 * update the previous taxonomy by reclassifying only the classes whose
+	 * definitions might have been affected by the new axioms instead of
+	 * classifying all the classes again. Requires the unfoldings of all
+	 * classes to be remembered after every classification which costs time and
+	 * memory even if the TBox is never changed so this option is off by
+	 * default. The EL classifier keeps its saturation instead and also updates
+	 * it after axioms are removed.
+	 */
+	public static boolean								USE_INCREMENTAL_CLASSIFICATION			= false;
+
 	@Deprecated
 	public static boolean								USE_NAIVE_QUERY_ENGINE					= false;
 
@@ -798,6 +940,57 @@ public class PelletOptions {
 	 */
 	public static boolean 								DISABLE_EL_CLASSIFIER					= false;
 	
+	/**
+	 * Classify EL ontologies with
+	 * {@link com.clarkparsia.pellet.el.ConcurrentELClassifier} which uses
+	 * compact integer based data structures and multiple threads instead of
+	 * {@link com.clarkparsia.pellet.el.SimplifiedELClassifier}.
+	 */
+	public static boolean								USE_CONCURRENT_EL_CLASSIFIER			= false;
+	
+	/**
+	 * The number of threads used when {@link #USE_CONCURRENT_EL_CLASSIFIER}
+	 * is enabled.
+	 */
+	public static int									EL_CLASSIFIER_THREADS					= Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * The number of threads used to compute the modules of classes in
+	 * {@link com.clarkparsia.modularity.GraphBasedModuleExtractor}. Modules
+	 * are computed sequentially if this value is 1.
+	 */
+	public static int									MODULE_EXTRACTION_THREADS				= Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * The number of threads used by
+	 * {@link com.clarkparsia.modularity.IncrementalClassifier} to classify the
+	 * groups of modules affected by an update. Each thread uses a separate
+	 * reasoner so increasing this value also increases the memory
+	 * requirements. Modules are classified sequentially if this value is 1.
+	 */
+	public static int									INCREMENTAL_CLASSIFICATION_THREADS		= Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * The number of threads used by
+	 * {@link com.clarkparsia.owlapi.explanation.ConcurrentHSTExplanationGenerator}
+	 * to explain the nodes of hitting set trees and by the batch explanation
+	 * methods to prune explanations. Each thread uses a separate reasoner.
+	 * Nodes are explained sequentially if this value is 1.
+	 */
+	public static int									EXPLANATION_THREADS						= Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * When this option is enabled, <code>PelletInfGraph</code> answers the
+	 * triple patterns with a variable predicate whose subject and object are
+	 * variables or individuals, e.g. <code>(s ?p ?o)</code> or
+	 * <code>(?s ?p o)</code>, from an indexed graph of the statements about
+	 * individuals inferred after realization instead of querying the reasoner
+	 * for every property. The graph is built when first needed and discarded
+	 * when the underlying data changes. Patterns about classes and properties
+	 * are always answered by the reasoner.
+	 */
+	public static boolean								INDEX_INFERRED_TRIPLES					= false;
+	
 	
 	public static boolean 								PROCESS_JENA_UPDATES_INCREMENTALLY		= true;
 
@@ -42,6 +42,7 @@ import org.mindswap.pellet.exceptions.InternalReasonerException;
 import org.mindswap.pellet.utils.ATermUtils;
 import org.mindswap.pellet.utils.SetUtils;
 import org.mindswap.pellet.utils.fsm.TransitionGraph;
+import org.mindswap.pellet.utils.fsm.TransitionTable;
 
 import com.clarkparsia.pellet.utils.CollectionUtils;
 import com.clarkparsia.pellet.utils.TermFactory;
@@ -90,6 +91,8 @@ public class Role {
 	private Set<Role> transitiveSubRoles = SetUtils.emptySet();
 
     private TransitionGraph<Role> tg;
+    
+    private TransitionTable<Role> tt;
 
     public static int TRANSITIVE     = 0x01;
     public static int FUNCTIONAL     = 0x02;
@@ -731,12 +734,22 @@ public class Role {
 
     public void setFSM( TransitionGraph<Role> tg ) {
         this.tg = tg;
+        this.tt = tg == null ? null : new TransitionTable<Role>( tg );
     }
 
     public TransitionGraph<Role> getFSM() {
         return tg;
     }
 
+    /**
+     * Returns the deterministic automaton for this role compiled into a
+     * transition table or <code>null</code> if this role does not have a
+     * complex sub role.
+     */
+    public TransitionTable<Role> getFSMTable() {
+        return tt;
+    }
+
     /* Dependency Retreival */
 
     public DependencySet getExplainAsymmetric() {
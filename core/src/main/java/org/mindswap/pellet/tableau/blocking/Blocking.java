@@ -72,7 +72,7 @@ public abstract class Blocking {
 	}
 	
 	public boolean isBlocked(Individual blocked) {
-		Timer t = blocked.getABox().getKB().timers.startTimer( "blocking" );
+		Timer t = blocked.getABox().getTimers().startTimer( "blocking" );
 		try {
 			return !blocked.isRoot() && (isIndirectlyBlocked( blocked ) || isDirectlyBlockedInt( blocked ));
 		}
@@ -90,7 +90,7 @@ public abstract class Blocking {
 	}
 	
 	public boolean isDirectlyBlocked(Individual blocked) {
-		Timer t = blocked.getABox().getKB().timers.startTimer( "dBlocking" );	
+		Timer t = blocked.getABox().getTimers().startTimer( "dBlocking" );	
 		try {		
 			return isDirectlyBlockedInt( blocked );
 		}
@@ -117,11 +117,74 @@ public abstract class Blocking {
 		if( PelletOptions.USE_ANYWHERE_BLOCKING ) {					
 			assert cxt.blocker.isRoot();
 
+			if( PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING )
+				return isDirectlyBlockedByIndexed( cxt );
+			
 			return isDirectlyBlockedByDescendant( cxt );			
 		}
 		
 		return false;
 	}
+	
+	/**
+	 * Checks if the blocked individual is blocked by any candidate found in the
+	 * {@link BlockingIndex} of the ABox. Only the candidates that would be
+	 * visited by {@link #isDirectlyBlockedByDescendant(BlockingContext)} are
+	 * considered, i.e. individuals in the same tree that are not descendants of
+	 * the parent of the blocked individual and not below a blocked individual.
+	 */
+	protected boolean isDirectlyBlockedByIndexed(BlockingContext cxt) {
+		Individual root = cxt.blocker;
+		Individual parentBlocked = cxt.blocked.getParent();
+		
+		for( Individual candidate : cxt.blocked.getABox().getBlockingIndex().getCandidates( cxt.blocked,
+				isIncomingRoleMatchRequired() ) ) {
+			if( !isCandidateBlocker( candidate, root, parentBlocked ) )
+				continue;
+			
+			cxt.blocker = candidate;
+			cxt.rolesToBlocked = null;
+			if( isDirectlyBlockedBy( cxt ) ) {
+				cxt.blocked.setBlocked( true );
+	    		if( log.isLoggable( Level.FINER ) )
+	    			log.finer( cxt.blocked +  " blocked by " + cxt.blocker );
+				return true;
+			}
+		}
+		
+		cxt.blocker = root;
+		cxt.rolesToBlocked = null;
+		
+		return false;
+	}
+	
+	/**
+	 * Returns if the blocking condition requires the blocker to have the same
+	 * incoming roles as the blocked individual so the candidates can be
+	 * filtered by their incoming roles before the condition is checked.
+	 */
+	protected boolean isIncomingRoleMatchRequired() {
+		return false;
+	}
+	
+	private boolean isCandidateBlocker(Individual candidate, Individual root, Individual parentBlocked) {
+		if( candidate.isRoot() || candidate.isPruned() || candidate.isMerged() || candidate.isBlocked()
+				|| candidate.getABox().getNode( candidate.getName() ) != candidate )
+			return false;
+		
+		for( Individual ancestor = candidate.getParent(); ancestor != null; ancestor = ancestor.getParent() ) {
+			if( ancestor.equals( parentBlocked ) )
+				return false;
+			
+			if( ancestor.isRoot() )
+				return ancestor.equals( root );
+			
+			if( ancestor.isPruned() || ancestor.isMerged() || ancestor.isBlocked() )
+				return false;
+		}
+		
+		return false;
+	}
 
 	protected boolean isDirectlyBlockedByDescendant(BlockingContext cxt) {
 		if( cxt.blocked.getParent().equals( cxt.blocker ) )
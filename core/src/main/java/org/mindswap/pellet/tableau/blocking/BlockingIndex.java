@@ -0,0 +1,209 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public
+// License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of
+// proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet.tableau.blocking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mindswap.pellet.ABox;
+import org.mindswap.pellet.Individual;
+import org.mindswap.pellet.Node;
+import org.mindswap.pellet.Role;
+
+import aterm.ATermAppl;
+
+/**
+ * <p>
+ * An inverted index from concepts and incoming roles to the blockable
+ * individuals in an ABox. Every blocking condition requires the label of the
+ * blocked individual to be a subset of the label of the blocker, so the
+ * blocker candidates are found by intersecting the individuals indexed under
+ * the concepts in the label of the blocked individual. For the blocking
+ * conditions that compare the roles of the edges coming from the parents
+ * (see {@link DoubleBlocking}) the individuals indexed under the incoming
+ * roles of the blocked individual are also intersected. Candidates returned
+ * by the index still need to be verified with the blocking conditions.
+ * </p>
+ * <p>
+ * The index is updated by {@link Individual} when a type or an edge from its
+ * parent is added and when a type is removed. Entries that become stale when
+ * the completion graph is restored are not removed eagerly but dropped the
+ * next time they are found in a lookup.
+ * </p>
+ */
+public class BlockingIndex {
+	private Map<ATermAppl, Set<Individual>>	types;
+
+	private Map<Role, Set<Individual>>		incomingRoles;
+
+	/**
+	 * Creates an index for all the blockable individuals that currently exist
+	 * in the given ABox.
+	 */
+	public BlockingIndex(ABox abox) {
+		types = new HashMap<ATermAppl, Set<Individual>>();
+		incomingRoles = new HashMap<Role, Set<Individual>>();
+
+		for( Iterator<Individual> i = abox.getIndIterator(); i.hasNext(); ) {
+			Individual ind = i.next();
+			if( ind.isRoot() ) {
+				continue;
+			}
+
+			for( ATermAppl c : ind.getTypes() ) {
+				addType( ind, c );
+			}
+
+			for( Role r : getIncomingRoles( ind ) ) {
+				add( incomingRoles, r, ind );
+			}
+		}
+	}
+
+	/**
+	 * Indexes the individual under the given type.
+	 */
+	public void addType(Individual ind, ATermAppl c) {
+		if( ind.isRoot() ) {
+			return;
+		}
+
+		add( types, c, ind );
+	}
+
+	/**
+	 * Removes the individual from the entries of the given type.
+	 */
+	public void removeType(Individual ind, ATermAppl c) {
+		remove( types, c, ind );
+	}
+
+	/**
+	 * Indexes the individual under the given role and its super roles after an
+	 * edge from its parent has been added.
+	 */
+	public void addIncomingRole(Individual ind, Role r) {
+		if( ind.isRoot() ) {
+			return;
+		}
+
+		for( Role s : r.getSuperRoles() ) {
+			add( incomingRoles, s, ind );
+		}
+		add( incomingRoles, r, ind );
+	}
+
+	/**
+	 * Removes the node from the index.
+	 */
+	public void remove(Node node) {
+		if( !node.isIndividual() || node.isRoot() ) {
+			return;
+		}
+
+		for( ATermAppl c : node.getTypes() ) {
+			remove( types, c, (Individual) node );
+		}
+	}
+
+	/**
+	 * Returns the individuals whose label is a superset of the label of the
+	 * given individual. If <code>matchIncomingRoles</code> is
+	 * <code>true</code> only the individuals whose incoming roles are a
+	 * superset of the incoming roles of the given individual are returned. The
+	 * given individual itself is never returned.
+	 */
+	public List<Individual> getCandidates(Individual blocked, boolean matchIncomingRoles) {
+		Set<ATermAppl> label = blocked.getTypes();
+		Set<Role> roles = matchIncomingRoles
+			? getIncomingRoles( blocked )
+			: Collections.<Role> emptySet();
+
+		// start from the smallest set of individuals
+		Set<Individual> smallest = null;
+		ATermAppl smallestType = null;
+		Role smallestRole = null;
+		for( ATermAppl c : label ) {
+			Set<Individual> inds = types.get( c );
+			if( inds == null ) {
+				return Collections.emptyList();
+			}
+			if( smallest == null || inds.size() < smallest.size() ) {
+				smallest = inds;
+				smallestType = c;
+			}
+		}
+		for( Role r : roles ) {
+			Set<Individual> inds = incomingRoles.get( r );
+			if( inds == null ) {
+				return Collections.emptyList();
+			}
+			if( smallest == null || inds.size() < smallest.size() ) {
+				smallest = inds;
+				smallestType = null;
+				smallestRole = r;
+			}
+		}
+
+		if( smallest == null ) {
+			return Collections.emptyList();
+		}
+
+		List<Individual> candidates = new ArrayList<Individual>();
+		for( Iterator<Individual> i = smallest.iterator(); i.hasNext(); ) {
+			Individual candidate = i.next();
+
+			// drop the stale entries
+			if( candidate.getABox().getNode( candidate.getName() ) != candidate
+					|| (smallestType != null && !candidate.hasType( smallestType ))
+					|| (smallestRole != null && !getIncomingRoles( candidate ).contains( smallestRole )) ) {
+				i.remove();
+				continue;
+			}
+
+			if( candidate == blocked || !candidate.getTypes().containsAll( label )
+					|| !getIncomingRoles( candidate ).containsAll( roles ) ) {
+				continue;
+			}
+
+			candidates.add( candidate );
+		}
+
+		return candidates;
+	}
+
+	private static Set<Role> getIncomingRoles(Individual ind) {
+		Set<Role> roles = BlockingContext.getIncomingRoles( ind );
+		return roles == null
+			? Collections.<Role> emptySet()
+			: roles;
+	}
+
+	private static <K> void add(Map<K, Set<Individual>> index, K key, Individual ind) {
+		Set<Individual> inds = index.get( key );
+		if( inds == null ) {
+			inds = new LinkedHashSet<Individual>();
+			index.put( key, inds );
+		}
+		inds.add( ind );
+	}
+
+	private static <K> void remove(Map<K, Set<Individual>> index, K key, Individual ind) {
+		Set<Individual> inds = index.get( key );
+		if( inds != null && inds.remove( ind ) && inds.isEmpty() ) {
+			index.remove( key );
+		}
+	}
+}
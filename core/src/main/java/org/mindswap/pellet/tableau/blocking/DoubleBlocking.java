@@ -54,6 +54,11 @@ public class DoubleBlocking extends Blocking {
 	private DoubleBlocking() {		
 	}
 
+	@Override
+	protected boolean isIncomingRoleMatchRequired() {
+		return true;
+	}
+
 	public boolean isDirectlyBlockedBy(BlockingContext cxt) {
 		Individual parentBlocked = cxt.blocked.getParent();
 		Individual parentBlocker = cxt.blocker.getParent();
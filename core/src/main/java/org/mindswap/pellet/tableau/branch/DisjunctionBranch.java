@@ -30,11 +30,11 @@
 
 package org.mindswap.pellet.tableau.branch;
 
-import java.util.logging.Level;
-
-
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.logging.Level;
 
 import org.mindswap.pellet.ABox;
 import org.mindswap.pellet.Clash;
@@ -43,11 +43,15 @@ import org.mindswap.pellet.Individual;
 import org.mindswap.pellet.Node;
 import org.mindswap.pellet.PelletOptions;
 import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.tableau.cache.NogoodCache;
 import org.mindswap.pellet.tableau.completion.CompletionStrategy;
 import org.mindswap.pellet.utils.ATermUtils;
+import org.mindswap.pellet.utils.intset.IntIterator;
 
 import aterm.ATermAppl;
 
+import com.clarkparsia.pellet.expressivity.Expressivity;
+
 
 public class DisjunctionBranch extends Branch {
 	protected Node node;
@@ -55,6 +59,17 @@ public class DisjunctionBranch extends Branch {
 	private ATermAppl[] disj;
 	protected DependencySet[] prevDS;
 	protected int[] order;
+	/**
+	 * Index of the only disjunct tried by this branch, or -1 if all the
+	 * disjuncts are tried
+	 */
+	private int speculativeTry = -1;
+	/**
+	 * True if some disjuncts of the disjunction were pruned before this branch
+	 * was created. Disjunct statistics are kept per disjunction for all of its
+	 * disjuncts so they cannot be used for the remaining ones.
+	 */
+	private boolean pruned;
 	
 	public DisjunctionBranch(ABox abox, CompletionStrategy completion, Node node, ATermAppl disjunction, DependencySet ds, ATermAppl[] disj) {
 		super(abox, completion, ds, disj.length);
@@ -85,6 +100,7 @@ public class DisjunctionBranch extends Branch {
 	    b.setBranch( branch );
 	    b.setStrategy( strategy );
         b.setTryNext( tryNext );
+        b.pruned = pruned;
 
         b.prevDS = new DependencySet[disj.length];
         System.arraycopy(prevDS, 0, b.prevDS, 0, disj.length );
@@ -123,17 +139,133 @@ public class DisjunctionBranch extends Branch {
         return -1;
 	}
 	
+	/**
+	 * Restricts this branch to try only the disjunct with the given index.
+	 * Used when the disjuncts are explored in parallel where each disjunct is
+	 * tried on a separate copy of the ABox. The disjuncts before the given
+	 * index are assumed to be closed depending only on this branch and the
+	 * disjuncts are not reordered. The restriction is not copied by
+	 * {@link #copyTo(ABox)}.
+	 * 
+	 * @param i index of the disjunct to try
+	 */
+	public void setSpeculativeTry(int i) {
+		speculativeTry = i;
+		setTryNext( i );
+		for( int m = 0; m < i; m++ )
+			prevDS[m] = new DependencySet( getBranch() );
+	}
+	
+	/**
+	 * Marks this branch as trying only some of the disjuncts of the
+	 * disjunction because the others were pruned. The statistics used to sort
+	 * the disjuncts are not used or updated by such branches.
+	 */
+	public void setPruned(boolean pruned) {
+		this.pruned = pruned;
+	}
+	
+	public boolean tryNext() {
+		// remaining disjuncts are tried on other copies of the ABox
+		if( speculativeTry >= 0 && getTryNext() > speculativeTry )
+			setTryNext( getTryCount() );
+		
+		return super.tryNext();
+	}
+	
     public void setLastClash( DependencySet ds ) {
     		super.setLastClash( ds );
-    		if(getTryNext()>=0)
+    		if(getTryNext()>=0) {
     			prevDS[getTryNext()] = ds;
+    			learnNogood( disj[getTryNext()], ds );
+    		}
     }
+	
+	/**
+	 * Learns a nogood from the clash caused by trying the given disjunct. The
+	 * nogood is the disjunct together with the concepts in the label of the
+	 * node that depend only on the branches the clash depends on. This is
+	 * done only if the label of the node is enough to reproduce the clash: the
+	 * node is a tree node, there are no inverses or nominals that could
+	 * propagate the effects of the disjunct outside the subtree of the node,
+	 * and the clash depends only on the branches of this node and its
+	 * ancestors whose choices are reflected in the label of the node.
+	 * 
+	 * @param d disjunct that caused the clash
+	 * @param ds dependency set of the clash
+	 */
+	private void learnNogood(ATermAppl d, DependencySet ds) {
+		NogoodCache nogoods = abox.getNogoods();
+		if( !PelletOptions.USE_NOGOOD_CACHE || nogoods == null || abox.doExplanation()
+				|| PelletOptions.USE_INCREMENTAL_DELETION || !ds.contains( getBranch() ) )
+			return;
+
+		Node x = node.getSame();
+		if( !x.isIndividual() || !x.isBlockable() || strategy == null )
+			return;
+
+		Expressivity expr = strategy.getExpressivity();
+		if( expr == null || expr.hasInverse() || expr.hasNominal() || expr.hasKeys()
+				|| !abox.getKB().getRules().isEmpty() )
+			return;
+
+		List<Branch> branches = abox.getBranches();
+		for( IntIterator i = ds.getDepends().iterator(); i.hasNext(); ) {
+			int b = i.next();
+			if( b <= 0 || b == getBranch() )
+				continue;
+
+			Branch branch = (b <= branches.size())
+				? branches.get( b - 1 )
+				: null;
+			if( !(branch instanceof DisjunctionBranch)
+					|| !isAncestorOrSelf( ((DisjunctionBranch) branch).getNode().getSame(), (Individual) x ) )
+				return;
+		}
+
+		Set<ATermAppl> nogood = new HashSet<ATermAppl>();
+		nogood.add( d );
+		for( Map.Entry<ATermAppl, DependencySet> entry : x.getDepends().entrySet() ) {
+			ATermAppl c = entry.getKey();
+			// conjunctions are implied by their conjuncts which are also in the label
+			if( ATermUtils.isAnd( c ) || c.equals( ATermUtils.TOP ) )
+				continue;
+
+			if( dependsOnlyOn( entry.getValue(), ds ) )
+				nogood.add( c );
+		}
+
+		nogoods.add( nogood );
+	}
+
+	private boolean dependsOnlyOn(DependencySet ds, DependencySet clash) {
+		for( IntIterator i = ds.getDepends().iterator(); i.hasNext(); ) {
+			int b = i.next();
+			if( b > 0 && (b == getBranch() || !clash.contains( b )) )
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean isAncestorOrSelf(Node node, Individual ind) {
+		for( Individual x = ind; x != null; x = x.getParent() ) {
+			if( x == node )
+				return true;
+		}
+
+		return false;
+	}
+    
+	private boolean isSortingDisjuncts() {
+		return PelletOptions.USE_DISJUNCT_SORTING && speculativeTry < 0 && !pruned;
+	}
     
 	protected void tryBranch() {			
 		abox.incrementBranch();
 		
 		int[] stats = null;
-		if( PelletOptions.USE_DISJUNCT_SORTING ) {
+		if( isSortingDisjuncts() ) {
 		    stats = abox.getDisjBranchStats().get(disjunction);    
 		    if(stats == null) {
 		        int preference = preferredDisjunct();
@@ -196,9 +328,7 @@ public class DisjunctionBranch extends Branch {
 				else{
 					ds = new DependencySet(getBranch());
 					//added for tracing
-					Set<ATermAppl> explain = new HashSet<ATermAppl>();
-					explain.addAll(getTermDepends().getExplain());
-					ds.setExplain( explain );											
+					ds.setExplain( getTermDepends().getExplain() );											
 				}
             }
             
@@ -225,7 +355,7 @@ public class DisjunctionBranch extends Branch {
                     log.fine("CLASH: Branch " + getBranch() + " " + clash + "!" + " " + clashDepends.getExplain());
 				}
 				
-				if( PelletOptions.USE_DISJUNCT_SORTING ) {
+				if( isSortingDisjuncts() ) {
 				    if(stats == null) {
 				        stats = new int[disj.length];
 				        for(int i = 0; i < disj.length; i++)
@@ -238,7 +368,7 @@ public class DisjunctionBranch extends Branch {
 				// do not restore if we do not have any more branches to try. after
 				// backtrack the correct branch will restore it anyway. more
 				// importantly restore clears the clash info causing exceptions
-				if(getTryNext() < getTryCount() - 1 && clashDepends.contains(getBranch())) {
+				if(getTryNext() < getTryCount() - 1 && clashDepends.contains(getBranch()) && speculativeTry < 0) {
 				    // do not restore if we find the problem without adding the concepts 
 				    if(abox.isClosed()) {
 				    	if( node.isLiteral() ) {
@@ -104,7 +104,7 @@ public class MaxBranch extends IndividualBranch {
 		
 		DependencySet ds = getTermDepends();			
 		for(; getTryNext() < getTryCount(); tryNext++) {		
-			this.abox.getKB().timers.mainTimer.check();
+			this.abox.getTimers().mainTimer.check();
 			if(PelletOptions.USE_SEMANTIC_BRANCHING) {
 				for(int m = 0; m < getTryNext(); m++) {
 					NodeMerge nm = mergePairs.get(m);			
@@ -26,8 +26,7 @@ import org.mindswap.pellet.utils.ATermUtils;
 import org.mindswap.pellet.utils.Bool;
 import org.mindswap.pellet.utils.MultiValueMap;
 import org.mindswap.pellet.utils.SetUtils;
-import org.mindswap.pellet.utils.fsm.Transition;
-import org.mindswap.pellet.utils.fsm.TransitionGraph;
+import org.mindswap.pellet.utils.fsm.TransitionTable;
 
 import aterm.ATerm;
 import aterm.ATermAppl;
@@ -279,11 +278,13 @@ public abstract class AbstractConceptCache implements ConceptCache {
 			}
 		}
 		else {
-			TransitionGraph<Role> tg = role.getFSM();
-			for( Transition<Role> t : tg.getInitialState().getTransitions() ) {
-				if( otherRoot.hasRNeighbor( t.getName() ) ) {
+			TransitionTable<Role> tt = role.getFSMTable();
+			int initial = tt.getInitialState();
+			for( int t = 0, n = tt.getTransitionCount( initial ); t < n; t++ ) {
+				Role sub = tt.getSymbol( initial, t );
+				if( otherRoot.hasRNeighbor( sub ) ) {
 					if( log.isLoggable( Level.FINE ) )
-						log.fine( root + " has " + av + " " + otherRoot + " has " + t.getName()
+						log.fine( root + " has " + av + " " + otherRoot + " has " + sub
 								+ " neighbor" );
 
 					return Bool.UNKNOWN;
@@ -519,11 +520,10 @@ public abstract class AbstractConceptCache implements ConceptCache {
 				if( !role.hasComplexSubRole() )
 					found = pNode.hasRNeighbor( role );
 				else {
-					TransitionGraph<Role> tg = role.getFSM();
-					Iterator<Transition<Role>> it = tg.getInitialState().getTransitions().iterator();
-					while( !found && it.hasNext() ) {
-						Transition<Role> tr = it.next();
-						found = pNode.hasRNeighbor( tr.getName() );
+					TransitionTable<Role> tt = role.getFSMTable();
+					int initial = tt.getInitialState();
+					for( int t = 0, n = tt.getTransitionCount( initial ); !found && t < n; t++ ) {
+						found = pNode.hasRNeighbor( tt.getSymbol( initial, t ) );
 					}
 				}
 			}
@@ -19,8 +19,7 @@ import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.Node;
 import org.mindswap.pellet.Role;
 import org.mindswap.pellet.utils.ATermUtils;
-import org.mindswap.pellet.utils.fsm.Transition;
-import org.mindswap.pellet.utils.fsm.TransitionGraph;
+import org.mindswap.pellet.utils.fsm.TransitionTable;
 import org.mindswap.pellet.utils.iterator.IteratorUtils;
 
 import aterm.ATermAppl;
@@ -185,10 +184,10 @@ public class CacheSafetyDynamic implements CacheSafety {
 				return false;
 		}
 		else {
-			TransitionGraph<Role> tg = s.getFSM();
-
-			for( Transition<Role> t : tg.getInitialState().getTransitions() ) {
-				if( role.isSubRoleOf( t.getName() ) )
+			TransitionTable<Role> tt = s.getFSMTable();
+			int initial = tt.getInitialState();
+			for( int t = 0, n = tt.getTransitionCount( initial ); t < n; t++ ) {
+				if( role.isSubRoleOf( tt.getSymbol( initial, t ) ) )
 					return false;
 			}
 		}
@@ -0,0 +1,149 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet.tableau.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mindswap.pellet.DependencySet;
+import org.mindswap.pellet.Node;
+
+import aterm.ATermAppl;
+
+/**
+ * <p>
+ * Title:
+ * </p>
+ * <p>
+ * Description: A bounded cache of nogoods, i.e. sets of concepts that are
+ * known to cause a clash when they are all in the label of a node. Nogoods are
+ * learned from unsatisfiable conjunctions and from the disjuncts that caused a
+ * clash during completion, and are valid as long as the KB does not change. The cache is shared between the copies of an ABox so
+ * what is learned in one satisfiability check is reused in the later checks.
+ * If the max size is reached the oldest nogood is removed.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class NogoodCache {
+	private LinkedHashMap<Set<ATermAppl>, Set<ATermAppl>>	nogoods;
+
+	/**
+	 * Nogoods indexed by each concept they contain
+	 */
+	private Map<ATermAppl, List<Set<ATermAppl>>>			index;
+
+	/**
+	 * Creates an empty cache with at most <code>maxSize</code> nogoods.
+	 *
+	 * @param maxSize
+	 */
+	@SuppressWarnings("serial")
+	public NogoodCache(final int maxSize) {
+		index = new HashMap<ATermAppl, List<Set<ATermAppl>>>();
+		nogoods = new LinkedHashMap<Set<ATermAppl>, Set<ATermAppl>>() {
+			protected boolean removeEldestEntry(Map.Entry<Set<ATermAppl>, Set<ATermAppl>> eldest) {
+				if( size() <= maxSize )
+					return false;
+
+				unindex( eldest.getKey() );
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Adds a new nogood to the cache.
+	 *
+	 * @param concepts
+	 *            set of concepts whose conjunction is unsatisfiable
+	 */
+	public synchronized void add(Collection<ATermAppl> concepts) {
+		Set<ATermAppl> nogood = new HashSet<ATermAppl>( concepts );
+		if( nogood.isEmpty() || nogoods.containsKey( nogood ) )
+			return;
+
+		for( ATermAppl c : nogood ) {
+			List<Set<ATermAppl>> list = index.get( c );
+			if( list == null ) {
+				list = new ArrayList<Set<ATermAppl>>( 2 );
+				index.put( c, list );
+			}
+			list.add( nogood );
+		}
+
+		nogoods.put( nogood, nogood );
+	}
+
+	/**
+	 * Checks if adding the given concept to the label of the node would
+	 * complete a nogood. If so the union of the dependencies of the other
+	 * concepts in the nogood is returned, otherwise <code>null</code> is
+	 * returned.
+	 *
+	 * @param node
+	 *            node whose label is checked
+	 * @param c
+	 *            concept that will be added to the node
+	 * @return the dependency of the clash that would be caused by adding the
+	 *         concept or <code>null</code> if no clash is known
+	 */
+	public synchronized DependencySet getClash(Node node, ATermAppl c) {
+		List<Set<ATermAppl>> list = index.get( c );
+		if( list == null )
+			return null;
+
+		for( Set<ATermAppl> nogood : list ) {
+			DependencySet ds = DependencySet.INDEPENDENT;
+			for( ATermAppl other : nogood ) {
+				if( other.equals( c ) )
+					continue;
+
+				DependencySet otherDS = node.getDepends( other );
+				if( otherDS == null ) {
+					ds = null;
+					break;
+				}
+
+				ds = ds.union( otherDS, false );
+			}
+
+			if( ds != null )
+				return ds;
+		}
+
+		return null;
+	}
+
+	public synchronized boolean isEmpty() {
+		return nogoods.isEmpty();
+	}
+
+	public synchronized int size() {
+		return nogoods.size();
+	}
+
+	public synchronized void clear() {
+		nogoods.clear();
+		index.clear();
+	}
+
+	private void unindex(Set<ATermAppl> nogood) {
+		for( ATermAppl c : nogood ) {
+			List<Set<ATermAppl>> list = index.get( c );
+			if( list != null && list.remove( nogood ) && list.isEmpty() )
+				index.remove( c );
+		}
+	}
+}
@@ -36,6 +36,7 @@ import org.mindswap.pellet.tableau.blocking.BlockingFactory;
 import org.mindswap.pellet.tableau.branch.Branch;
 import org.mindswap.pellet.tableau.branch.GuessBranch;
 import org.mindswap.pellet.tableau.completion.queue.NodeSelector;
+import org.mindswap.pellet.tableau.completion.queue.WorklistIterator;
 import org.mindswap.pellet.tableau.completion.queue.QueueElement;
 import org.mindswap.pellet.tableau.completion.rule.AllValuesRule;
 import org.mindswap.pellet.tableau.completion.rule.ChooseRule;
@@ -133,13 +134,24 @@ public abstract class CompletionStrategy {
 
 	protected List<TableauRule> tableauRules;
 
+	/**
+	 * Expressivity used to initialize this strategy
+	 */
+	protected Expressivity expressivity;
+
+	/**
+	 * Flag to indicate that the rules should be applied to all individuals in
+	 * the next pass regardless of the changes
+	 */
+	protected boolean fullPass = true;
+
 	/**
      * 
      */
 	public CompletionStrategy(ABox abox) {
 		this.abox = abox;
 		this.tbox = abox.getTBox();
-		this.timers = abox.getKB().timers;
+		this.timers = abox.getTimers();
 
 		completionTimer = timers.getTimer("complete");
 	}
@@ -259,6 +271,10 @@ public abstract class CompletionStrategy {
 	}
 
 	public void initialize(Expressivity expressivity) {
+		this.expressivity = expressivity;
+		
+		fullPass = true;
+		
 		mergeList = new ArrayList<NodeMerge>();
 
 		blocking = BlockingFactory.createBlocking(expressivity);
@@ -391,6 +407,56 @@ public abstract class CompletionStrategy {
 	 */
 	public abstract void complete(Expressivity expr);
 
+	/**
+	 * Returns <code>true</code> if this strategy can continue the completion
+	 * of ABox copies in other threads so disjunction alternatives can be
+	 * explored in parallel. Default implementation returns <code>false</code>.
+	 */
+	public boolean supportsParallelCompletion() {
+		return false;
+	}
+
+	/**
+	 * Creates a new strategy of the same kind for the given copy of the ABox
+	 * that can continue the completion from the current state of the copy.
+	 * The new strategy is used only if {@link #supportsParallelCompletion()}
+	 * returns <code>true</code>.
+	 * 
+	 * @param abox
+	 *            copy of the ABox of this strategy
+	 * @return a new strategy
+	 */
+	public abstract CompletionStrategy createParallelStrategy(ABox abox);
+
+	/**
+	 * Continues the completion of an ABox that has already been initialized
+	 * with {@link #initialize(Expressivity)}.
+	 */
+	protected abstract void completeInitialized();
+
+	/**
+	 * Returns the iterator over the individuals the completion rules should be
+	 * applied in the next pass. The first pass after initialization visits
+	 * all the individuals and the following passes visit only the individuals
+	 * affected by the changes since the previous pass.
+	 */
+	protected IndividualIterator getPassIterator() {
+		if( !PelletOptions.USE_WORKLIST_COMPLETION || PelletOptions.USE_INCREMENTAL_DELETION )
+			return abox.getIndIterator();
+
+		boolean all = fullPass;
+		fullPass = false;
+
+		return new WorklistIterator(abox, all);
+	}
+
+	/**
+	 * Returns the expressivity this strategy was initialized with.
+	 */
+	public Expressivity getExpressivity() {
+		return expressivity;
+	}
+
 	public Individual createFreshIndividual(Individual parent, DependencySet ds) {
 		Individual ind = abox.addFreshIndividual(parent, ds);
 
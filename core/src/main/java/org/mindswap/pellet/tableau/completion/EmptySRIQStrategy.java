@@ -100,6 +100,8 @@ public class EmptySRIQStrategy extends CompletionStrategy {
 	}
 
 	public void initialize(Expressivity expressivity) {
+		this.expressivity = expressivity;
+		
 		mergeList = new ArrayList<NodeMerge>();
 
 		cachedNodes = new HashMap<Individual, ATermAppl>();
@@ -144,6 +146,18 @@ public class EmptySRIQStrategy extends CompletionStrategy {
 		
 		initialize( expr );
 
+		completeInitialized();
+	}
+
+	@Override
+	public CompletionStrategy createParallelStrategy(ABox abox) {
+		EmptySRIQStrategy strategy = new EmptySRIQStrategy( abox );
+		strategy.cacheSafety = cacheSafety;
+		return strategy;
+	}
+
+	@Override
+	protected void completeInitialized() {
 		while( !abox.isComplete() && !abox.isClosed() ) {
 			Individual x = getNextIndividual();
 
@@ -170,7 +184,7 @@ public class EmptySRIQStrategy extends CompletionStrategy {
 				else
 					abox.setComplete( true );
 			}
-			else if( expr.hasInverse() && parentNeedsExpanding( x ) ) {
+			else if( expressivity.hasInverse() && parentNeedsExpanding( x ) ) {
 				mayNeedExpanding.removeAll( getDescendants(x.getParent()) );
 				mayNeedExpanding.addFirst( x.getParent() );
 				continue;
@@ -249,7 +263,7 @@ public class EmptySRIQStrategy extends CompletionStrategy {
 		checkTimer();
 
 		if( !abox.doExplanation() && PelletOptions.USE_ADVANCED_CACHING ) {
-			Timer t = abox.getKB().timers.startTimer( "cache" );
+			Timer t = abox.getTimers().startTimer( "cache" );
 			Bool cachedSat = isCachedSat( x );
 			t.stop();
 			if( cachedSat.isKnown() ) {
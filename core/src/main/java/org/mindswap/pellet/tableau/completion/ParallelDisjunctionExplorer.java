@@ -0,0 +1,202 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public
+// License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of
+// proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet.tableau.completion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mindswap.pellet.ABox;
+import org.mindswap.pellet.DependencySet;
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
+import org.mindswap.pellet.tableau.branch.Branch;
+import org.mindswap.pellet.tableau.branch.DisjunctionBranch;
+import org.mindswap.pellet.tableau.cache.ConceptCacheLRU;
+import org.mindswap.pellet.utils.Timer;
+import org.mindswap.pellet.utils.Timers;
+
+import aterm.ATermAppl;
+
+import com.clarkparsia.pellet.utils.ExecutorUtils;
+
+/**
+ * <p>
+ * Title: Parallel Disjunction Explorer
+ * </p>
+ * <p>
+ * Description: Explores the disjuncts of the first disjunction branch created
+ * during a completion in parallel. Each disjunct is tried on a separate copy
+ * of the ABox where the completion continues in a separate thread. The copy
+ * for the lowest indexed disjunct that results in a clash-free completion
+ * replaces the original ABox so the result does not depend on the scheduling
+ * of the threads. If all the disjuncts result in a clash the copy for the last
+ * disjunct is used, same as the sequential exploration.
+ * </p>
+ * <p>
+ * Exploration is done only for the first branch because the dependency sets
+ * at that point refer to no other branches. Copies of the ABox share
+ * dependency sets and a later fork would let threads modify shared sets when
+ * clashes are backjumped. Each copy gets its own concept cache and timers
+ * since neither is thread-safe, the timers of the copies that finish are
+ * added to the timers of the original ABox.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class ParallelDisjunctionExplorer {
+	public final static Logger		log	= Logger.getLogger( ParallelDisjunctionExplorer.class
+												.getName() );
+
+	private static ExecutorService	executor;
+
+	private static synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			executor = ExecutorUtils.newDaemonThreadPool( PelletOptions.PARALLEL_DISJUNCTION_THREADS, "pellet-disjunction" );
+		}
+
+		return executor;
+	}
+
+	/**
+	 * Checks if the given branch can be explored in parallel by the given
+	 * strategy. The branch should not be added to the ABox yet.
+	 */
+	public static boolean isApplicable(CompletionStrategy strategy, DisjunctionBranch branch) {
+		ABox abox = strategy.getABox();
+
+		return PelletOptions.USE_PARALLEL_DISJUNCTIONS
+			&& branch.getTryCount() > 1
+			&& abox.getBranches().isEmpty()
+			&& !abox.doExplanation()
+			&& !PelletOptions.USE_COMPLETION_QUEUE
+			&& !PelletOptions.USE_INCREMENTAL_DELETION
+			&& !PelletOptions.USE_INCREMENTAL_CONSISTENCY
+			&& !PelletOptions.TRACK_BRANCH_EFFECTS
+			&& !PelletOptions.SATURATE_TABLEAU
+			&& strategy.supportsParallelCompletion();
+	}
+
+	/**
+	 * Explores all the disjuncts of the given branch which has been added to
+	 * the ABox of the strategy but not tried yet. When this function returns
+	 * the ABox is complete.
+	 */
+	public static void explore(final CompletionStrategy strategy, DisjunctionBranch branch) {
+		final ABox abox = strategy.getABox();
+		final int n = branch.getTryCount();
+		Timers timers = abox.getTimers();
+		Timer completionTimer = timers.getTimer( "complete" );
+		Timer t = timers.startTimer( "parallelDisjunctions" );
+
+		abox.copyOnWrite();
+
+		List<ABox> copies = new ArrayList<ABox>( n );
+		List<Future<ABox>> results = new ArrayList<Future<ABox>>( n );
+		for( int i = 0; i < n; i++ ) {
+			final ABox copy = abox.copy();
+			final int tryIndex = i;
+
+			copy.setDisjBranchStats( copyStats( abox.getDisjBranchStats() ) );
+			copy.setCache( new ConceptCacheLRU( abox.getKB() ) );
+			// timeouts of the completion still apply to the timers of the copy
+			Timers copyTimers = new Timers( completionTimer == null
+				? timers.mainTimer
+				: completionTimer );
+			copyTimers.createTimer( "complete" );
+			copy.setTimers( copyTimers );
+			copies.add( copy );
+
+			results.add( getExecutor().submit( new Callable<ABox>() {
+				public ABox call() {
+					CompletionStrategy worker = strategy.createParallelStrategy( copy );
+					worker.initialize( strategy.getExpressivity() );
+
+					DisjunctionBranch b = (DisjunctionBranch) copy.getBranches().get( 0 );
+					b.setTermDepends( b.getTermDepends().union( DependencySet.EMPTY, false ) );
+					b.setSpeculativeTry( tryIndex );
+
+					if( !copy.isClosed() )
+						b.tryNext();
+
+					worker.completeInitialized();
+
+					return copy;
+				}
+			} ) );
+		}
+
+		ABox selected = null;
+		int selectedIndex = -1;
+		try {
+			for( int i = 0; i < n && selected == null; i++ ) {
+				ABox result = results.get( i ).get();
+				if( !result.isClosed() || i == n - 1 ) {
+					selected = result;
+					selectedIndex = i;
+				}
+			}
+		} catch( InterruptedException e ) {
+			throw new TimerInterruptedException( e );
+		} catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			throw new InternalReasonerException( cause );
+		} finally {
+			for( Future<ABox> result : results )
+				result.cancel( true );
+
+			// only the copies whose results have been retrieved are not used
+			// by the worker threads anymore
+			for( int i = 0; i <= selectedIndex; i++ )
+				addTimers( timers, copies.get( i ).getTimers() );
+
+			t.stop();
+		}
+
+		if( log.isLoggable( Level.FINE ) )
+			log.fine( "PARALLEL: Branch " + branch.getBranch() + " selected disjunct "
+					+ (selectedIndex + 1) + "/" + n + " clash: " + selected.getClash() );
+
+		abox.replaceWith( selected );
+		abox.setDisjBranchStats( selected.getDisjBranchStats() );
+		for( Branch b : abox.getBranches() )
+			b.setStrategy( strategy );
+	}
+
+	private static void addTimers(Timers timers, Timers other) {
+		for( Timer timer : other.getTimers() ) {
+			if( timer == other.mainTimer )
+				continue;
+
+			Timer existing = timers.getTimer( timer.getName() );
+			if( existing == null )
+				existing = timers.createTimer( timer.getName() );
+			existing.add( timer );
+		}
+	}
+
+	private static Map<ATermAppl, int[]> copyStats(Map<ATermAppl, int[]> stats) {
+		Map<ATermAppl, int[]> copy = new HashMap<ATermAppl, int[]>( stats.size() );
+		for( Map.Entry<ATermAppl, int[]> entry : stats.entrySet() )
+			copy.put( entry.getKey(), entry.getValue().clone() );
+
+		return copy;
+	}
+}
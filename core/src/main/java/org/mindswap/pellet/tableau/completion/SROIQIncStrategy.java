@@ -147,13 +147,15 @@ public class SROIQIncStrategy extends SROIQStrategy {
 	 */
 	public void initialize(Expressivity expr) {
 		
-		Timer t = abox.getKB().timers.startTimer("initialize");
+		Timer t = abox.getTimers().startTimer("initialize");
 
 		if(log.isLoggable( Level.FINE ))
 			log.fine("Initialize Started");
 		
 		mergeList = new ArrayList<NodeMerge>();
 		
+		fullPass = true;
+		
         blocking = BlockingFactory.createBlocking( expr );
 
         configureTableauRules( expr );
@@ -16,6 +16,7 @@ import org.mindswap.pellet.ABox;
 import org.mindswap.pellet.IndividualIterator;
 import org.mindswap.pellet.PelletOptions;
 import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
 import org.mindswap.pellet.tableau.branch.Branch;
 import org.mindswap.pellet.tableau.completion.rule.TableauRule;
 
@@ -38,6 +39,12 @@ import com.clarkparsia.pellet.expressivity.Expressivity;
  * @author Evren Sirin
  */
 public class SROIQStrategy extends CompletionStrategy {
+	/**
+	 * Set for strategies exploring disjunction alternatives in parallel that
+	 * are cancelled by interrupting the thread
+	 */
+	private boolean interruptible = false;
+	
 	public SROIQStrategy(ABox abox) {
 		super( abox );
 	}
@@ -130,9 +137,30 @@ public class SROIQStrategy extends CompletionStrategy {
 	public void complete(Expressivity expr) {
 		initialize( expr );
 
+		completeInitialized();
+	}
+
+	@Override
+	public boolean supportsParallelCompletion() {
+		// subclasses keep additional state that is not copied
+		return getClass().equals( SROIQStrategy.class );
+	}
+
+	@Override
+	public CompletionStrategy createParallelStrategy(ABox abox) {
+		SROIQStrategy strategy = new SROIQStrategy( abox );
+		strategy.interruptible = true;
+		return strategy;
+	}
+
+	@Override
+	protected void completeInitialized() {
 		while( !abox.isComplete() ) {
-			while( abox.isChanged() && !abox.isClosed() ) {
+			while( abox.isChanged() && !abox.isClosed() && !abox.isComplete() ) {
 				completionTimer.check();
+				
+				if( interruptible && Thread.interrupted() )
+					throw new TimerInterruptedException( "Completion interrupted" );
 
 				abox.setChanged( false );
 
@@ -147,7 +175,7 @@ public class SROIQStrategy extends CompletionStrategy {
 
 				IndividualIterator i = (PelletOptions.USE_COMPLETION_QUEUE)
 					? abox.getCompletionQueue()
-					: abox.getIndIterator();
+					: getPassIterator();
 
 				// flush the queue
 				if( PelletOptions.USE_COMPLETION_QUEUE )
@@ -155,7 +183,7 @@ public class SROIQStrategy extends CompletionStrategy {
 
 				for( TableauRule tableauRule : tableauRules ) {
 					tableauRule.apply( i );
-					if( abox.isClosed() )
+					if( abox.isClosed() || abox.isComplete() )
 						break;
 				}
 
@@ -169,6 +197,11 @@ public class SROIQStrategy extends CompletionStrategy {
 					abox.getCompletionQueue().setClosed( abox.isClosed() );
 			}
 
+			// a copy adopted after exploring a disjunction in parallel has
+			// already been completed and, if closed, backtracked
+			if( abox.isComplete() )
+				break;
+
 			if( abox.isClosed() ) {
 				if( log.isLoggable( Level.FINE ) )
 					log.fine( "Clash at Branch (" + abox.getBranch() + ") " + abox.getClash() );
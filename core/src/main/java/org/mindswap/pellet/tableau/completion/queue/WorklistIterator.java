@@ -0,0 +1,149 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet.tableau.completion.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.mindswap.pellet.ABox;
+import org.mindswap.pellet.Edge;
+import org.mindswap.pellet.Individual;
+import org.mindswap.pellet.IndividualIterator;
+import org.mindswap.pellet.Node;
+
+/**
+ * <p>
+ * Title: Worklist Iterator
+ * </p>
+ * <p>
+ * Description: Iterates over the individuals the completion rules need to be
+ * applied in one pass of the completion strategy. An individual is returned if
+ * it has been modified since the beginning of the previous pass or if one of
+ * its neighbors has been modified, e.g. a max cardinality restriction may
+ * become applicable when the label of a neighbor changes. Nodes are added to
+ * the list of changed nodes of the ABox when they are modified and the list
+ * is taken over by the iterator so a pass does not need to look at the nodes
+ * that have not been modified. Individuals are returned in the order of their
+ * depth in the completion graph so nominals are visited before the tree nodes
+ * and parents are visited before their successors.
+ * </p>
+ * <p>
+ * Rules skip blocked individuals so the rules update the change stamp of the
+ * blocked individuals to revisit them in the next pass in case they become
+ * unblocked.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class WorklistIterator extends IndividualIterator {
+	private static final Comparator<Individual>	DEPTH_COMPARATOR	= new Comparator<Individual>() {
+		public int compare(Individual ind1, Individual ind2) {
+			return ind1.getDepth() - ind2.getDepth();
+		}
+	};
+
+	/**
+	 * Individuals returned by this iterator or <code>null</code> if all the
+	 * individuals are returned
+	 */
+	private List<Individual>	individuals;
+
+	/**
+	 * Creates an iterator for the next pass of the completion.
+	 *
+	 * @param abox
+	 *            the ABox being completed
+	 * @param all
+	 *            if <code>true</code> all the individuals will be returned
+	 *            regardless of their change stamp
+	 */
+	public WorklistIterator(ABox abox, boolean all) {
+		super( abox );
+
+		List<Node> changed = abox.getChangedNodes();
+		abox.nextChangeStamp();
+
+		if( !all )
+			individuals = collect( changed );
+
+		reset( null );
+	}
+
+	/**
+	 * Returns the modified individuals and the individuals that are neighbors
+	 * of modified nodes. Nodes that have been pruned or removed from the ABox
+	 * after they were modified are ignored.
+	 */
+	private List<Individual> collect(List<Node> changed) {
+		Set<Node> visited = Collections.newSetFromMap( new IdentityHashMap<Node, Boolean>() );
+		List<Individual> result = new ArrayList<Individual>();
+		for( Node node : changed ) {
+			if( !isLive( node ) )
+				continue;
+
+			add( node, visited, result );
+
+			for( Edge edge : node.getInEdges() )
+				add( edge.getFrom(), visited, result );
+
+			if( node.isIndividual() ) {
+				for( Edge edge : ((Individual) node).getOutEdges() )
+					add( edge.getTo(), visited, result );
+			}
+		}
+
+		// stable sort keeps the modification order for the same depth
+		Collections.sort( result, DEPTH_COMPARATOR );
+
+		return result;
+	}
+
+	private void add(Node node, Set<Node> visited, List<Individual> result) {
+		if( node.isIndividual() && visited.add( node ) && isLive( node ) )
+			result.add( (Individual) node );
+	}
+
+	private boolean isLive(Node node) {
+		return !node.isPruned() && abox.getNode( node.getName() ) == node;
+	}
+
+	@Override
+	protected void findNext() {
+		if( individuals == null ) {
+			super.findNext();
+			return;
+		}
+
+		for( ; index < individuals.size(); index++ ) {
+			if( isLive( individuals.get( index ) ) )
+				break;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if( individuals == null )
+			return super.hasNext();
+
+		findNext();
+		return index < individuals.size();
+	}
+
+	@Override
+	public Individual next() {
+		if( individuals == null )
+			return super.next();
+
+		findNext();
+		return individuals.get( index++ );
+	}
+}
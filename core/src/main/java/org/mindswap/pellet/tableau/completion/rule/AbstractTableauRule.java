@@ -57,13 +57,18 @@ public abstract class AbstractTableauRule implements TableauRule {
             Individual node = i.next();
 			
             if( strategy.getBlocking().isBlocked( node ) ) {
+				// revisit in the next pass in case the node gets unblocked
+				node.updateChangeStamp();
+				
 				if( PelletOptions.USE_COMPLETION_QUEUE )
 					addQueueElement( node );				
 			}
             else {            
 	            apply( node );
 	
-	            if( strategy.getABox().isClosed() )
+	            // the ABox is already complete if it has been replaced by a
+	            // copy completed while exploring a disjunction in parallel
+	            if( strategy.getABox().isClosed() || strategy.getABox().isComplete() )
 	                return;
             }
         }
@@ -12,12 +12,16 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
+import org.mindswap.pellet.Clash;
+import org.mindswap.pellet.DependencySet;
 import org.mindswap.pellet.Individual;
 import org.mindswap.pellet.Node;
 import org.mindswap.pellet.PelletOptions;
 import org.mindswap.pellet.exceptions.InternalReasonerException;
 import org.mindswap.pellet.tableau.branch.DisjunctionBranch;
+import org.mindswap.pellet.tableau.cache.NogoodCache;
 import org.mindswap.pellet.tableau.completion.CompletionStrategy;
+import org.mindswap.pellet.tableau.completion.ParallelDisjunctionExplorer;
 import org.mindswap.pellet.tableau.completion.queue.NodeSelector;
 import org.mindswap.pellet.utils.ATermUtils;
 
@@ -62,7 +66,8 @@ public class DisjunctionRule extends AbstractTableauRule {
 
 			applyDisjunctionRule( node, disjunction );
 
-			if( strategy.getABox().isClosed() || node.isMerged() )
+			// the ABox is complete if the disjunction was explored in parallel
+			if( strategy.getABox().isClosed() || strategy.getABox().isComplete() || node.isMerged() )
 				return;
 		}
 		node.applyNext[Node.OR] = size;
@@ -101,8 +106,51 @@ public class DisjunctionRule extends AbstractTableauRule {
 				return;
 		}
 
+		DependencySet ds = node.getDepends( disjunction );
+		boolean pruned = false;
+
+		NogoodCache nogoods = strategy.getABox().getNogoods();
+		if( PelletOptions.USE_NOGOOD_CACHE && nogoods != null && !nogoods.isEmpty()
+				&& !strategy.getABox().doExplanation() && !PelletOptions.USE_INCREMENTAL_DELETION ) {
+			// remove the disjuncts that would complete a known nogood. the
+			// remaining disjuncts also depend on the labels that caused the
+			// removal
+			int remaining = 0;
+			for( int index = 0; index < disj.length; index++ ) {
+				DependencySet clashDepends = nogoods.getClash( node, disj[index] );
+				if( clashDepends == null )
+					disj[remaining++] = disj[index];
+				else
+					ds = ds.union( clashDepends, false );
+			}
+
+			if( remaining == 0 ) {
+				strategy.getABox().setClash( Clash.unexplained( node, ds, "All disjuncts of "
+						+ ATermUtils.toString( disjunction ) + " are known to clash" ) );
+				return;
+			}
+			else if( remaining == 1 ) {
+				strategy.addType( node, disj[0], ds );
+				return;
+			}
+			else if( remaining < disj.length ) {
+				ATermAppl[] newDisj = new ATermAppl[remaining];
+				System.arraycopy( disj, 0, newDisj, 0, remaining );
+				disj = newDisj;
+				pruned = true;
+			}
+		}
+
 		DisjunctionBranch newBranch = new DisjunctionBranch( strategy.getABox(), strategy, node,
-				disjunction, node.getDepends( disjunction ), disj );
+				disjunction, ds, disj );
+		newBranch.setPruned( pruned );
+		if( ParallelDisjunctionExplorer.isApplicable( strategy, newBranch ) ) {
+			strategy.addBranch( newBranch );
+
+			ParallelDisjunctionExplorer.explore( strategy, newBranch );
+			return;
+		}
+
 		strategy.addBranch( newBranch );
 
 		newBranch.tryNext();
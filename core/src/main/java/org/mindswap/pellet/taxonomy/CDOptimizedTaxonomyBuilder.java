@@ -97,6 +97,20 @@ public class CDOptimizedTaxonomyBuilder implements TaxonomyBuilder {
 
 	private Map<ATermAppl, ConceptFlag>	conceptFlags;
 
+	/**
+	 * Unfoldings of the classes and their negations at the time of the last
+	 * completed classification, <code>null</code> if not available
+	 */
+	private Map<ATermAppl, List<Unfolding>>	classifiedUnfoldings;
+
+	/**
+	 * The taxonomy (and the told taxonomy) to be updated by the next
+	 * classification, <code>null</code> if the taxonomy will be built from
+	 * scratch
+	 */
+	private Taxonomy<ATermAppl>				previousTaxonomy;
+	private Taxonomy<ATermAppl>				previousToldTaxonomy;
+
 	public CDOptimizedTaxonomyBuilder() {
 
 	}
@@ -140,10 +154,40 @@ public class CDOptimizedTaxonomyBuilder implements TaxonomyBuilder {
 		return toldDisjoints;
 	}
 
+	/**
+	 * Prepares the builder to update the current taxonomy in the next
+	 * classification rather than building it from scratch. This should only be
+	 * called when all the changes since the last classification are TBox
+	 * additions that do not change the RBox.
+	 * 
+	 * @return <code>false</code> if there is no completed classification to
+	 *         update
+	 */
+	public boolean prepareUpdate() {
+		if( previousTaxonomy != null ) {
+	        return true;
+        }
+
+		if( taxonomy == null || classifiedUnfoldings == null ) {
+	        return false;
+        }
+
+		previousTaxonomy = taxonomy;
+		previousToldTaxonomy = toldTaxonomy;
+		prepared = false;
+
+		return true;
+	}
+
 	/**
 	 * Classify the KB.
 	 */
 	public boolean classify() {		
+		Taxonomy<ATermAppl> seed = previousTaxonomy;
+		Taxonomy<ATermAppl> seedTold = previousToldTaxonomy;
+		previousTaxonomy = null;
+		previousToldTaxonomy = null;
+
 		classes = kb.getClasses();
 		
 		int classCount = classes.size();
@@ -175,6 +219,19 @@ public class CDOptimizedTaxonomyBuilder implements TaxonomyBuilder {
 			t.stop();
 		}
 
+		if( seed != null ) {
+			Set<ATermAppl> affected = computeAffectedClasses( seedTold );
+			
+			if( affected != null ) {
+	            return updateTaxonomy( seed, affected );
+            }
+			
+			if( log.isLoggable( Level.FINE ) ) {
+	            log.fine( "Changes affect all classes, taxonomy will be rebuilt" );
+            }
+		}
+		classifiedUnfoldings = null;
+
 		if( log.isLoggable( Level.FINE ) ) {
 			log.fine( "Starting classification..." );
 		}
@@ -229,6 +286,10 @@ public class CDOptimizedTaxonomyBuilder implements TaxonomyBuilder {
 
 		taxonomy.assertValid();
 		
+		if( completed ) {
+	        saveUnfoldings();
+        }
+		
 		if( log.isLoggable( Level.FINER ) ) {
 			log.finer( "Tax size : " + taxonomy.getNodes().size() );
 			log.finer( "Tax depth: " + taxonomy.depth );
@@ -283,6 +344,287 @@ public class CDOptimizedTaxonomyBuilder implements TaxonomyBuilder {
 		return true;
 	}
 
+	/**
+	 * Finds the classes whose subsumers or subsumees might have changed since
+	 * the last classification. A class is affected if its unfoldings, the
+	 * unfoldings of its negation or its told subsumers changed or if it refers
+	 * to an affected class in its unfoldings. Returns <code>null</code> if the
+	 * changes might affect every class, i.e. the GCIs or a class used in a
+	 * domain or range restriction is affected.
+	 */
+	private Set<ATermAppl> computeAffectedClasses(Taxonomy<ATermAppl> seedTold) {
+		Timer t = kb.timers.startTimer( "computeAffectedClasses" );
+		try {
+			if( !getUnfoldings( ATermUtils.TOP ).equals( classifiedUnfoldings.get( ATermUtils.TOP ) ) ) {
+	            return null;
+            }
+
+			Set<ATermAppl> affected = new HashSet<ATermAppl>();
+			Map<ATermAppl, Set<ATermAppl>> dependents = CollectionUtils.makeIdentityMap();
+			for( ATermAppl c : classes ) {
+				if( ATermUtils.isTop( c ) || ATermUtils.isBottom( c ) ) {
+	                continue;
+                }
+
+				ATermAppl notC = ATermUtils.makeNot( c );
+				List<Unfolding> unfoldC = getUnfoldings( c );
+				List<Unfolding> unfoldNotC = getUnfoldings( notC );
+
+				if( !unfoldC.equals( classifiedUnfoldings.get( c ) )
+						|| !unfoldNotC.equals( classifiedUnfoldings.get( notC ) )
+						|| !seedTold.contains( c )
+						|| !seedTold.getAllEquivalents( c ).equals( toldTaxonomy.getAllEquivalents( c ) )
+						|| !seedTold.getFlattenedSupers( c, /* direct = */true ).equals(
+								toldTaxonomy.getFlattenedSupers( c, /* direct = */true ) ) ) {
+	                affected.add( c );
+                }
+
+				Set<ATermAppl> primitives = new HashSet<ATermAppl>();
+				for( Unfolding unf : unfoldC ) {
+					ATermUtils.findPrimitives( unf.getResult(), primitives );
+					ATermUtils.findPrimitives( unf.getCondition(), primitives );
+				}
+				for( Unfolding unf : unfoldNotC ) {
+					ATermUtils.findPrimitives( unf.getResult(), primitives );
+					ATermUtils.findPrimitives( unf.getCondition(), primitives );
+				}
+
+				for( ATermAppl d : primitives ) {
+					Set<ATermAppl> set = dependents.get( d );
+					if( set == null ) {
+						set = new HashSet<ATermAppl>();
+						dependents.put( d, set );
+					}
+					set.add( c );
+				}
+			}
+
+			// add the classes that depend on the affected classes
+			List<ATermAppl> queue = new ArrayList<ATermAppl>( affected );
+			while( !queue.isEmpty() ) {
+				ATermAppl c = queue.remove( queue.size() - 1 );
+				Set<ATermAppl> set = dependents.get( c );
+				if( set != null ) {
+					for( ATermAppl d : set ) {
+						if( affected.add( d ) ) {
+	                        queue.add( d );
+                        }
+					}
+				}
+			}
+
+			// concepts in GCIs and domain/range restrictions may be added to
+			// any node so if they are affected every class is affected
+			Set<ATermAppl> global = new HashSet<ATermAppl>();
+			for( Unfolding unf : getUnfoldings( ATermUtils.TOP ) ) {
+	            ATermUtils.findPrimitives( unf.getResult(), global );
+            }
+			for( Role r : kb.getRBox().getRoles() ) {
+				for( ATermAppl c : r.getDomains() ) {
+	                ATermUtils.findPrimitives( c, global );
+                }
+				for( ATermAppl c : r.getRanges() ) {
+	                ATermUtils.findPrimitives( c, global );
+                }
+			}
+			if( SetUtils.intersects( global, affected ) ) {
+	            return null;
+            }
+
+			if( log.isLoggable( Level.FINE ) ) {
+	            log.fine( "Affected classes: " + affected.size() + "/" + classes.size() );
+            }
+
+			return affected;
+		} finally {
+			t.stop();
+		}
+	}
+
+	/**
+	 * Updates the given taxonomy computed before the last changes by removing
+	 * the affected classes and classifying them again. The unaffected classes
+	 * keep their places in the taxonomy. Since affected classes may have new
+	 * subsumees among the unaffected classes, they are classified with both
+	 * top and bottom search.
+	 */
+	private boolean updateTaxonomy(Taxonomy<ATermAppl> seed, Set<ATermAppl> affected) {
+		taxonomy = copyUnaffected( seed, affected );
+
+		// without CD flags both top and bottom search will be done
+		conceptFlags.clear();
+
+		List<ATermAppl> affectedList = new ArrayList<ATermAppl>();
+		for( ATermAppl c : definitionOrder ) {
+			if( affected.contains( c ) ) {
+	            affectedList.add( c );
+            }
+		}
+
+		monitor.setProgressLength( affectedList.size() );
+
+		boolean completed = classify( affectedList.iterator(), /* requireTopSearch = */true );
+
+		monitor.taskFinished();
+
+		definitionOrder = null;
+
+		taxonomy.assertValid();
+
+		if( completed ) {
+	        saveUnfoldings();
+        }
+        else {
+	        classifiedUnfoldings = null;
+        }
+
+		return completed;
+	}
+
+	/**
+	 * Creates a copy of the given taxonomy that contains only the current
+	 * classes that are not affected. A node whose equivalents are all affected
+	 * is removed and its subs are connected to its closest unaffected supers.
+	 */
+	private Taxonomy<ATermAppl> copyUnaffected(Taxonomy<ATermAppl> seed, Set<ATermAppl> affected) {
+		Taxonomy<ATermAppl> copy = new Taxonomy<ATermAppl>( null, ATermUtils.TOP, ATermUtils.BOTTOM );
+		Set<ATermAppl> current = new HashSet<ATermAppl>( classes );
+
+		// for each node in the seed the closest nodes in the copy that are
+		// supers of the node (or the copy of the node itself)
+		Map<TaxonomyNode<ATermAppl>, Set<TaxonomyNode<ATermAppl>>> closest = new HashMap<TaxonomyNode<ATermAppl>, Set<TaxonomyNode<ATermAppl>>>();
+		Map<TaxonomyNode<ATermAppl>, Integer> remaining = new HashMap<TaxonomyNode<ATermAppl>, Integer>();
+		List<TaxonomyNode<ATermAppl>> queue = new ArrayList<TaxonomyNode<ATermAppl>>();
+
+		closest.put( seed.getTop(), Collections.<TaxonomyNode<ATermAppl>>emptySet() );
+		queue.addAll( seed.getTop().getSubs() );
+
+		while( !queue.isEmpty() ) {
+			TaxonomyNode<ATermAppl> node = queue.remove( queue.size() - 1 );
+
+			// visit the node after all of its supers are visited
+			Integer count = remaining.get( node );
+			int left = (count == null
+				? node.getSupers().size()
+				: count) - 1;
+			if( left > 0 ) {
+				remaining.put( node, left );
+				continue;
+			}
+
+			if( node == seed.getBottom() ) {
+	            continue;
+            }
+
+			Set<TaxonomyNode<ATermAppl>> supers = new HashSet<TaxonomyNode<ATermAppl>>();
+			for( TaxonomyNode<ATermAppl> sup : node.getSupers() ) {
+	            supers.addAll( closest.get( sup ) );
+            }
+			if( supers.size() > 1 ) {
+	            removeRedundantSupers( supers );
+            }
+
+			List<ATermAppl> equivalents = new ArrayList<ATermAppl>();
+			for( ATermAppl c : node.getEquivalents() ) {
+				if( current.contains( c ) && !affected.contains( c ) ) {
+	                equivalents.add( c );
+                }
+			}
+
+			if( equivalents.isEmpty() ) {
+	            closest.put( node, supers );
+            }
+            else {
+				List<ATermAppl> supNames = new ArrayList<ATermAppl>();
+				for( TaxonomyNode<ATermAppl> sup : supers ) {
+	                supNames.add( sup.getName() );
+                }
+
+				TaxonomyNode<ATermAppl> copyNode = copy.addNode( equivalents, supNames, Collections
+						.<ATermAppl> emptyList(), node.isHidden() );
+
+				Object explanations = node.getDatum( TaxonomyUtils.SUPER_EXPLANATION_KEY );
+				if( explanations != null ) {
+	                copyNode.putDatum( TaxonomyUtils.SUPER_EXPLANATION_KEY, explanations );
+                }
+
+				closest.put( node, Collections.singleton( copyNode ) );
+			}
+
+			queue.addAll( node.getSubs() );
+		}
+
+		copyEquivalents( seed.getTop(), copy.getTop(), copy, current, affected );
+		copyEquivalents( seed.getBottom(), copy.getBottom(), copy, current, affected );
+
+		return copy;
+	}
+
+	private void copyEquivalents(TaxonomyNode<ATermAppl> node, TaxonomyNode<ATermAppl> copyNode,
+			Taxonomy<ATermAppl> copy, Set<ATermAppl> current, Set<ATermAppl> affected) {
+		for( ATermAppl c : node.getEquivalents() ) {
+			if( !copyNode.contains( c ) && current.contains( c ) && !affected.contains( c ) ) {
+	            copy.addEquivalentNode( c, copyNode );
+            }
+		}
+	}
+
+	/**
+	 * Removes the nodes from the given set that are supers of another node in
+	 * the set.
+	 */
+	private void removeRedundantSupers(Set<TaxonomyNode<ATermAppl>> supers) {
+		Set<TaxonomyNode<ATermAppl>> ancestors = new HashSet<TaxonomyNode<ATermAppl>>();
+		List<TaxonomyNode<ATermAppl>> queue = new ArrayList<TaxonomyNode<ATermAppl>>();
+		for( TaxonomyNode<ATermAppl> sup : supers ) {
+	        queue.addAll( sup.getSupers() );
+        }
+
+		while( !queue.isEmpty() ) {
+			TaxonomyNode<ATermAppl> node = queue.remove( queue.size() - 1 );
+			if( ancestors.add( node ) ) {
+	            queue.addAll( node.getSupers() );
+            }
+		}
+
+		supers.removeAll( ancestors );
+	}
+
+	/**
+	 * Remembers the current unfoldings of the classes so the affected classes
+	 * can be found if the TBox changes.
+	 */
+	private void saveUnfoldings() {
+		if( !PelletOptions.USE_INCREMENTAL_CLASSIFICATION ) {
+			classifiedUnfoldings = null;
+			return;
+		}
+
+		Timer t = kb.timers.startTimer( "saveUnfoldings" );
+
+		classifiedUnfoldings = CollectionUtils.makeIdentityMap();
+		classifiedUnfoldings.put( ATermUtils.TOP, getUnfoldings( ATermUtils.TOP ) );
+		for( ATermAppl c : classes ) {
+			if( ATermUtils.isTop( c ) || ATermUtils.isBottom( c ) ) {
+	            continue;
+            }
+
+			ATermAppl notC = ATermUtils.makeNot( c );
+			classifiedUnfoldings.put( c, getUnfoldings( c ) );
+			classifiedUnfoldings.put( notC, getUnfoldings( notC ) );
+		}
+
+		t.stop();
+	}
+
+	private List<Unfolding> getUnfoldings(ATermAppl c) {
+		Iterator<Unfolding> i = kb.getTBox().unfold( c );
+
+		return i.hasNext()
+			? IteratorUtils.toList( i )
+			: Collections.<Unfolding> emptyList();
+	}
+
 	private void prepare() {
 		reset();
 
@@ -509,8 +509,14 @@ public class TBoxExpImpl implements TBox {
 	}
 
 	public void prepare() {
-		Tg.absorb();
-		Tg.internalize();
+		if( PelletOptions.USE_INCREMENTAL_TBOX_PREPARATION && Tg.canPrepareIncrementally() ) {
+			Tg.absorbAdded();
+			Tg.internalizeAdded();
+		}
+		else {
+			Tg.absorb();
+			Tg.internalize();
+		}
 		Tu.normalize();
 	}
 
@@ -57,6 +57,22 @@ public class TgBox extends TBoxBase {
 
 	// universal concept
 	private List<Unfolding>		UC	= null;
+
+	/**
+	 * Axioms added since the last absorption
+	 */
+	private List<ATermAppl>		unabsorbed;
+
+	/**
+	 * GCIs left after absorption that are not yet internalized into UC
+	 */
+	private List<ATermAppl>		uninternalized;
+
+	/**
+	 * Flag set if UC is out of date, e.g. an axiom that has been absorbed or
+	 * internalized is removed, so the whole Tg needs to be processed again
+	 */
+	private boolean				prepareAll;
 	
 	/*
 	 * Constructors
@@ -64,6 +80,50 @@ public class TgBox extends TBoxBase {
 
 	public TgBox(TBoxExpImpl tbox) {
 		super( tbox );
+
+		unabsorbed = new ArrayList<ATermAppl>();
+		uninternalized = new ArrayList<ATermAppl>();
+		prepareAll = true;
+	}
+
+	@Override
+	public boolean addDef(ATermAppl def) {
+		boolean added = addTermDef( def );
+
+		if( added )
+			unabsorbed.add( def );
+
+		return added;
+	}
+
+	@Override
+	public boolean removeDef(ATermAppl axiom) {
+		boolean removed = super.removeDef( axiom );
+
+		if( removed && !unabsorbed.remove( axiom ) )
+			prepareAll = true;
+
+		return removed;
+	}
+
+	private boolean addTermDef(ATermAppl def) {
+		ATermAppl name = (ATermAppl) def.getArgument( 0 );
+		TermDefinition td = getTD( name );
+		if( td == null ) {
+			td = new TermDefinition();
+			termhash.put( name, td );
+		}
+
+		return td.addDef( def );
+	}
+
+	/**
+	 * Returns <code>true</code> if only new axioms have been added since the
+	 * last time Tg has been absorbed and internalized so it can be updated by
+	 * {@link #absorbAdded()} and {@link #internalizeAdded()}.
+	 */
+	public boolean canPrepareIncrementally() {
+		return UC != null && !prepareAll;
 	}
 
 	/*
@@ -75,40 +135,46 @@ public class TgBox extends TBoxBase {
 		UC = new ArrayList<Unfolding>();
 
 		for( TermDefinition termDef : termhash.values() ) {
-			for( ATermAppl subClassAxiom : termDef.getSubClassAxioms() ) {
-				ATermAppl c1 = (ATermAppl) subClassAxiom.getArgument( 0 );
-				ATermAppl c2 = (ATermAppl) subClassAxiom.getArgument( 1 );
-				ATermAppl notC1 = ATermUtils.makeNot( c1 );
-				ATermAppl notC1orC2 = ATermUtils.makeOr( notC1, c2 );
-				ATermAppl norm = ATermUtils.normalize( notC1orC2 );
-
-				Set<ATermAppl> explanation;
-				if( PelletOptions.USE_TRACING )
-					explanation = tbox.getAxiomExplanation( subClassAxiom );
-				else
-					explanation = Collections.emptySet();
+			for( ATermAppl subClassAxiom : termDef.getSubClassAxioms() )
+				internalize( subClassAxiom );
 
-				UC.add( Unfolding.create( norm, explanation ) );
-			}
+			for( ATermAppl eqClassAxiom : termDef.getEqClassAxioms() )
+				internalize( eqClassAxiom );
+		}
 
-			for( ATermAppl eqClassAxiom : termDef.getEqClassAxioms() ) {
-				ATermAppl c1 = (ATermAppl) eqClassAxiom.getArgument( 0 );
-				ATermAppl c2 = (ATermAppl) eqClassAxiom.getArgument( 1 );
-				ATermAppl notC1 = ATermUtils.makeNot( c1 );
-				ATermAppl notC2 = ATermUtils.makeNot( c2 );
-				ATermAppl notC1orC2 = ATermUtils.makeOr( notC1, c2 );
-				ATermAppl notC2orC1 = ATermUtils.makeOr( notC2, c1 );
-				Set<ATermAppl> explanation;
-				if( PelletOptions.USE_TRACING )
-					explanation = tbox.getAxiomExplanation( eqClassAxiom );
-				else
-					explanation = Collections.emptySet();
+		uninternalized.clear();
+		prepareAll = false;
+	}
 
-				UC.add( Unfolding.create( ATermUtils.normalize( notC1orC2 ),
-						explanation ) );
-				UC.add( Unfolding.create( ATermUtils.normalize( notC2orC1 ),
-						explanation ) );
-			}
+	/**
+	 * Adds the GCIs created since the last internalization to the existing UC.
+	 */
+	public void internalizeAdded() {
+		for( ATermAppl axiom : uninternalized )
+			internalize( axiom );
+
+		uninternalized.clear();
+	}
+
+	private void internalize(ATermAppl axiom) {
+		ATermAppl c1 = (ATermAppl) axiom.getArgument( 0 );
+		ATermAppl c2 = (ATermAppl) axiom.getArgument( 1 );
+		ATermAppl notC1 = ATermUtils.makeNot( c1 );
+		ATermAppl notC1orC2 = ATermUtils.makeOr( notC1, c2 );
+
+		Set<ATermAppl> explanation;
+		if( PelletOptions.USE_TRACING )
+			explanation = tbox.getAxiomExplanation( axiom );
+		else
+			explanation = Collections.emptySet();
+
+		UC.add( Unfolding.create( ATermUtils.normalize( notC1orC2 ), explanation ) );
+
+		if( axiom.getAFun().equals( ATermUtils.EQCLASSFUN ) ) {
+			ATermAppl notC2 = ATermUtils.makeNot( c2 );
+			ATermAppl notC2orC1 = ATermUtils.makeOr( notC2, c1 );
+
+			UC.add( Unfolding.create( ATermUtils.normalize( notC2orC1 ), explanation ) );
 		}
 	}
 
@@ -122,24 +188,17 @@ public class TgBox extends TBoxBase {
 		Collection<TermDefinition> terms = termhash.values();
 
 		termhash = new HashMap<ATermAppl, TermDefinition>();
+		unabsorbed.clear();
+		prepareAll = true;
 
 		for( TermDefinition def : terms ) {
 			kb.timers.checkTimer( "preprocessing" );
 
-			for( ATermAppl subClassAxiom : def.getSubClassAxioms() ) {
-				ATermAppl c1 = (ATermAppl) subClassAxiom.getArgument( 0 );
-				ATermAppl c2 = (ATermAppl) subClassAxiom.getArgument( 1 );
-
-				absorbSubClass( c1, c2, tbox.getAxiomExplanation( subClassAxiom ) );
-			}
+			for( ATermAppl subClassAxiom : def.getSubClassAxioms() )
+				absorbAxiom( subClassAxiom );
 
-			for( ATermAppl eqClassAxiom : def.getEqClassAxioms() ) {
-				ATermAppl c1 = (ATermAppl) eqClassAxiom.getArgument( 0 );
-				ATermAppl c2 = (ATermAppl) eqClassAxiom.getArgument( 1 );
-
-				absorbSubClass( c1, c2, tbox.getAxiomExplanation( eqClassAxiom ) );
-				absorbSubClass( c2, c1, tbox.getAxiomExplanation( eqClassAxiom ) );
-			}
+			for( ATermAppl eqClassAxiom : def.getEqClassAxioms() )
+				absorbAxiom( eqClassAxiom );
 		}
 
 		if( log.isLoggable( Level.FINE ) ) {
@@ -149,6 +208,41 @@ public class TgBox extends TBoxBase {
 		log.fine( "Absorption finished" );
 	}
 
+	/**
+	 * Absorbs only the axioms added since the last absorption. The GCIs
+	 * remaining from the previous absorptions are not processed again.
+	 */
+	public void absorbAdded() {
+		if( log.isLoggable( Level.FINE ) )
+			log.fine( "Absorbing " + unabsorbed.size() + " new axioms" );
+
+		List<ATermAppl> axioms = unabsorbed;
+
+		unabsorbed = new ArrayList<ATermAppl>();
+
+		for( ATermAppl axiom : axioms ) {
+			kb.timers.checkTimer( "preprocessing" );
+
+			ATermAppl name = (ATermAppl) axiom.getArgument( 0 );
+			TermDefinition td = getTD( name );
+			td.removeDef( axiom );
+			if( td.getSubClassAxioms().isEmpty() && td.getEqClassAxioms().isEmpty() )
+				termhash.remove( name );
+
+			absorbAxiom( axiom );
+		}
+	}
+
+	private void absorbAxiom(ATermAppl axiom) {
+		ATermAppl c1 = (ATermAppl) axiom.getArgument( 0 );
+		ATermAppl c2 = (ATermAppl) axiom.getArgument( 1 );
+
+		absorbSubClass( c1, c2, tbox.getAxiomExplanation( axiom ) );
+
+		if( axiom.getAFun().equals( ATermUtils.EQCLASSFUN ) )
+			absorbSubClass( c2, c1, tbox.getAxiomExplanation( axiom ) );
+	}
+
 	private void absorbSubClass(ATermAppl sub, ATermAppl sup, Set<ATermAppl> axiomExplanation) {
 		if( log.isLoggable( Level.FINE ) ) 
 			log.fine( "Absorb: subClassOf(" + ATermUtils.toString(sub) + ", " + ATermUtils.toString(sup) + ")");
@@ -461,7 +555,8 @@ public class TgBox extends TBoxBase {
 		if( log.isLoggable( Level.FINE ) )
 			log.fine( "GCI: " + subClassAxiom + "\nexplanation: " + explanation );
 
-		addDef( subClassAxiom );
+		if( addTermDef( subClassAxiom ) )
+			uninternalized.add( subClassAxiom );
 
 		tbox.addAxiomExplanation( subClassAxiom, explanation );
 
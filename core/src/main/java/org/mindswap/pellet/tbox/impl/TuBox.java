@@ -60,6 +60,12 @@ public class TuBox extends TBoxBase {
 
 	private Collection<ATermAppl>			termsToNormalize	= null;
 
+	/**
+	 * Subclass axioms added since the last normalization whose unfoldings can
+	 * be appended to the existing unfoldings of the term
+	 */
+	private List<ATermAppl>					axiomsToNormalize	= new ArrayList<ATermAppl>();
+
 	/*
 	 * Constructors
 	 */
@@ -80,8 +86,13 @@ public class TuBox extends TBoxBase {
 
 		added = td.addDef( axiom );
 
-		if( added && termsToNormalize != null )
-			termsToNormalize.add( name );
+		if( added && termsToNormalize != null ) {
+			if( PelletOptions.USE_INCREMENTAL_TBOX_PREPARATION
+					&& axiom.getAFun().equals( ATermUtils.SUBFUN ) )
+				axiomsToNormalize.add( axiom );
+			else
+				termsToNormalize.add( name );
+		}
 
 		return added;
 	}
@@ -107,15 +118,22 @@ public class TuBox extends TBoxBase {
 	}
 
 	/**
-	 * Normalize all the definitions in the Tu
+	 * Normalize all the definitions in the Tu. After the first call only the
+	 * definitions that changed since the previous call are normalized.
 	 */
 	public void normalize() {
+		boolean updateTop = true;
 		if( termsToNormalize == null ) {
 			termsToNormalize = termhash.keySet();
 			unfoldingMap = CollectionUtils.makeIdentityMap();
 		}
-		else if( log.isLoggable( Level.FINE ) ) {
-			log.fine( "Normalizing " + termsToNormalize );
+		else {
+			if( log.isLoggable( Level.FINE ) )
+				log.fine( "Normalizing " + termsToNormalize + " and " + axiomsToNormalize.size()
+						+ " new axioms" );
+
+			updateTop = !PelletOptions.USE_INCREMENTAL_TBOX_PREPARATION
+					|| termsToNormalize.contains( ATermUtils.TOP );
 		}
 
 		for( ATermAppl c : termsToNormalize ) {
@@ -159,10 +177,32 @@ public class TuBox extends TBoxBase {
 				unfoldingMap.remove( c );
 		}
 
+		// subclass axioms for terms that have not been normalized above are
+		// appended to the unfolding list of the term without normalizing the
+		// other definitions of the term again
+		for( ATermAppl subClassAxiom : axiomsToNormalize ) {
+			ATermAppl c = (ATermAppl) subClassAxiom.getArgument( 0 );
+			if( termsToNormalize.contains( c ) )
+				continue;
+
+			ATermAppl unfolded = (ATermAppl) subClassAxiom.getArgument( 1 );
+			Set<ATermAppl> ds = tbox.getAxiomExplanation( subClassAxiom );
+
+			List<Unfolding> unfoldC = unfoldingMap.get( c );
+			if( unfoldC == null ) {
+				unfoldC = new ArrayList<Unfolding>();
+				unfoldingMap.put( c, unfoldC );
+			}
+			unfoldC.add( Unfolding.create( ATermUtils.normalize( unfolded ), ds ) );
+
+			updateTop |= ATermUtils.isTop( c );
+		}
+
 		termsToNormalize = new HashSet<ATermAppl>();
+		axiomsToNormalize.clear();
 		// termsToNormalize = null;
 
-		if( PelletOptions.USE_ROLE_ABSORPTION )
+		if( PelletOptions.USE_ROLE_ABSORPTION && updateTop )
 			absorbRanges( tbox );
 	}
 
@@ -67,6 +67,20 @@ public class Timers  {
 	    mainTimer.start();
 	}
 	
+	/**
+	 * Creates a new set of timers whose main timer is a child of the given
+	 * timer so checking any of these timers also checks the timeout of the
+	 * given timer. Timers are not thread-safe and this is used to time the
+	 * work done in a separate thread without sharing timers across threads.
+	 * 
+	 * @param parent the timer whose timeout also applies to these timers
+	 */
+	public Timers(Timer parent) {
+	    mainTimer = new Timer("main", parent);
+	    timers.put("main", mainTimer);
+	    mainTimer.start();
+	}
+	
 	public void addAll( Timers other ) {
 	    for( Entry<String, Timer> entry : other.timers.entrySet() ) {
             String name = entry.getKey();
@@ -79,7 +93,7 @@ public class Timers  {
         }	    
 	}
 
-	public Timer createTimer(String name) {
+	public synchronized Timer createTimer(String name) {
 		Timer t = new Timer(name, mainTimer);
 		timers.put(name, t);
 		return t;
@@ -87,10 +101,21 @@ public class Timers  {
 
 	public Timer startTimer(String name) {
 		Timer t = getTimer(name);
-		if(t == null) t = createTimer(name);
+		if(t == null) t = getOrCreateTimer(name);
 		t.start();
 		return t;
 	}
+	
+	/**
+	 * Creates the timer unless another thread created it in the meantime.
+	 * Reasoning threads exploring alternatives in parallel may create the same
+	 * timer concurrently.
+	 */
+	private synchronized Timer getOrCreateTimer(String name) {
+		Timer t = timers.get(name);
+		if(t == null) t = createTimer(name);
+		return t;
+	}
 
 	public void checkTimer(String name) {
 		Timer t = getTimer(name);
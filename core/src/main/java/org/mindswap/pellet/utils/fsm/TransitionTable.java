@@ -0,0 +1,145 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet.utils.fsm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+
+/**
+ * <p>
+ * Title:
+ * </p>
+ * <p>
+ * Description: A compact, read-only representation of a deterministic
+ * {@link TransitionGraph}. States are numbered from 0 (the initial state) to
+ * <code>size() - 1</code> and the outgoing transitions of each state are
+ * stored in parallel arrays so the graph can be traversed without iterating
+ * over sets or allocating new state sets at each step.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class TransitionTable<T> {
+	public static final int	NONE	= -1;
+
+	private Object[][]		symbols;
+
+	private int[][]			targets;
+
+	private boolean[]		finalStates;
+
+	/**
+	 * Creates a table from the given transition graph which should be
+	 * deterministic, i.e. there are no epsilon transitions and there is at
+	 * most one transition for each symbol from a state.
+	 *
+	 * @param tg
+	 *            a deterministic transition graph
+	 */
+	public TransitionTable(TransitionGraph<T> tg) {
+		State<T> initialState = tg.getInitialState();
+		Set<State<T>> finals = tg.getFinalStates();
+
+		// number the states in the order they are reached from the initial
+		// state so the initial state gets the number 0
+		Map<State<T>, Integer> ids = new HashMap<State<T>, Integer>();
+		List<State<T>> states = new ArrayList<State<T>>();
+		ids.put( initialState, 0 );
+		states.add( initialState );
+		for( int i = 0; i < states.size(); i++ ) {
+			for( Transition<T> t : states.get( i ).getTransitions() ) {
+				if( t.isEpsilon() )
+					throw new InternalReasonerException( "Transition graph is not deterministic" );
+
+				State<T> to = t.getTo();
+				if( !ids.containsKey( to ) ) {
+					ids.put( to, states.size() );
+					states.add( to );
+				}
+			}
+		}
+
+		int size = states.size();
+		symbols = new Object[size][];
+		targets = new int[size][];
+		finalStates = new boolean[size];
+		for( int i = 0; i < size; i++ ) {
+			State<T> state = states.get( i );
+			Set<Transition<T>> transitions = state.getTransitions();
+
+			symbols[i] = new Object[transitions.size()];
+			targets[i] = new int[transitions.size()];
+			int j = 0;
+			for( Transition<T> t : transitions ) {
+				symbols[i][j] = t.getName();
+				targets[i][j] = ids.get( t.getTo() );
+				j++;
+			}
+
+			finalStates[i] = finals.contains( state );
+		}
+	}
+
+	/**
+	 * Returns the number of states reachable from the initial state.
+	 */
+	public int size() {
+		return finalStates.length;
+	}
+
+	public int getInitialState() {
+		return 0;
+	}
+
+	public boolean isFinal(int state) {
+		return finalStates[state];
+	}
+
+	/**
+	 * Returns the number of transitions originating from the given state.
+	 */
+	public int getTransitionCount(int state) {
+		return targets[state].length;
+	}
+
+	/**
+	 * Returns the symbol of the <code>i</code>th transition of the given
+	 * state.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getSymbol(int state, int i) {
+		return (T) symbols[state][i];
+	}
+
+	/**
+	 * Returns the target of the <code>i</code>th transition of the given
+	 * state.
+	 */
+	public int getTarget(int state, int i) {
+		return targets[state][i];
+	}
+
+	/**
+	 * Returns the state reached from the given state with the given symbol or
+	 * {@link #NONE} if there is no such transition.
+	 */
+	public int move(int state, T symbol) {
+		Object[] stateSymbols = symbols[state];
+		for( int i = 0; i < stateSymbols.length; i++ ) {
+			if( stateSymbols[i].equals( symbol ) )
+				return targets[state][i];
+		}
+
+		return NONE;
+	}
+}
@@ -0,0 +1,399 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.owlapi.explanation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+import com.clarkparsia.owlapiv3.OWL;
+import com.clarkparsia.owlapiv3.OntologyUtils;
+import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
+import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
+import com.clarkparsia.pellet.utils.ExecutorUtils;
+
+/**
+ * <p>
+ * Title: ConcurrentHSTExplanationGenerator
+ * </p>
+ * <p>
+ * Description: Computes all the explanations for unsatisfiable classes by
+ * building a hitting set tree (HST) like {@link HSTExplanationGenerator} but
+ * the nodes of each level of the tree are explored concurrently. Instead of
+ * removing and restoring axioms in a shared ontology, each node is explained
+ * by a {@link GlassBoxExplanation} over a separate ontology that contains the
+ * axioms that are not on the path of the node. These ontologies are created
+ * with an ontology manager that is local to the worker thread so nodes never
+ * share any reasoner or ontology state.
+ * </p>
+ * <p>
+ * The search for a class starts from the STAR locality module of its
+ * signature (unless the ontology is inconsistent) since the module contains
+ * all the explanations. An explanation found earlier is reused for a node if
+ * it does not contain any of the axioms on the path of the node, and a node
+ * is closed without reasoning if its path contains the path of a satisfiable
+ * node. Each path is explained at most once since the paths already visited
+ * are tracked for each tree, so the axioms of a node are never copied or kept
+ * after the node is explained. The explanations for several classes can be
+ * computed with a single call in which case the nodes of all the trees are
+ * explored together.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class ConcurrentHSTExplanationGenerator {
+	public static final Logger	log	= Logger.getLogger( ConcurrentHSTExplanationGenerator.class.getName() );
+
+	private static ExecutorService	executor;
+
+	private static final ThreadLocal<OWLOntologyManager>	managers	= new ThreadLocal<OWLOntologyManager>() {
+		@Override
+		protected OWLOntologyManager initialValue() {
+			return OWLManager.createOWLOntologyManager();
+		}
+	};
+
+	static synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			executor = ExecutorUtils.newDaemonThreadPool( PelletOptions.EXPLANATION_THREADS, "pellet-explanation" );
+		}
+
+		return executor;
+	}
+
+	private PelletReasonerFactory	factory;
+
+	private PelletReasoner			reasoner;
+
+	public ConcurrentHSTExplanationGenerator(PelletReasoner reasoner) {
+		this( new PelletReasonerFactory(), reasoner );
+	}
+
+	public ConcurrentHSTExplanationGenerator(PelletReasonerFactory factory, PelletReasoner reasoner) {
+		this.factory = factory;
+		this.reasoner = reasoner;
+	}
+
+	/**
+	 * Returns a single explanation for the given class expression, or an empty
+	 * set if the class expression is satisfiable.
+	 */
+	public Set<OWLAxiom> getExplanation(OWLClassExpression unsatClass) {
+		Set<Set<OWLAxiom>> explanations = getExplanations( unsatClass, 1 );
+
+		return explanations.isEmpty()
+			? Collections.<OWLAxiom> emptySet()
+			: explanations.iterator().next();
+	}
+
+	/**
+	 * Returns all the explanations for the given class expression, or an empty
+	 * set if the class expression is satisfiable.
+	 */
+	public Set<Set<OWLAxiom>> getExplanations(OWLClassExpression unsatClass) {
+		return getExplanations( unsatClass, 0 );
+	}
+
+	/**
+	 * Returns at most the given number of explanations for the given class
+	 * expression, or an empty set if the class expression is satisfiable.
+	 *
+	 * @param maxExplanations
+	 *            maximum number of explanations, or 0 to get all the
+	 *            explanations
+	 */
+	public Set<Set<OWLAxiom>> getExplanations(OWLClassExpression unsatClass, int maxExplanations) {
+		return getExplanations( Collections.singleton( unsatClass ), maxExplanations ).get( unsatClass );
+	}
+
+	/**
+	 * Returns at most the given number of explanations for each of the given
+	 * class expressions. The hitting set trees of all the class expressions are
+	 * built together so the available threads are kept busy even when the
+	 * trees are small.
+	 *
+	 * @param maxExplanations
+	 *            maximum number of explanations for each class expression, or
+	 *            0 to get all the explanations
+	 * @return a map from each class expression to its explanations where
+	 *         satisfiable class expressions are mapped to an empty set
+	 */
+	public Map<OWLClassExpression, Set<Set<OWLAxiom>>> getExplanations(
+			Collection<? extends OWLClassExpression> unsatClasses, int maxExplanations) {
+		Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+		for( OWLOntology ontology : reasoner.getRootOntology().getImportsClosure() ) {
+			axioms.addAll( ontology.getLogicalAxioms() );
+		}
+
+		// modules of an inconsistent ontology may not contain the explanations
+		// of the inconsistency so they can be used only if it is consistent
+		SyntacticLocalityModuleExtractor extractor = reasoner.isConsistent()
+			? new SyntacticLocalityModuleExtractor( OWL.manager, reasoner.getRootOntology(), axioms, ModuleType.STAR )
+			: null;
+
+		List<Search> searches = new ArrayList<Search>();
+		for( OWLClassExpression unsatClass : unsatClasses ) {
+			Set<OWLAxiom> module = (extractor == null || unsatClass.isOWLThing())
+				? axioms
+				: extractor.extract( unsatClass.getSignature() );
+
+			if( log.isLoggable( Level.FINE ) )
+				log.fine( "Explain " + unsatClass + " using " + module.size() + " axioms" );
+
+			searches.add( new Search( unsatClass, module, maxExplanations ) );
+		}
+
+		while( expand( searches ) )
+			;
+
+		Map<OWLClassExpression, Set<Set<OWLAxiom>>> result = new LinkedHashMap<OWLClassExpression, Set<Set<OWLAxiom>>>();
+		for( Search search : searches ) {
+			result.put( search.unsatClass, search.explanations );
+		}
+
+		return result;
+	}
+
+	/**
+	 * Explains the nodes in the current level of all the given trees and
+	 * creates the next level of nodes. Returns <code>false</code> if there are
+	 * no more nodes to explain.
+	 */
+	private boolean expand(List<Search> searches) {
+		List<Node> nodes = new ArrayList<Node>();
+		List<Node> tasks = new ArrayList<Node>();
+		for( Search search : searches ) {
+			if( search.isDone() )
+				continue;
+
+			for( Set<OWLAxiom> path : search.frontier ) {
+				if( search.isClosed( path ) )
+					continue;
+
+				Node node = new Node( search, path );
+				node.explanation = search.findExplanation( path );
+				if( node.explanation == null )
+					tasks.add( node );
+				nodes.add( node );
+			}
+
+			search.frontier = new ArrayList<Set<OWLAxiom>>();
+		}
+
+		if( nodes.isEmpty() )
+			return false;
+
+		explain( tasks );
+
+		for( Node node : nodes ) {
+			Search search = node.search;
+			if( search.isDone() )
+				continue;
+
+			if( node.explanation.isEmpty() ) {
+				search.satPaths.add( node.path );
+				continue;
+			}
+
+			search.explanations.add( node.explanation );
+			if( search.isDone() )
+				continue;
+
+			for( OWLAxiom axiom : node.explanation ) {
+				Set<OWLAxiom> path = new HashSet<OWLAxiom>( node.path );
+				path.add( axiom );
+				if( search.visited.add( path ) )
+					search.frontier.add( path );
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes the explanations of the given nodes, concurrently if there is
+	 * more than one node and more than one thread.
+	 */
+	private void explain(List<Node> nodes) {
+		if( nodes.size() <= 1 || PelletOptions.EXPLANATION_THREADS <= 1 ) {
+			for( Node node : nodes ) {
+				node.explanation = node.call();
+			}
+			return;
+		}
+
+		List<Future<Set<OWLAxiom>>> futures = new ArrayList<Future<Set<OWLAxiom>>>( nodes.size() );
+		try {
+			for( Node node : nodes ) {
+				futures.add( getExecutor().submit( node ) );
+			}
+
+			for( int i = 0; i < nodes.size(); i++ ) {
+				nodes.get( i ).explanation = futures.get( i ).get();
+			}
+		} catch( InterruptedException e ) {
+			throw new TimerInterruptedException( e );
+		} catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new InternalReasonerException( cause );
+		} finally {
+			for( Future<Set<OWLAxiom>> future : futures ) {
+				future.cancel( true );
+			}
+		}
+	}
+
+	/**
+	 * Computes the explanation for the given class w.r.t. the axioms of the
+	 * module that are not on the given path with a new reasoner.
+	 */
+	private Set<OWLAxiom> computeExplanation(OWLClassExpression unsatClass, Set<OWLAxiom> module,
+			Set<OWLAxiom> path) {
+		OWLOntologyManager manager = managers.get();
+
+		OWLOntology ontology;
+		try {
+			ontology = manager.createOntology();
+		} catch( OWLOntologyCreationException e ) {
+			throw new OWLRuntimeException( e );
+		}
+
+		try {
+			List<OWLAxiom> axioms = new ArrayList<OWLAxiom>( module.size() - path.size() );
+			for( OWLAxiom axiom : module ) {
+				if( !path.contains( axiom ) )
+					axioms.add( axiom );
+			}
+			OntologyUtils.addAxioms( ontology, axioms );
+
+			// declare the entities of the class so the class is not
+			// considered to be satisfiable because of undefined entities
+			for( OWLEntity entity : unsatClass.getSignature() ) {
+				if( !entity.isBuiltIn() )
+					OntologyUtils.addAxioms( ontology, OWL.declaration( entity ) );
+			}
+
+			PelletReasoner nodeReasoner = factory.createNonBufferingReasoner( ontology );
+			GlassBoxExplanation expGen = new GlassBoxExplanation( factory, nodeReasoner );
+			try {
+				return expGen.getExplanation( unsatClass );
+			} finally {
+				expGen.dispose();
+				nodeReasoner.dispose();
+			}
+		} finally {
+			manager.removeOntology( ontology );
+		}
+	}
+
+	/**
+	 * The state of the hitting set tree for one class.
+	 */
+	private static class Search {
+		private final OWLClassExpression	unsatClass;
+
+		private final Set<OWLAxiom>			module;
+
+		private final int					maxExplanations;
+
+		private final Set<Set<OWLAxiom>>	explanations	= new LinkedHashSet<Set<OWLAxiom>>();
+
+		private final List<Set<OWLAxiom>>	satPaths		= new ArrayList<Set<OWLAxiom>>();
+
+		private final Set<Set<OWLAxiom>>	visited			= new HashSet<Set<OWLAxiom>>();
+
+		private List<Set<OWLAxiom>>			frontier		= new ArrayList<Set<OWLAxiom>>();
+
+		public Search(OWLClassExpression unsatClass, Set<OWLAxiom> module, int maxExplanations) {
+			this.unsatClass = unsatClass;
+			this.module = module;
+			this.maxExplanations = maxExplanations;
+
+			frontier.add( Collections.<OWLAxiom> emptySet() );
+		}
+
+		public boolean isDone() {
+			return maxExplanations > 0 && explanations.size() >= maxExplanations;
+		}
+
+		/**
+		 * A path is closed if the axioms remaining after removing the path
+		 * are a subset of the axioms of a satisfiable node.
+		 */
+		public boolean isClosed(Set<OWLAxiom> path) {
+			for( Set<OWLAxiom> satPath : satPaths ) {
+				if( path.containsAll( satPath ) )
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Returns an explanation found earlier that does not contain any axiom
+		 * on the given path, or <code>null</code> if there is none.
+		 */
+		public Set<OWLAxiom> findExplanation(Set<OWLAxiom> path) {
+			for( Set<OWLAxiom> explanation : explanations ) {
+				if( Collections.disjoint( explanation, path ) )
+					return explanation;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A node in a hitting set tree identified by the axioms removed on the
+	 * path from the root.
+	 */
+	private class Node implements Callable<Set<OWLAxiom>> {
+		private final Search		search;
+
+		private final Set<OWLAxiom>	path;
+
+		private Set<OWLAxiom>		explanation;
+
+		public Node(Search search, Set<OWLAxiom> path) {
+			this.search = search;
+			this.path = path;
+		}
+
+		public Set<OWLAxiom> call() {
+			return computeExplanation( search.unsatClass, search.module, path );
+		}
+	}
+}
@@ -7,34 +7,51 @@
 package com.clarkparsia.owlapi.explanation;
 
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
+import org.mindswap.pellet.exceptions.UnsupportedFeatureException;
+import org.mindswap.pellet.utils.ATermUtils;
 import org.mindswap.pellet.utils.Pair;
 import org.mindswap.pellet.utils.SetUtils;
 import org.mindswap.pellet.utils.TaxonomyUtils;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLObjectComplementOf;
 import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChangeException;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLRuntimeException;
 
 import aterm.ATermAppl;
 
 import com.clarkparsia.owlapi.explanation.util.DefinitionTracker;
-import com.clarkparsia.owlapiv3.OWL;
 import com.clarkparsia.owlapiv3.OntologyUtils;
 import com.clarkparsia.pellet.owlapiv3.AxiomConverter;
 import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
 import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
+import com.clarkparsia.pellet.utils.OntBuilder;
 
 /**
  * <p>
@@ -80,6 +97,8 @@ public class GlassBoxExplanation extends SingleExplanationGeneratorImpl {
 	
 	private boolean altReasonerEnabled = false;
 	
+	private boolean useOWLAPIPruning = false;
+	
 	private AxiomConverter axiomConverter;
 
 	public GlassBoxExplanation(OWLOntology ontology, PelletReasonerFactory factory) {
@@ -96,6 +115,25 @@ public class GlassBoxExplanation extends SingleExplanationGeneratorImpl {
 		axiomConverter = new AxiomConverter( reasoner );
 	}
 
+	/**
+	 * Returns <code>true</code> if explanations are always pruned by removing
+	 * one axiom at a time from an OWLAPI ontology.
+	 */
+	public boolean isUseOWLAPIPruning() {
+		return useOWLAPIPruning;
+	}
+
+	/**
+	 * Sets whether explanations are always pruned by removing one axiom at a
+	 * time from an OWLAPI ontology. By default, explanations are pruned with
+	 * QuickXplain over knowledge bases built from the ATerm axioms, and the
+	 * OWLAPI pruning is used only for the explanations with axioms that cannot
+	 * be rebuilt from ATerms.
+	 */
+	public void setUseOWLAPIPruning(boolean useOWLAPIPruning) {
+		this.useOWLAPIPruning = useOWLAPIPruning;
+	}
+
 	private void setAltReasonerEnabled(boolean enabled) {
 		if( enabled ) {
 			if( altReasoner == null ) {
@@ -225,22 +263,152 @@ public class GlassBoxExplanation extends SingleExplanationGeneratorImpl {
 			return Collections.emptySet();
 		}
 		else {
-			Set<OWLAxiom> explanation = convertExplanation( pellet.getKB().getExplanationSet() );
+			Set<ATermAppl> explanation = pellet.getKB().getExplanationSet();
 
 			if( log.isLoggable( Level.FINE ) )
-				log.fine( "Explanation " + explanation );
+				log.fine( "Explanation " + convertExplanation( explanation ) );
 
-			Set<OWLAxiom> prunedExplanation = pruneExplanation( unsatClass, explanation, true );
-			
-			int prunedAxiomCount = explanation.size() - prunedExplanation.size();
-			if( log.isLoggable( Level.FINE ) && prunedAxiomCount > 0 ) {
-				log.fine( "Pruned " + prunedAxiomCount + " axioms from the explanation: "
-						+ SetUtils.difference( explanation, prunedExplanation ) );
-				log.fine( "New explanation " + prunedExplanation );
+			Set<ATermAppl> prunedExplanation = pruneExplanation( pellet.term( unsatClass ), explanation );
+
+			return convertExplanation( unsatClass, explanation, prunedExplanation );
+		}
+	}
+
+	/**
+	 * Returns a single explanation for each of the given axioms, or an empty
+	 * set for the axioms that are not entailed. A class assertion whose type
+	 * was added to the individual during the consistency check without any
+	 * non-deterministic choice is explained with the axioms recorded in the
+	 * completion graph so no additional tableau is built for it. The other
+	 * axioms are traced one at a time as in
+	 * {@link #getExplanation(OWLClassExpression)}. The explanations are then
+	 * pruned concurrently.
+	 *
+	 * @param axioms
+	 *            axioms to explain
+	 * @return a map from each given axiom to its explanation
+	 */
+	public Map<OWLAxiom, Set<OWLAxiom>> getExplanations(Collection<? extends OWLAxiom> axioms) {
+		PelletReasoner pellet = getReasoner();
+		KnowledgeBase kb = pellet.getKB();
+
+		kb.prepare();
+
+		// record the axioms of the inferred types in the completion graph
+		// unless the consistency check has already been done
+		kb.setDoExplanation( true );
+		boolean consistent = kb.isConsistent();
+		kb.setDoExplanation( false );
+
+		SatisfiabilityConverter converter = new SatisfiabilityConverter( getOntologyManager().getOWLDataFactory() );
+
+		Map<OWLAxiom, Set<OWLAxiom>> result = new LinkedHashMap<OWLAxiom, Set<OWLAxiom>>();
+		Map<OWLAxiom, OWLClassExpression> unsatClasses = new HashMap<OWLAxiom, OWLClassExpression>();
+		Map<OWLAxiom, Set<ATermAppl>> explanations = new HashMap<OWLAxiom, Set<ATermAppl>>();
+		Map<OWLAxiom, Future<Set<ATermAppl>>> prunedExplanations = new HashMap<OWLAxiom, Future<Set<ATermAppl>>>();
+
+		try {
+			for( OWLAxiom axiom : axioms ) {
+				OWLClassExpression unsatClass = converter.convert( axiom );
+
+				Set<ATermAppl> explanation = consistent
+					? getKnownTypeExplanation( pellet, axiom )
+					: null;
+
+				if( explanation == null ) {
+					// satisfiable if there is an undefined entity
+					if( !getDefinitionTracker().isDefined( unsatClass )
+							|| isSatisfiable( pellet, unsatClass, true ) ) {
+						result.put( axiom, Collections.<OWLAxiom> emptySet() );
+						continue;
+					}
+
+					explanation = new HashSet<ATermAppl>( kb.getExplanationSet() );
+				}
+
+				if( log.isLoggable( Level.FINE ) )
+					log.fine( "Explanation for " + axiom + ": " + convertExplanation( explanation ) );
+
+				result.put( axiom, null );
+				unsatClasses.put( axiom, unsatClass );
+				explanations.put( axiom, explanation );
 			}
 
-			return prunedExplanation;
+			// pruning only reads the KB so it can start after all the tracing
+			// is done
+			for( Map.Entry<OWLAxiom, Set<ATermAppl>> entry : explanations.entrySet() ) {
+				final ATermAppl term = pellet.term( unsatClasses.get( entry.getKey() ) );
+				final Set<ATermAppl> explanation = entry.getValue();
+
+				prunedExplanations.put( entry.getKey(), ConcurrentHSTExplanationGenerator.getExecutor().submit(
+						new Callable<Set<ATermAppl>>() {
+							public Set<ATermAppl> call() {
+								return pruneExplanation( term, explanation );
+							}
+						} ) );
+			}
+
+			for( Map.Entry<OWLAxiom, Future<Set<ATermAppl>>> entry : prunedExplanations.entrySet() ) {
+				OWLAxiom axiom = entry.getKey();
+				result.put( axiom, convertExplanation( unsatClasses.get( axiom ), explanations.get( axiom ),
+						entry.getValue().get() ) );
+			}
+		} catch( InterruptedException e ) {
+			throw new TimerInterruptedException( e );
+		} catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new InternalReasonerException( cause );
+		} finally {
+			for( Future<Set<ATermAppl>> future : prunedExplanations.values() ) {
+				future.cancel( true );
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the axioms recorded in the completion graph for a class
+	 * assertion, or <code>null</code> if the axiom is not a class assertion
+	 * for a named individual or there are no recorded axioms for it.
+	 */
+	private Set<ATermAppl> getKnownTypeExplanation(PelletReasoner pellet, OWLAxiom axiom) {
+		if( !(axiom instanceof OWLClassAssertionAxiom) )
+			return null;
+
+		OWLClassAssertionAxiom classAssertion = (OWLClassAssertionAxiom) axiom;
+		if( classAssertion.getIndividual().isAnonymous() )
+			return null;
+
+		Set<ATermAppl> explanation = pellet.getKB().getABox().getKnownTypeExplanation(
+				pellet.term( classAssertion.getIndividual() ), pellet.term( classAssertion.getClassExpression() ) );
+
+		return explanation == null
+			? null
+			: new HashSet<ATermAppl>( explanation );
+	}
+
+	/**
+	 * Converts the pruned explanation to OWL axioms. If the explanation could
+	 * not be pruned before, it is pruned here using an OWLAPI reasoner.
+	 */
+	private Set<OWLAxiom> convertExplanation(OWLClassExpression unsatClass, Set<ATermAppl> explanation,
+			Set<ATermAppl> pruned) {
+		Set<OWLAxiom> prunedExplanation = pruned != null
+			? convertExplanation( pruned )
+			: pruneExplanation( unsatClass, convertExplanation( explanation ), true );
+
+		int prunedAxiomCount = explanation.size() - prunedExplanation.size();
+		if( log.isLoggable( Level.FINE ) && prunedAxiomCount > 0 ) {
+			log.fine( "Pruned " + prunedAxiomCount + " axioms from the explanation: "
+					+ SetUtils.difference( convertExplanation( explanation ), prunedExplanation ) );
+			log.fine( "New explanation " + prunedExplanation );
 		}
+
+		return prunedExplanation;
 	}
 	
 	private boolean isSatisfiable(PelletReasoner pellet, OWLClassExpression unsatClass, boolean doExplanation) {
@@ -269,6 +437,104 @@ public class GlassBoxExplanation extends SingleExplanationGeneratorImpl {
 		return result;
 	}
 
+	/**
+	 * Prunes the given explanation by checking the satisfiability of the class
+	 * w.r.t. subsets of the explanation axioms. The explanation returned from
+	 * Pellet axiom tracing is not guaranteed to be minimal so pruning is
+	 * necessary to ensure minimality. Each check uses a new
+	 * {@link KnowledgeBase} built directly from the ATerm axioms by
+	 * {@link OntBuilder} which is much cheaper than creating an ontology and an
+	 * OWLAPI reasoner. The subsets are chosen by the divide-and-conquer
+	 * QuickXplain algorithm so the number of checks depends logarithmically on
+	 * the size of the explanation rather than linearly. Returns
+	 * <code>null</code> if the explanation should be pruned with OWLAPI
+	 * instead, i.e. if {@link #isUseOWLAPIPruning()} is set or some of the
+	 * axioms cannot be rebuilt from their ATerm representation.
+	 */
+	private Set<ATermAppl> pruneExplanation(ATermAppl unsatClass, Set<ATermAppl> explanation) {
+		if( useOWLAPIPruning )
+			return null;
+
+		// we can only prune if there is more than one axiom in the
+		// explanation
+		if( explanation.size() <= 1 )
+			return explanation;
+
+		OntBuilder builder = new OntBuilder( getReasoner().getKB() );
+		List<ATermAppl> axioms = new ArrayList<ATermAppl>( explanation );
+
+		// every subset of the explanation can be built if the whole
+		// explanation can be built so this is the only build that may fail
+		KnowledgeBase kb;
+		try {
+			kb = builder.build( explanation );
+		} catch( UnsupportedFeatureException e ) {
+			if( log.isLoggable( Level.FINE ) )
+				log.fine( "Cannot prune the explanation without OWLAPI: " + e.getMessage() );
+
+			return null;
+		}
+
+		if( isSatisfiable( kb, unsatClass ) ) {
+			log.warning( "Explanation incomplete: Concept " + ATermUtils.toString( unsatClass )
+					+ " is satisfiable in the explanation " + explanation );
+			return explanation;
+		}
+
+		List<ATermAppl> background = Collections.emptyList();
+		return new HashSet<ATermAppl>( quickXplain( builder, unsatClass, background, false, axioms ) );
+	}
+
+	/**
+	 * Returns a minimal subset of the candidate axioms that makes the class
+	 * unsatisfiable together with the background axioms. The satisfiability
+	 * of the background axioms is checked only if they changed since the
+	 * previous call.
+	 */
+	private List<ATermAppl> quickXplain(OntBuilder builder, ATermAppl unsatClass, List<ATermAppl> background,
+			boolean backgroundChanged, List<ATermAppl> candidates) {
+		if( backgroundChanged && !isSatisfiable( builder, unsatClass, background ) )
+			return Collections.emptyList();
+
+		if( candidates.size() == 1 )
+			return candidates;
+
+		int split = candidates.size() / 2;
+		List<ATermAppl> first = candidates.subList( 0, split );
+		List<ATermAppl> second = candidates.subList( split, candidates.size() );
+
+		List<ATermAppl> secondConflict = quickXplain( builder, unsatClass, concat( background, first ), true, second );
+		List<ATermAppl> firstConflict = quickXplain( builder, unsatClass, concat( background, secondConflict ),
+				!secondConflict.isEmpty(), first );
+
+		return concat( firstConflict, secondConflict );
+	}
+
+	private static List<ATermAppl> concat(List<ATermAppl> l1, List<ATermAppl> l2) {
+		List<ATermAppl> result = new ArrayList<ATermAppl>( l1.size() + l2.size() );
+		result.addAll( l1 );
+		result.addAll( l2 );
+		return result;
+	}
+
+	private boolean isSatisfiable(OntBuilder builder, ATermAppl unsatClass, Collection<ATermAppl> axioms) {
+		return isSatisfiable( builder.build( new HashSet<ATermAppl>( axioms ) ), unsatClass );
+	}
+
+	private boolean isSatisfiable(KnowledgeBase kb, ATermAppl unsatClass) {
+		if( !kb.isConsistent() )
+			return false;
+
+		if( unsatClass.equals( ATermUtils.TOP ) )
+			return true;
+
+		// satisfiable if there is an undefined entity
+		if( !kb.isClass( unsatClass ) )
+			return true;
+
+		return kb.isSatisfiable( unsatClass );
+	}
+
 	/**
 	 * <p>Prunes the given explanation using slow pruning technique of BlackBox
 	 * explanation. The explanation returned from Pellet axiom tracing is not
@@ -294,8 +560,12 @@ public class GlassBoxExplanation extends SingleExplanationGeneratorImpl {
 			if( prunedExplanation.size() <= 1 )
 				return prunedExplanation;
 
-			// create an ontology from the explanation axioms
-			OWLOntology debuggingOntology = OWL.Ontology( explanation );
+			// create an ontology from the explanation axioms using the manager
+			// of the explained ontology so explanations computed for ontologies
+			// in different managers do not share any state
+			OWLOntologyManager manager = getOntologyManager();
+			OWLOntology debuggingOntology = manager.createOntology();
+			OntologyUtils.addAxioms( debuggingOntology, explanation );
 			
 			DefinitionTracker defTracker = new DefinitionTracker( debuggingOntology );
 
@@ -352,10 +622,12 @@ public class GlassBoxExplanation extends SingleExplanationGeneratorImpl {
 				reasoner.dispose();
 			}
 			
-			OWL.manager.removeOntology( debuggingOntology );
-			OWL.manager.removeOntologyChangeListener( defTracker );			
+			manager.removeOntology( debuggingOntology );
+			manager.removeOntologyChangeListener( defTracker );			
 
 			return prunedExplanation;
+		} catch( OWLOntologyCreationException e ) {
+			throw new OWLRuntimeException( e );
 		} catch( OWLOntologyChangeException e ) {
 			throw new OWLRuntimeException( e );
 		}
@@ -6,6 +6,9 @@
 
 package com.clarkparsia.owlapi.explanation;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -39,8 +42,12 @@ public class PelletExplanation {
 	
 	private OWLDataFactory factory;
 	
+	private TransactionAwareSingleExpGen singleExp;
+	
 	private HSTExplanationGenerator expGen;
 	
+	private ConcurrentHSTExplanationGenerator concurrentExpGen;
+	
 	private SatisfiabilityConverter converter;
 	
 	public PelletExplanation(OWLOntology ontology) {
@@ -60,13 +67,16 @@ public class PelletExplanation {
 		factory = reasoner.getManager().getOWLDataFactory();
 		
 		// Create a single explanation generator
-		TransactionAwareSingleExpGen singleExp = useGlassBox 
+		singleExp = useGlassBox 
 			? new GlassBoxExplanation( reasoner )
 			: new BlackBoxExplanation( reasoner.getRootOntology(), new PelletReasonerFactory(), reasoner );
 		
 		// Create multiple explanation generator
 		expGen = new HSTExplanationGenerator( singleExp );		
 		
+		// Create the generator used to explain multiple classes at once
+		concurrentExpGen = new ConcurrentHSTExplanationGenerator( new PelletReasonerFactory(), reasoner );
+		
 		// Create the converter that will translate axioms into class expressions
 		converter = new SatisfiabilityConverter( factory );
 	}
@@ -77,6 +87,27 @@ public class PelletExplanation {
     	return getUnsatisfiableExplanation( unsatClass );
     }
     
+    /**
+     * Returns a single explanation for each of the given axioms, or an empty
+     * set for the axioms that are not entailed. With glass box explanations
+     * the tableau work is shared between the axioms and the explanations are
+     * pruned concurrently, see
+     * {@link GlassBoxExplanation#getExplanations(Collection)}.
+     * 
+     * @param axioms the axioms to explain
+     * @return a map from each given axiom to its explanation
+     */
+    public Map<OWLAxiom, Set<OWLAxiom>> getEntailmentExplanation(Collection<? extends OWLAxiom> axioms) {
+    	if( singleExp instanceof GlassBoxExplanation )
+    		return ((GlassBoxExplanation) singleExp).getExplanations( axioms );
+    	
+    	Map<OWLAxiom, Set<OWLAxiom>> result = new LinkedHashMap<OWLAxiom, Set<OWLAxiom>>();
+    	for( OWLAxiom axiom : axioms ) {
+    		result.put( axiom, getEntailmentExplanation( axiom ) );
+    	}
+    	return result;
+    }
+    
     public Set<Set<OWLAxiom>> getEntailmentExplanations(OWLAxiom axiom) {
     	OWLClassExpression unsatClass = converter.convert( axiom );
     	return getUnsatisfiableExplanations( unsatClass );
@@ -106,6 +137,26 @@ public class PelletExplanation {
     	return getEntailmentExplanation( classAssertion );
     }
     
+    /**
+     * Returns a single explanation for each of the given types of the
+     * individual, e.g. all the types found by realization, or an empty set for
+     * the types that are not entailed.
+     * 
+     * @see #getEntailmentExplanation(Collection)
+     */
+    public Map<OWLClassExpression, Set<OWLAxiom>> getInstanceExplanation(OWLIndividual ind, Collection<? extends OWLClassExpression> types) {
+    	Map<OWLAxiom, OWLClassExpression> classAssertions = new LinkedHashMap<OWLAxiom, OWLClassExpression>();
+    	for( OWLClassExpression cls : types ) {
+    		classAssertions.put( factory.getOWLClassAssertionAxiom( cls, ind ), cls );
+    	}
+    	
+    	Map<OWLClassExpression, Set<OWLAxiom>> result = new LinkedHashMap<OWLClassExpression, Set<OWLAxiom>>();
+    	for( Map.Entry<OWLAxiom, Set<OWLAxiom>> entry : getEntailmentExplanation( classAssertions.keySet() ).entrySet() ) {
+    		result.put( classAssertions.get( entry.getKey() ), entry.getValue() );
+    	}
+    	return result;
+    }
+    
     public Set<Set<OWLAxiom>> getInstanceExplanations(OWLIndividual ind, OWLClassExpression cls) {
     	OWLClassAssertionAxiom classAssertion = factory.getOWLClassAssertionAxiom( cls, ind );
     	return getEntailmentExplanations( classAssertion );
@@ -169,5 +220,22 @@ public class PelletExplanation {
      */
     public Set<Set<OWLAxiom>> getUnsatisfiableExplanations(OWLClassExpression unsatClass, int maxExplanations) {
     	return expGen.getExplanations( unsatClass, maxExplanations );
+    }
+    
+    /**
+     * Return a specified number of explanations for each of the given
+     * unsatisfiable classes. The explanations are computed concurrently by a
+     * {@link ConcurrentHSTExplanationGenerator} starting from the locality
+     * module of each class.
+     * 
+     * @param unsatClasses The classes that are unsatisfiable for which
+     * explanations will be generated.
+     * @param maxExplanations Maximum number of explanations requested for each
+     *                        class, or 0 to get all the explanations
+     * @return A map from each given class to its explanations where
+     *         satisfiable classes are mapped to an empty set
+     */
+    public Map<OWLClassExpression, Set<Set<OWLAxiom>>> getUnsatisfiableExplanations(Collection<? extends OWLClassExpression> unsatClasses, int maxExplanations) {
+    	return concurrentExpGen.getExplanations( unsatClasses, maxExplanations );
     }    
 }
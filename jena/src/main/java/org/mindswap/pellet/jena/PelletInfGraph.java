@@ -30,14 +30,23 @@
 
 package org.mindswap.pellet.jena;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
 import org.mindswap.pellet.jena.ModelExtractor.StatementType;
 import org.mindswap.pellet.jena.graph.converter.AxiomConverter;
 import org.mindswap.pellet.jena.graph.loader.DefaultGraphLoader;
@@ -48,11 +57,13 @@ import org.mindswap.pellet.utils.ATermUtils;
 import aterm.ATerm;
 import aterm.ATermAppl;
 
+import com.clarkparsia.pellet.utils.ExecutorUtils;
 import com.clarkparsia.pellet.utils.OntBuilder;
 import com.hp.hpl.jena.graph.Factory;
 import com.hp.hpl.jena.graph.Graph;
 import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.compose.Union;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
 import com.hp.hpl.jena.rdf.model.Property;
@@ -66,6 +77,7 @@ import com.hp.hpl.jena.reasoner.StandardValidityReport;
 import com.hp.hpl.jena.reasoner.TriplePattern;
 import com.hp.hpl.jena.reasoner.ValidityReport;
 import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.util.iterator.Filter;
 import com.hp.hpl.jena.util.iterator.UniqueExtendedIterator;
 import com.hp.hpl.jena.vocabulary.OWL;
 import com.hp.hpl.jena.vocabulary.RDF;
@@ -83,6 +95,8 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 	private static final Triple INCONCISTENCY_TRIPLE = 
 		Triple.create( OWL.Thing.asNode(), RDFS.subClassOf.asNode(), OWL.Nothing.asNode() );
 
+	private static ExecutorService	executor;
+
 	private GraphLoader			loader;
 	protected KnowledgeBase		kb;
 	private final ModelExtractor 		extractor;
@@ -91,6 +105,8 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 	
 	private Graph				deductionsGraph;
 	
+	private Graph				inferredGraph;
+	
 	private boolean				autoDetectChanges;
 	
 	private boolean				skipBuiltinPredicates;
@@ -165,6 +181,10 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 		Node predicate = pattern.getPredicate();
 		Node object = pattern.getObject();
 
+		if( isIndexed( subject, predicate, object ) ) {
+			return findIndexed( subject, predicate, object, finder );
+		}
+
 		ExtendedIterator<Triple> i = GraphQueryHandler.findTriple( kb, this, subject, predicate, object );
 
 		ATerm predicateTerm = predicate.isURI() ? ATermUtils.makeTermAppl(predicate.getURI()) : null;
@@ -178,6 +198,63 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 		return UniqueExtendedIterator.create( i );
 	}
 
+	/**
+	 * Checks if the given pattern is answered from the indexed statements
+	 * about individuals. Only patterns with a variable predicate are indexed
+	 * and only if {@link PelletOptions#INDEX_INFERRED_TRIPLES} is enabled.
+	 * Patterns about classes and properties are answered by the reasoner
+	 * because the statements extracted for them do not include everything
+	 * the reasoner returns, e.g. domains and ranges.
+	 */
+	private boolean isIndexed(Node subject, Node predicate, Node object) {
+		if( !PelletOptions.INDEX_INFERRED_TRIPLES || predicate.isConcrete() ) {
+			return false;
+		}
+
+		return isIndexedIndividual( subject ) && isIndexedIndividual( object );
+	}
+
+	private boolean isIndexedIndividual(Node node) {
+		if( !node.isConcrete() ) {
+			return true;
+		}
+
+		if( node.isLiteral() || GraphQueryHandler.isBuiltin( node ) ) {
+			return false;
+		}
+
+		ATermAppl term = loader.node2term( node );
+
+		return kb.isIndividual( term ) && !kb.isClass( term ) && !kb.isProperty( term );
+	}
+
+	/**
+	 * Finds the matching triples in the inferred graph followed by the
+	 * asserted triples found by the finder that are not in the inferred graph.
+	 * The inferred graph does not contain duplicates so the results do not
+	 * need to be collected in a set to remove duplicates.
+	 */
+	private ExtendedIterator<Triple> findIndexed(Node subject, Node predicate, Node object, Finder finder) {
+		final Graph inferred = subject.isConcrete() || object.isConcrete()
+			? getIndividualGraph()
+			: getInferredGraph();
+
+		ExtendedIterator<Triple> i = inferred.find( subject.isConcrete() ? subject : Node.ANY, Node.ANY,
+				object.isConcrete() ? object : Node.ANY );
+
+		if( finder != null ) {
+			TriplePattern tp = new TriplePattern( subject, predicate, object );
+			i = i.andThen( finder.find( tp ).filterDrop( new Filter<Triple>() {
+				@Override
+				public boolean accept(Triple t) {
+					return inferred.contains( t );
+				}
+			} ) );
+		}
+
+		return i;
+	}
+
 	@Override
     public Graph getSchemaGraph() {
 		return ((PelletReasoner) getReasoner()).getSchema();
@@ -235,6 +312,7 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 		graphListener.reset();
 
 		deductionsGraph = null;
+		releaseInferredGraph();
 	}
 	
 	@Override
@@ -322,6 +400,73 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 		return deductionsGraph;
 	}
 
+	/**
+	 * Returns a graph of all the statements inferred by the reasoner (without
+	 * the Jena predicates for direct relations). If
+	 * {@link PelletOptions#INDEX_INFERRED_TRIPLES} is enabled the statements
+	 * about individuals come from a graph that is reused until the underlying
+	 * data changes and only the statements about classes and properties are
+	 * extracted again. Otherwise, all the statements are extracted on each call
+	 * and nothing is kept. The returned graph should not be modified.
+	 */
+	public Graph getInferredGraph() {
+		prepare();
+
+		if( !PelletOptions.INDEX_INFERRED_TRIPLES ) {
+			ModelExtractor me = new ModelExtractor( kb );
+			me.setSelector( StatementType.ALL_STATEMENTS );
+			return me.extractModel().getGraph();
+		}
+
+		Graph individualGraph = getIndividualGraph();
+
+		ModelExtractor me = new ModelExtractor( kb );
+		me.setSelector( StatementType.ALL_STATEMENTS );
+		Model schemaModel = ModelFactory.createDefaultModel();
+		me.extractClassModel( schemaModel );
+		me.extractPropertyModel( schemaModel );
+
+		return new Union( schemaModel.getGraph(), individualGraph );
+	}
+
+	/**
+	 * Returns the indexed graph of the statements about individuals inferred
+	 * after realization. The graph is rebuilt after the underlying data
+	 * changes rather than being updated: an update may change the types and
+	 * property values of individuals it does not mention (through merges,
+	 * nominals or property chains) and the ABox does not keep track of the
+	 * affected individuals after the incremental consistency check.
+	 */
+	private Graph getIndividualGraph() {
+		if( inferredGraph == null ) {
+			if( log.isLoggable( Level.FINE ) ) {
+	            log.fine( "Realizing PelletInfGraph..." );
+            }
+			kb.realize();
+
+			if( log.isLoggable( Level.FINE ) ) {
+	            log.fine( "Extract inferred graph..." );
+            }
+
+			ModelExtractor me = new ModelExtractor( kb );
+			me.setSelector( StatementType.ALL_INDIVIDUAL_STATEMENTS );
+			inferredGraph = me.extractIndividualModel().getGraph();
+
+			if( log.isLoggable( Level.FINE ) ) {
+	            log.fine( "done." );
+            }
+		}
+
+		return inferredGraph;
+	}
+
+	private void releaseInferredGraph() {
+		if( inferredGraph != null ) {
+			inferredGraph.close();
+			inferredGraph = null;
+		}
+	}
+
 	@Override
     protected boolean graphBaseContains(Triple pattern) {
 		if( getRawGraph().contains( pattern ) ) {
@@ -366,20 +511,8 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 	}
 		
 	public Graph explain(Triple pattern) {
-		if( !pattern.equals( INCONCISTENCY_TRIPLE ) ) {
-			if( !pattern.isConcrete() ) {
-				if( log.isLoggable( Level.WARNING ) ) {
-					log.warning( "Triple patterns with variables cannot be epxlained: " + pattern );
-				}
-				return null;
-			}
-			
-			if( isSyntaxTriple( pattern ) ) {
-				if( log.isLoggable( Level.WARNING ) ) {
-					log.warning( "Syntax triples cannot be explained: " + pattern );
-				}
-				return null;
-			}
+		if( !isExplainable( pattern ) ) {
+			return null;
 		}
 		
 		prepare();
@@ -403,10 +536,7 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 				log.finer( "Pruned " + formatAxioms( prunedExplanation ) );
 			}
 			
-			AxiomConverter converter = new AxiomConverter( kb, explanationGraph );
-			for( ATermAppl axiom : prunedExplanation ) {
-	            converter.convert( axiom );
-            }
+			convertExplanation( prunedExplanation, explanationGraph );
 		}
 		
 		if( log.isLoggable( Level.FINE ) ) {
@@ -416,6 +546,155 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 		return explanationGraph;
 	}	
 
+	/**
+	 * Returns an explanation for each of the given triples. An explanation is
+	 * <code>null</code> if the triple cannot be explained and empty if the
+	 * triple is not entailed. A type triple for a named individual is
+	 * explained with the axioms recorded in the completion graph during the
+	 * consistency check if the type was added without any non-deterministic
+	 * choice so explaining all the inferred types of an individual does not
+	 * require a separate tableau for each type. The other triples are traced
+	 * one at a time as in {@link #explain(Triple)}. The explanations are then
+	 * pruned concurrently.
+	 * 
+	 * @param patterns
+	 *            concrete triples to explain
+	 * @return a map from each given triple to its explanation
+	 */
+	public Map<Triple, Graph> explain(Collection<Triple> patterns) {
+		prepare( false );
+
+		// the completion graph records the axioms for the types only if the
+		// consistency check is done with explanations, a previous check
+		// without explanations is not repeated and the types are traced
+		// one at a time instead
+		kb.setDoExplanation( true );
+		boolean consistent = kb.isConsistent();
+		kb.setDoExplanation( false );
+
+		Map<Triple, Graph> result = new LinkedHashMap<Triple, Graph>();
+		Map<Triple, Set<ATermAppl>> explanations = new LinkedHashMap<Triple, Set<ATermAppl>>();
+		for( Triple pattern : patterns ) {
+			if( !isExplainable( pattern ) ) {
+				result.put( pattern, null );
+				continue;
+			}
+
+			Set<ATermAppl> explanation = consistent
+				? getKnownTypeExplanation( pattern )
+				: null;
+
+			if( explanation == null ) {
+				if( !checkEntailment( this, pattern, true ) ) {
+					result.put( pattern, Factory.createDefaultGraph() );
+					continue;
+				}
+
+				explanation = new HashSet<ATermAppl>( kb.getExplanationSet() );
+			}
+
+			if( log.isLoggable( Level.FINER ) ) {
+				log.finer( "Explanation " + pattern + " " + formatAxioms( explanation ) );
+			}
+
+			result.put( pattern, null );
+			explanations.put( pattern, explanation );
+		}
+
+		// pruning only reads the KB so it can start after all the tracing is
+		// done
+		Map<Triple, Future<Set<ATermAppl>>> prunedExplanations = new LinkedHashMap<Triple, Future<Set<ATermAppl>>>();
+		try {
+			for( Map.Entry<Triple, Set<ATermAppl>> entry : explanations.entrySet() ) {
+				final Triple pattern = entry.getKey();
+				final Set<ATermAppl> explanation = entry.getValue();
+				prunedExplanations.put( pattern, getExecutor().submit( new Callable<Set<ATermAppl>>() {
+					public Set<ATermAppl> call() {
+						return pruneExplanation( pattern, explanation );
+					}
+				} ) );
+			}
+
+			for( Map.Entry<Triple, Future<Set<ATermAppl>>> entry : prunedExplanations.entrySet() ) {
+				Graph explanationGraph = Factory.createDefaultGraph();
+				convertExplanation( entry.getValue().get(), explanationGraph );
+				result.put( entry.getKey(), explanationGraph );
+			}
+		} catch( InterruptedException e ) {
+			throw new TimerInterruptedException( e );
+		} catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new InternalReasonerException( cause );
+		} finally {
+			for( Future<Set<ATermAppl>> future : prunedExplanations.values() ) {
+				future.cancel( true );
+			}
+		}
+
+		return result;
+	}
+
+	private boolean isExplainable(Triple pattern) {
+		if( !pattern.equals( INCONCISTENCY_TRIPLE ) ) {
+			if( !pattern.isConcrete() ) {
+				if( log.isLoggable( Level.WARNING ) ) {
+					log.warning( "Triple patterns with variables cannot be epxlained: " + pattern );
+				}
+				return false;
+			}
+			
+			if( isSyntaxTriple( pattern ) ) {
+				if( log.isLoggable( Level.WARNING ) ) {
+					log.warning( "Syntax triples cannot be explained: " + pattern );
+				}
+				return false;
+			}
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Returns the axioms recorded in the completion graph for a type triple,
+	 * or <code>null</code> if the triple is not a type triple for a named
+	 * individual or there are no recorded axioms for it.
+	 */
+	private Set<ATermAppl> getKnownTypeExplanation(Triple pattern) {
+		if( !pattern.getPredicate().equals( RDF.type.asNode() ) || !pattern.getObject().isURI() ) {
+			return null;
+		}
+
+		ATermAppl ind = loader.node2term( pattern.getSubject() );
+		ATermAppl c = loader.node2term( pattern.getObject() );
+		if( !kb.isIndividual( ind ) || !kb.isClass( c ) ) {
+			return null;
+		}
+
+		Set<ATermAppl> explanation = kb.getABox().getKnownTypeExplanation( ind, c );
+
+		return explanation == null
+			? null
+			: new HashSet<ATermAppl>( explanation );
+	}
+
+	private void convertExplanation(Set<ATermAppl> explanation, Graph explanationGraph) {
+		AxiomConverter converter = new AxiomConverter( kb, explanationGraph );
+		for( ATermAppl axiom : explanation ) {
+            converter.convert( axiom );
+        }
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			executor = ExecutorUtils.newDaemonThreadPool( PelletOptions.EXPLANATION_THREADS, "pellet-explanation" );
+		}
+
+		return executor;
+	}
+
 	private Set<ATermAppl> pruneExplanation(Triple pattern, Set<ATermAppl> explanation) {
 		Set<ATermAppl> prunedExplanation = new HashSet<ATermAppl>( explanation );
 		
@@ -601,6 +880,8 @@ public class PelletInfGraph extends BaseInfGraph implements InfGraph {
 			kb.clearABox();
 		}
 		loader.clear();
+
+		releaseInferredGraph();
 	}
 
 	@Override
@@ -21,8 +21,6 @@ import java.util.logging.Logger;
 import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.Role;
 import org.mindswap.pellet.jena.JenaUtils;
-import org.mindswap.pellet.jena.ModelExtractor;
-import org.mindswap.pellet.jena.ModelExtractor.StatementType;
 import org.mindswap.pellet.jena.PelletInfGraph;
 import org.mindswap.pellet.jena.graph.loader.GraphLoader;
 import org.mindswap.pellet.jena.vocabulary.OWL2;
@@ -33,7 +31,6 @@ import org.mindswap.pellet.utils.iterator.NestedIterator;
 import aterm.ATermAppl;
 
 import com.clarkparsia.pellet.utils.CollectionUtils;
-import com.hp.hpl.jena.graph.Graph;
 import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.graph.Triple;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -157,10 +154,7 @@ public class GraphQueryHandler {
 				
 				@Override
 				public ExtendedIterator<Triple> find(KnowledgeBase kb, PelletInfGraph pellet, Node s, Node p, Node o) {
-					ModelExtractor me = new ModelExtractor( kb );
-					me.setSelector( StatementType.ALL_STATEMENTS );
-					Graph graph = me.extractModel().getGraph();
-					return graph.find( Triple.ANY );
+					return pellet.getInferredGraph().find( Triple.ANY );
 				}
 			}
 		);				
@@ -40,6 +40,7 @@ import com.clarkparsia.owlapi.modularity.locality.LocalityEvaluator;
 import com.clarkparsia.owlapi.modularity.locality.SyntacticLocalityEvaluator;
 import com.clarkparsia.owlapiv3.OWL;
 import com.clarkparsia.pellet.expressivity.Expressivity;
+import com.clarkparsia.reachability.IndexedSet;
 
 /**
  * <p>
@@ -90,11 +91,26 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 
 	protected MultiValueMap<OWLEntity, OWLEntity>	modules						= null;
 
+	/**
+	 * Approximate number of bytes a hash set uses for each of its elements
+	 */
+	private static final int						HASH_ENTRY_SIZE				= 40;
+
+	/**
+	 * Ids of the entities in the modules stored as bitmaps
+	 */
+	private IndexedSet.Index<OWLEntity>				moduleIndex					= new IndexedSet.Index<OWLEntity>();
+
 	/**
 	 * Flag to check if a non-local axiom has been updated
 	 */
 	private boolean									nonLocalAxioms				= false;
 
+	/**
+	 * Counter incremented every time the set of processed axioms changes
+	 */
+	private int										axiomsVersion				= 0;
+
 	private Timers									timers						= new Timers();
 
 	public AbstractModuleExtractor() {
@@ -194,6 +210,7 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 		nonLocalAxioms = false;
 
 		modules = new MultiValueMap<OWLEntity, OWLEntity>();
+		moduleIndex = new IndexedSet.Index<OWLEntity>();
 
 		extractModuleSignatures(entityAxioms.keySet());
 
@@ -414,6 +431,27 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 		return axiom.getSignature();
 	}
 
+	/**
+	 * Returns a read-only copy of the given module stored as a bitmap over the
+	 * ids of the module entities if the bitmap is smaller than the hash set
+	 * that would store the same entities. Otherwise the given module is
+	 * returned. The module should not be modified afterwards.
+	 */
+	protected Set<OWLEntity> compactModule(Set<OWLEntity> module) {
+		if( module instanceof IndexedSet )
+			return module;
+
+		int maxId = -1;
+		for( OWLEntity entity : module )
+			maxId = Math.max( maxId, moduleIndex.add( entity ) );
+
+		// the bitmap takes a bit for each id up to the largest id
+		if( maxId / 8 > module.size() * HASH_ENTRY_SIZE )
+			return module;
+
+		return new IndexedSet<OWLEntity>( moduleIndex, module );
+	}
+
 	/**
 	 * Checks if axioms have been added/removed and modules need to be updated
 	 * 
@@ -433,7 +471,19 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 			addAxiom( axiom );
 	}
 
+	/**
+	 * Returns a number that changes every time the axioms returned by
+	 * {@link #getAxioms()} change so subclasses can tell if the structures
+	 * they computed from the axioms are outdated.
+	 */
+	protected int getAxiomsVersion() {
+		return axiomsVersion;
+	}
+
 	private void processAdditions() {
+		if( !additions.isEmpty() )
+			axiomsVersion++;
+
 		for( OWLAxiom axiom : additions ) {
 			axioms.add( axiom );
 
@@ -451,6 +501,9 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 	}
 
 	private void processDeletions() {
+		if( !deletions.isEmpty() )
+			axiomsVersion++;
+
 		for( OWLAxiom axiom : deletions ) {
 			axioms.remove( axiom );
 
@@ -589,6 +642,7 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 		nonLocalAxioms = false;
 
 		modules = new MultiValueMap<OWLEntity, OWLEntity>();
+		moduleIndex = new IndexedSet.Index<OWLEntity>();
 	}
 	
 	/**
@@ -706,8 +760,6 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 	 * @inheritDoc
 	 */
 	public void load(ZipInputStream inputStream) throws IOException, IllegalArgumentException {
-		resetModules();
-		
 		ZipEntry zipEntry = inputStream.getNextEntry();
 		
 		if( !( MODULE_EXTRACTOR_AXIOMS_FILE_NAME.equals( zipEntry.getName() ) ) ) {
@@ -718,17 +770,31 @@ public abstract class AbstractModuleExtractor implements ModuleExtractor {
 		
 		Collection<OWLAxiom> axioms = axiomOntology.getAxioms();
 		
-		// I am not sure that this is the right way to recompute this ...
-		additions.addAll( axioms );
-		processAdditions();
-		additions.clear();
-		
 		zipEntry = inputStream.getNextEntry();
 		
 		if( !( MODULE_EXTRACTOR_MODULES_FILE_NAME.equals( zipEntry.getName() ) ) ) {
 			throw new IllegalArgumentException( String.format( "Unexpected entry (%s) in ZipInputStream. Expected %s", zipEntry.getName(), MODULE_EXTRACTOR_MODULES_FILE_NAME ) );
 		}
 		
-		modules = ModuleExtractorPersistence.loadModules( inputStream ); 
+		restore( axioms, ModuleExtractorPersistence.loadModules( inputStream ) ); 
+	}
+	
+	/**
+	 * Restores a previously saved state of the ModuleExtractor from the given axioms and modules.
+	 * The modules are used as they are without being recomputed so they should be the modules
+	 * that were extracted from exactly the given axioms.
+	 * 
+	 * @param axioms the axioms that were loaded in the extractor
+	 * @param modules the modules that were extracted from the axioms
+	 */
+	public void restore(Collection<OWLAxiom> axioms, MultiValueMap<OWLEntity, OWLEntity> modules) {
+		resetModules();
+		
+		// I am not sure that this is the right way to recompute this ...
+		additions.addAll( axioms );
+		processAdditions();
+		additions.clear();
+		
+		this.modules = modules;
 	}
 }
@@ -9,7 +9,9 @@ package com.clarkparsia.modularity;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -48,6 +50,12 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 																							.getName() );
 	
 	private boolean optimizeForSharedModules = true;
+
+	/**
+	 * Entities whose modules have been set since the modules were last
+	 * compacted
+	 */
+	private Set<OWLEntity> extracted = new HashSet<OWLEntity>();
 	
 	public AxiomBasedModuleExtractor() {
 		super();
@@ -75,7 +83,7 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 			myCycle.add( entity );
 			stackElements.add( entity );
 	
-			modules.put( entity, module );
+			setModule( entity, module );
 		}
 		
 		int oldSize = -1;
@@ -154,7 +162,7 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 			}
 
 			for( OWLEntity e : myCycle )
-				modules.put( e, module );
+				setModule( e, module );
 		}
 
 		stackElements.removeAll( myCycle );
@@ -184,7 +192,7 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 	
 			module.add( entity );
 	
-			modules.put( entity, module );
+			setModule( entity, module );
 		}
 
 		int oldSize = -1;
@@ -255,6 +263,32 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 		stackElements.remove( entity );
 	}
 
+	private void setModule(OWLEntity entity, Set<OWLEntity> module) {
+		modules.put( entity, module );
+		extracted.add( entity );
+	}
+
+	/**
+	 * Replaces the modules extracted since the last call with read-only
+	 * compact copies. The modules are built by adding the modules of the
+	 * referenced entities so they do not share any elements while being
+	 * extracted. Entities that have the same module share its copy.
+	 */
+	private void compactModules() {
+		Map<Set<OWLEntity>, Set<OWLEntity>> compacted = new IdentityHashMap<Set<OWLEntity>, Set<OWLEntity>>();
+		for( OWLEntity entity : extracted ) {
+			Set<OWLEntity> module = modules.get( entity );
+			Set<OWLEntity> compact = compacted.get( module );
+			if( compact == null ) {
+				compact = compactModule( module );
+				compacted.put( module, compact );
+			}
+			modules.put( entity, compact );
+		}
+
+		extracted.clear();
+	}
+
 	@Override
 	protected void extractModuleSignatures(Set<? extends OWLEntity> entities, ProgressMonitor monitor) {
 		Set<OWLEntity> nonLocalModule = new HashSet<OWLEntity>();
@@ -282,6 +316,8 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 					extractModuleSignature( ent, new DisjointSet<OWLEntity>(),
 							new ArrayList<OWLEntity>(), new HashSet<OWLEntity>( nonLocalModule ) );
 		}
+
+		compactModules();
 	}
 
 	/**
@@ -304,6 +340,8 @@ public class AxiomBasedModuleExtractor extends AbstractModuleExtractor {
 			else
 				extractModuleSignature( null, new DisjointSet<OWLEntity>(),
 						new ArrayList<OWLEntity>(), module );
+
+			compactModules();
 		}
 		
 		return getModuleAxioms( module );
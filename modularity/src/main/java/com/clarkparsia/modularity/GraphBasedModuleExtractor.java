@@ -6,16 +6,34 @@
 
 package com.clarkparsia.modularity;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.clarkparsia.pellet.owlapiv3.OWLClassTreePrinter;
+import com.clarkparsia.pellet.utils.ExecutorUtils;
 import com.clarkparsia.reachability.EntityNode;
 import com.clarkparsia.reachability.Node;
 import com.clarkparsia.reachability.PairSet;
 import com.clarkparsia.reachability.Reachability;
+import com.clarkparsia.reachability.ReachabilityGraph;
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
 import org.mindswap.pellet.utils.Timer;
 import org.mindswap.pellet.utils.progress.ConsoleProgressMonitor;
 import org.mindswap.pellet.utils.progress.ProgressMonitor;
@@ -32,26 +50,76 @@ public class GraphBasedModuleExtractor extends AbstractModuleExtractor {
 
 	public static final Logger log = Logger.getLogger(GraphBasedModuleExtractor.class.getName());
 
+	private static ExecutorService executor;
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = ExecutorUtils.newDaemonThreadPool(PelletOptions.MODULE_EXTRACTION_THREADS, "pellet-modularity");
+		}
+
+		return executor;
+	}
+
+	/**
+	 * The reachability graph built from the axioms, kept until the axioms change
+	 */
+	private ReachabilityGraph<OWLEntity> graph = null;
+
+	/**
+	 * The version of the axioms the graph was built from
+	 */
+	private int graphVersion = -1;
+
 	public GraphBasedModuleExtractor() {
 	}
 
-	@Override
-	protected void extractModuleSignatures(Set<? extends OWLEntity> entities, ProgressMonitor monitor) {
-		Timer t = getTimers().startTimer("buildGraph");
-		GraphBuilder builder = new GraphBuilder();
+	@SuppressWarnings("unchecked")
+	private ReachabilityGraph<OWLEntity> getGraph() {
+		if (graph == null || graphVersion != getAxiomsVersion()) {
+			Timer t = getTimers().startTimer("buildGraph");
+			GraphBuilder builder = new GraphBuilder();
+
+			for (OWLAxiom axiom : getAxioms()) {
+				builder.addAxiom(axiom);
+			}
 
-		for (OWLAxiom axiom : getAxioms()) {
-			builder.addAxiom(axiom);
+			graph = builder.build();
+			graphVersion = getAxiomsVersion();
+			t.stop();
+
+			if (log.isLoggable(Level.FINER)) {
+				log.finer(format("Built graph in %d ms", t.getLast()));
+			}
 		}
 
-		Reachability<OWLEntity> engine = new Reachability<OWLEntity>(builder.build());
-		t.stop();
+		return graph;
+	}
 
-		if (log.isLoggable(Level.FINER)) {
-			log.finer(format("Built graph in %d ms", t.getLast()));
+	@Override
+	protected void extractModuleSignatures(Set<? extends OWLEntity> entities, ProgressMonitor monitor) {
+		ReachabilityGraph<OWLEntity> graph = getGraph();
+
+//		DisplayGraph.display( entities, graph, null );
+
+		// find the nodes whose modules need to be computed with the
+		// reachability engine, entities in the same SCC share a node so the
+		// module for each node is computed only once
+		Set<EntityNode<OWLEntity>> roots = new LinkedHashSet<EntityNode<OWLEntity>>();
+		for (OWLEntity ent : entities) {
+			if (ent instanceof OWLClass && !modules.containsKey(ent)) {
+				EntityNode<OWLEntity> node = graph.getNode(ent);
+				if (node != null) {
+					EntityNode<OWLEntity> root = getReachabilityRoot(node);
+					if (root != null) {
+						roots.add(root);
+					}
+				}
+			}
 		}
 
-//		DisplayGraph.display( entities, engine.getGraph(), null );
+		Map<EntityNode<OWLEntity>, Set<OWLEntity>> reachable = computeReachable(graph, roots);
+
+		Reachability<OWLEntity> engine = new Reachability<OWLEntity>(graph);
 
 		for (OWLEntity ent : entities) {
 			if (!(ent instanceof OWLClass)) {
@@ -89,12 +157,107 @@ public class GraphBasedModuleExtractor extends AbstractModuleExtractor {
 				modules.put(ent, module);
 			}
 			else {
-				extractModule(engine, node, entities, monitor);
+				extractModule(engine, reachable, node, entities, monitor);
+			}
+		}
+	}
+
+	private boolean hasModule(EntityNode<OWLEntity> node) {
+		for (OWLEntity e : node.getEntities()) {
+			if (modules.containsKey(e)) {
+				return true;
 			}
 		}
+
+		return false;
 	}
 
-	private Set<OWLEntity> extractModule(Reachability<OWLEntity> engine, EntityNode<OWLEntity> node, Set<? extends OWLEntity> entities, ProgressMonitor monitor) {
+	/**
+	 * Follows the chain of single entity outputs starting from the given node
+	 * the same way {@link #extractModule} does and returns the node whose
+	 * module will be computed by the reachability engine or <code>null</code>
+	 * if a module already exists for a node in the chain.
+	 */
+	@SuppressWarnings("unchecked")
+	private EntityNode<OWLEntity> getReachabilityRoot(EntityNode<OWLEntity> node) {
+		while (!hasModule(node)) {
+			if (node.getOutputs().size() != 1) {
+				return node;
+			}
+
+			Node output = node.getOutputs().iterator().next();
+			if (!(output instanceof EntityNode)) {
+				return node;
+			}
+
+			node = (EntityNode<OWLEntity>) output;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Computes the entities reachable from each of the given nodes using
+	 * {@link PelletOptions#MODULE_EXTRACTION_THREADS} threads, each with its
+	 * own reachability engine. Returns an empty map if a single thread is used
+	 * in which case reachability is computed when the modules are extracted.
+	 */
+	private Map<EntityNode<OWLEntity>, Set<OWLEntity>> computeReachable(final ReachabilityGraph<OWLEntity> graph,
+	                                                                    Collection<EntityNode<OWLEntity>> nodes) {
+		int threads = Math.min(PelletOptions.MODULE_EXTRACTION_THREADS, nodes.size());
+		if (threads <= 1) {
+			return Collections.emptyMap();
+		}
+
+		Timer timer = getTimers().startTimer("computeReachable");
+
+		final Queue<EntityNode<OWLEntity>> queue = new ConcurrentLinkedQueue<EntityNode<OWLEntity>>(nodes);
+		final Map<EntityNode<OWLEntity>, Set<OWLEntity>> result = new ConcurrentHashMap<EntityNode<OWLEntity>, Set<OWLEntity>>();
+
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(threads);
+		for (int i = 0; i < threads; i++) {
+			futures.add(getExecutor().submit(new Callable<Object>() {
+				public Object call() {
+					Reachability<OWLEntity> engine = new Reachability<OWLEntity>(graph);
+					EntityNode<OWLEntity> node;
+					while ((node = queue.poll()) != null) {
+						result.put(node, engine.computeReachable(node.getEntities()));
+					}
+					return null;
+				}
+			}));
+		}
+
+		try {
+			for (Future<Object> future : futures) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			throw new TimerInterruptedException(e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new InternalReasonerException(cause);
+		}
+		finally {
+			queue.clear();
+			for (Future<Object> future : futures) {
+				future.cancel(true);
+			}
+			timer.stop();
+		}
+
+		return new HashMap<EntityNode<OWLEntity>, Set<OWLEntity>>(result);
+	}
+
+	private Set<OWLEntity> extractModule(Reachability<OWLEntity> engine,
+	                                     Map<EntityNode<OWLEntity>, Set<OWLEntity>> reachable,
+	                                     EntityNode<OWLEntity> node, Set<? extends OWLEntity> entities,
+	                                     ProgressMonitor monitor) {
 		if (log.isLoggable(Level.FINE)) {
 			log.fine("Extract module for " + node);
 		}
@@ -126,7 +289,7 @@ public class GraphBasedModuleExtractor extends AbstractModuleExtractor {
 			// an entity node
 			if (output instanceof EntityNode) {
 				// recursively extract the module for output node
-				Set<OWLEntity> outputModule = extractModule(engine, (EntityNode) output, entities, monitor);
+				Set<OWLEntity> outputModule = extractModule(engine, reachable, (EntityNode) output, entities, monitor);
 
 				if (log.isLoggable(Level.FINE)) {
 					log.fine("Cached module size " + outputModule.size());
@@ -140,8 +303,16 @@ public class GraphBasedModuleExtractor extends AbstractModuleExtractor {
 
 		// compute reachability if we don't have a cached result
 		if (module == null) {
-			// compute nodes reachable from the current node entities
-			module = engine.computeReachable(node.getEntities());
+			// use the nodes reachable from the current node entities if they
+			// have been computed in parallel or compute them now
+			module = reachable.remove(node);
+			if (module == null) {
+				module = engine.computeReachable(node.getEntities());
+			}
+
+			// this module cannot be shared with an output node so it is kept
+			// as a bitmap over entity ids if that takes less memory
+			module = compactModule(module);
 		}
 
 		if (log.isLoggable(Level.FINE)) {
@@ -10,14 +10,26 @@ import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.exceptions.InternalReasonerException;
 import org.mindswap.pellet.exceptions.PelletRuntimeException;
+import org.mindswap.pellet.exceptions.TimerInterruptedException;
 import org.mindswap.pellet.taxonomy.Taxonomy;
 import org.mindswap.pellet.taxonomy.TaxonomyNode;
 import org.mindswap.pellet.taxonomy.printer.ClassTreePrinter;
@@ -51,6 +63,7 @@ import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.RemoveAxiom;
 import org.semanticweb.owlapi.reasoner.AxiomNotInProfileException;
 import org.semanticweb.owlapi.reasoner.BufferingMode;
@@ -80,6 +93,7 @@ import com.clarkparsia.owlapiv3.OWL;
 import com.clarkparsia.owlapiv3.OntologyUtils;
 import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
 import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
+import com.clarkparsia.pellet.utils.ExecutorUtils;
 
 
 /**
@@ -128,11 +142,28 @@ public class IncrementalClassifier implements OWLReasoner, OWLOntologyChangeList
 	 */
 	private boolean								multiThreaded	= true;
 
+	/**
+	 * Do the regular classification by classifying the modules of groups of
+	 * related classes separately instead of classifying the whole ontology
+	 * with a single reasoner.
+	 */
+	private boolean								modularClassification	= false;
+
 	public Timers								timers		= extractor.getTimers();
 	
 	private final Random 								RND			= new Random();
 	
 	private boolean 								realized 	= false;
+	
+	private static ExecutorService					executor;
+
+	private static synchronized ExecutorService getExecutor() {
+		if( executor == null ) {
+			executor = ExecutorUtils.newDaemonThreadPool( PelletOptions.INCREMENTAL_CLASSIFICATION_THREADS, "pellet-incremental" );
+		}
+
+		return executor;
+	}
 
 	public IncrementalClassifier(OWLOntology ontology) {
 		this( PelletReasonerFactory.getInstance().createReasoner( ontology ), ModuleExtractorFactory.createModuleExtractor() );
@@ -322,10 +353,12 @@ public class IncrementalClassifier implements OWLReasoner, OWLOntologyChangeList
 	}
 
 	/**
-	 * This incremental classification strategy does the following: for all
-	 * modules that are affected, collect all of their axioms and classify them
-	 * all once in Pellet. This allows the exploitation current classification
-	 * optimizations
+	 * This incremental classification strategy does the following: the
+	 * entities whose modules are affected are partitioned into groups such
+	 * that the modules of the entities in different groups do not overlap. The
+	 * axioms of the modules in each group are classified once in Pellet which
+	 * allows the exploitation current classification optimizations. Different
+	 * groups are classified concurrently and their taxonomies are merged.
 	 */
 	private void incClassifyAllModStrategy() {
 		// Get the entities whose modules are affected
@@ -335,26 +368,13 @@ public class IncrementalClassifier implements OWLReasoner, OWLOntologyChangeList
 	        log.fine( "Module entities " + effects );
         }
 
-		// create ontology for all the axioms of all effected modules
-		OWLOntology owlModule = extractor.getModuleFromSignature( effects );
-		
-		if( log.isLoggable( Level.FINE ) ) {
-	        log.fine( "Module axioms " + owlModule.getLogicalAxioms() );
-        }
-
-		// load the extracted module to a new reasoner
-		PelletReasoner moduleReasoner = PelletReasonerFactory.getInstance().createReasoner( owlModule );
-
-		// classify the module
-		moduleReasoner.getKB().classify();
+		List<Set<OWLEntity>> groups = partitionEffects( effects );
 
 		if( log.isLoggable( Level.FINE ) ) {
-			log.fine( "Classified module:" );
-
-			new ClassTreePrinter().print( moduleReasoner.getKB().getTaxonomy(), new PrintWriter( System.err ) );
-		}
+	        log.fine( "Module groups " + groups.size() );
+        }
 
-		Taxonomy<OWLClass> moduleTaxonomy = buildClassHierarchy( moduleReasoner );
+		Taxonomy<OWLClass> moduleTaxonomy = classifyModules( groups );
 
 		Set<OWLClass> affectedCls = new HashSet<OWLClass>();
 		for (OWLEntity entity : effects) {
@@ -369,8 +389,404 @@ public class IncrementalClassifier implements OWLReasoner, OWLOntologyChangeList
 			new TreeTaxonomyPrinter<OWLClass>().print( taxonomy, new PrintWriter( System.err ) );
 //			new FunctionalTaxonomyPrinter().print( taxonomy, new OutputFormatter( System.err, false ) );
 		}
+	}
+
+	/**
+	 * Partitions the affected entities so that the entities whose modules
+	 * share an entity are in the same group. Since the module of a class
+	 * contains all its super classes, the subsumptions between the classes in
+	 * different groups do not need to be checked. <code>owl:Thing</code> and
+	 * <code>owl:Nothing</code> do not cause groups to be joined but are
+	 * included in the signature of every group.
+	 */
+	private List<Set<OWLEntity>> partitionEffects(Set<OWLEntity> effects) {
+		Map<OWLEntity, OWLEntity> parents = new HashMap<OWLEntity, OWLEntity>();
+		for( OWLEntity entity : effects ) {
+			if( isTopOrBottom( entity ) ) {
+	            continue;
+            }
+
+			OWLEntity root = findRoot( parents, entity );
+
+			Set<OWLEntity> module = extractor.getModules().get( entity );
+			if( module == null ) {
+	            continue;
+            }
+
+			for( OWLEntity member : module ) {
+				if( isTopOrBottom( member ) || !effects.contains( member ) ) {
+	                continue;
+                }
+
+				OWLEntity memberRoot = findRoot( parents, member );
+				if( !memberRoot.equals( root ) ) {
+					parents.put( memberRoot, root );
+				}
+			}
+		}
+
+		Map<OWLEntity, Set<OWLEntity>> groups = new HashMap<OWLEntity, Set<OWLEntity>>();
+		for( OWLEntity entity : parents.keySet() ) {
+			OWLEntity root = findRoot( parents, entity );
+			Set<OWLEntity> group = groups.get( root );
+			if( group == null ) {
+				group = new HashSet<OWLEntity>();
+				for( OWLEntity e : effects ) {
+					if( isTopOrBottom( e ) ) {
+	                    group.add( e );
+                    }
+				}
+				groups.put( root, group );
+			}
+			group.add( entity );
+		}
+
+		if( groups.isEmpty() && !effects.isEmpty() ) {
+	        return Collections.singletonList( effects );
+        }
+
+		return new ArrayList<Set<OWLEntity>>( groups.values() );
+	}
+
+	private static boolean isTopOrBottom(OWLEntity entity) {
+		return entity.equals( OWL.Thing ) || entity.equals( OWL.Nothing );
+	}
+
+	private static OWLEntity findRoot(Map<OWLEntity, OWLEntity> parents, OWLEntity entity) {
+		OWLEntity root = entity;
+		OWLEntity parent;
+		while( (parent = parents.get( root )) != null && !parent.equals( root ) ) {
+	        root = parent;
+        }
+
+		if( parent == null ) {
+	        parents.put( root, root );
+        }
+
+		// compress the path
+		while( !entity.equals( root ) ) {
+			OWLEntity next = parents.put( entity, root );
+			entity = next;
+		}
+
+		return root;
+	}
+
+	/**
+	 * Receives the taxonomies computed by
+	 * {@link IncrementalClassifier#classifyModules(List, ModuleTaxonomyHandler)}
+	 * on the thread that called it.
+	 */
+	private interface ModuleTaxonomyHandler {
+		public void moduleClassified(int group, Taxonomy<OWLClass> moduleTaxonomy);
+	}
+
+	/**
+	 * Classifies the axioms of the modules in each group with a separate
+	 * reasoner and returns the union of the resulting taxonomies. The groups
+	 * are classified concurrently and each taxonomy is merged as soon as it is
+	 * computed.
+	 */
+	private Taxonomy<OWLClass> classifyModules(List<Set<OWLEntity>> groups) {
+		final Taxonomy<OWLClass> result = new Taxonomy<OWLClass>( null, OWL.Thing, OWL.Nothing );
+
+		classifyModules( groups, new ModuleTaxonomyHandler() {
+			public void moduleClassified(int group, Taxonomy<OWLClass> moduleTaxonomy) {
+				mergeClassHierarchy( result, moduleTaxonomy );
+			}
+		} );
+
+		return result;
+	}
+
+	/**
+	 * Classifies the axioms of the modules in each group with a separate
+	 * reasoner. The groups are classified concurrently and the handler is
+	 * notified on the calling thread as soon as the taxonomy of a group is
+	 * computed.
+	 */
+	private void classifyModules(List<Set<OWLEntity>> groups, ModuleTaxonomyHandler handler) {
+		int threads = multiThreaded
+			? Math.min( PelletOptions.INCREMENTAL_CLASSIFICATION_THREADS, groups.size() )
+			: 1;
+		if( threads <= 1 ) {
+			for( int i = 0; i < groups.size(); i++ ) {
+				handler.moduleClassified( i, classifyModule( groups.get( i ) ) );
+			}
+			return;
+		}
+
+		Timer timer = timers.startTimer( "classifyModules" );
+
+		CompletionService<Taxonomy<OWLClass>> completionService = new ExecutorCompletionService<Taxonomy<OWLClass>>( getExecutor() );
+		Map<Future<Taxonomy<OWLClass>>, Integer> futures = new HashMap<Future<Taxonomy<OWLClass>>, Integer>();
+		for( int i = 0; i < groups.size(); i++ ) {
+			final Set<OWLEntity> group = groups.get( i );
+			futures.put( completionService.submit( new Callable<Taxonomy<OWLClass>>() {
+				public Taxonomy<OWLClass> call() {
+					return classifyModule( group );
+				}
+			} ), i );
+		}
+
+		try {
+			for( int i = 0; i < futures.size(); i++ ) {
+				Future<Taxonomy<OWLClass>> future = completionService.take();
+				handler.moduleClassified( futures.get( future ), future.get() );
+			}
+		} catch( InterruptedException e ) {
+			throw new TimerInterruptedException( e );
+		} catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new InternalReasonerException( cause );
+		} finally {
+			for( Future<Taxonomy<OWLClass>> future : futures.keySet() ) {
+				future.cancel( true );
+			}
+			timer.stop();
+		}
+	}
+
+	/**
+	 * Classifies the axioms in the modules of the given signature and returns
+	 * the resulting taxonomy. Creating and removing ontologies is synchronized
+	 * on the ontology manager since the manager is not thread-safe.
+	 */
+	private Taxonomy<OWLClass> classifyModule(Set<OWLEntity> signature) {
+		OWLOntologyManager manager = OntologyUtils.getOWLOntologyManager();
+
+		OWLOntology owlModule;
+		PelletReasoner moduleReasoner;
+		synchronized( manager ) {
+			// create ontology for all the axioms of the modules
+			owlModule = extractor.getModuleFromSignature( signature );
+			
+			if( log.isLoggable( Level.FINE ) ) {
+		        log.fine( "Module axioms " + owlModule.getLogicalAxioms() );
+	        }
+
+			// load the extracted module to a new reasoner
+			moduleReasoner = PelletReasonerFactory.getInstance().createReasoner( owlModule );
+		}
+
+		try {
+			// classify the module
+			moduleReasoner.getKB().classify();
+
+			if( log.isLoggable( Level.FINE ) ) {
+				log.fine( "Classified module:" );
+
+				new ClassTreePrinter().print( moduleReasoner.getKB().getTaxonomy(), new PrintWriter( System.err ) );
+			}
+
+			return buildClassHierarchy( moduleReasoner );
+		} finally {
+			synchronized( manager ) {
+				moduleReasoner.dispose();
+				manager.removeOntology( owlModule );
+			}
+		}
+	}
+
+	/**
+	 * Classifies the ontology by classifying the modules of groups of classes
+	 * separately. Each class is assigned to a group whose signature contains
+	 * the module of the class. Since the module of a class preserves all the
+	 * subsumptions of the class, the equivalents and the direct supers of a
+	 * class in the taxonomy of its group are the same as in the taxonomy of
+	 * the whole ontology.
+	 */
+	private Taxonomy<OWLClass> modularClassify() {
+		final List<Set<OWLEntity>> signatures = new ArrayList<Set<OWLEntity>>();
+		final List<List<OWLClass>> groups = new ArrayList<List<OWLClass>>();
+		groupClasses( signatures, groups );
+
+		if( log.isLoggable( Level.FINE ) ) {
+	        log.fine( "Modular classification groups " + groups.size() );
+        }
+
+		final Map<OWLClass, Set<OWLClass>> equivalents = new HashMap<OWLClass, Set<OWLClass>>();
+		final Map<OWLClass, Set<OWLClass>> supers = new HashMap<OWLClass, Set<OWLClass>>();
+		classifyModules( signatures, new ModuleTaxonomyHandler() {
+			public void moduleClassified(int group, Taxonomy<OWLClass> moduleTaxonomy) {
+				for( OWLClass cls : groups.get( group ) ) {
+					TaxonomyNode<OWLClass> node = moduleTaxonomy.getNode( cls );
+					if( node == null ) {
+						equivalents.put( cls, Collections.singleton( cls ) );
+						supers.put( cls, Collections.singleton( OWL.Thing ) );
+						continue;
+					}
+
+					equivalents.put( cls, node.getEquivalents() );
+					Set<OWLClass> sups = new HashSet<OWLClass>();
+					for( TaxonomyNode<OWLClass> sup : node.getSupers() ) {
+						sups.add( sup.getName() );
+					}
+					supers.put( cls, sups );
+				}
+			}
+		} );
+
+		Taxonomy<OWLClass> result = new Taxonomy<OWLClass>( null, OWL.Thing, OWL.Nothing );
+
+		final Set<OWLClass> emptySet = Collections.emptySet();
+		for( Map.Entry<OWLClass, Set<OWLClass>> entry : equivalents.entrySet() ) {
+			if( result.contains( entry.getKey() ) ) {
+	            continue;
+            }
+
+			Set<OWLClass> eqs = entry.getValue();
+			OWLClass topOrBottom = eqs.contains( OWL.Thing )
+				? OWL.Thing
+				: eqs.contains( OWL.Nothing )
+					? OWL.Nothing
+					: null;
+			if( topOrBottom == null ) {
+				result.addNode( eqs, emptySet, emptySet, /* hidden= */false );
+			}
+			else {
+				List<OWLClass> newEqs = new ArrayList<OWLClass>();
+				for( OWLClass eq : eqs ) {
+					if( !result.contains( eq ) ) {
+	                    newEqs.add( eq );
+                    }
+				}
+				result.addEquivalents( topOrBottom, newEqs );
+			}
+		}
+
+		// the supers are added after all the nodes are created so the order
+		// of the classes does not matter
+		Set<TaxonomyNode<OWLClass>> processed = new HashSet<TaxonomyNode<OWLClass>>();
+		for( Map.Entry<OWLClass, Set<OWLClass>> entry : supers.entrySet() ) {
+			TaxonomyNode<OWLClass> node = result.getNode( entry.getKey() );
+			if( node.equals( result.getTop() ) || node.equals( result.getBottom() ) || !processed.add( node ) ) {
+	            continue;
+            }
+
+			result.addSupers( node.getName(), entry.getValue() );
+		}
+
+		return result;
+	}
+
+	/**
+	 * Splits the classes into groups and computes the signature of each
+	 * group. The classes are processed in decreasing order of their module
+	 * size and a class is added to an existing group if the signature of that
+	 * group contains the class, since then the signature also contains the
+	 * module of the class. Otherwise a new group is created with the module
+	 * of the class as its signature. Small groups are then packed together up
+	 * to the size of the largest group to avoid creating a reasoner for each
+	 * small module.
+	 */
+	private void groupClasses(List<Set<OWLEntity>> signatures, List<List<OWLClass>> groups) {
+		final MultiValueMap<OWLEntity, OWLEntity> modules = extractor.getModules();
+
+		List<OWLClass> classes = new ArrayList<OWLClass>();
+		for( OWLEntity entity : extractor.getEntities() ) {
+			if( entity instanceof OWLClass && !isTopOrBottom( entity ) ) {
+	            classes.add( (OWLClass) entity );
+            }
+		}
+
+		Collections.sort( classes, new Comparator<OWLClass>() {
+			public int compare(OWLClass c1, OWLClass c2) {
+				return getModuleSize( modules, c2 ) - getModuleSize( modules, c1 );
+			}
+		} );
+
+		List<Set<OWLEntity>> moduleSignatures = new ArrayList<Set<OWLEntity>>();
+		List<List<OWLClass>> moduleGroups = new ArrayList<List<OWLClass>>();
+		Map<OWLEntity, Integer> covered = new HashMap<OWLEntity, Integer>();
+		for( OWLClass cls : classes ) {
+			Integer group = covered.get( cls );
+			if( group == null ) {
+				group = moduleSignatures.size();
+
+				Set<OWLEntity> signature = new HashSet<OWLEntity>();
+				signature.add( cls );
+				Set<OWLEntity> module = modules.get( cls );
+				if( module != null ) {
+	                signature.addAll( module );
+                }
+				for( OWLEntity entity : signature ) {
+					if( !covered.containsKey( entity ) ) {
+	                    covered.put( entity, group );
+                    }
+				}
+
+				moduleSignatures.add( signature );
+				moduleGroups.add( new ArrayList<OWLClass>() );
+			}
+			moduleGroups.get( group ).add( cls );
+		}
+
+		if( moduleSignatures.isEmpty() ) {
+	        return;
+        }
+
+		// groups are created in decreasing order of size
+		int maxSize = moduleSignatures.get( 0 ).size();
+		Set<OWLEntity> signature = null;
+		List<OWLClass> group = null;
+		for( int i = 0; i < moduleSignatures.size(); i++ ) {
+			Set<OWLEntity> moduleSignature = moduleSignatures.get( i );
+			if( signature == null || signature.size() + moduleSignature.size() > maxSize ) {
+				signature = new HashSet<OWLEntity>( moduleSignature );
+				group = new ArrayList<OWLClass>( moduleGroups.get( i ) );
+				signatures.add( signature );
+				groups.add( group );
+			}
+			else {
+				signature.addAll( moduleSignature );
+				group.addAll( moduleGroups.get( i ) );
+			}
+		}
+	}
+
+	private static int getModuleSize(MultiValueMap<OWLEntity, OWLEntity> modules, OWLEntity entity) {
+		Set<OWLEntity> module = modules.get( entity );
+		return module == null
+			? 0
+			: module.size();
+	}
+
+	/**
+	 * Adds the classes of a module taxonomy to another taxonomy. The groups
+	 * have no affected classes in common but their taxonomies may still share
+	 * <code>owl:Thing</code>, <code>owl:Nothing</code> and unaffected classes
+	 * that are in the modules of several groups. Classes that are already in
+	 * the taxonomy are skipped. This does not lose any subsumptions since the
+	 * module of a shared class is contained in the module of every group whose
+	 * module contains the class, so the class has the same supers in each of
+	 * the taxonomies.
+	 */
+	private static void mergeClassHierarchy(Taxonomy<OWLClass> taxonomy, Taxonomy<OWLClass> moduleTaxonomy) {
+		final Set<OWLClass> emptySet = Collections.emptySet();
+		for( OWLClass cls : moduleTaxonomy.topologocialSort( /* includeEquivalents = */false ) ) {
+			if( taxonomy.contains( cls ) ) {
+	            continue;
+            }
+
+			taxonomy.addNode( moduleTaxonomy.getAllEquivalents( cls ), emptySet, emptySet, /* hidden= */false );
+			taxonomy.addSupers( cls, moduleTaxonomy.getFlattenedSupers( cls, /* direct = */true ) );
+		}
 
-		OntologyUtils.getOWLOntologyManager().removeOntology( owlModule );
+		for( OWLClass topOrBottom : new OWLClass[] { OWL.Thing, OWL.Nothing } ) {
+			List<OWLClass> equivalents = new ArrayList<OWLClass>();
+			for( OWLClass cls : moduleTaxonomy.getEquivalents( topOrBottom ) ) {
+				if( !taxonomy.contains( cls ) ) {
+		            equivalents.add( cls );
+	            }
+			}
+			if( !equivalents.isEmpty() ) {
+		        taxonomy.addEquivalents( topOrBottom, equivalents );
+	        }
+		}
 	}
 
 	private void incrementalClassify() {
@@ -504,7 +920,15 @@ public class IncrementalClassifier implements OWLReasoner, OWLOntologyChangeList
 			Timer timer = timers.startTimer( "regularClassify" );
 
 			
-			if( multiThreaded ) {
+			if( modularClassification ) {
+				// the modules are needed to split the ontology
+				partitioning.run();
+
+				Timer modularTimer = timers.startTimer( "modularClassify" );
+				taxonomy = modularClassify();
+				modularTimer.stop();
+			}
+			else if( multiThreaded ) {
 				classification.start();
 				partitioning.start();
 				
@@ -681,6 +1105,34 @@ public class IncrementalClassifier implements OWLReasoner, OWLOntologyChangeList
 		return multiThreaded;
 	}
 
+	/**
+	 * Returns the value of modular classification option.
+	 * 
+	 * @see IncrementalClassifier#setModularClassification(boolean)
+	 * @return the value of modular classification option
+	 */
+	public boolean isModularClassification() {
+		return modularClassification;
+	}
+
+	/**
+	 * Sets the modular classification option. In modular classification mode,
+	 * the initial classification is done by extracting the modules of all the
+	 * classes, splitting the classes into groups such that the module of each
+	 * class is contained in the module of its group, and classifying the module
+	 * of each group with a separate reasoner. The groups are classified
+	 * concurrently if the multi-threaded option is enabled (see
+	 * {@link PelletOptions#INCREMENTAL_CLASSIFICATION_THREADS}). The
+	 * subsumptions of the classes in each group are then combined into a single
+	 * taxonomy. The consistency of the whole ontology is not checked in this
+	 * mode.
+	 * 
+	 * @param modularClassification value to set the modular classification option
+	 */
+	public void setModularClassification(boolean modularClassification) {
+		this.modularClassification = modularClassification;
+	}
+
 	/**
 	 * Sets the multi-threading option. In multi-threaded mode, during the
 	 * initial setup, the regular classification and module extraction are
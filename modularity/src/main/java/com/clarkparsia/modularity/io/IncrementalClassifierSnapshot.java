@@ -0,0 +1,344 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.modularity.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.mindswap.pellet.taxonomy.Taxonomy;
+import org.mindswap.pellet.taxonomy.TaxonomyNode;
+import org.mindswap.pellet.utils.MultiValueMap;
+import org.mindswap.pellet.utils.TaxonomyUtils;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import com.clarkparsia.modularity.AbstractModuleExtractor;
+import com.clarkparsia.modularity.IncrementalClassifier;
+import com.clarkparsia.modularity.ModuleExtractor;
+import com.clarkparsia.modularity.ModuleExtractorFactory;
+import com.clarkparsia.reachability.PairSet;
+
+/**
+ * <p>
+ * Provides a binary snapshot format for the state of IncrementalClassifier
+ * objects. Unlike {@link IncrementalClassifierPersistence} the snapshot does not
+ * go through OWL/XML: each entity is written once when it is first used and
+ * then assigned an id, and the axioms, the modules and the taxonomy refer to
+ * the entities by their ids. The modules are written once for each distinct
+ * module object and the taxonomy is written as an adjacency array of its nodes.
+ * The sections are streamed to the file when it is saved and the file is
+ * memory mapped in chunks when it is loaded so there is no limit on its size.
+ * </p>
+ * <p>
+ * A snapshot starts with a magic number and a format version. Snapshots with a
+ * different version are rejected so they should be recreated (e.g. from the
+ * ontology) when the format changes.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+public class IncrementalClassifierSnapshot {
+	/**
+	 * The magic number at the beginning of each snapshot ("PISN").
+	 */
+	private static final int		MAGIC					= 0x5049534E;
+
+	/**
+	 * The version of the snapshot format.
+	 */
+	public static final int			VERSION					= 2;
+
+	private static final int		NONE					= -1;
+
+	/**
+	 * Saves the internal state of an incremental classifier to a snapshot file.
+	 *
+	 * @param classifier the classifier to be saved
+	 * @param file the file where the snapshot should be saved
+	 * @throws IOException if an error should occur during the save operation
+	 * @throws IllegalStateException if there are outstanding changes that have not yet been applied to the modules
+	 */
+	public static void save(IncrementalClassifier classifier, File file) throws IOException, IllegalStateException {
+		IncrementalClassifier.PersistedState persistedState = new IncrementalClassifier.PersistedState( classifier );
+		ModuleExtractor extractor = persistedState.getModuleExtractor();
+
+		if( extractor.isChanged() ) {
+			throw new IllegalStateException( "The module extractor contains unapplied changes to the modules, and therefore cannot be saved." );
+		}
+
+		DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) );
+		try {
+			SnapshotWriter writer = new SnapshotWriter( out );
+
+			writer.writeInt( MAGIC );
+			writer.writeInt( VERSION );
+			writer.writeBoolean( persistedState.isRealized() );
+
+			writer.writeAxioms( extractor.getAxioms() );
+
+			writeModules( extractor.getModules(), writer );
+
+			writeTaxonomy( persistedState.getTaxonomy(), writer );
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads an incremental classifier from a previously saved snapshot file.
+	 *
+	 * @param file the snapshot file
+	 * @return the newly created incremental classifier
+	 * @throws IOException if an error should occur during the reading or the
+	 *             file is not a snapshot with a supported version
+	 */
+	public static IncrementalClassifier load(File file) throws IOException {
+		return load( file, null );
+	}
+
+	/**
+	 * Loads an incremental classifier from a previously saved snapshot file.
+	 * If an ontology is given the differences between the axioms in the
+	 * snapshot and the ontology are applied to the classifier.
+	 *
+	 * @param file the snapshot file
+	 * @param loadedOntology the current version of the ontology or
+	 *            <code>null</code>
+	 * @return the newly created incremental classifier
+	 * @throws IOException if an error should occur during the reading or the
+	 *             file is not a snapshot with a supported version
+	 */
+	public static IncrementalClassifier load(File file, OWLOntology loadedOntology) throws IOException {
+		boolean realized;
+		Collection<OWLAxiom> axioms;
+		MultiValueMap<OWLEntity, OWLEntity> modules;
+		Taxonomy<OWLClass> taxonomy;
+
+		FileInputStream fis = new FileInputStream( file );
+		try {
+			SnapshotReader in = new SnapshotReader( fis.getChannel() );
+
+			if( in.remaining() < 8 || in.readInt() != MAGIC )
+				throw new IOException( String.format( "%s is not an incremental classifier snapshot", file ) );
+
+			int version = in.readInt();
+			if( version != VERSION )
+				throw new IOException( String.format( "Unsupported snapshot version %d in %s. Expected %d", version, file, VERSION ) );
+
+			realized = in.readBoolean();
+
+			axioms = in.readAxioms();
+
+			modules = readModules( in );
+
+			taxonomy = readTaxonomy( in );
+		} finally {
+			fis.close();
+		}
+
+		ModuleExtractor extractor = ModuleExtractorFactory.createModuleExtractor();
+		if( !(extractor instanceof AbstractModuleExtractor) )
+			throw new IOException( "Cannot restore the modules of " + extractor.getClass().getName() );
+		((AbstractModuleExtractor) extractor).restore( axioms, modules );
+
+		IncrementalClassifier.PersistedState persistedState = new IncrementalClassifier.PersistedState( extractor, taxonomy, realized );
+
+		if( loadedOntology != null ) {
+			return new IncrementalClassifier( persistedState, loadedOntology );
+		} else {
+			return new IncrementalClassifier( persistedState );
+		}
+	}
+
+	/**
+	 * Writes each distinct module object once followed by the entities that
+	 * share it. A module that is a {@link PairSet} extending another module is
+	 * written as a reference to that module and the additional members. The
+	 * included modules are always written before the modules including them.
+	 */
+	private static void writeModules(MultiValueMap<OWLEntity, OWLEntity> modules, SnapshotWriter out)
+			throws IOException {
+		Map<Set<OWLEntity>, List<OWLEntity>> sharedModules = new IdentityHashMap<Set<OWLEntity>, List<OWLEntity>>();
+		for( Entry<OWLEntity, Set<OWLEntity>> entry : modules.entrySet() ) {
+			List<OWLEntity> entities = sharedModules.get( entry.getValue() );
+			if( entities == null ) {
+				entities = new ArrayList<OWLEntity>( 1 );
+				sharedModules.put( entry.getValue(), entities );
+			}
+			entities.add( entry.getKey() );
+		}
+
+		Map<Set<OWLEntity>, Integer> moduleIds = new IdentityHashMap<Set<OWLEntity>, Integer>();
+		out.writeInt( sharedModules.size() );
+		for( Set<OWLEntity> module : sharedModules.keySet() ) {
+			writeModule( module, sharedModules, moduleIds, out );
+		}
+	}
+
+	private static void writeModule(Set<OWLEntity> module, Map<Set<OWLEntity>, List<OWLEntity>> sharedModules,
+			Map<Set<OWLEntity>, Integer> moduleIds, SnapshotWriter out) throws IOException {
+		if( moduleIds.containsKey( module ) )
+			return;
+
+		int included = NONE;
+		Set<OWLEntity> members = module;
+		if( module instanceof PairSet ) {
+			PairSet<OWLEntity> pairSet = (PairSet<OWLEntity>) module;
+			Set<OWLEntity> firstSet = pairSet.getFirstSet();
+			if( sharedModules.containsKey( firstSet ) ) {
+				writeModule( firstSet, sharedModules, moduleIds, out );
+				included = moduleIds.get( firstSet );
+				members = pairSet.getSecondSet();
+			}
+		}
+
+		moduleIds.put( module, moduleIds.size() );
+
+		out.writeEntities( sharedModules.get( module ) );
+
+		out.writeInt( included );
+
+		out.writeEntities( members );
+	}
+
+	private static MultiValueMap<OWLEntity, OWLEntity> readModules(SnapshotReader in) throws IOException {
+		MultiValueMap<OWLEntity, OWLEntity> modules = new MultiValueMap<OWLEntity, OWLEntity>();
+
+		List<Set<OWLEntity>> moduleList = new ArrayList<Set<OWLEntity>>();
+		int count = in.readInt();
+		for( int i = 0; i < count; i++ ) {
+			List<OWLEntity> keys = in.readEntities();
+
+			int included = in.readInt();
+
+			Set<OWLEntity> members = new HashSet<OWLEntity>( in.readEntities() );
+
+			Set<OWLEntity> module = included == NONE
+				? members
+				: new PairSet<OWLEntity>( moduleList.get( included ), members );
+			moduleList.add( module );
+
+			for( OWLEntity key : keys )
+				modules.put( key, module );
+		}
+
+		return modules;
+	}
+
+	/**
+	 * Writes the taxonomy as an array of nodes where each node lists its
+	 * equivalents and instances as entities and its direct subs as node
+	 * indexes. The array is preceded by the names of the top and bottom nodes
+	 * which are always the first two nodes in the array.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void writeTaxonomy(Taxonomy<OWLClass> taxonomy, SnapshotWriter out) throws IOException {
+		Map<TaxonomyNode<OWLClass>, Integer> nodeIds = new IdentityHashMap<TaxonomyNode<OWLClass>, Integer>();
+		List<TaxonomyNode<OWLClass>> nodes = new ArrayList<TaxonomyNode<OWLClass>>();
+		nodeIds.put( taxonomy.getTop(), 0 );
+		nodes.add( taxonomy.getTop() );
+		nodeIds.put( taxonomy.getBottom(), 1 );
+		nodes.add( taxonomy.getBottom() );
+		for( TaxonomyNode<OWLClass> node : taxonomy.getNodes() ) {
+			if( !nodeIds.containsKey( node ) ) {
+				nodeIds.put( node, nodes.size() );
+				nodes.add( node );
+			}
+		}
+
+		out.writeEntity( taxonomy.getTop().getName() );
+		out.writeEntity( taxonomy.getBottom().getName() );
+
+		out.writeInt( nodes.size() );
+		for( TaxonomyNode<OWLClass> node : nodes ) {
+			OWLClass name = node.getName();
+			out.writeEntity( name );
+
+			List<OWLClass> eqs = new ArrayList<OWLClass>( node.getEquivalents() );
+			eqs.remove( name );
+			out.writeEntities( eqs );
+
+			out.writeInt( node.getSubs().size() );
+			for( TaxonomyNode<OWLClass> sub : node.getSubs() )
+				out.writeInt( nodeIds.get( sub ) );
+
+			Collection<OWLNamedIndividual> individuals = (Collection<OWLNamedIndividual>) node.getDatum( TaxonomyUtils.INSTANCES_KEY );
+			if( individuals == null )
+				out.writeInt( NONE );
+			else
+				out.writeEntities( individuals );
+		}
+	}
+
+	private static Taxonomy<OWLClass> readTaxonomy(SnapshotReader in) throws IOException {
+		OWLClass top = (OWLClass) in.readEntity();
+		OWLClass bottom = (OWLClass) in.readEntity();
+		Taxonomy<OWLClass> taxonomy = new Taxonomy<OWLClass>( null, top, bottom );
+
+		int count = in.readInt();
+		int[][] subs = new int[count][];
+		List<TaxonomyNode<OWLClass>> nodes = new ArrayList<TaxonomyNode<OWLClass>>( count );
+		for( int i = 0; i < count; i++ ) {
+			OWLClass name = (OWLClass) in.readEntity();
+
+			TaxonomyNode<OWLClass> node;
+			if( i == 0 )
+				node = taxonomy.getTop();
+			else if( i == 1 )
+				node = taxonomy.getBottom();
+			else
+				node = taxonomy.addNode( name, false );
+			// the edges are added after all the nodes are created
+			node.disconnect();
+			nodes.add( node );
+
+			int eqCount = in.readInt();
+			if( eqCount > 0 ) {
+				List<OWLClass> eqs = new ArrayList<OWLClass>( eqCount );
+				for( int j = 0; j < eqCount; j++ )
+					eqs.add( (OWLClass) in.readEntity() );
+				taxonomy.addEquivalents( name, eqs );
+			}
+
+			subs[i] = new int[in.readInt()];
+			for( int j = 0; j < subs[i].length; j++ )
+				subs[i][j] = in.readInt();
+
+			int indCount = in.readInt();
+			if( indCount != NONE ) {
+				Set<OWLNamedIndividual> individuals = new HashSet<OWLNamedIndividual>();
+				for( int j = 0; j < indCount; j++ )
+					individuals.add( (OWLNamedIndividual) in.readEntity() );
+				node.putDatum( TaxonomyUtils.INSTANCES_KEY, individuals );
+			}
+		}
+
+		for( int i = 0; i < count; i++ ) {
+			TaxonomyNode<OWLClass> node = nodes.get( i );
+			for( int sub : subs[i] )
+				node.addSub( nodes.get( sub ) );
+		}
+
+		return taxonomy;
+	}
+}
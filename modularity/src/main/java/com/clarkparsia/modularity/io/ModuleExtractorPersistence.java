@@ -14,8 +14,13 @@ import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -31,6 +36,7 @@ import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 
 import com.clarkparsia.owlapiv3.OWL;
+import com.clarkparsia.reachability.PairSet;
 
 /**
  * <p>
@@ -82,6 +88,10 @@ public class ModuleExtractorPersistence {
 	
 	private static final String MODULE_END_KEYWORD = "END";
 	
+	private static final String SAME_MODULE_KEYWORD = "SAME";
+	
+	private static final String INCLUDE_MODULE_KEYWORD = "INCLUDE";
+	
 	private static final String CLASS_KEYWORD = "class";
 	
 	private static final String DATA_TYPE_KEYWORD = "datatype";
@@ -123,13 +133,23 @@ public class ModuleExtractorPersistence {
 		return getTypeKeywordForEntity( member ) + " " + member.getIRI();
 	}
 	
+	private static String getSameModule( OWLEntity entity ) {
+		return SAME_MODULE_KEYWORD + " " + getModuleMember( entity );
+	}
+	
+	private static String getIncludedModule( OWLEntity entity ) {
+		return INCLUDE_MODULE_KEYWORD + " " + getModuleMember( entity );
+	}
+	
 	private static String getModuleEnd() {
 		return MODULE_END_KEYWORD;
 	}
 	
 	/**
 	 * Saves the information about modules from ModuleExtractor to an output stream as an ontology of modules annotated with URIs of the OWL entities
-	 * that belong to the respective modules.
+	 * that belong to the respective modules. Entities that share the same module object are saved together with a single copy of the module.
+	 * A module that is a {@link PairSet} extending the module of another entity is saved as a reference to that module followed by the
+	 * additional members so the structure sharing between the modules is preserved when they are loaded.
 	 * 
 	 * @param modules the modules to be saved
 	 * @param outputStream the output stream where the data should be saved
@@ -138,13 +158,37 @@ public class ModuleExtractorPersistence {
 	public static void saveModules( MultiValueMap<OWLEntity, OWLEntity> modules, OutputStream outputStream ) throws IOException {
 		PrintWriter pw = new PrintWriter( outputStream );
 		
+		Map<Set<OWLEntity>, List<OWLEntity>> sharedModules = new IdentityHashMap<Set<OWLEntity>, List<OWLEntity>>();
 		for ( Entry<OWLEntity, Set<OWLEntity>> entry : modules.entrySet() ) {
-			OWLEntity entity = entry.getKey();
-			Set<OWLEntity> module = entry.getValue();
+			List<OWLEntity> entities = sharedModules.get( entry.getValue() );
+			if( entities == null ) {
+				entities = new ArrayList<OWLEntity>( 1 );
+				sharedModules.put( entry.getValue(), entities );
+			}
+			entities.add( entry.getKey() );
+		}
+		
+		for ( Entry<Set<OWLEntity>, List<OWLEntity>> entry : sharedModules.entrySet() ) {
+			Set<OWLEntity> module = entry.getKey();
+			List<OWLEntity> entities = entry.getValue();
+			
+			pw.println( getModuleBegin( entities.get( 0 ) ) );
 			
-			pw.println( getModuleBegin( entity ) );
+			for( int i = 1; i < entities.size(); i++ ) {
+				pw.println( getSameModule( entities.get( i ) ) );
+			}
+			
+			Set<OWLEntity> members = module;
+			if( module instanceof PairSet ) {
+				PairSet<OWLEntity> pairSet = (PairSet<OWLEntity>) module;
+				List<OWLEntity> included = sharedModules.get( pairSet.getFirstSet() );
+				if( included != null ) {
+					pw.println( getIncludedModule( included.get( 0 ) ) );
+					members = pairSet.getSecondSet();
+				}
+			}
 	
-			for( OWLEntity member :  module ) {
+			for( OWLEntity member :  members ) {
 				pw.println( getModuleMember( member ) );
 			}
 			
@@ -244,7 +288,45 @@ public class ModuleExtractorPersistence {
 	}
 
 	
-	private static boolean readModule( LineNumberReader lnr, MultiValueMap<OWLEntity, OWLEntity> modules ) throws IOException {
+	/**
+	 * A module as it is read from the input, possibly referring to the module of another entity
+	 */
+	private static class ModuleRecord {
+		private List<OWLEntity>	entities	= new ArrayList<OWLEntity>( 1 );
+
+		private OWLEntity		included	= null;
+
+		private Set<OWLEntity>	members		= new HashSet<OWLEntity>();
+
+		private Set<OWLEntity>	module		= null;
+	}
+	
+	private static Set<OWLEntity> resolveModule( ModuleRecord record, Map<OWLEntity, ModuleRecord> records, Set<ModuleRecord> visiting ) throws IOException {
+		if( record.module != null ) {
+			return record.module;
+		}
+		
+		if( record.included == null ) {
+			record.module = record.members;
+		}
+		else {
+			ModuleRecord includedRecord = records.get( record.included );
+			
+			if( includedRecord == null ) {
+				throw new IOException( "Invalid information in the module file. Included module not found: " + record.included );
+			}
+			
+			if( !visiting.add( record ) ) {
+				throw new IOException( "Invalid information in the module file. Cyclic module inclusion: " + record.included );
+			}
+			
+			record.module = new PairSet<OWLEntity>( resolveModule( includedRecord, records, visiting ), record.members );
+		}
+		
+		return record.module;
+	}
+	
+	private static boolean readModule( LineNumberReader lnr, Map<OWLEntity, ModuleRecord> records ) throws IOException {
 		String line = null;
 		
 		line = lnr.readLine();
@@ -257,25 +339,35 @@ public class ModuleExtractorPersistence {
 			throw new IOException( "Invalid information in the module file (line " + lnr.getLineNumber() + "). "  + MODULE_BEGIN_KEYWORD + " expected." );
 		}
 		
-		OWLEntity module = readModuleInformation( line.trim() );
+		ModuleRecord record = new ModuleRecord();
+		record.entities.add( readModuleInformation( line.trim() ) );
 		
 		boolean endOfModuleReached = false;
-		Set<OWLEntity> members = new HashSet<OWLEntity>();
 		
 		while( ( line = lnr.readLine() ) != null ) {
 			if ( line.startsWith( MODULE_END_KEYWORD )) {
 				endOfModuleReached = true;
 				break;
 			}
-		
-			members.add( readModuleMember( line.trim() ));			
+			
+			if ( line.startsWith( SAME_MODULE_KEYWORD ) ) {
+				record.entities.add( readModuleMember( line.substring( SAME_MODULE_KEYWORD.length() ).trim() ) );
+			}
+			else if ( line.startsWith( INCLUDE_MODULE_KEYWORD ) ) {
+				record.included = readModuleMember( line.substring( INCLUDE_MODULE_KEYWORD.length() ).trim() );
+			}
+			else {
+				record.members.add( readModuleMember( line.trim() ));
+			}
 		}
 		
 		if ( !endOfModuleReached ) {
 			throw new IOException( "Premature end of file; module information not terminated." );
 		}		
 		
-		modules.put( module, members );
+		for( OWLEntity entity : record.entities ) {
+			records.put( entity, record );
+		}
 		
 		return true;
 	}
@@ -288,13 +380,18 @@ public class ModuleExtractorPersistence {
 	 * @throws IOException if an error occurs during the read process. 
 	 */
 	public static MultiValueMap<OWLEntity, OWLEntity> loadModules( InputStream is ) throws IOException {
-		MultiValueMap<OWLEntity, OWLEntity> modules = new MultiValueMap<OWLEntity,OWLEntity>();
+		Map<OWLEntity, ModuleRecord> records = new HashMap<OWLEntity, ModuleRecord>();
 		LineNumberReader lnr = new LineNumberReader( new InputStreamReader( is ) );
 	
-		while ( readModule( lnr, modules ) ) {
+		while ( readModule( lnr, records ) ) {
 			// nothing to do
 		}
 		
+		MultiValueMap<OWLEntity, OWLEntity> modules = new MultiValueMap<OWLEntity,OWLEntity>( records.size() );
+		for ( Entry<OWLEntity, ModuleRecord> entry : records.entrySet() ) {
+			modules.put( entry.getKey(), resolveModule( entry.getValue(), records, new HashSet<ModuleRecord>() ) );
+		}
+		
 		return modules;
 	}
 }
@@ -0,0 +1,138 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.modularity.io;
+
+import java.nio.charset.Charset;
+
+/**
+ * <p>
+ * Constants shared by {@link SnapshotWriter} and {@link SnapshotReader}.
+ * </p>
+ * <p>
+ * Entities are written as an int reference. The first reference to an entity
+ * is {@link #NEW_ENTITY} followed by the type and IRI of the entity which is
+ * then assigned the next id. Later references are the id itself. Object
+ * property expressions and individuals use two more negative markers for
+ * inverse properties and anonymous individuals. All the other structures start
+ * with a tag byte.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+final class SnapshotFormat {
+	static final Charset	UTF8						= Charset.forName( "UTF-8" );
+
+	static final int		NEW_ENTITY					= -1;
+
+	static final int		INVERSE						= -2;
+
+	static final int		ANONYMOUS					= -3;
+
+	// entity types
+	static final byte		CLASS						= 0;
+	static final byte		DATATYPE					= 1;
+	static final byte		INDIVIDUAL					= 2;
+	static final byte		DATA_PROPERTY				= 3;
+	static final byte		OBJECT_PROPERTY				= 4;
+	static final byte		ANNOTATION_PROPERTY			= 5;
+
+	// class expressions
+	static final byte		OWL_CLASS					= 0;
+	static final byte		OBJECT_INTERSECTION_OF		= 1;
+	static final byte		OBJECT_UNION_OF				= 2;
+	static final byte		OBJECT_COMPLEMENT_OF		= 3;
+	static final byte		OBJECT_ONE_OF				= 4;
+	static final byte		OBJECT_SOME_VALUES_FROM		= 5;
+	static final byte		OBJECT_ALL_VALUES_FROM		= 6;
+	static final byte		OBJECT_HAS_VALUE			= 7;
+	static final byte		OBJECT_HAS_SELF				= 8;
+	static final byte		OBJECT_MIN_CARDINALITY		= 9;
+	static final byte		OBJECT_EXACT_CARDINALITY	= 10;
+	static final byte		OBJECT_MAX_CARDINALITY		= 11;
+	static final byte		DATA_SOME_VALUES_FROM		= 12;
+	static final byte		DATA_ALL_VALUES_FROM		= 13;
+	static final byte		DATA_HAS_VALUE				= 14;
+	static final byte		DATA_MIN_CARDINALITY		= 15;
+	static final byte		DATA_EXACT_CARDINALITY		= 16;
+	static final byte		DATA_MAX_CARDINALITY		= 17;
+
+	// data ranges
+	static final byte		DATATYPE_RANGE				= 0;
+	static final byte		DATA_ONE_OF					= 1;
+	static final byte		DATA_COMPLEMENT_OF			= 2;
+	static final byte		DATA_INTERSECTION_OF		= 3;
+	static final byte		DATA_UNION_OF				= 4;
+	static final byte		DATATYPE_RESTRICTION		= 5;
+
+	// annotation values and subjects
+	static final byte		IRI_VALUE					= 0;
+	static final byte		LITERAL_VALUE				= 1;
+	static final byte		ANONYMOUS_VALUE				= 2;
+
+	// literals
+	static final byte		TYPED_LITERAL				= 0;
+	static final byte		PLAIN_LITERAL				= 1;
+
+	// SWRL atoms
+	static final byte		CLASS_ATOM					= 0;
+	static final byte		DATA_RANGE_ATOM				= 1;
+	static final byte		OBJECT_PROPERTY_ATOM		= 2;
+	static final byte		DATA_PROPERTY_ATOM			= 3;
+	static final byte		BUILT_IN_ATOM				= 4;
+	static final byte		SAME_INDIVIDUAL_ATOM		= 5;
+	static final byte		DIFFERENT_INDIVIDUALS_ATOM	= 6;
+
+	// SWRL arguments
+	static final byte		VARIABLE					= 0;
+	static final byte		INDIVIDUAL_ARGUMENT			= 1;
+	static final byte		LITERAL_ARGUMENT			= 2;
+
+	// axioms
+	static final byte		DECLARATION					= 0;
+	static final byte		SUBCLASS_OF					= 1;
+	static final byte		EQUIVALENT_CLASSES			= 2;
+	static final byte		DISJOINT_CLASSES			= 3;
+	static final byte		DISJOINT_UNION				= 4;
+	static final byte		SUB_OBJECT_PROPERTY			= 5;
+	static final byte		SUB_PROPERTY_CHAIN_OF		= 6;
+	static final byte		EQUIVALENT_OBJECT_PROPERTIES	= 7;
+	static final byte		DISJOINT_OBJECT_PROPERTIES	= 8;
+	static final byte		INVERSE_OBJECT_PROPERTIES	= 9;
+	static final byte		OBJECT_PROPERTY_DOMAIN		= 10;
+	static final byte		OBJECT_PROPERTY_RANGE		= 11;
+	static final byte		FUNCTIONAL_OBJECT_PROPERTY	= 12;
+	static final byte		INVERSE_FUNCTIONAL_OBJECT_PROPERTY	= 13;
+	static final byte		REFLEXIVE_OBJECT_PROPERTY	= 14;
+	static final byte		IRREFLEXIVE_OBJECT_PROPERTY	= 15;
+	static final byte		SYMMETRIC_OBJECT_PROPERTY	= 16;
+	static final byte		ASYMMETRIC_OBJECT_PROPERTY	= 17;
+	static final byte		TRANSITIVE_OBJECT_PROPERTY	= 18;
+	static final byte		SUB_DATA_PROPERTY			= 19;
+	static final byte		EQUIVALENT_DATA_PROPERTIES	= 20;
+	static final byte		DISJOINT_DATA_PROPERTIES	= 21;
+	static final byte		DATA_PROPERTY_DOMAIN		= 22;
+	static final byte		DATA_PROPERTY_RANGE			= 23;
+	static final byte		FUNCTIONAL_DATA_PROPERTY	= 24;
+	static final byte		DATATYPE_DEFINITION			= 25;
+	static final byte		HAS_KEY						= 26;
+	static final byte		SAME_INDIVIDUAL				= 27;
+	static final byte		DIFFERENT_INDIVIDUALS		= 28;
+	static final byte		CLASS_ASSERTION				= 29;
+	static final byte		OBJECT_PROPERTY_ASSERTION	= 30;
+	static final byte		NEGATIVE_OBJECT_PROPERTY_ASSERTION	= 31;
+	static final byte		DATA_PROPERTY_ASSERTION		= 32;
+	static final byte		NEGATIVE_DATA_PROPERTY_ASSERTION	= 33;
+	static final byte		ANNOTATION_ASSERTION		= 34;
+	static final byte		SUB_ANNOTATION_PROPERTY		= 35;
+	static final byte		ANNOTATION_PROPERTY_DOMAIN	= 36;
+	static final byte		ANNOTATION_PROPERTY_RANGE	= 37;
+	static final byte		SWRL_RULE					= 38;
+
+	private SnapshotFormat() {
+	}
+}
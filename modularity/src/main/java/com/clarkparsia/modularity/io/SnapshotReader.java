@@ -0,0 +1,678 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.modularity.io;
+
+import static com.clarkparsia.modularity.io.SnapshotFormat.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationObject;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnnotationSubject;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLFacetRestriction;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLPropertyExpression;
+import org.semanticweb.owlapi.model.SWRLArgument;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLDArgument;
+import org.semanticweb.owlapi.model.SWRLIArgument;
+import org.semanticweb.owlapi.vocab.OWLFacet;
+
+import com.clarkparsia.owlapiv3.OWL;
+
+/**
+ * <p>
+ * Reads the sections written by {@link SnapshotWriter} from a file channel.
+ * The file is mapped in chunks so files larger than 2GB can be read; a new
+ * chunk is mapped at the current position whenever the current one does not
+ * have enough bytes left for the next value.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+class SnapshotReader {
+	/**
+	 * The default number of bytes mapped at once
+	 */
+	public static final int			CHUNK_SIZE	= 1 << 26;
+
+	private final OWLDataFactory	factory		= OWL.factory;
+
+	private final FileChannel		channel;
+
+	private final long				size;
+
+	private final int				chunkSize;
+
+	/**
+	 * The position of the current chunk in the file
+	 */
+	private long					offset;
+
+	private MappedByteBuffer		buffer;
+
+	private final List<OWLEntity>	entities	= new ArrayList<OWLEntity>();
+
+	public SnapshotReader(FileChannel channel) throws IOException {
+		this( channel, CHUNK_SIZE );
+	}
+
+	SnapshotReader(FileChannel channel, int chunkSize) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		this.chunkSize = chunkSize;
+
+		map( 0 );
+	}
+
+	private void map(long position) throws IOException {
+		offset = position;
+		buffer = channel.map( FileChannel.MapMode.READ_ONLY, position, Math.min( chunkSize, size - position ) );
+	}
+
+	/**
+	 * Makes sure the current chunk has at least the given number of bytes
+	 * left.
+	 */
+	private void ensure(int bytes) throws IOException {
+		if( buffer.remaining() < bytes ) {
+			map( offset + buffer.position() );
+
+			if( buffer.remaining() < bytes )
+				throw new EOFException();
+		}
+	}
+
+	public long remaining() {
+		return size - offset - buffer.position();
+	}
+
+	public byte readByte() throws IOException {
+		ensure( 1 );
+		return buffer.get();
+	}
+
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	public int readInt() throws IOException {
+		ensure( 4 );
+		return buffer.getInt();
+	}
+
+	public String readString() throws IOException {
+		byte[] bytes = new byte[readInt()];
+		int read = 0;
+		while( read < bytes.length ) {
+			ensure( 1 );
+			int n = Math.min( buffer.remaining(), bytes.length - read );
+			buffer.get( bytes, read, n );
+			read += n;
+		}
+		return new String( bytes, UTF8 );
+	}
+
+	public OWLEntity readEntity() throws IOException {
+		return readEntity( readInt() );
+	}
+
+	private OWLEntity readEntity(int id) throws IOException {
+		if( id != NEW_ENTITY ) {
+			if( id < 0 || id >= entities.size() )
+				throw new IOException( "Invalid entity reference " + id );
+
+			return entities.get( id );
+		}
+
+		byte type = readByte();
+		IRI iri = IRI.create( readString() );
+		OWLEntity entity;
+		switch( type ) {
+		case CLASS:
+			entity = factory.getOWLClass( iri );
+			break;
+		case DATATYPE:
+			entity = factory.getOWLDatatype( iri );
+			break;
+		case INDIVIDUAL:
+			entity = factory.getOWLNamedIndividual( iri );
+			break;
+		case DATA_PROPERTY:
+			entity = factory.getOWLDataProperty( iri );
+			break;
+		case OBJECT_PROPERTY:
+			entity = factory.getOWLObjectProperty( iri );
+			break;
+		case ANNOTATION_PROPERTY:
+			entity = factory.getOWLAnnotationProperty( iri );
+			break;
+		default:
+			throw new IOException( "Unrecognized entity type " + type );
+		}
+		entities.add( entity );
+
+		return entity;
+	}
+
+	public List<OWLEntity> readEntities() throws IOException {
+		int count = readInt();
+		List<OWLEntity> result = new ArrayList<OWLEntity>( count );
+		for( int i = 0; i < count; i++ )
+			result.add( readEntity() );
+		return result;
+	}
+
+	private OWLClass readClass() throws IOException {
+		return (OWLClass) readEntity();
+	}
+
+	private OWLDatatype readDatatype() throws IOException {
+		return (OWLDatatype) readEntity();
+	}
+
+	private OWLAnnotationProperty readAnnotationProperty() throws IOException {
+		return (OWLAnnotationProperty) readEntity();
+	}
+
+	public OWLObjectPropertyExpression readObjectProperty() throws IOException {
+		int id = readInt();
+		if( id == INVERSE )
+			return factory.getOWLObjectInverseOf( (OWLObjectProperty) readEntity() );
+
+		return (OWLObjectProperty) readEntity( id );
+	}
+
+	private List<OWLObjectPropertyExpression> readObjectProperties() throws IOException {
+		int count = readInt();
+		List<OWLObjectPropertyExpression> result = new ArrayList<OWLObjectPropertyExpression>( count );
+		for( int i = 0; i < count; i++ )
+			result.add( readObjectProperty() );
+		return result;
+	}
+
+	public OWLDataProperty readDataProperty() throws IOException {
+		return (OWLDataProperty) readEntity();
+	}
+
+	private Set<OWLDataPropertyExpression> readDataProperties() throws IOException {
+		int count = readInt();
+		Set<OWLDataPropertyExpression> result = new HashSet<OWLDataPropertyExpression>();
+		for( int i = 0; i < count; i++ )
+			result.add( readDataProperty() );
+		return result;
+	}
+
+	public OWLIndividual readIndividual() throws IOException {
+		int id = readInt();
+		if( id == ANONYMOUS )
+			return factory.getOWLAnonymousIndividual( readString() );
+
+		return (OWLIndividual) readEntity( id );
+	}
+
+	private Set<OWLIndividual> readIndividuals() throws IOException {
+		int count = readInt();
+		Set<OWLIndividual> result = new HashSet<OWLIndividual>();
+		for( int i = 0; i < count; i++ )
+			result.add( readIndividual() );
+		return result;
+	}
+
+	public OWLLiteral readLiteral() throws IOException {
+		byte type = readByte();
+		String lexicalForm = readString();
+		switch( type ) {
+		case PLAIN_LITERAL:
+			return factory.getOWLLiteral( lexicalForm, readString() );
+		case TYPED_LITERAL:
+			return factory.getOWLLiteral( lexicalForm, readDatatype() );
+		default:
+			throw new IOException( "Unrecognized literal type " + type );
+		}
+	}
+
+	private Set<OWLLiteral> readLiterals() throws IOException {
+		int count = readInt();
+		Set<OWLLiteral> result = new HashSet<OWLLiteral>();
+		for( int i = 0; i < count; i++ )
+			result.add( readLiteral() );
+		return result;
+	}
+
+	public OWLClassExpression readClassExpression() throws IOException {
+		byte type = readByte();
+		switch( type ) {
+		case OWL_CLASS:
+			return readClass();
+		case OBJECT_INTERSECTION_OF:
+			return factory.getOWLObjectIntersectionOf( readClassExpressions() );
+		case OBJECT_UNION_OF:
+			return factory.getOWLObjectUnionOf( readClassExpressions() );
+		case OBJECT_COMPLEMENT_OF:
+			return factory.getOWLObjectComplementOf( readClassExpression() );
+		case OBJECT_ONE_OF:
+			return factory.getOWLObjectOneOf( readIndividuals() );
+		case OBJECT_SOME_VALUES_FROM: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLObjectSomeValuesFrom( p, readClassExpression() );
+		}
+		case OBJECT_ALL_VALUES_FROM: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLObjectAllValuesFrom( p, readClassExpression() );
+		}
+		case OBJECT_HAS_VALUE: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLObjectHasValue( p, readIndividual() );
+		}
+		case OBJECT_HAS_SELF:
+			return factory.getOWLObjectHasSelf( readObjectProperty() );
+		case OBJECT_MIN_CARDINALITY: {
+			int n = readInt();
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLObjectMinCardinality( n, p, readClassExpression() );
+		}
+		case OBJECT_EXACT_CARDINALITY: {
+			int n = readInt();
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLObjectExactCardinality( n, p, readClassExpression() );
+		}
+		case OBJECT_MAX_CARDINALITY: {
+			int n = readInt();
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLObjectMaxCardinality( n, p, readClassExpression() );
+		}
+		case DATA_SOME_VALUES_FROM: {
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLDataSomeValuesFrom( p, readDataRange() );
+		}
+		case DATA_ALL_VALUES_FROM: {
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLDataAllValuesFrom( p, readDataRange() );
+		}
+		case DATA_HAS_VALUE: {
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLDataHasValue( p, readLiteral() );
+		}
+		case DATA_MIN_CARDINALITY: {
+			int n = readInt();
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLDataMinCardinality( n, p, readDataRange() );
+		}
+		case DATA_EXACT_CARDINALITY: {
+			int n = readInt();
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLDataExactCardinality( n, p, readDataRange() );
+		}
+		case DATA_MAX_CARDINALITY: {
+			int n = readInt();
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLDataMaxCardinality( n, p, readDataRange() );
+		}
+		default:
+			throw new IOException( "Unrecognized class expression type " + type );
+		}
+	}
+
+	private Set<OWLClassExpression> readClassExpressions() throws IOException {
+		int count = readInt();
+		Set<OWLClassExpression> result = new HashSet<OWLClassExpression>();
+		for( int i = 0; i < count; i++ )
+			result.add( readClassExpression() );
+		return result;
+	}
+
+	public OWLDataRange readDataRange() throws IOException {
+		byte type = readByte();
+		switch( type ) {
+		case DATATYPE_RANGE:
+			return readDatatype();
+		case DATA_ONE_OF:
+			return factory.getOWLDataOneOf( readLiterals() );
+		case DATA_COMPLEMENT_OF:
+			return factory.getOWLDataComplementOf( readDataRange() );
+		case DATA_INTERSECTION_OF:
+			return factory.getOWLDataIntersectionOf( readDataRanges() );
+		case DATA_UNION_OF:
+			return factory.getOWLDataUnionOf( readDataRanges() );
+		case DATATYPE_RESTRICTION: {
+			OWLDatatype datatype = readDatatype();
+			int count = readInt();
+			Set<OWLFacetRestriction> facets = new HashSet<OWLFacetRestriction>();
+			for( int i = 0; i < count; i++ ) {
+				OWLFacet facet = OWLFacet.getFacet( IRI.create( readString() ) );
+				facets.add( factory.getOWLFacetRestriction( facet, readLiteral() ) );
+			}
+			return factory.getOWLDatatypeRestriction( datatype, facets );
+		}
+		default:
+			throw new IOException( "Unrecognized data range type " + type );
+		}
+	}
+
+	private Set<OWLDataRange> readDataRanges() throws IOException {
+		int count = readInt();
+		Set<OWLDataRange> result = new HashSet<OWLDataRange>();
+		for( int i = 0; i < count; i++ )
+			result.add( readDataRange() );
+		return result;
+	}
+
+	private OWLAnnotationObject readAnnotationObject() throws IOException {
+		byte type = readByte();
+		switch( type ) {
+		case IRI_VALUE:
+			return IRI.create( readString() );
+		case LITERAL_VALUE:
+			return readLiteral();
+		case ANONYMOUS_VALUE:
+			return factory.getOWLAnonymousIndividual( readString() );
+		default:
+			throw new IOException( "Unrecognized annotation value type " + type );
+		}
+	}
+
+	public Set<OWLAnnotation> readAnnotations() throws IOException {
+		int count = readInt();
+		Set<OWLAnnotation> result = new HashSet<OWLAnnotation>();
+		for( int i = 0; i < count; i++ ) {
+			OWLAnnotationProperty p = readAnnotationProperty();
+			OWLAnnotationValue value = (OWLAnnotationValue) readAnnotationObject();
+			result.add( factory.getOWLAnnotation( p, value, readAnnotations() ) );
+		}
+		return result;
+	}
+
+	private SWRLAtom readAtom() throws IOException {
+		byte type = readByte();
+		switch( type ) {
+		case CLASS_ATOM: {
+			OWLClassExpression c = readClassExpression();
+			return factory.getSWRLClassAtom( c, (SWRLIArgument) readArgument() );
+		}
+		case DATA_RANGE_ATOM: {
+			OWLDataRange range = readDataRange();
+			return factory.getSWRLDataRangeAtom( range, (SWRLDArgument) readArgument() );
+		}
+		case OBJECT_PROPERTY_ATOM: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			SWRLIArgument arg1 = (SWRLIArgument) readArgument();
+			return factory.getSWRLObjectPropertyAtom( p, arg1, (SWRLIArgument) readArgument() );
+		}
+		case DATA_PROPERTY_ATOM: {
+			OWLDataProperty p = readDataProperty();
+			SWRLIArgument arg1 = (SWRLIArgument) readArgument();
+			return factory.getSWRLDataPropertyAtom( p, arg1, (SWRLDArgument) readArgument() );
+		}
+		case BUILT_IN_ATOM: {
+			IRI builtIn = IRI.create( readString() );
+			int count = readInt();
+			List<SWRLDArgument> args = new ArrayList<SWRLDArgument>( count );
+			for( int i = 0; i < count; i++ )
+				args.add( (SWRLDArgument) readArgument() );
+			return factory.getSWRLBuiltInAtom( builtIn, args );
+		}
+		case SAME_INDIVIDUAL_ATOM: {
+			SWRLIArgument arg1 = (SWRLIArgument) readArgument();
+			return factory.getSWRLSameIndividualAtom( arg1, (SWRLIArgument) readArgument() );
+		}
+		case DIFFERENT_INDIVIDUALS_ATOM: {
+			SWRLIArgument arg1 = (SWRLIArgument) readArgument();
+			return factory.getSWRLDifferentIndividualsAtom( arg1, (SWRLIArgument) readArgument() );
+		}
+		default:
+			throw new IOException( "Unrecognized SWRL atom type " + type );
+		}
+	}
+
+	private Set<SWRLAtom> readAtoms() throws IOException {
+		int count = readInt();
+		Set<SWRLAtom> result = new HashSet<SWRLAtom>();
+		for( int i = 0; i < count; i++ )
+			result.add( readAtom() );
+		return result;
+	}
+
+	private SWRLArgument readArgument() throws IOException {
+		byte type = readByte();
+		switch( type ) {
+		case VARIABLE:
+			return factory.getSWRLVariable( IRI.create( readString() ) );
+		case INDIVIDUAL_ARGUMENT:
+			return factory.getSWRLIndividualArgument( readIndividual() );
+		case LITERAL_ARGUMENT:
+			return factory.getSWRLLiteralArgument( readLiteral() );
+		default:
+			throw new IOException( "Unrecognized SWRL argument type " + type );
+		}
+	}
+
+	public OWLAxiom readAxiom() throws IOException {
+		byte type = readByte();
+		switch( type ) {
+		case DECLARATION: {
+			OWLEntity entity = readEntity();
+			return factory.getOWLDeclarationAxiom( entity, readAnnotations() );
+		}
+		case SUBCLASS_OF: {
+			OWLClassExpression sub = readClassExpression();
+			OWLClassExpression sup = readClassExpression();
+			return factory.getOWLSubClassOfAxiom( sub, sup, readAnnotations() );
+		}
+		case EQUIVALENT_CLASSES: {
+			Set<OWLClassExpression> classes = readClassExpressions();
+			return factory.getOWLEquivalentClassesAxiom( classes, readAnnotations() );
+		}
+		case DISJOINT_CLASSES: {
+			Set<OWLClassExpression> classes = readClassExpressions();
+			return factory.getOWLDisjointClassesAxiom( classes, readAnnotations() );
+		}
+		case DISJOINT_UNION: {
+			OWLClass c = readClass();
+			Set<OWLClassExpression> classes = readClassExpressions();
+			return factory.getOWLDisjointUnionAxiom( c, classes, readAnnotations() );
+		}
+		case SUB_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression sub = readObjectProperty();
+			OWLObjectPropertyExpression sup = readObjectProperty();
+			return factory.getOWLSubObjectPropertyOfAxiom( sub, sup, readAnnotations() );
+		}
+		case SUB_PROPERTY_CHAIN_OF: {
+			List<OWLObjectPropertyExpression> chain = readObjectProperties();
+			OWLObjectPropertyExpression sup = readObjectProperty();
+			return factory.getOWLSubPropertyChainOfAxiom( chain, sup, readAnnotations() );
+		}
+		case EQUIVALENT_OBJECT_PROPERTIES: {
+			Set<OWLObjectPropertyExpression> properties = new HashSet<OWLObjectPropertyExpression>( readObjectProperties() );
+			return factory.getOWLEquivalentObjectPropertiesAxiom( properties, readAnnotations() );
+		}
+		case DISJOINT_OBJECT_PROPERTIES: {
+			Set<OWLObjectPropertyExpression> properties = new HashSet<OWLObjectPropertyExpression>( readObjectProperties() );
+			return factory.getOWLDisjointObjectPropertiesAxiom( properties, readAnnotations() );
+		}
+		case INVERSE_OBJECT_PROPERTIES: {
+			OWLObjectPropertyExpression p1 = readObjectProperty();
+			OWLObjectPropertyExpression p2 = readObjectProperty();
+			return factory.getOWLInverseObjectPropertiesAxiom( p1, p2, readAnnotations() );
+		}
+		case OBJECT_PROPERTY_DOMAIN: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			OWLClassExpression domain = readClassExpression();
+			return factory.getOWLObjectPropertyDomainAxiom( p, domain, readAnnotations() );
+		}
+		case OBJECT_PROPERTY_RANGE: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			OWLClassExpression range = readClassExpression();
+			return factory.getOWLObjectPropertyRangeAxiom( p, range, readAnnotations() );
+		}
+		case FUNCTIONAL_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLFunctionalObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case INVERSE_FUNCTIONAL_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLInverseFunctionalObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case REFLEXIVE_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLReflexiveObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case IRREFLEXIVE_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLIrreflexiveObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case SYMMETRIC_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLSymmetricObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case ASYMMETRIC_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLAsymmetricObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case TRANSITIVE_OBJECT_PROPERTY: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			return factory.getOWLTransitiveObjectPropertyAxiom( p, readAnnotations() );
+		}
+		case SUB_DATA_PROPERTY: {
+			OWLDataProperty sub = readDataProperty();
+			OWLDataProperty sup = readDataProperty();
+			return factory.getOWLSubDataPropertyOfAxiom( sub, sup, readAnnotations() );
+		}
+		case EQUIVALENT_DATA_PROPERTIES: {
+			Set<OWLDataPropertyExpression> properties = readDataProperties();
+			return factory.getOWLEquivalentDataPropertiesAxiom( properties, readAnnotations() );
+		}
+		case DISJOINT_DATA_PROPERTIES: {
+			Set<OWLDataPropertyExpression> properties = readDataProperties();
+			return factory.getOWLDisjointDataPropertiesAxiom( properties, readAnnotations() );
+		}
+		case DATA_PROPERTY_DOMAIN: {
+			OWLDataProperty p = readDataProperty();
+			OWLClassExpression domain = readClassExpression();
+			return factory.getOWLDataPropertyDomainAxiom( p, domain, readAnnotations() );
+		}
+		case DATA_PROPERTY_RANGE: {
+			OWLDataProperty p = readDataProperty();
+			OWLDataRange range = readDataRange();
+			return factory.getOWLDataPropertyRangeAxiom( p, range, readAnnotations() );
+		}
+		case FUNCTIONAL_DATA_PROPERTY: {
+			OWLDataProperty p = readDataProperty();
+			return factory.getOWLFunctionalDataPropertyAxiom( p, readAnnotations() );
+		}
+		case DATATYPE_DEFINITION: {
+			OWLDatatype datatype = readDatatype();
+			OWLDataRange range = readDataRange();
+			return factory.getOWLDatatypeDefinitionAxiom( datatype, range, readAnnotations() );
+		}
+		case HAS_KEY: {
+			OWLClassExpression c = readClassExpression();
+			Set<OWLPropertyExpression> properties = new HashSet<OWLPropertyExpression>();
+			properties.addAll( readObjectProperties() );
+			properties.addAll( readDataProperties() );
+			return factory.getOWLHasKeyAxiom( c, properties, readAnnotations() );
+		}
+		case SAME_INDIVIDUAL: {
+			Set<OWLIndividual> individuals = readIndividuals();
+			return factory.getOWLSameIndividualAxiom( individuals, readAnnotations() );
+		}
+		case DIFFERENT_INDIVIDUALS: {
+			Set<OWLIndividual> individuals = readIndividuals();
+			return factory.getOWLDifferentIndividualsAxiom( individuals, readAnnotations() );
+		}
+		case CLASS_ASSERTION: {
+			OWLClassExpression c = readClassExpression();
+			OWLIndividual ind = readIndividual();
+			return factory.getOWLClassAssertionAxiom( c, ind, readAnnotations() );
+		}
+		case OBJECT_PROPERTY_ASSERTION: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			OWLIndividual subj = readIndividual();
+			OWLIndividual obj = readIndividual();
+			return factory.getOWLObjectPropertyAssertionAxiom( p, subj, obj, readAnnotations() );
+		}
+		case NEGATIVE_OBJECT_PROPERTY_ASSERTION: {
+			OWLObjectPropertyExpression p = readObjectProperty();
+			OWLIndividual subj = readIndividual();
+			OWLIndividual obj = readIndividual();
+			return factory.getOWLNegativeObjectPropertyAssertionAxiom( p, subj, obj, readAnnotations() );
+		}
+		case DATA_PROPERTY_ASSERTION: {
+			OWLDataProperty p = readDataProperty();
+			OWLIndividual subj = readIndividual();
+			OWLLiteral obj = readLiteral();
+			return factory.getOWLDataPropertyAssertionAxiom( p, subj, obj, readAnnotations() );
+		}
+		case NEGATIVE_DATA_PROPERTY_ASSERTION: {
+			OWLDataProperty p = readDataProperty();
+			OWLIndividual subj = readIndividual();
+			OWLLiteral obj = readLiteral();
+			return factory.getOWLNegativeDataPropertyAssertionAxiom( p, subj, obj, readAnnotations() );
+		}
+		case ANNOTATION_ASSERTION: {
+			OWLAnnotationProperty p = readAnnotationProperty();
+			OWLAnnotationSubject subj = (OWLAnnotationSubject) readAnnotationObject();
+			OWLAnnotationValue value = (OWLAnnotationValue) readAnnotationObject();
+			return factory.getOWLAnnotationAssertionAxiom( p, subj, value, readAnnotations() );
+		}
+		case SUB_ANNOTATION_PROPERTY: {
+			OWLAnnotationProperty sub = readAnnotationProperty();
+			OWLAnnotationProperty sup = readAnnotationProperty();
+			return factory.getOWLSubAnnotationPropertyOfAxiom( sub, sup, readAnnotations() );
+		}
+		case ANNOTATION_PROPERTY_DOMAIN: {
+			OWLAnnotationProperty p = readAnnotationProperty();
+			IRI domain = IRI.create( readString() );
+			return factory.getOWLAnnotationPropertyDomainAxiom( p, domain, readAnnotations() );
+		}
+		case ANNOTATION_PROPERTY_RANGE: {
+			OWLAnnotationProperty p = readAnnotationProperty();
+			IRI range = IRI.create( readString() );
+			return factory.getOWLAnnotationPropertyRangeAxiom( p, range, readAnnotations() );
+		}
+		case SWRL_RULE: {
+			Set<SWRLAtom> body = readAtoms();
+			Set<SWRLAtom> head = readAtoms();
+			return factory.getSWRLRule( body, head, readAnnotations() );
+		}
+		default:
+			throw new IOException( "Unrecognized axiom type " + type );
+		}
+	}
+
+	public Collection<OWLAxiom> readAxioms() throws IOException {
+		int count = readInt();
+		List<OWLAxiom> axioms = new ArrayList<OWLAxiom>( count );
+		for( int i = 0; i < count; i++ )
+			axioms.add( readAxiom() );
+		return axioms;
+	}
+}
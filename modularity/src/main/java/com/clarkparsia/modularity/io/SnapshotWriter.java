@@ -0,0 +1,721 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.modularity.io;
+
+import static com.clarkparsia.modularity.io.SnapshotFormat.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationObject;
+import org.semanticweb.owlapi.model.OWLAnnotationPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAsymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLDataCardinalityRestriction;
+import org.semanticweb.owlapi.model.OWLDataComplementOf;
+import org.semanticweb.owlapi.model.OWLDataHasValue;
+import org.semanticweb.owlapi.model.OWLDataIntersectionOf;
+import org.semanticweb.owlapi.model.OWLDataOneOf;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLDataSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLDataUnionOf;
+import org.semanticweb.owlapi.model.OWLDatatypeDefinitionAxiom;
+import org.semanticweb.owlapi.model.OWLDatatypeRestriction;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLDifferentIndividualsAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointDataPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointUnionAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentDataPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLFacetRestriction;
+import org.semanticweb.owlapi.model.OWLFunctionalDataPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLFunctionalObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLHasKeyAxiom;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLInverseFunctionalObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLIrreflexiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNaryBooleanClassExpression;
+import org.semanticweb.owlapi.model.OWLNegativeDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLNegativeObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectCardinalityRestriction;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectHasSelf;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLReflexiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLSameIndividualAxiom;
+import org.semanticweb.owlapi.model.OWLSubAnnotationPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubDataPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.SWRLArgument;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLClassAtom;
+import org.semanticweb.owlapi.model.SWRLDataPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLDataRangeAtom;
+import org.semanticweb.owlapi.model.SWRLDifferentIndividualsAtom;
+import org.semanticweb.owlapi.model.SWRLIndividualArgument;
+import org.semanticweb.owlapi.model.SWRLLiteralArgument;
+import org.semanticweb.owlapi.model.SWRLObjectPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.SWRLSameIndividualAtom;
+import org.semanticweb.owlapi.model.SWRLVariable;
+
+/**
+ * <p>
+ * Writes the sections of an {@link IncrementalClassifierSnapshot} directly to
+ * the output stream. Entities are added to the dictionary the first time they
+ * are written so no section has to be buffered before the dictionary is
+ * complete. See {@link SnapshotFormat} for the encoding.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ */
+class SnapshotWriter {
+	private final DataOutputStream		out;
+
+	private final Map<OWLEntity, Integer>	ids	= new HashMap<OWLEntity, Integer>();
+
+	public SnapshotWriter(DataOutputStream out) {
+		this.out = out;
+	}
+
+	public void writeInt(int value) throws IOException {
+		out.writeInt( value );
+	}
+
+	public void writeBoolean(boolean value) throws IOException {
+		out.writeBoolean( value );
+	}
+
+	public void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes( UTF8 );
+		out.writeInt( bytes.length );
+		out.write( bytes );
+	}
+
+	public void writeEntity(OWLEntity entity) throws IOException {
+		Integer id = ids.get( entity );
+		if( id != null ) {
+			out.writeInt( id );
+		}
+		else {
+			ids.put( entity, ids.size() );
+
+			out.writeInt( NEW_ENTITY );
+			out.writeByte( getType( entity ) );
+			writeString( entity.getIRI().toString() );
+		}
+	}
+
+	private static byte getType(OWLEntity entity) {
+		if( entity.isOWLClass() )
+			return CLASS;
+		else if( entity.isOWLDatatype() )
+			return DATATYPE;
+		else if( entity.isOWLNamedIndividual() )
+			return INDIVIDUAL;
+		else if( entity.isOWLDataProperty() )
+			return DATA_PROPERTY;
+		else if( entity.isOWLObjectProperty() )
+			return OBJECT_PROPERTY;
+		else if( entity.isOWLAnnotationProperty() )
+			return ANNOTATION_PROPERTY;
+
+		throw new IllegalArgumentException( "Unrecognized type of OWLEntity " + entity );
+	}
+
+	public void writeEntities(Collection<? extends OWLEntity> entities) throws IOException {
+		out.writeInt( entities.size() );
+		for( OWLEntity entity : entities )
+			writeEntity( entity );
+	}
+
+	public void writeObjectProperty(OWLObjectPropertyExpression p) throws IOException {
+		if( p.isAnonymous() )
+			out.writeInt( INVERSE );
+
+		writeEntity( p.getNamedProperty() );
+	}
+
+	public void writeObjectProperties(Collection<? extends OWLObjectPropertyExpression> properties)
+			throws IOException {
+		out.writeInt( properties.size() );
+		for( OWLObjectPropertyExpression p : properties )
+			writeObjectProperty( p );
+	}
+
+	public void writeDataProperty(OWLDataPropertyExpression p) throws IOException {
+		writeEntity( p.asOWLDataProperty() );
+	}
+
+	public void writeDataProperties(Collection<? extends OWLDataPropertyExpression> properties) throws IOException {
+		out.writeInt( properties.size() );
+		for( OWLDataPropertyExpression p : properties )
+			writeDataProperty( p );
+	}
+
+	public void writeIndividual(OWLIndividual ind) throws IOException {
+		if( ind.isAnonymous() ) {
+			out.writeInt( ANONYMOUS );
+			writeString( ind.asOWLAnonymousIndividual().toStringID() );
+		}
+		else {
+			writeEntity( ind.asOWLNamedIndividual() );
+		}
+	}
+
+	public void writeIndividuals(Collection<? extends OWLIndividual> individuals) throws IOException {
+		out.writeInt( individuals.size() );
+		for( OWLIndividual ind : individuals )
+			writeIndividual( ind );
+	}
+
+	public void writeLiteral(OWLLiteral literal) throws IOException {
+		if( literal.isRDFPlainLiteral() ) {
+			out.writeByte( PLAIN_LITERAL );
+			writeString( literal.getLiteral() );
+			writeString( literal.getLang() == null
+				? ""
+				: literal.getLang() );
+		}
+		else {
+			out.writeByte( TYPED_LITERAL );
+			writeString( literal.getLiteral() );
+			writeEntity( literal.getDatatype() );
+		}
+	}
+
+	public void writeLiterals(Collection<? extends OWLLiteral> literals) throws IOException {
+		out.writeInt( literals.size() );
+		for( OWLLiteral literal : literals )
+			writeLiteral( literal );
+	}
+
+	public void writeClassExpression(OWLClassExpression c) throws IOException {
+		switch( c.getClassExpressionType() ) {
+		case OWL_CLASS:
+			out.writeByte( OWL_CLASS );
+			writeEntity( c.asOWLClass() );
+			break;
+		case OBJECT_INTERSECTION_OF:
+			out.writeByte( OBJECT_INTERSECTION_OF );
+			writeClassExpressions( ((OWLNaryBooleanClassExpression) c).getOperands() );
+			break;
+		case OBJECT_UNION_OF:
+			out.writeByte( OBJECT_UNION_OF );
+			writeClassExpressions( ((OWLNaryBooleanClassExpression) c).getOperands() );
+			break;
+		case OBJECT_COMPLEMENT_OF:
+			out.writeByte( OBJECT_COMPLEMENT_OF );
+			writeClassExpression( ((OWLObjectComplementOf) c).getOperand() );
+			break;
+		case OBJECT_ONE_OF:
+			out.writeByte( OBJECT_ONE_OF );
+			writeIndividuals( ((OWLObjectOneOf) c).getIndividuals() );
+			break;
+		case OBJECT_SOME_VALUES_FROM: {
+			OWLObjectSomeValuesFrom r = (OWLObjectSomeValuesFrom) c;
+			out.writeByte( OBJECT_SOME_VALUES_FROM );
+			writeObjectProperty( r.getProperty() );
+			writeClassExpression( r.getFiller() );
+			break;
+		}
+		case OBJECT_ALL_VALUES_FROM: {
+			OWLObjectAllValuesFrom r = (OWLObjectAllValuesFrom) c;
+			out.writeByte( OBJECT_ALL_VALUES_FROM );
+			writeObjectProperty( r.getProperty() );
+			writeClassExpression( r.getFiller() );
+			break;
+		}
+		case OBJECT_HAS_VALUE: {
+			OWLObjectHasValue r = (OWLObjectHasValue) c;
+			out.writeByte( OBJECT_HAS_VALUE );
+			writeObjectProperty( r.getProperty() );
+			writeIndividual( r.getValue() );
+			break;
+		}
+		case OBJECT_HAS_SELF:
+			out.writeByte( OBJECT_HAS_SELF );
+			writeObjectProperty( ((OWLObjectHasSelf) c).getProperty() );
+			break;
+		case OBJECT_MIN_CARDINALITY:
+			out.writeByte( OBJECT_MIN_CARDINALITY );
+			writeObjectCardinality( (OWLObjectCardinalityRestriction) c );
+			break;
+		case OBJECT_EXACT_CARDINALITY:
+			out.writeByte( OBJECT_EXACT_CARDINALITY );
+			writeObjectCardinality( (OWLObjectCardinalityRestriction) c );
+			break;
+		case OBJECT_MAX_CARDINALITY:
+			out.writeByte( OBJECT_MAX_CARDINALITY );
+			writeObjectCardinality( (OWLObjectCardinalityRestriction) c );
+			break;
+		case DATA_SOME_VALUES_FROM: {
+			OWLDataSomeValuesFrom r = (OWLDataSomeValuesFrom) c;
+			out.writeByte( DATA_SOME_VALUES_FROM );
+			writeDataProperty( r.getProperty() );
+			writeDataRange( r.getFiller() );
+			break;
+		}
+		case DATA_ALL_VALUES_FROM: {
+			OWLDataAllValuesFrom r = (OWLDataAllValuesFrom) c;
+			out.writeByte( DATA_ALL_VALUES_FROM );
+			writeDataProperty( r.getProperty() );
+			writeDataRange( r.getFiller() );
+			break;
+		}
+		case DATA_HAS_VALUE: {
+			OWLDataHasValue r = (OWLDataHasValue) c;
+			out.writeByte( DATA_HAS_VALUE );
+			writeDataProperty( r.getProperty() );
+			writeLiteral( r.getValue() );
+			break;
+		}
+		case DATA_MIN_CARDINALITY:
+			out.writeByte( DATA_MIN_CARDINALITY );
+			writeDataCardinality( (OWLDataCardinalityRestriction) c );
+			break;
+		case DATA_EXACT_CARDINALITY:
+			out.writeByte( DATA_EXACT_CARDINALITY );
+			writeDataCardinality( (OWLDataCardinalityRestriction) c );
+			break;
+		case DATA_MAX_CARDINALITY:
+			out.writeByte( DATA_MAX_CARDINALITY );
+			writeDataCardinality( (OWLDataCardinalityRestriction) c );
+			break;
+		default:
+			throw new IllegalArgumentException( "Unrecognized class expression " + c );
+		}
+	}
+
+	private void writeObjectCardinality(OWLObjectCardinalityRestriction r) throws IOException {
+		out.writeInt( r.getCardinality() );
+		writeObjectProperty( r.getProperty() );
+		writeClassExpression( r.getFiller() );
+	}
+
+	private void writeDataCardinality(OWLDataCardinalityRestriction r) throws IOException {
+		out.writeInt( r.getCardinality() );
+		writeDataProperty( r.getProperty() );
+		writeDataRange( r.getFiller() );
+	}
+
+	public void writeClassExpressions(Collection<? extends OWLClassExpression> classes) throws IOException {
+		out.writeInt( classes.size() );
+		for( OWLClassExpression c : classes )
+			writeClassExpression( c );
+	}
+
+	public void writeDataRange(OWLDataRange range) throws IOException {
+		switch( range.getDataRangeType() ) {
+		case DATATYPE:
+			out.writeByte( DATATYPE_RANGE );
+			writeEntity( range.asOWLDatatype() );
+			break;
+		case DATA_ONE_OF:
+			out.writeByte( DATA_ONE_OF );
+			writeLiterals( ((OWLDataOneOf) range).getValues() );
+			break;
+		case DATA_COMPLEMENT_OF:
+			out.writeByte( DATA_COMPLEMENT_OF );
+			writeDataRange( ((OWLDataComplementOf) range).getDataRange() );
+			break;
+		case DATA_INTERSECTION_OF:
+			out.writeByte( DATA_INTERSECTION_OF );
+			writeDataRanges( ((OWLDataIntersectionOf) range).getOperands() );
+			break;
+		case DATA_UNION_OF:
+			out.writeByte( DATA_UNION_OF );
+			writeDataRanges( ((OWLDataUnionOf) range).getOperands() );
+			break;
+		case DATATYPE_RESTRICTION: {
+			OWLDatatypeRestriction r = (OWLDatatypeRestriction) range;
+			out.writeByte( DATATYPE_RESTRICTION );
+			writeEntity( r.getDatatype() );
+			out.writeInt( r.getFacetRestrictions().size() );
+			for( OWLFacetRestriction facet : r.getFacetRestrictions() ) {
+				writeString( facet.getFacet().getIRI().toString() );
+				writeLiteral( facet.getFacetValue() );
+			}
+			break;
+		}
+		default:
+			throw new IllegalArgumentException( "Unrecognized data range " + range );
+		}
+	}
+
+	public void writeDataRanges(Collection<? extends OWLDataRange> ranges) throws IOException {
+		out.writeInt( ranges.size() );
+		for( OWLDataRange range : ranges )
+			writeDataRange( range );
+	}
+
+	/**
+	 * Writes an annotation value or an annotation subject
+	 */
+	private void writeAnnotationObject(OWLAnnotationObject value) throws IOException {
+		if( value instanceof IRI ) {
+			out.writeByte( IRI_VALUE );
+			writeString( value.toString() );
+		}
+		else if( value instanceof OWLLiteral ) {
+			out.writeByte( LITERAL_VALUE );
+			writeLiteral( (OWLLiteral) value );
+		}
+		else if( value instanceof OWLAnonymousIndividual ) {
+			out.writeByte( ANONYMOUS_VALUE );
+			writeString( ((OWLAnonymousIndividual) value).toStringID() );
+		}
+		else {
+			throw new IllegalArgumentException( "Unrecognized annotation value " + value );
+		}
+	}
+
+	public void writeAnnotations(Collection<OWLAnnotation> annotations) throws IOException {
+		out.writeInt( annotations.size() );
+		for( OWLAnnotation annotation : annotations ) {
+			writeEntity( annotation.getProperty() );
+			writeAnnotationObject( annotation.getValue() );
+			writeAnnotations( annotation.getAnnotations() );
+		}
+	}
+
+	private void writeAtom(SWRLAtom atom) throws IOException {
+		if( atom instanceof SWRLClassAtom ) {
+			SWRLClassAtom a = (SWRLClassAtom) atom;
+			out.writeByte( CLASS_ATOM );
+			writeClassExpression( a.getPredicate() );
+			writeArgument( a.getArgument() );
+		}
+		else if( atom instanceof SWRLDataRangeAtom ) {
+			SWRLDataRangeAtom a = (SWRLDataRangeAtom) atom;
+			out.writeByte( DATA_RANGE_ATOM );
+			writeDataRange( a.getPredicate() );
+			writeArgument( a.getArgument() );
+		}
+		else if( atom instanceof SWRLObjectPropertyAtom ) {
+			SWRLObjectPropertyAtom a = (SWRLObjectPropertyAtom) atom;
+			out.writeByte( OBJECT_PROPERTY_ATOM );
+			writeObjectProperty( a.getPredicate() );
+			writeArgument( a.getFirstArgument() );
+			writeArgument( a.getSecondArgument() );
+		}
+		else if( atom instanceof SWRLDataPropertyAtom ) {
+			SWRLDataPropertyAtom a = (SWRLDataPropertyAtom) atom;
+			out.writeByte( DATA_PROPERTY_ATOM );
+			writeDataProperty( a.getPredicate() );
+			writeArgument( a.getFirstArgument() );
+			writeArgument( a.getSecondArgument() );
+		}
+		else if( atom instanceof SWRLBuiltInAtom ) {
+			SWRLBuiltInAtom a = (SWRLBuiltInAtom) atom;
+			out.writeByte( BUILT_IN_ATOM );
+			writeString( a.getPredicate().toString() );
+			out.writeInt( a.getArguments().size() );
+			for( SWRLArgument arg : a.getArguments() )
+				writeArgument( arg );
+		}
+		else if( atom instanceof SWRLSameIndividualAtom ) {
+			SWRLSameIndividualAtom a = (SWRLSameIndividualAtom) atom;
+			out.writeByte( SAME_INDIVIDUAL_ATOM );
+			writeArgument( a.getFirstArgument() );
+			writeArgument( a.getSecondArgument() );
+		}
+		else if( atom instanceof SWRLDifferentIndividualsAtom ) {
+			SWRLDifferentIndividualsAtom a = (SWRLDifferentIndividualsAtom) atom;
+			out.writeByte( DIFFERENT_INDIVIDUALS_ATOM );
+			writeArgument( a.getFirstArgument() );
+			writeArgument( a.getSecondArgument() );
+		}
+		else {
+			throw new IllegalArgumentException( "Unrecognized SWRL atom " + atom );
+		}
+	}
+
+	private void writeAtoms(Collection<? extends SWRLAtom> atoms) throws IOException {
+		out.writeInt( atoms.size() );
+		for( SWRLAtom atom : atoms )
+			writeAtom( atom );
+	}
+
+	private void writeArgument(SWRLArgument arg) throws IOException {
+		if( arg instanceof SWRLVariable ) {
+			out.writeByte( VARIABLE );
+			writeString( ((SWRLVariable) arg).getIRI().toString() );
+		}
+		else if( arg instanceof SWRLIndividualArgument ) {
+			out.writeByte( INDIVIDUAL_ARGUMENT );
+			writeIndividual( ((SWRLIndividualArgument) arg).getIndividual() );
+		}
+		else if( arg instanceof SWRLLiteralArgument ) {
+			out.writeByte( LITERAL_ARGUMENT );
+			writeLiteral( ((SWRLLiteralArgument) arg).getLiteral() );
+		}
+		else {
+			throw new IllegalArgumentException( "Unrecognized SWRL argument " + arg );
+		}
+	}
+
+	/**
+	 * Writes an axiom with its annotations.
+	 *
+	 * @throws IllegalArgumentException if the axiom contains a construct this
+	 *             format cannot encode
+	 */
+	public void writeAxiom(OWLAxiom axiom) throws IOException {
+		if( axiom instanceof OWLDeclarationAxiom ) {
+			out.writeByte( DECLARATION );
+			writeEntity( ((OWLDeclarationAxiom) axiom).getEntity() );
+		}
+		else if( axiom instanceof OWLSubClassOfAxiom ) {
+			OWLSubClassOfAxiom a = (OWLSubClassOfAxiom) axiom;
+			out.writeByte( SUBCLASS_OF );
+			writeClassExpression( a.getSubClass() );
+			writeClassExpression( a.getSuperClass() );
+		}
+		else if( axiom instanceof OWLEquivalentClassesAxiom ) {
+			out.writeByte( EQUIVALENT_CLASSES );
+			writeClassExpressions( ((OWLEquivalentClassesAxiom) axiom).getClassExpressions() );
+		}
+		else if( axiom instanceof OWLDisjointClassesAxiom ) {
+			out.writeByte( DISJOINT_CLASSES );
+			writeClassExpressions( ((OWLDisjointClassesAxiom) axiom).getClassExpressions() );
+		}
+		else if( axiom instanceof OWLDisjointUnionAxiom ) {
+			OWLDisjointUnionAxiom a = (OWLDisjointUnionAxiom) axiom;
+			out.writeByte( DISJOINT_UNION );
+			writeEntity( a.getOWLClass() );
+			writeClassExpressions( a.getClassExpressions() );
+		}
+		else if( axiom instanceof OWLSubObjectPropertyOfAxiom ) {
+			OWLSubObjectPropertyOfAxiom a = (OWLSubObjectPropertyOfAxiom) axiom;
+			out.writeByte( SUB_OBJECT_PROPERTY );
+			writeObjectProperty( a.getSubProperty() );
+			writeObjectProperty( a.getSuperProperty() );
+		}
+		else if( axiom instanceof OWLSubPropertyChainOfAxiom ) {
+			OWLSubPropertyChainOfAxiom a = (OWLSubPropertyChainOfAxiom) axiom;
+			out.writeByte( SUB_PROPERTY_CHAIN_OF );
+			writeObjectProperties( a.getPropertyChain() );
+			writeObjectProperty( a.getSuperProperty() );
+		}
+		else if( axiom instanceof OWLEquivalentObjectPropertiesAxiom ) {
+			out.writeByte( EQUIVALENT_OBJECT_PROPERTIES );
+			writeObjectProperties( ((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties() );
+		}
+		else if( axiom instanceof OWLDisjointObjectPropertiesAxiom ) {
+			out.writeByte( DISJOINT_OBJECT_PROPERTIES );
+			writeObjectProperties( ((OWLDisjointObjectPropertiesAxiom) axiom).getProperties() );
+		}
+		else if( axiom instanceof OWLInverseObjectPropertiesAxiom ) {
+			OWLInverseObjectPropertiesAxiom a = (OWLInverseObjectPropertiesAxiom) axiom;
+			out.writeByte( INVERSE_OBJECT_PROPERTIES );
+			writeObjectProperty( a.getFirstProperty() );
+			writeObjectProperty( a.getSecondProperty() );
+		}
+		else if( axiom instanceof OWLObjectPropertyDomainAxiom ) {
+			OWLObjectPropertyDomainAxiom a = (OWLObjectPropertyDomainAxiom) axiom;
+			out.writeByte( OBJECT_PROPERTY_DOMAIN );
+			writeObjectProperty( a.getProperty() );
+			writeClassExpression( a.getDomain() );
+		}
+		else if( axiom instanceof OWLObjectPropertyRangeAxiom ) {
+			OWLObjectPropertyRangeAxiom a = (OWLObjectPropertyRangeAxiom) axiom;
+			out.writeByte( OBJECT_PROPERTY_RANGE );
+			writeObjectProperty( a.getProperty() );
+			writeClassExpression( a.getRange() );
+		}
+		else if( axiom instanceof OWLFunctionalObjectPropertyAxiom ) {
+			out.writeByte( FUNCTIONAL_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLFunctionalObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLInverseFunctionalObjectPropertyAxiom ) {
+			out.writeByte( INVERSE_FUNCTIONAL_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLInverseFunctionalObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLReflexiveObjectPropertyAxiom ) {
+			out.writeByte( REFLEXIVE_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLReflexiveObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLIrreflexiveObjectPropertyAxiom ) {
+			out.writeByte( IRREFLEXIVE_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLIrreflexiveObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLSymmetricObjectPropertyAxiom ) {
+			out.writeByte( SYMMETRIC_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLSymmetricObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLAsymmetricObjectPropertyAxiom ) {
+			out.writeByte( ASYMMETRIC_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLAsymmetricObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLTransitiveObjectPropertyAxiom ) {
+			out.writeByte( TRANSITIVE_OBJECT_PROPERTY );
+			writeObjectProperty( ((OWLTransitiveObjectPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLSubDataPropertyOfAxiom ) {
+			OWLSubDataPropertyOfAxiom a = (OWLSubDataPropertyOfAxiom) axiom;
+			out.writeByte( SUB_DATA_PROPERTY );
+			writeDataProperty( a.getSubProperty() );
+			writeDataProperty( a.getSuperProperty() );
+		}
+		else if( axiom instanceof OWLEquivalentDataPropertiesAxiom ) {
+			out.writeByte( EQUIVALENT_DATA_PROPERTIES );
+			writeDataProperties( ((OWLEquivalentDataPropertiesAxiom) axiom).getProperties() );
+		}
+		else if( axiom instanceof OWLDisjointDataPropertiesAxiom ) {
+			out.writeByte( DISJOINT_DATA_PROPERTIES );
+			writeDataProperties( ((OWLDisjointDataPropertiesAxiom) axiom).getProperties() );
+		}
+		else if( axiom instanceof OWLDataPropertyDomainAxiom ) {
+			OWLDataPropertyDomainAxiom a = (OWLDataPropertyDomainAxiom) axiom;
+			out.writeByte( DATA_PROPERTY_DOMAIN );
+			writeDataProperty( a.getProperty() );
+			writeClassExpression( a.getDomain() );
+		}
+		else if( axiom instanceof OWLDataPropertyRangeAxiom ) {
+			OWLDataPropertyRangeAxiom a = (OWLDataPropertyRangeAxiom) axiom;
+			out.writeByte( DATA_PROPERTY_RANGE );
+			writeDataProperty( a.getProperty() );
+			writeDataRange( a.getRange() );
+		}
+		else if( axiom instanceof OWLFunctionalDataPropertyAxiom ) {
+			out.writeByte( FUNCTIONAL_DATA_PROPERTY );
+			writeDataProperty( ((OWLFunctionalDataPropertyAxiom) axiom).getProperty() );
+		}
+		else if( axiom instanceof OWLDatatypeDefinitionAxiom ) {
+			OWLDatatypeDefinitionAxiom a = (OWLDatatypeDefinitionAxiom) axiom;
+			out.writeByte( DATATYPE_DEFINITION );
+			writeEntity( a.getDatatype() );
+			writeDataRange( a.getDataRange() );
+		}
+		else if( axiom instanceof OWLHasKeyAxiom ) {
+			OWLHasKeyAxiom a = (OWLHasKeyAxiom) axiom;
+			out.writeByte( HAS_KEY );
+			writeClassExpression( a.getClassExpression() );
+			writeObjectProperties( a.getObjectPropertyExpressions() );
+			writeDataProperties( a.getDataPropertyExpressions() );
+		}
+		else if( axiom instanceof OWLSameIndividualAxiom ) {
+			out.writeByte( SAME_INDIVIDUAL );
+			writeIndividuals( ((OWLSameIndividualAxiom) axiom).getIndividuals() );
+		}
+		else if( axiom instanceof OWLDifferentIndividualsAxiom ) {
+			out.writeByte( DIFFERENT_INDIVIDUALS );
+			writeIndividuals( ((OWLDifferentIndividualsAxiom) axiom).getIndividuals() );
+		}
+		else if( axiom instanceof OWLClassAssertionAxiom ) {
+			OWLClassAssertionAxiom a = (OWLClassAssertionAxiom) axiom;
+			out.writeByte( CLASS_ASSERTION );
+			writeClassExpression( a.getClassExpression() );
+			writeIndividual( a.getIndividual() );
+		}
+		else if( axiom instanceof OWLObjectPropertyAssertionAxiom ) {
+			OWLObjectPropertyAssertionAxiom a = (OWLObjectPropertyAssertionAxiom) axiom;
+			out.writeByte( OBJECT_PROPERTY_ASSERTION );
+			writeObjectProperty( a.getProperty() );
+			writeIndividual( a.getSubject() );
+			writeIndividual( a.getObject() );
+		}
+		else if( axiom instanceof OWLNegativeObjectPropertyAssertionAxiom ) {
+			OWLNegativeObjectPropertyAssertionAxiom a = (OWLNegativeObjectPropertyAssertionAxiom) axiom;
+			out.writeByte( NEGATIVE_OBJECT_PROPERTY_ASSERTION );
+			writeObjectProperty( a.getProperty() );
+			writeIndividual( a.getSubject() );
+			writeIndividual( a.getObject() );
+		}
+		else if( axiom instanceof OWLDataPropertyAssertionAxiom ) {
+			OWLDataPropertyAssertionAxiom a = (OWLDataPropertyAssertionAxiom) axiom;
+			out.writeByte( DATA_PROPERTY_ASSERTION );
+			writeDataProperty( a.getProperty() );
+			writeIndividual( a.getSubject() );
+			writeLiteral( a.getObject() );
+		}
+		else if( axiom instanceof OWLNegativeDataPropertyAssertionAxiom ) {
+			OWLNegativeDataPropertyAssertionAxiom a = (OWLNegativeDataPropertyAssertionAxiom) axiom;
+			out.writeByte( NEGATIVE_DATA_PROPERTY_ASSERTION );
+			writeDataProperty( a.getProperty() );
+			writeIndividual( a.getSubject() );
+			writeLiteral( a.getObject() );
+		}
+		else if( axiom instanceof OWLAnnotationAssertionAxiom ) {
+			OWLAnnotationAssertionAxiom a = (OWLAnnotationAssertionAxiom) axiom;
+			out.writeByte( ANNOTATION_ASSERTION );
+			writeEntity( a.getProperty() );
+			writeAnnotationObject( a.getSubject() );
+			writeAnnotationObject( a.getValue() );
+		}
+		else if( axiom instanceof OWLSubAnnotationPropertyOfAxiom ) {
+			OWLSubAnnotationPropertyOfAxiom a = (OWLSubAnnotationPropertyOfAxiom) axiom;
+			out.writeByte( SUB_ANNOTATION_PROPERTY );
+			writeEntity( a.getSubProperty() );
+			writeEntity( a.getSuperProperty() );
+		}
+		else if( axiom instanceof OWLAnnotationPropertyDomainAxiom ) {
+			OWLAnnotationPropertyDomainAxiom a = (OWLAnnotationPropertyDomainAxiom) axiom;
+			out.writeByte( ANNOTATION_PROPERTY_DOMAIN );
+			writeEntity( a.getProperty() );
+			writeString( a.getDomain().toString() );
+		}
+		else if( axiom instanceof OWLAnnotationPropertyRangeAxiom ) {
+			OWLAnnotationPropertyRangeAxiom a = (OWLAnnotationPropertyRangeAxiom) axiom;
+			out.writeByte( ANNOTATION_PROPERTY_RANGE );
+			writeEntity( a.getProperty() );
+			writeString( a.getRange().toString() );
+		}
+		else if( axiom instanceof SWRLRule ) {
+			SWRLRule a = (SWRLRule) axiom;
+			out.writeByte( SWRL_RULE );
+			writeAtoms( a.getBody() );
+			writeAtoms( a.getHead() );
+		}
+		else {
+			throw new IllegalArgumentException( "Unrecognized axiom " + axiom );
+		}
+
+		writeAnnotations( axiom.getAnnotations() );
+	}
+
+	public void writeAxioms(Collection<OWLAxiom> axioms) throws IOException {
+		out.writeInt( axioms.size() );
+		for( OWLAxiom axiom : axioms )
+			writeAxiom( axiom );
+	}
+}
@@ -0,0 +1,153 @@
+// Copyright (c) 2006 - 2015, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.reachability;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An unmodifiable Set implementation that stores its elements as a bitmap over the ids assigned by an {@link Index}. Many sets can share one index so each of them
+ * takes a single bit for each id up to the largest id of its elements instead of a hash entry for each element.
+ */
+public class IndexedSet<T> extends AbstractSet<T> implements Set<T> {
+
+	/**
+	 * Assigns consecutive ids to elements. Ids are never reassigned so the sets created over an index stay valid as more elements are added. An index should not be
+	 * modified while the sets created over it are read by other threads.
+	 */
+	public static class Index<T> {
+
+		private Map<T, Integer> ids = new HashMap<T, Integer>();
+
+		private List<T> elements = new ArrayList<T>();
+
+		/**
+		 * Returns the id of the given element adding it to the index if necessary.
+		 */
+		public int add(T element) {
+			Integer id = ids.get(element);
+			if (id == null) {
+				id = elements.size();
+				ids.put(element, id);
+				elements.add(element);
+			}
+
+			return id;
+		}
+
+		/**
+		 * Returns the element with the given id.
+		 */
+		public T get(int id) {
+			return elements.get(id);
+		}
+
+		/**
+		 * Returns the id of the given element or -1 if the element has not been added to the index.
+		 */
+		public int getId(Object element) {
+			Integer id = ids.get(element);
+			return id == null
+			       ? -1
+			       : id;
+		}
+
+		/**
+		 * Returns the number of elements in the index.
+		 */
+		public int size() {
+			return elements.size();
+		}
+	}
+
+	private Index<T> index;
+
+	private BitSet bits;
+
+	private int size;
+
+	/**
+	 * Creates a set with the given elements adding them to the index if necessary.
+	 */
+	public IndexedSet(Index<T> index, Collection<? extends T> elements) {
+		this.index = index;
+		this.bits = new BitSet();
+
+		for (T e : elements) {
+			bits.set(index.add(e));
+		}
+
+		size = bits.cardinality();
+	}
+
+	/**
+	 * Returns the index this set is defined over.
+	 */
+	public Index<T> getIndex() {
+		return index;
+	}
+
+	@Override
+	public boolean add(T o) {
+		throw new UnsupportedOperationException("Indexed sets are read-only");
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		int id = index.getId(o);
+		return id >= 0 && bits.get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int next = bits.nextSetBit(0);
+
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				T result = index.get(next);
+				next = bits.nextSetBit(next + 1);
+				return result;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("Indexed sets are read-only");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+}
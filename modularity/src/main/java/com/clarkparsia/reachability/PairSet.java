@@ -137,6 +137,20 @@ public class PairSet<T> extends AbstractSet<T> implements Set<T> {
 		return size;
 	}
 
+	/**
+	 * Returns the first set this set is wrapping.
+	 */
+	public Set<T> getFirstSet() {
+		return firstSet;
+	}
+
+	/**
+	 * Returns the second set this set is wrapping.
+	 */
+	public Set<T> getSecondSet() {
+		return secondSet;
+	}
+
 	@Override
 	public boolean add(T o) {
 		throw new UnsupportedOperationException("Pair sets are read-only");
@@ -6,15 +6,20 @@
 
 package com.clarkparsia.reachability;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Computes reachability in a directed graph with and/or nodes.
+ * Computes reachability in a directed graph with and/or nodes. The activation
+ * state is kept in the engine and not in the graph nodes so several engines,
+ * each used by a single thread, can compute reachability over the same graph
+ * concurrently.
  *
  * @author Evren Sirin
  */
@@ -26,7 +31,9 @@ public class Reachability<E> {
 
 	private Set<E> activatedEntities;
 
-	private Set<Node> affectedNodes;
+	private Set<Node> activeNodes;
+
+	private Map<Node, Integer> activatedInputs;
 
 	private Queue<Node> waitingQueue;
 
@@ -40,22 +47,48 @@ public class Reachability<E> {
 
 	private void reset() {
 		activatedEntities = new HashSet<E>();
-		affectedNodes = new HashSet<Node>();
+		activeNodes = new HashSet<Node>();
+		activatedInputs = new HashMap<Node, Integer>();
 		waitingQueue = new LinkedList<Node>();
+		activeNodes.add(graph.getStartNode());
 		waitingQueue.add(graph.getStartNode());
 	}
 
+	private boolean isActive(Node node) {
+		return activeNodes.contains(node);
+	}
+
+	/**
+	 * Records that one of the inputs of the given node has been activated and
+	 * returns <code>true</code> if this activates the node. And nodes are
+	 * activated when all of their inputs are activated and other nodes when any
+	 * of their inputs is activated.
+	 */
+	private boolean inputActivated(Node node) {
+		if (node == graph.getNullNode()) {
+			return false;
+		}
+
+		if (node instanceof AndNode) {
+			Integer count = activatedInputs.get(node);
+			int newCount = (count == null) ? 1 : count + 1;
+			activatedInputs.put(node, newCount);
+			if (newCount != node.getInputs().size()) {
+				return false;
+			}
+		}
+
+		return activeNodes.add(node);
+	}
+
 	private void activateNode(EntityNode<E> node) {
-		if (node.isActive()) {
+		if (!activeNodes.add(node)) {
 			throw new IllegalStateException();
 		}
 
-		affectedNodes.add(node);
 		activatedEntities.addAll(node.getEntities());
 		waitingQueue.add(node);
 
-		node.inputActivated();
-
 		if (log.isLoggable(Level.FINE)) {
 			log.fine("Activated: " + node);
 		}
@@ -73,7 +106,7 @@ public class Reachability<E> {
 			if (initialNode == null) {
 				throw new IllegalArgumentException("Unknown entity: " + initialEntity);
 			}
-			if (!initialNode.isActive()) {
+			if (!isActive(initialNode)) {
 				activateNode(initialNode);
 			}
 		}
@@ -81,19 +114,17 @@ public class Reachability<E> {
 		while (!waitingQueue.isEmpty()) {
 			Node node = waitingQueue.poll();
 
-			assert node.isActive();
+			assert isActive(node);
 
 			for (Node outputNode : node.getOutputs()) {
-				if (outputNode.isActive()) {
+				if (isActive(outputNode)) {
 					if (log.isLoggable(Level.FINE)) {
 						log.fine("Already activated: " + outputNode);
 					}
 					continue;
 				}
 
-				affectedNodes.add(outputNode);
-
-				if (outputNode.inputActivated()) {
+				if (inputActivated(outputNode)) {
 					if (log.isLoggable(Level.FINE)) {
 						log.fine("Activated: " + outputNode);
 					}
@@ -106,11 +137,14 @@ public class Reachability<E> {
 			}
 		}
 
-		for (Node node : affectedNodes) {
-			node.reset();
-		}
+		Set<E> result = activatedEntities;
+
+		activatedEntities = null;
+		activeNodes = null;
+		activatedInputs = null;
+		waitingQueue = null;
 
-		return activatedEntities;
+		return result;
 	}
 
 	@SuppressWarnings("unchecked")
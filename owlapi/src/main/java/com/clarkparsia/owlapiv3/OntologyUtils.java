@@ -197,7 +197,7 @@ public class OntologyUtils {
 				: new RemoveAxiom( ontology, axiom );
 			changes.add( change );
 		}
-		manager.applyChanges( changes );
+		ontology.getOWLOntologyManager().applyChanges( changes );
 	}
 
 	/**
@@ -464,7 +464,13 @@ public class CombinedQueryEngine implements QueryExec {
 							}
 						}
 						else {
-							for( final ATermAppl subject : kb.getIndividuals() ) {
+							// only the individuals with a value in the data
+							// value index need to be checked for data
+							// properties
+							final Collection<ATermAppl> subjects = kb.isDatatypeProperty( property )
+								? kb.getIndividualsWithDataPropertyValues( property )
+								: kb.getIndividuals();
+							for( final ATermAppl subject : subjects ) {
 								for( final ATermAppl object : kb.getPropertyValues( property,
 										subject ) ) {
 									runNext( binding, arguments, subject, property, object );
@@ -10,11 +10,15 @@ package com.clarkparsia.explanation.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -28,14 +32,18 @@ import org.mindswap.pellet.jena.vocabulary.OWL2;
 import org.mindswap.pellet.utils.SetUtils;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.OWLOntology;
 
+import com.clarkparsia.owlapi.explanation.GlassBoxExplanation;
 import com.clarkparsia.owlapi.explanation.PelletExplanation;
 import com.clarkparsia.owlapiv3.OWL;
 import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
 import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Triple;
 import com.hp.hpl.jena.ontology.OntDocumentManager;
 import com.hp.hpl.jena.ontology.OntModel;
 import com.hp.hpl.jena.rdf.model.Model;
@@ -206,6 +214,45 @@ public class MiscExplanationTests {
 		assertEquals( axioms, explain.getEntailmentExplanation(OWL.classAssertion(a, A)) );
 	}
 
+	@Test
+	public void testMultipleUnsatisfiableClasses() throws Exception {
+		OWLClass A = OWL.Class( "A" );
+		OWLClass B = OWL.Class( "B" );
+		OWLClass C = OWL.Class( "C" );
+		OWLClass D = OWL.Class( "D" );
+		OWLClass E = OWL.Class( "E" );
+		OWLClass F = OWL.Class( "F" );
+
+		OWLAxiom[] axioms = {
+				OWL.subClassOf( A, B ), OWL.subClassOf( B, OWL.Nothing ),
+				OWL.subClassOf( A, C ), OWL.subClassOf( C, OWL.Nothing ),
+				OWL.subClassOf( D, A ), OWL.subClassOf( E, F ) };
+
+		OWLOntology ontology = OWL.Ontology( axioms );
+		PelletReasoner reasoner = PelletReasonerFactory.getInstance().createReasoner( ontology );
+		PelletExplanation explain = new PelletExplanation( reasoner );
+
+		Map<OWLClassExpression, Set<Set<OWLAxiom>>> actual = explain.getUnsatisfiableExplanations(
+				Arrays.asList( A, D, E ), 0 );
+
+		Set<Set<OWLAxiom>> expectedA = new HashSet<Set<OWLAxiom>>();
+		expectedA.add( SetUtils.create( axioms[0], axioms[1] ) );
+		expectedA.add( SetUtils.create( axioms[2], axioms[3] ) );
+
+		Set<Set<OWLAxiom>> expectedD = new HashSet<Set<OWLAxiom>>();
+		expectedD.add( SetUtils.create( axioms[0], axioms[1], axioms[4] ) );
+		expectedD.add( SetUtils.create( axioms[2], axioms[3], axioms[4] ) );
+
+		assertEquals( expectedA, actual.get( A ) );
+		assertEquals( expectedD, actual.get( D ) );
+		assertEquals( Collections.emptySet(), actual.get( E ) );
+
+		assertEquals( explain.getUnsatisfiableExplanations( A ), actual.get( A ) );
+		assertEquals( explain.getUnsatisfiableExplanations( D ), actual.get( D ) );
+
+		assertEquals( 1, explain.getUnsatisfiableExplanations( Arrays.asList( D ), 1 ).get( D ).size() );
+	}
+
 	@Test
 	public void testJena() throws Exception {
 		Resource A = ResourceFactory.createResource( "A" );
@@ -293,6 +340,139 @@ public class MiscExplanationTests {
 		assertEquals( expected.listStatements().toSet(), actual.listStatements().toSet() );
 	}
 	
+	@Test
+	public void testInstanceExplanations() throws Exception {
+		OWLClass A = OWL.Class( "A" );
+		OWLClass B = OWL.Class( "B" );
+		OWLClass C = OWL.Class( "C" );
+		OWLClass D = OWL.Class( "D" );
+		OWLIndividual i = OWL.Individual( "i" );
+
+		OWLAxiom[] axioms = {
+				OWL.subClassOf( A, B ), OWL.subClassOf( B, C ), OWL.classAssertion( i, A ),
+				OWL.subClassOf( D, C ) };
+
+		OWLOntology ontology = OWL.Ontology( axioms );
+		PelletReasoner reasoner = PelletReasonerFactory.getInstance().createReasoner( ontology );
+		PelletExplanation explain = new PelletExplanation( reasoner );
+
+		Map<OWLClassExpression, Set<OWLAxiom>> actual = explain.getInstanceExplanation( i, Arrays.asList( A, B, C, D ) );
+
+		assertEquals( SetUtils.create( axioms[2] ), actual.get( A ) );
+		assertEquals( SetUtils.create( axioms[0], axioms[2] ), actual.get( B ) );
+		assertEquals( SetUtils.create( axioms[0], axioms[1], axioms[2] ), actual.get( C ) );
+		assertEquals( Collections.emptySet(), actual.get( D ) );
+	}
+
+	@Test
+	public void testInstanceExplanationsMerged() throws Exception {
+		OWLClass A = OWL.Class( "A" );
+		OWLClass B = OWL.Class( "B" );
+		OWLClass C = OWL.Class( "C" );
+		OWLIndividual i = OWL.Individual( "i" );
+		OWLIndividual j = OWL.Individual( "j" );
+
+		OWLAxiom[] axioms = {
+				OWL.classAssertion( i, A ), OWL.subClassOf( A, B ), OWL.sameAs( i, j ) };
+
+		OWLOntology ontology = OWL.Ontology( axioms );
+		PelletReasoner reasoner = PelletReasonerFactory.getInstance().createReasoner( ontology );
+		PelletExplanation explain = new PelletExplanation( reasoner );
+
+		// the consistency check is done without explanations so the batch
+		// explanation cannot use the axioms recorded in the completion graph
+		assertTrue( reasoner.isConsistent() );
+
+		Map<OWLClassExpression, Set<OWLAxiom>> actual = explain.getInstanceExplanation( j, Arrays.asList( A, B, C ) );
+
+		assertEquals( SetUtils.create( axioms[0], axioms[2] ), actual.get( A ) );
+		assertEquals( SetUtils.create( axioms[0], axioms[1], axioms[2] ), actual.get( B ) );
+		assertEquals( Collections.emptySet(), actual.get( C ) );
+
+		assertEquals( explain.getInstanceExplanation( j, A ), actual.get( A ) );
+		assertEquals( explain.getInstanceExplanation( j, B ), actual.get( B ) );
+
+		// the same explanations when the consistency check is done by the
+		// batch explanation itself
+		PelletReasoner fresh = PelletReasonerFactory.getInstance().createReasoner( ontology );
+		assertEquals( actual, new PelletExplanation( fresh ).getInstanceExplanation( j, Arrays.asList( A, B, C ) ) );
+
+		fresh.dispose();
+		reasoner.dispose();
+	}
+	
+	@Test
+	public void testQuickXplainPruning() throws Exception {
+		OWLClass A = OWL.Class( "A" );
+		OWLClass B = OWL.Class( "B" );
+		OWLClass C = OWL.Class( "C" );
+		OWLClass D = OWL.Class( "D" );
+		OWLClass E = OWL.Class( "E" );
+		OWLClass F = OWL.Class( "F" );
+
+		OWLAxiom[] axioms = {
+				OWL.subClassOf( A, OWL.or( B, C ) ), OWL.subClassOf( B, D ), OWL.subClassOf( C, D ),
+				OWL.subClassOf( A, OWL.not( D ) ), OWL.subClassOf( A, E ), OWL.subClassOf( E, F ),
+				OWL.subClassOf( B, F ) };
+
+		OWLOntology ontology = OWL.Ontology( axioms );
+		PelletReasoner reasoner = PelletReasonerFactory.getInstance().createReasoner( ontology );
+		GlassBoxExplanation expGen = new GlassBoxExplanation( reasoner );
+
+		Set<OWLAxiom> quickXplain = expGen.getExplanation( A );
+
+		expGen.setUseOWLAPIPruning( true );
+		Set<OWLAxiom> owlapi = expGen.getExplanation( A );
+
+		assertEquals( SetUtils.create( axioms[0], axioms[1], axioms[2], axioms[3] ), quickXplain );
+		assertEquals( owlapi, quickXplain );
+
+		// removing any axiom from a minimal explanation makes A satisfiable
+		for( OWLAxiom axiom : quickXplain ) {
+			Set<OWLAxiom> subset = new HashSet<OWLAxiom>( quickXplain );
+			subset.remove( axiom );
+
+			PelletReasoner subsetReasoner = PelletReasonerFactory.getInstance().createReasoner(
+					OWL.Ontology( subset ) );
+			assertTrue( subsetReasoner.isSatisfiable( A ) );
+			subsetReasoner.dispose();
+		}
+
+		expGen.dispose();
+		reasoner.dispose();
+	}
+	
+	@Test
+	public void testJenaExplanations() throws Exception {
+		Resource A = ResourceFactory.createResource( "A" );
+		Resource B = ResourceFactory.createResource( "B" );
+		Resource C = ResourceFactory.createResource( "C" );
+		Resource D = ResourceFactory.createResource( "D" );
+		Resource i = ResourceFactory.createResource( "i" );
+		
+		OntModel model = ModelFactory.createOntologyModel( org.mindswap.pellet.jena.PelletReasonerFactory.THE_SPEC );
+		model.add( i, RDF.type, A );
+		model.add( A, RDFS.subClassOf, B );
+		model.add( B, RDFS.subClassOf, C );
+		model.add( D, RDF.type, OWL2.Class );
+		
+		model.prepare();
+		
+		PelletInfGraph graph = (PelletInfGraph) model.getGraph();
+		Triple typeB = Triple.create( i.asNode(), RDF.type.asNode(), B.asNode() );
+		Triple typeC = Triple.create( i.asNode(), RDF.type.asNode(), C.asNode() );
+		Triple typeD = Triple.create( i.asNode(), RDF.type.asNode(), D.asNode() );
+		
+		Map<Triple, Graph> actual = graph.explain( Arrays.asList( typeB, typeC, typeD ) );
+
+		for( Triple triple : Arrays.asList( typeB, typeC ) ) {
+			Model expected = graph.explain( i, RDF.type, ResourceFactory.createResource( triple.getObject().getURI() ) );
+			assertEquals( expected.listStatements().toSet(), 
+					ModelFactory.createModelForGraph( actual.get( triple ) ).listStatements().toSet() );
+		}
+		assertTrue( actual.get( typeD ).isEmpty() );
+	}
+	
 	/*@Test
 	public void testExplanationWithSWRL() throws Exception {
 		Resource subject = ResourceFactory.createResource("http://www.inmindcomputing.com/test/test-commands.owl#BOMType1");
@@ -16,7 +16,10 @@ import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLException;
 import org.semanticweb.owlapi.model.OWLOntology;
 
+import com.clarkparsia.modularity.IncrementalClassifier;
 import com.clarkparsia.owlapiv3.OWL;
+import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
+import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
 
 /**
  * <p>
@@ -290,6 +293,48 @@ public abstract class AbstractIncrementalClassifierTest extends AbstractModulari
 		updateTest( axioms, additions, deletions );
 	}	
 	
+	/**
+	 * Test that changes affecting modules that do not overlap, and are
+	 * classified separately, are merged correctly.
+	 * 
+	 * @throws OWLException
+	 */
+	@Test
+	public void independentModulesTest() throws OWLException {
+		OWLAxiom[] axioms = {
+				subClassOf( A, B ), subClassOf( C, D ), subClassOf( E, F ),
+				subClassOf( G, H ) };
+		OWLAxiom[] additions = {
+				subClassOf( B, C ), disjointClasses( E, G ), equivalentClasses( F, H ) };
+		OWLAxiom[] deletions = { subClassOf( C, D ) };
+
+		updateTest( axioms, additions, deletions );
+	}
+	
+	/**
+	 * Test that classifying the modules of the classes separately gives the
+	 * same taxonomy as the regular classification.
+	 */
+	@Test
+	public void modularClassificationTest() {
+		OWLAxiom[] axioms = {
+				subClassOf( A, B ), equivalentClasses( B, some( p, C ) ),
+				subClassOf( D, some( p, E ) ), subClassOf( E, C ),
+				disjointClasses( F, G ), subClassOf( H, F ), subClassOf( H, G ) };
+		createOntology( axioms );
+
+		PelletReasoner unified = PelletReasonerFactory.getInstance().createReasoner( ontology );
+		IncrementalClassifier modular = new IncrementalClassifier( PelletReasonerFactory.getInstance().createReasoner( ontology ), createModuleExtractor() );
+		modular.setModularClassification( true );
+
+		modular.classify();
+
+		TestUtils.assertClassificationEquals( unified, modular );
+
+		unified.dispose();
+		modular.dispose();
+	}
+	
 	@Test
 	public void deleteNonLocal() throws OWLException {
 		OWLAxiom[] axioms = {
@@ -1,7 +1,15 @@
 package com.clarkparsia.modularity.test;
 
-import com.clarkparsia.modularity.ModuleExtractor;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.utils.MultiValueMap;
+import org.semanticweb.owlapi.model.OWLEntity;
+
 import com.clarkparsia.modularity.GraphBasedModuleExtractor;
+import com.clarkparsia.modularity.ModuleExtractor;
+import com.clarkparsia.owlapiv3.OntologyUtils;
 
 /**
  * @author Evren Sirin
@@ -16,4 +24,24 @@ public class GraphBasedModularityTest extends SimpleModularityTest {
 		return new GraphBasedModuleExtractor();
 	}
 
+	private MultiValueMap<OWLEntity, OWLEntity> extractModules(int threads) {
+		int oldThreads = PelletOptions.MODULE_EXTRACTION_THREADS;
+		try {
+			PelletOptions.MODULE_EXTRACTION_THREADS = threads;
+
+			ModuleExtractor extractor = createModuleExtractor();
+			extractor.addAxioms( ontology.getAxioms() );
+			return extractor.extractModules();
+		}
+		finally {
+			PelletOptions.MODULE_EXTRACTION_THREADS = oldThreads;
+		}
+	}
+
+	@Test
+	public void parallelExtraction() {
+		ontology = OntologyUtils.loadOntology( "file:test/data/modularity/galen.owl", false );
+
+		assertEquals( extractModules( 1 ), extractModules( 4 ) );
+	}
 }
@@ -7,6 +7,7 @@
 package com.clarkparsia.modularity.test;
 
 import static com.clarkparsia.modularity.test.TestUtils.assertClassificationEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -22,6 +23,7 @@ import com.clarkparsia.modularity.AxiomBasedModuleExtractor;
 import com.clarkparsia.modularity.IncrementalClassifier;
 import com.clarkparsia.modularity.ModuleExtractor;
 import com.clarkparsia.modularity.io.IncrementalClassifierPersistence;
+import com.clarkparsia.modularity.io.IncrementalClassifierSnapshot;
 import com.clarkparsia.owlapiv3.OWL;
 import com.clarkparsia.owlapiv3.OntologyUtils;
 import com.clarkparsia.pellet.owlapiv3.PelletReasoner;
@@ -47,6 +49,8 @@ public class PersistenceClassificationTest {
 	public static final String	base	= PelletTestSuite.base + "modularity/";
 	
 	private static final String TEST_FILE = "test-persistence-classification.zip";
+	
+	private static final String SNAPSHOT_FILE = "test-persistence-classification.snapshot";
 		
 	public ModuleExtractor createModuleExtractor() {
 		return new AxiomBasedModuleExtractor();
@@ -94,6 +98,36 @@ public class PersistenceClassificationTest {
 		}
 	}	
 
+	public void testSnapshot(String fileName) throws IOException {
+		File testFile = new File( SNAPSHOT_FILE );
+		OWLOntology ontology = OntologyUtils.loadOntology( "file:" + base + fileName + ".owl" );
+		
+		try {
+			PelletReasoner unified = PelletReasonerFactory.getInstance().createReasoner( ontology );
+			ModuleExtractor moduleExtractor = createModuleExtractor();
+
+			IncrementalClassifier modular = new IncrementalClassifier( unified, moduleExtractor );
+
+			modular.classify();
+
+			IncrementalClassifierSnapshot.save( modular, testFile );
+
+			IncrementalClassifier modular2 = IncrementalClassifierSnapshot.load( testFile );
+
+			assertClassificationEquals( unified, modular2 );
+			assertEquals( modular.getAxioms(), modular2.getAxioms() );
+
+			assertTrue( testFile.delete() );
+			
+			unified.dispose();
+			modular.dispose();
+			modular2.dispose();
+		} 
+		finally {
+			OWL.manager.removeOntology( ontology );
+		}
+	}
+
 	@Test
 	public void koalaPersistenceClassifyTest() throws IOException {
 		testFile( "koala" );
@@ -123,4 +157,19 @@ public class PersistenceClassificationTest {
 	public void winePersistenceClassifyTest() throws IOException {
 		testFile( "wine" );
 	}
+
+	@Test
+	public void koalaSnapshotClassifyTest() throws IOException {
+		testSnapshot( "koala" );
+	}
+
+	@Test
+	public void galenSnapshotClassifyTest() throws IOException {
+		testSnapshot( "galen" );
+	}
+
+	@Test
+	public void wineSnapshotClassifyTest() throws IOException {
+		testSnapshot( "wine" );
+	}
 }
@@ -6,12 +6,20 @@
 
 package com.clarkparsia.modularity.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -24,8 +32,11 @@ import com.clarkparsia.modularity.IncrementalClassifier;
 import com.clarkparsia.modularity.ModuleExtractor;
 import com.clarkparsia.modularity.PelletIncremantalReasonerFactory;
 import com.clarkparsia.modularity.io.IncrementalClassifierPersistence;
+import com.clarkparsia.modularity.io.ModuleExtractorPersistence;
 import com.clarkparsia.owlapiv3.OWL;
 import com.clarkparsia.owlapiv3.OntologyUtils;
+import com.clarkparsia.reachability.IndexedSet;
+import com.clarkparsia.reachability.PairSet;
 
 /**
  * <p>
@@ -102,6 +113,72 @@ public class PersistenceModularityTest extends AbstractModularityTest {
 		testPersistence("test/data/modularity/galen.owl");
 	}
 	
+	@Test
+	public void testSharedModules() throws IOException {
+		OWLEntity a = OWL.Class( "urn:a" );
+		OWLEntity b = OWL.Class( "urn:b" );
+		OWLEntity c = OWL.Class( "urn:c" );
+		OWLEntity d = OWL.Class( "urn:d" );
+		OWLEntity p = OWL.ObjectProperty( "urn:p" );
+		
+		Set<OWLEntity> moduleA = new HashSet<OWLEntity>();
+		moduleA.add( a );
+		moduleA.add( p );
+		Set<OWLEntity> cycle = new HashSet<OWLEntity>();
+		cycle.add( b );
+		cycle.add( c );
+		Set<OWLEntity> moduleB = new PairSet<OWLEntity>( moduleA, cycle );
+		
+		MultiValueMap<OWLEntity, OWLEntity> expectedModules = new MultiValueMap<OWLEntity, OWLEntity>();
+		expectedModules.put( a, moduleA );
+		expectedModules.put( b, moduleB );
+		expectedModules.put( c, moduleB );
+		expectedModules.put( d, Collections.singleton( d ) );
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ModuleExtractorPersistence.saveModules( expectedModules, out );
+		
+		MultiValueMap<OWLEntity, OWLEntity> actualModules = ModuleExtractorPersistence.loadModules( new ByteArrayInputStream( out.toByteArray() ) );
+		
+		Assert.assertEquals( expectedModules, actualModules );
+		
+		// modules shared before saving are still shared after loading
+		assertTrue( actualModules.get( b ) == actualModules.get( c ) );
+		assertTrue( actualModules.get( b ) instanceof PairSet );
+		assertTrue( ((PairSet<OWLEntity>) actualModules.get( b )).getFirstSet() == actualModules.get( a ) );
+	}
+	
+	@Test
+	public void testIndexedModules() throws IOException {
+		OWLEntity a = OWL.Class( "urn:a" );
+		OWLEntity b = OWL.Class( "urn:b" );
+		OWLEntity c = OWL.Class( "urn:c" );
+		OWLEntity p = OWL.ObjectProperty( "urn:p" );
+		
+		IndexedSet.Index<OWLEntity> index = new IndexedSet.Index<OWLEntity>();
+		Set<OWLEntity> moduleA = new IndexedSet<OWLEntity>( index, Arrays.asList( a, p ) );
+		Set<OWLEntity> moduleB = new IndexedSet<OWLEntity>( index, Arrays.asList( b, c, p ) );
+		
+		assertEquals( 2, moduleA.size() );
+		assertEquals( 3, moduleB.size() );
+		assertTrue( moduleA.contains( p ) );
+		assertFalse( moduleA.contains( b ) );
+		assertEquals( new HashSet<OWLEntity>( Arrays.asList( b, c, p ) ), moduleB );
+		
+		MultiValueMap<OWLEntity, OWLEntity> expectedModules = new MultiValueMap<OWLEntity, OWLEntity>();
+		expectedModules.put( a, moduleA );
+		expectedModules.put( b, moduleB );
+		expectedModules.put( c, moduleB );
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ModuleExtractorPersistence.saveModules( expectedModules, out );
+		
+		MultiValueMap<OWLEntity, OWLEntity> actualModules = ModuleExtractorPersistence.loadModules( new ByteArrayInputStream( out.toByteArray() ) );
+		
+		Assert.assertEquals( expectedModules, actualModules );
+		assertTrue( actualModules.get( b ) == actualModules.get( c ) );
+	}
+	
 	public static void main( String[] args ) throws IOException {
 		new PersistenceModularityTest().testPersistence("test/data/modularity/galen.owl");
 	}
@@ -41,6 +41,9 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -51,6 +54,7 @@ import org.mindswap.pellet.ABox;
 import org.mindswap.pellet.DependencySet;
 import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.Literal;
+import org.mindswap.pellet.PelletOptions;
 
 import aterm.ATermAppl;
 
@@ -645,6 +649,116 @@ public class DatatypeReasonerTests {
 		assertFalse(reasoner.containsAtLeast(2, Collections.singleton(integerExclusiveInterval)));
 	}
 
+	/**
+	 * Verify that inequalities between variables with the same finite data range are satisfiable only if there are
+	 * enough values, also when the normalized data range is reused between the checks.
+	 * 
+	 * @throws UnrecognizedDatatypeException
+	 * @throws InvalidLiteralException
+	 * @throws InvalidConstrainingFacetException
+	 */
+	@Test
+	public void integerInequalities() throws InvalidConstrainingFacetException, InvalidLiteralException,
+	                UnrecognizedDatatypeException {
+		final ATermAppl oneOrTwo = restrict(INTEGER, minInclusive(literal(1)), maxInclusive(literal(2)));
+
+		final Literal x = new Literal(term("x"), null, abox, DependencySet.INDEPENDENT);
+		final Literal y = new Literal(term("y"), null, abox, DependencySet.INDEPENDENT);
+		final Literal z = new Literal(term("z"), null, abox, DependencySet.INDEPENDENT);
+		for (Literal l : Arrays.asList(x, y, z)) {
+			l.addType(oneOrTwo, DependencySet.INDEPENDENT);
+		}
+
+		final Set<Literal> nodes = new HashSet<Literal>(Arrays.asList(x, y, z));
+
+		final Map<Literal, Set<Literal>> chain = new HashMap<Literal, Set<Literal>>();
+		chain.put(x, Collections.singleton(y));
+		chain.put(y, new HashSet<Literal>(Arrays.asList(x, z)));
+		chain.put(z, Collections.singleton(y));
+		assertTrue(reasoner.isSatisfiable(nodes, chain));
+
+		final Map<Literal, Set<Literal>> clique = new HashMap<Literal, Set<Literal>>();
+		clique.put(x, new HashSet<Literal>(Arrays.asList(y, z)));
+		clique.put(y, new HashSet<Literal>(Arrays.asList(x, z)));
+		clique.put(z, new HashSet<Literal>(Arrays.asList(x, y)));
+		assertFalse(reasoner.isSatisfiable(nodes, clique));
+	}
+
+	/**
+	 * Verify that the results computed for a declared datatype are not reused after it is defined.
+	 * 
+	 * @throws UnrecognizedDatatypeException
+	 * @throws InvalidLiteralException
+	 * @throws InvalidConstrainingFacetException
+	 */
+	@Test
+	public void defineAfterSatisfiability() throws InvalidConstrainingFacetException, InvalidLiteralException,
+	                UnrecognizedDatatypeException {
+		final ATermAppl d = term("D");
+		final Collection<ATermAppl> dataranges = Arrays.asList(d, INTEGER);
+
+		reasoner.declare(d);
+		assertFalse(reasoner.isSatisfiable(dataranges));
+
+		reasoner.define(d, restrict(INTEGER, minInclusive(literal(1))));
+		assertTrue(reasoner.isSatisfiable(dataranges));
+		assertFalse(reasoner.isSatisfiable(dataranges, reasoner.getValue(literal(0))));
+	}
+
+	/**
+	 * Verify that a set of data ranges modified after a satisfiability check is not matched with the result computed
+	 * for its previous contents.
+	 * 
+	 * @throws UnrecognizedDatatypeException
+	 * @throws InvalidLiteralException
+	 * @throws InvalidConstrainingFacetException
+	 */
+	@Test
+	public void modifiedDataRangeSet() throws InvalidConstrainingFacetException, InvalidLiteralException,
+	                UnrecognizedDatatypeException {
+		final ATermAppl positive = restrict(INTEGER, minInclusive(literal(1)));
+		final ATermAppl negative = restrict(INTEGER, maxInclusive(literal(-1)));
+		final Set<ATermAppl> dataranges = new HashSet<ATermAppl>(Arrays.asList(positive, negative));
+
+		assertFalse(reasoner.isSatisfiable(dataranges));
+
+		dataranges.remove(negative);
+		assertTrue(reasoner.isSatisfiable(dataranges));
+		assertFalse(reasoner.isSatisfiable(dataranges, reasoner.getValue(literal(0))));
+
+		dataranges.add(negative);
+		assertFalse(reasoner.isSatisfiable(dataranges));
+	}
+
+	/**
+	 * Verify that the results are not affected by the entries evicted from a full cache.
+	 * 
+	 * @throws UnrecognizedDatatypeException
+	 * @throws InvalidLiteralException
+	 * @throws InvalidConstrainingFacetException
+	 */
+	@Test
+	public void smallDataRangeCache() throws InvalidConstrainingFacetException, InvalidLiteralException,
+	                UnrecognizedDatatypeException {
+		final int oldSize = PelletOptions.MAX_DATA_RANGE_CACHE;
+		PelletOptions.MAX_DATA_RANGE_CACHE = 2;
+		try {
+			final DatatypeReasoner small = new DatatypeReasonerImpl();
+			for (int round = 0; round < 2; round++) {
+				for (int i = 0; i < 5; i++) {
+					final ATermAppl range = restrict(INTEGER, minInclusive(literal(i)), maxInclusive(literal(i + 1)));
+					assertTrue(small.isSatisfiable(singleton(range)));
+					assertTrue(small.containsAtLeast(2, singleton(range)));
+					assertFalse(small.containsAtLeast(3, singleton(range)));
+					assertFalse(small.isSatisfiable(singleton(range), small.getValue(literal(i + 2))));
+				}
+			}
+		}
+		finally {
+			PelletOptions.MAX_DATA_RANGE_CACHE = oldSize;
+		}
+	}
+
 	@Test
 	public void integerExclusiveIntervalExtreme() throws InvalidConstrainingFacetException, InvalidLiteralException,
 	                UnrecognizedDatatypeException {
@@ -17,13 +17,24 @@ import static com.clarkparsia.pellet.utils.TermFactory.inv;
 import static com.clarkparsia.pellet.utils.TermFactory.list;
 import static com.clarkparsia.pellet.utils.TermFactory.max;
 import static com.clarkparsia.pellet.utils.TermFactory.not;
+import static com.clarkparsia.pellet.utils.TermFactory.or;
 import static com.clarkparsia.pellet.utils.TermFactory.some;
+import static com.clarkparsia.pellet.utils.TermFactory.value;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import junit.framework.JUnit4TestAdapter;
 
+import java.util.List;
+
 import org.junit.Test;
+import org.mindswap.pellet.ABox;
+import org.mindswap.pellet.DependencySet;
+import org.mindswap.pellet.Individual;
+import org.mindswap.pellet.KnowledgeBase;
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.tableau.blocking.DoubleBlocking;
+import org.mindswap.pellet.tableau.blocking.SubsetBlocking;
 import org.mindswap.pellet.test.AbstractKBTests;
 import org.mindswap.pellet.test.MiscTests;
 
@@ -176,4 +187,107 @@ public class BlockingTests extends AbstractKBTests {
 		assertTrue( kb.isSatisfiable( A ) );
 	}	
 
-}
\ No newline at end of file
+	@Test
+	public void indexedAnywhereBlocking() {
+		boolean oldIndexed = PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING;
+		try {
+			for( boolean indexed : new boolean[] { true, false } ) {
+				PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING = indexed;
+
+				kb = new KnowledgeBase();
+				classes( A, B, C, D );
+				objectProperties( p, q );
+
+				kb.addSubClass( C, some( p, D ) );
+				kb.addSubClass( D, some( q, C ) );
+				kb.addSubClass( C, or( A, B ) );
+				kb.addSubClass( D, some( p, and( C, A ) ) );
+				kb.addSubClass( and( D, some( q, A ) ), BOTTOM );
+
+				assertTrue( kb.isConsistent() );
+
+				assertTrue( kb.isSatisfiable( C ) );
+				assertFalse( kb.isSatisfiable( and( C, all( p, some( q, A ) ) ) ) );
+			}
+		}
+		finally {
+			PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING = oldIndexed;
+		}
+	}
+
+	@Test
+	public void indexedAnywhereBlockingWithCopyOnWrite() {
+		// the index is used with the default options
+		assertTrue( PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING );
+
+		classes( A, C, D );
+		objectProperties( p, q );
+		individuals( a );
+
+		// the satisfiability checks reach the nominal a and copy the
+		// individuals of the ABox after blocker candidates have been indexed
+		kb.addSubClass( D, some( q, D ) );
+		kb.addType( a, D );
+		kb.addSubClass( C, some( q, and( D, A ) ) );
+		kb.addSubClass( C, some( p, value( a ) ) );
+
+		assertTrue( kb.isConsistent() );
+		assertTrue( kb.isSatisfiable( C ) );
+		assertFalse( kb.isSatisfiable( and( C, all( q, not( D ) ) ) ) );
+	}
+
+	@Test
+	public void indexedSubsetBlocker() {
+		boolean oldIndexed = PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING;
+		try {
+			classes( A, B, C );
+			objectProperties( p, q );
+			individuals( a );
+
+			kb.prepare();
+
+			// a -p-> y {A, B} and a -q-> z {C} -q-> x {A}: the label of y is a
+			// strict superset of the label of x so y can only be found as a
+			// subset blocker
+			ABox abox = kb.getABox();
+			Individual root = abox.getIndividual( a );
+			Individual y = abox.addFreshIndividual( root, DependencySet.INDEPENDENT );
+			root.addEdge( abox.getRole( p ), y, DependencySet.INDEPENDENT );
+			y.addType( A, DependencySet.INDEPENDENT );
+			y.addType( B, DependencySet.INDEPENDENT );
+			Individual z = abox.addFreshIndividual( root, DependencySet.INDEPENDENT );
+			root.addEdge( abox.getRole( q ), z, DependencySet.INDEPENDENT );
+			z.addType( C, DependencySet.INDEPENDENT );
+			Individual x = abox.addFreshIndividual( z, DependencySet.INDEPENDENT );
+			z.addEdge( abox.getRole( q ), x, DependencySet.INDEPENDENT );
+			x.addType( A, DependencySet.INDEPENDENT );
+
+			List<Individual> candidates = abox.getBlockingIndex().getCandidates( x, false );
+			assertEquals( 1, candidates.size() );
+			assertTrue( candidates.contains( y ) );
+
+			// the incoming role of y is different
+			assertTrue( abox.getBlockingIndex().getCandidates( x, true ).isEmpty() );
+
+			for( boolean indexed : new boolean[] { true, false } ) {
+				PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING = indexed;
+
+				x.setBlocked( false );
+				assertTrue( SubsetBlocking.getInstance().isBlocked( x ) );
+
+				x.setBlocked( false );
+				assertFalse( DoubleBlocking.getInstance().isBlocked( x ) );
+			}
+
+			// the index is updated when the label of the blocker changes
+			y.removeType( B );
+			assertTrue( abox.getBlockingIndex().getCandidates( x, false ).contains( y ) );
+			y.removeType( A );
+			assertTrue( abox.getBlockingIndex().getCandidates( x, false ).isEmpty() );
+		}
+		finally {
+			PelletOptions.USE_INDEXED_ANYWHERE_BLOCKING = oldIndexed;
+		}
+	}
+
+}
@@ -9,11 +9,17 @@ package com.clarkparsia.pellet.test.classification;
 import static com.clarkparsia.pellet.utils.TermFactory.all;
 import static com.clarkparsia.pellet.utils.TermFactory.inv;
 import static com.clarkparsia.pellet.utils.TermFactory.list;
+import static com.clarkparsia.pellet.utils.TermFactory.not;
 import static com.clarkparsia.pellet.utils.TermFactory.some;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import junit.framework.JUnit4TestAdapter;
 
 import org.junit.Test;
+import org.mindswap.pellet.PelletOptions;
+import org.mindswap.pellet.taxonomy.TaxonomyBuilder;
 import org.mindswap.pellet.test.AbstractKBTests;
 
 /**
@@ -88,4 +94,57 @@ public class SimpleClassificationTests extends AbstractKBTests {
 		
 		assertTrue( kb.isSubClassOf( C, E ) );
 	}
+	
+	@Test
+	public void incrementalClassification() {
+		boolean oldIncremental = PelletOptions.USE_INCREMENTAL_CLASSIFICATION;
+		PelletOptions.USE_INCREMENTAL_CLASSIFICATION = true;
+		try {
+			classes( A, B, C, D, E );
+			objectProperties( p );
+
+			kb.addSubClass( A, B );
+			kb.addSubClass( C, all( p, D ) );
+			kb.addSubClass( E, D );
+
+			kb.classify();
+
+			TaxonomyBuilder builder = kb.getTaxonomyBuilder();
+
+			assertEquals( singletonSets( B ), kb.getSuperClasses( A, true ) );
+			assertFalse( kb.isSubClassOf( A, C ) );
+
+			// A is affected through B
+			kb.addSubClass( B, C );
+
+			kb.classify();
+
+			assertSame( builder, kb.getTaxonomyBuilder() );
+			assertEquals( singletonSets( B ), kb.getSuperClasses( A, true ) );
+			assertEquals( singletonSets( C ), kb.getSuperClasses( B, true ) );
+			assertEquals( singletonSets( B ), kb.getSubClasses( C, true ) );
+			assertTrue( kb.isSubClassOf( A, C ) );
+			assertEquals( singletonSets( D ), kb.getSuperClasses( E, true ) );
+
+			kb.addSubClass( A, not( C ) );
+
+			kb.classify();
+
+			assertSame( builder, kb.getTaxonomyBuilder() );
+			assertFalse( kb.isSatisfiable( A ) );
+			assertTrue( kb.isSubClassOf( B, C ) );
+
+			// D and E are affected and become equivalent
+			kb.addSubClass( D, E );
+
+			kb.classify();
+
+			assertSame( builder, kb.getTaxonomyBuilder() );
+			assertTrue( kb.isEquivalentClass( D, E ) );
+			assertTrue( kb.isSubClassOf( B, C ) );
+			assertFalse( kb.isSatisfiable( A ) );
+		} finally {
+			PelletOptions.USE_INCREMENTAL_CLASSIFICATION = oldIncremental;
+		}
+	}
 }
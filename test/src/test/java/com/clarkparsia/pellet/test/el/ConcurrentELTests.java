@@ -0,0 +1,33 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package com.clarkparsia.pellet.test.el;
+
+import junit.framework.JUnit4TestAdapter;
+
+import com.clarkparsia.pellet.el.ConcurrentELClassifier;
+
+/**
+ * <p>
+ * Title: Concurrent EL Tests
+ * </p>
+ * <p>
+ * Description: Runs the EL tests with {@link ConcurrentELClassifier}.
+ * </p>
+ * <p>
+ * Company: Clark & Parsia, LLC. <http://www.clarkparsia.com>
+ * </p>
+ * 
+ */
+public class ConcurrentELTests extends ELTests {
+	public static junit.framework.Test suite() {
+		return new JUnit4TestAdapter( ConcurrentELTests.class );
+	}
+
+	public ConcurrentELTests() {
+		super( ConcurrentELClassifier.class );
+	}
+}
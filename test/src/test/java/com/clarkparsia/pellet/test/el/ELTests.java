@@ -6,14 +6,17 @@
 
 package com.clarkparsia.pellet.test.el;
 
+import static com.clarkparsia.pellet.utils.TermFactory.all;
 import static com.clarkparsia.pellet.utils.TermFactory.and;
 import static com.clarkparsia.pellet.utils.TermFactory.inv;
 import static com.clarkparsia.pellet.utils.TermFactory.list;
+import static com.clarkparsia.pellet.utils.TermFactory.not;
 import static com.clarkparsia.pellet.utils.TermFactory.some;
 import static com.clarkparsia.pellet.utils.TermFactory.term;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -74,7 +77,11 @@ public class ELTests extends AbstractKBTests {
 	}
 
 	public ELTests() {
-		this.builderClass = SimplifiedELClassifier.class ;
+		this( SimplifiedELClassifier.class );
+	}
+
+	protected ELTests(Class<? extends TaxonomyBuilder> builderClass) {
+		this.builderClass = builderClass;
 	}
 
 	public Taxonomy<ATermAppl> getHierarchy() {
@@ -935,6 +942,28 @@ builder.setProgressMonitor( new SilentProgressMonitor() );
 
 		assertEquals( singletonSets( A ), hierarchy.getSubs( B, true ) );
 	}	
+
+	@Test
+	public void testSuperPropertyDomainRangeWithChain() {
+		classes(A, B, C, D, E, F);
+		objectProperties(p, q, r, s);
+
+		kb.addSubProperty( p, q );
+		kb.addSubProperty( list( p, r ), s );
+		kb.addDomain( q, D );
+		kb.addRange( q, C );
+		kb.addDomain( s, F );
+		kb.addSubClass( A, some( p, B ) );
+		kb.addSubClass( B, some( r, B ) );
+		kb.addEquivalentClass( E, some( p, and( B, C ) ) );
+
+		Taxonomy<ATermAppl> hierarchy = getHierarchy();
+
+		assertTrue( hierarchy.isSubNodeOf( A, D ).isTrue() );
+		assertTrue( hierarchy.isSubNodeOf( A, E ).isTrue() );
+		assertTrue( hierarchy.isSubNodeOf( A, F ).isTrue() );
+		assertFalse( hierarchy.isSubNodeOf( B, D ).isTrue() );
+	}
 	
 	/**
 	 * Tests to verify whether PelletOptions.DISABLE_EL_CLASSIFIER = false is respected. (Ticket #461)
@@ -1027,4 +1056,84 @@ builder.setProgressMonitor( new SilentProgressMonitor() );
 
 		assertFalse(SimplifiedELClassifier.class.equals(kb.getTaxonomyBuilder().getClass()));
 	}
+	
+	@Test
+	public void testIncrementalExpressivity() {
+		classes(C, D);
+		objectProperties(p);
+		individuals(a);
+		
+		kb.addSubClass(C, some(p, D));
+		kb.addType(a, C);
+		
+		assertTrue(kb.getExpressivity().isEL());
+		
+		// additions update the previous expressivity
+		kb.addType(a, all(p, D));
+		
+		assertFalse(kb.getExpressivity().isEL());
+		assertTrue(kb.getExpressivity().hasAllValues());
+		assertTrue(kb.getExpressivity().hasIndividual());
+		
+		kb.addFunctionalProperty(p);
+		
+		assertTrue(kb.getExpressivity().hasFunctionality());
+		
+		kb.addSubClass(D, not(C));
+		
+		assertTrue(kb.getExpressivity().hasNegation());
+		
+		// deletions cause the expressivity to be recomputed
+		kb.removeType(a, all(p, D));
+		
+		assertTrue(kb.getExpressivity().hasFunctionality());
+		assertTrue(kb.getExpressivity().hasNegation());
+	}
+	
+	@Test
+	public void testIncrementalClassification() {
+		boolean oldTracing = PelletOptions.USE_TRACING;
+		boolean oldIncremental = PelletOptions.USE_INCREMENTAL_CLASSIFICATION;
+		PelletOptions.USE_TRACING = true;
+		PelletOptions.USE_INCREMENTAL_CLASSIFICATION = true;
+		try {
+			classes(A, B, C, D, E);
+			objectProperties(p);
+			
+			kb.addSubClass(A, B);
+			kb.addSubClass(B, some(p, C));
+			kb.addSubClass(some(p, D), E);
+			
+			kb.classify();
+			
+			TaxonomyBuilder builder = kb.getTaxonomyBuilder();
+			
+			assertTrue(builder instanceof SimplifiedELClassifier);
+			assertFalse(kb.isSubClassOf(A, E));
+			
+			// A and B are affected through the successor of B
+			kb.addSubClass(C, D);
+			
+			kb.classify();
+			
+			assertSame(builder, kb.getTaxonomyBuilder());
+			assertTrue(kb.isSubClassOf(A, E));
+			assertTrue(kb.isSubClassOf(B, E));
+			
+			// subsumers derived from the removed axiom are retracted 
+			assertTrue(kb.removeAxiom(ATermUtils.makeSub(B, some(p, C))));
+			
+			kb.classify();
+			
+			assertSame(builder, kb.getTaxonomyBuilder());
+			assertTrue(kb.isSubClassOf(A, B));
+			assertTrue(kb.isSubClassOf(C, D));
+			assertFalse(kb.isSubClassOf(A, E));
+			assertFalse(kb.isSubClassOf(B, E));
+		}
+		finally {
+			PelletOptions.USE_TRACING = oldTracing;
+			PelletOptions.USE_INCREMENTAL_CLASSIFICATION = oldIncremental;
+		}
+	}
 }
\ No newline at end of file
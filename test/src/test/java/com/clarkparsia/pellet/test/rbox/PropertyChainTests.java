@@ -201,6 +201,38 @@ public class PropertyChainTests extends AbstractKBTests {
 		assertTrue( kb.hasPropertyValue( a, r, c ) );
 		assertEquals( Arrays.asList( c ), kb.getPropertyValues( r, a ) );
 	}
+	
+	@Test
+	public void testPropertyChainValuesWithCycle() {
+		KnowledgeBase kb = new KnowledgeBase();
+
+		ATermAppl p = term( "p" );
+		ATermAppl q = term( "q" );
+		ATermAppl r = term( "r" );
+		ATermAppl a = term( "a" );
+		ATermAppl b = term( "b" );
+		ATermAppl c = term( "c" );
+		ATermAppl d = term( "d" );
+
+		kb.addObjectProperty( p );
+		kb.addObjectProperty( q );
+		kb.addObjectProperty( r );
+		kb.addSubProperty( p, r );
+		kb.addSubProperty( list( r, q ), r );
+
+		kb.addIndividual( a );
+		kb.addIndividual( b );
+		kb.addIndividual( c );
+		kb.addIndividual( d );
+		kb.addPropertyValue( p, a, b );
+		kb.addPropertyValue( q, b, c );
+		kb.addPropertyValue( q, c, b );
+		kb.addPropertyValue( q, c, d );
+
+		assertIteratorValues( kb.getPropertyValues( r, a ).iterator(), new ATermAppl[] { b, c, d } );
+		assertTrue( kb.getPropertyValues( r, b ).isEmpty() );
+		assertTrue( kb.hasPropertyValue( a, r, d ) );
+	}
 
 	
 	
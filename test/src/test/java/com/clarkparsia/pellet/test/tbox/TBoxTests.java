@@ -7,6 +7,7 @@
 package com.clarkparsia.pellet.test.tbox;
 
 import static com.clarkparsia.pellet.utils.TermFactory.and;
+import static com.clarkparsia.pellet.utils.TermFactory.TOP;
 import static com.clarkparsia.pellet.utils.TermFactory.inv;
 import static com.clarkparsia.pellet.utils.TermFactory.or;
 import static com.clarkparsia.pellet.utils.TermFactory.some;
@@ -21,6 +22,7 @@ import static org.mindswap.pellet.utils.ATermUtils.makeOr;
 import static org.mindswap.pellet.utils.ATermUtils.makeSub;
 
 import java.util.Collections;
+import java.util.List;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -172,4 +174,65 @@ public class TBoxTests extends AbstractKBTests {
 			PelletOptions.USE_TRACING = oldTracing;
 		}
 	}
+
+	/**
+	 * Test that axioms added after the TBox has been prepared are processed
+	 * without losing or duplicating the results of the previous preparation
+	 * and removals cause the TBox to be processed again.
+	 */
+	@Test
+	public void incrementalPrepare() {
+		boolean oldTracing = PelletOptions.USE_TRACING;
+		boolean oldIncremental = PelletOptions.USE_INCREMENTAL_TBOX_PREPARATION;
+		PelletOptions.USE_TRACING = true;
+		PelletOptions.USE_INCREMENTAL_TBOX_PREPARATION = true;
+		try {
+			classes( A, B, C, D );
+
+			ATermAppl axiom1 = makeSub( A, B );
+			assertTrue( tbox.addAxiom( axiom1 ) );
+
+			ATermAppl gci1 = makeSub( makeNot( C ), D );
+			assertTrue( tbox.addAxiom( gci1 ) );
+
+			prepareTBox();
+
+			assertEquals( 1, IteratorUtils.toList( tbox.unfold( TOP ) ).size() );
+
+			ATermAppl axiom2 = makeSub( A, C );
+			assertTrue( tbox.addAxiom( axiom2 ) );
+
+			ATermAppl gci2 = makeSub( makeNot( A ), D );
+			assertTrue( tbox.addAxiom( gci2 ) );
+
+			prepareTBox();
+
+			List<Unfolding> unfoldA = IteratorUtils.toList( tbox.unfold( A ) );
+			assertEquals( 2, unfoldA.size() );
+			assertTrue( unfoldA.contains( Unfolding.create( B, Collections.singleton( axiom1 ) ) ) );
+			assertTrue( unfoldA.contains( Unfolding.create( C, Collections.singleton( axiom2 ) ) ) );
+
+			List<Unfolding> unfoldTop = IteratorUtils.toList( tbox.unfold( TOP ) );
+			assertEquals( 2, unfoldTop.size() );
+			assertEquals( Collections.singleton( gci1 ), unfoldTop.get( 0 ).getExplanation() );
+			assertEquals( Collections.singleton( gci2 ), unfoldTop.get( 1 ).getExplanation() );
+
+			// nothing changed so nothing should be added
+			prepareTBox();
+
+			assertEquals( 2, IteratorUtils.toList( tbox.unfold( A ) ).size() );
+			assertEquals( 2, IteratorUtils.toList( tbox.unfold( TOP ) ).size() );
+
+			assertTrue( tbox.removeAxiom( gci1 ) );
+
+			prepareTBox();
+
+			unfoldTop = IteratorUtils.toList( tbox.unfold( TOP ) );
+			assertEquals( 1, unfoldTop.size() );
+			assertEquals( Collections.singleton( gci2 ), unfoldTop.get( 0 ).getExplanation() );
+		} finally {
+			PelletOptions.USE_TRACING = oldTracing;
+			PelletOptions.USE_INCREMENTAL_TBOX_PREPARATION = oldIncremental;
+		}
+	}
 }
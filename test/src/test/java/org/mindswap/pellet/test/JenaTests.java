@@ -21,9 +21,11 @@ import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -3481,4 +3483,105 @@ public class JenaTests {
 		assertTrue(graph.isClassified());
 	}
 
+	@Test
+	public void testIndexedWildcardFind() {
+		boolean oldIndex = PelletOptions.INDEX_INFERRED_TRIPLES;
+		try {
+			PelletOptions.INDEX_INFERRED_TRIPLES = true;
+
+			String ns = "urn:test:";
+
+			OntModel model = ModelFactory.createOntologyModel( PelletReasonerFactory.THE_SPEC );
+
+			OntClass A = model.createClass( ns + "A" );
+			OntClass B = model.createClass( ns + "B" );
+			ObjectProperty p = model.createObjectProperty( ns + "p" );
+			ObjectProperty q = model.createObjectProperty( ns + "q" );
+			Individual a = model.createIndividual( ns + "a", A );
+			Individual b = model.createIndividual( ns + "b", OWL.Thing );
+			Individual c = model.createIndividual( ns + "c", OWL.Thing );
+
+			A.addSuperClass( B );
+			p.addSuperProperty( q );
+			a.addProperty( p, b );
+			a.addLabel( "a", null );
+
+			List<Statement> stmts = model.listStatements( a, null, (RDFNode) null ).toList();
+			assertEquals( stmts.size(), new HashSet<Statement>( stmts ).size() );
+			assertTrue( stmts.contains( model.createStatement( a, RDF.type, B ) ) );
+			assertTrue( stmts.contains( model.createStatement( a, q, b ) ) );
+			assertTrue( stmts.contains( model.createStatement( a, RDFS.label, "a" ) ) );
+
+			stmts = model.listStatements( null, null, b ).toList();
+			assertEquals( stmts.size(), new HashSet<Statement>( stmts ).size() );
+			assertTrue( stmts.contains( model.createStatement( a, p, b ) ) );
+			assertTrue( stmts.contains( model.createStatement( a, q, b ) ) );
+
+			a.addProperty( p, c );
+
+			stmts = model.listStatements( a, null, c ).toList();
+			assertEquals( stmts.size(), new HashSet<Statement>( stmts ).size() );
+			assertTrue( stmts.contains( model.createStatement( a, p, c ) ) );
+			assertTrue( stmts.contains( model.createStatement( a, q, c ) ) );
+		} finally {
+			PelletOptions.INDEX_INFERRED_TRIPLES = oldIndex;
+		}
+	}
+
+	@Test
+	public void testIndexedWildcardFindMatchesReasoner() {
+		boolean oldIndex = PelletOptions.INDEX_INFERRED_TRIPLES;
+		try {
+			String ns = "urn:test:";
+
+			OntModel model = ModelFactory.createOntologyModel( PelletReasonerFactory.THE_SPEC );
+
+			OntClass A = model.createClass( ns + "A" );
+			OntClass B = model.createClass( ns + "B" );
+			OntClass C = model.createClass( ns + "C" );
+			ObjectProperty p = model.createObjectProperty( ns + "p" );
+			ObjectProperty q = model.createObjectProperty( ns + "q" );
+			ObjectProperty r = model.createObjectProperty( ns + "r" );
+			DatatypeProperty d = model.createDatatypeProperty( ns + "d", true );
+			Individual a = model.createIndividual( ns + "a", A );
+			Individual b = model.createIndividual( ns + "b", OWL.Thing );
+
+			A.addSuperClass( B );
+			C.addDisjointWith( A );
+			p.addSuperProperty( q );
+			p.addDomain( A );
+			p.addRange( B );
+			r.addInverseOf( q );
+			d.addDomain( C );
+			a.addProperty( p, b );
+			a.addLiteral( d, 1 );
+
+			Resource[] subjects = { A, B, C, p, q, r, d, a, b, null };
+			for( Resource s : subjects ) {
+				PelletOptions.INDEX_INFERRED_TRIPLES = false;
+				Set<Statement> expected = model.listStatements( s, null, (RDFNode) null ).toSet();
+
+				PelletOptions.INDEX_INFERRED_TRIPLES = true;
+				List<Statement> actual = model.listStatements( s, null, (RDFNode) null ).toList();
+
+				assertEquals( "Subject: " + s, expected, new HashSet<Statement>( actual ) );
+				assertEquals( "Subject: " + s, actual.size(), expected.size() );
+			}
+
+			Resource[] objects = { A, p, a, b };
+			for( Resource o : objects ) {
+				PelletOptions.INDEX_INFERRED_TRIPLES = false;
+				Set<Statement> expected = model.listStatements( null, null, o ).toSet();
+
+				PelletOptions.INDEX_INFERRED_TRIPLES = true;
+				List<Statement> actual = model.listStatements( null, null, o ).toList();
+
+				assertEquals( "Object: " + o, expected, new HashSet<Statement>( actual ) );
+				assertEquals( "Object: " + o, actual.size(), expected.size() );
+			}
+		} finally {
+			PelletOptions.INDEX_INFERRED_TRIPLES = oldIndex;
+		}
+	}
+
 }
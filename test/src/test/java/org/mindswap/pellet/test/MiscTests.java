@@ -37,6 +37,7 @@ import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mindswap.pellet.test.PelletTestCase.assertIteratorValues;
 import static org.mindswap.pellet.test.PelletTestCase.assertNotSubClass;
@@ -58,7 +59,11 @@ import junit.framework.JUnit4TestAdapter;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mindswap.pellet.ABox;
 import org.mindswap.pellet.Clash;
+import org.mindswap.pellet.DataValueIndex;
+import org.mindswap.pellet.DependencySet;
+import org.mindswap.pellet.Individual;
 import org.mindswap.pellet.KBLoader;
 import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.PelletOptions;
@@ -70,6 +75,7 @@ import org.mindswap.pellet.utils.ATermUtils;
 import org.mindswap.pellet.utils.FileUtils;
 import org.mindswap.pellet.utils.SetUtils;
 import org.mindswap.pellet.utils.TaxonomyUtils;
+import org.mindswap.pellet.utils.Timer;
 import org.mindswap.pellet.utils.iterator.FlattenningIterator;
 import org.mindswap.pellet.utils.iterator.IteratorUtils;
 
@@ -2405,6 +2411,295 @@ public class MiscTests extends AbstractKBTests {
 		}
 
 	}
-}
 
+	@Test
+	public void testParallelDisjunctions() {
+		Properties newOptions = PropertiesBuilder.singleton("USE_PARALLEL_DISJUNCTIONS", "true");
+		Properties oldOptions = PelletOptions.setOptions( newOptions );
+
+		try {
+			classes(A, B, C, D);
+			individuals(a, b, c);
+			objectProperties(p);
+
+			kb.addType(a, or(A, B, C));
+			kb.addType(a, not(A));
+			kb.addType(a, not(B));
+			kb.addType(b, or(A, B));
+			kb.addSubClass(B, some(p, D));
+			kb.addPropertyValue(p, b, c);
+
+			assertTrue(kb.isConsistent());
+
+			// the disjuncts of the first disjunction have been explored in parallel
+			Timer timer = kb.timers.getTimer("parallelDisjunctions");
+			assertNotNull(timer);
+			assertTrue(timer.getCount() > 0);
+
+			assertTrue(kb.isType(a, C));
+			assertFalse(kb.isType(b, A));
+			assertFalse(kb.isType(b, B));
+			assertTrue(kb.isType(b, or(A, B)));
+
+			kb.addType(b, not(A));
+			kb.addType(c, not(D));
+
+			assertTrue(kb.isConsistent());
+			assertTrue(kb.isType(b, B));
+
+			kb.addType(b, all(p, not(D)));
+
+			assertFalse(kb.isConsistent());
+		}
+		finally {
+			PelletOptions.setOptions(oldOptions);
+		}
+	}
+
+	@Test
+	public void testParallelDisjunctionsAllClash() {
+		Properties newOptions = PropertiesBuilder.singleton("USE_PARALLEL_DISJUNCTIONS", "true");
+		Properties oldOptions = PelletOptions.setOptions( newOptions );
+
+		try {
+			classes(A, B, C);
+			individuals(a);
+
+			kb.addType(a, or(A, B));
+			kb.addType(a, not(A));
+			kb.addType(a, C);
+			kb.addSubClass(B, not(C));
+
+			// every disjunct of the forked branch clashes so the adopted copy
+			// is closed and must not be backtracked again
+			assertFalse(kb.isConsistent());
+
+			Timer timer = kb.timers.getTimer("parallelDisjunctions");
+			assertNotNull(timer);
+			assertTrue(timer.getCount() > 0);
+		}
+		finally {
+			PelletOptions.setOptions(oldOptions);
+		}
+	}
+
+	@Test
+	public void testNogoodCache() {
+		classes(A, B, C, D);
+		individuals(a);
+		objectProperties(p);
+
+		kb.addSubClass(A, some(p, C));
+		kb.addSubClass(B, all(p, not(C)));
+		kb.addType(a, A);
+		kb.addType(a, or(B, D));
+
+		assertFalse(kb.isSatisfiable(and(A, B)));
+		assertTrue(kb.getABox().getNogoods().size() > 0);
+
+		assertTrue(kb.isConsistent());
+		assertTrue(kb.isType(a, D));
+		assertFalse(kb.isType(a, B));
+		assertTrue(kb.isSatisfiable(and(A, D)));
+		assertFalse(kb.isSatisfiable(and(A, B, D)));
+	}
+
+	@Test
+	public void testNogoodLearnedFromBackjump() {
+		classes(A, B, C);
+		individuals(a);
+		objectProperties(p);
+
+		kb.addSubClass(A, some(p, C));
+
+		// all(p, not(C)) is the preferred disjunct so it is tried first
+		ATermAppl disj = or(B, all(p, not(C)));
+		assertTrue(kb.isSatisfiable(and(A, disj)));
+
+		// the conjunction is satisfiable so the nogood comes from the clash
+		// caused by the first disjunct
+		assertFalse(kb.getABox().getNogoods().isEmpty());
+
+		kb.addType(a, A);
+		kb.addType(a, disj);
+
+		assertTrue(kb.isConsistent());
+		// the first disjunct is pruned so no branch is created
+		assertTrue(kb.getABox().getBranches().isEmpty());
+		assertTrue(kb.isType(a, B));
+	}
+
+	@Test
+	public void testABoxCopySharesLabelsLazily() {
+		classes(A, B, C);
+		individuals(a, b);
+
+		kb.addType(a, A);
+		kb.addType(b, A);
+
+		assertTrue(kb.isConsistent());
+
+		ABox abox = kb.getABox();
+		ABox copy = abox.copy();
+		Individual original = abox.getIndividual(a);
+		Individual copied = copy.getIndividual(a);
+
+		copied.addType(B, DependencySet.INDEPENDENT);
+		original.addType(C, DependencySet.INDEPENDENT);
+
+		assertTrue(copied.hasType(B));
+		assertFalse(copied.hasType(C));
+		assertTrue(original.hasType(C));
+		assertFalse(original.hasType(B));
+
+		// a copy-on-write copy does not copy any individual until one of them
+		// needs to be modified
+		ABox cow = abox.copy(term("x"), true);
+		assertTrue(cow.getIndividual(a) == null);
+		cow.copyOnWrite();
+		assertTrue(cow.getIndividual(b).hasType(A));
+		cow.getIndividual(b).addType(B, DependencySet.INDEPENDENT);
+		assertFalse(abox.getIndividual(b).hasType(B));
+		assertTrue(cow.getIndividual(a).hasType(C));
+	}
+
+	@Test
+	public void testDisjunctSortingWithPrunedBranches() {
+		classes(A, B, C, D, E, F);
+		individuals(b, c, d, e);
+		objectProperties(p);
+
+		kb.addSubClass(A, some(p, C));
+		kb.addSubClass(B, all(p, not(C)));
+
+		assertFalse(kb.isSatisfiable(and(A, B)));
+		assertFalse(kb.getABox().getNogoods().isEmpty());
+
+		// b branches on all the disjuncts before B is pruned for c
+		kb.addType(b, not(B));
+		kb.addType(b, not(D));
+		kb.addType(b, or(B, D, E));
+		kb.addType(c, A);
+		kb.addType(c, or(B, D, E));
 
+		// d branches on the pruned disjunction before e tries all the disjuncts
+		kb.addType(d, A);
+		kb.addType(d, or(B, E, F));
+		kb.addType(e, not(B));
+		kb.addType(e, not(E));
+		kb.addType(e, or(B, E, F));
+
+		assertTrue(kb.isConsistent());
+		assertTrue(kb.isType(b, E));
+		assertTrue(kb.isType(c, or(D, E)));
+		assertFalse(kb.isType(c, B));
+		assertTrue(kb.isType(d, or(E, F)));
+		assertTrue(kb.isType(e, F));
+	}
+
+	@Test
+	public void testWorklistCompletion() {
+		boolean oldWorklist = PelletOptions.USE_WORKLIST_COMPLETION;
+		try {
+			for( boolean worklist : new boolean[] { true, false } ) {
+				PelletOptions.USE_WORKLIST_COMPLETION = worklist;
+
+				kb = new KnowledgeBase();
+				classes(C, D);
+				individuals(a, b, c);
+				objectProperties(p);
+
+				// c gets C only after the disjunction is applied so the max
+				// rule on a should be applied again after c is modified
+				kb.addType(a, max(p, 1, C));
+				kb.addPropertyValue(p, a, b);
+				kb.addPropertyValue(p, a, c);
+				kb.addType(b, C);
+				kb.addType(c, or(C, D));
+				kb.addType(c, not(D));
+
+				assertTrue(kb.isConsistent());
+				assertTrue(kb.isSameAs(b, c));
+
+				kb.addDifferent(b, c);
+
+				assertFalse(kb.isConsistent());
+			}
+		}
+		finally {
+			PelletOptions.USE_WORKLIST_COMPLETION = oldWorklist;
+		}
+	}
+
+	@Test
+	public void testDataPropertyValuesInRange() {
+		dataProperties( p, q );
+		individuals( a, b, c, d, e );
+
+		kb.addSubProperty( q, p );
+
+		kb.addPropertyValue( p, a, literal( 3 ) );
+		kb.addPropertyValue( p, a, literal( "foo" ) );
+		kb.addPropertyValue( p, b, literal( 5 ) );
+		kb.addPropertyValue( q, c, literal( 7 ) );
+		kb.addPropertyValue( p, d, literal( 12 ) );
+		kb.addType( e, or( hasValue( p, literal( 8 ) ), hasValue( p, literal( 9 ) ) ) );
+
+		assertTrue( kb.isConsistent() );
+
+		ATermAppl range1 = restrict( Datatypes.INTEGER, minInclusive( literal( 5 ) ),
+				maxExclusive( literal( 10 ) ) );
+		assertEquals( SetUtils.create( b, c, e ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataPropertyInRange( p, range1 ) ) );
+		assertEquals( SetUtils.create( c ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataPropertyInRange( q, range1 ) ) );
+
+		ATermAppl range2 = restrict( Datatypes.DECIMAL, minExclusive( literal( "5.0",
+				Datatypes.DECIMAL ) ) );
+		assertEquals( SetUtils.create( c, d, e ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataPropertyInRange( p, range2 ) ) );
+
+		assertEquals( SetUtils.create( a, b, c, d, e ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataPropertyInRange( p, TOP_LIT ) ) );
+
+		kb.addPropertyValue( p, a, literal( 6 ) );
+
+		assertEquals( SetUtils.create( a, b, c, e ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataPropertyInRange( p, range1 ) ) );
+	}
+
+	@Test
+	public void testDataPropertyValuesIndexUpdates() {
+		dataProperties( p, q );
+		individuals( a, b, c, d );
+
+		kb.addSubProperty( q, p );
+
+		kb.addPropertyValue( p, a, literal( 3 ) );
+		kb.addPropertyValue( q, b, literal( "3.0", Datatypes.DECIMAL ) );
+		kb.addPropertyValue( p, c, literal( "foo" ) );
+		kb.addSame( c, d );
+
+		assertTrue( kb.isConsistent() );
+
+		assertEquals( SetUtils.create( a, b ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataProperty( p, literal( 3 ) ) ) );
+		assertEquals( SetUtils.create( b ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataProperty( q, literal( 3 ) ) ) );
+		assertEquals( SetUtils.create( a, b, c, d ), kb.getIndividualsWithDataPropertyValues( p ) );
+		assertEquals( SetUtils.create( b ), kb.getIndividualsWithDataPropertyValues( q ) );
+
+		DataValueIndex index = kb.getABox().getDataValueIndex();
+
+		kb.removePropertyValue( p, a, literal( 3 ) );
+		kb.addPropertyValue( p, a, literal( 4 ) );
+
+		assertTrue( kb.isConsistent() );
+		assertSame( index, kb.getABox().getDataValueIndex() );
+
+		assertEquals( SetUtils.create( b ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataProperty( p, literal( 3 ) ) ) );
+		assertEquals( SetUtils.create( a ), new HashSet<ATermAppl>( kb
+				.getIndividualsWithDataProperty( p, literal( "4.0", Datatypes.DECIMAL ) ) ) );
+	}
+}
@@ -12,6 +12,7 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.mindswap.pellet.test.inctest.IncConsistencyTests;
 import org.mindswap.pellet.test.inctest.IncJenaConsistencyTests;
 import org.mindswap.pellet.test.rules.RulesTestSuite;
+import org.mindswap.pellet.test.utils.PersistentHashMapTest;
 
 import com.clarkparsia.TestATermManchesterSyntaxRenderer;
 import com.clarkparsia.explanation.test.ExplanationTestSuite;
@@ -22,6 +23,7 @@ import com.clarkparsia.pellet.test.CacheSafetyTests;
 import com.clarkparsia.pellet.test.TestKnowledgeBase;
 import com.clarkparsia.pellet.test.annotations.AnnotationsTestSuite;
 import com.clarkparsia.pellet.test.classification.ClassificationTestSuite;
+import com.clarkparsia.pellet.test.el.ConcurrentELTests;
 import com.clarkparsia.pellet.test.el.ELTests;
 import com.clarkparsia.pellet.test.owlapi.OWLAPIv3Tests;
 import com.clarkparsia.pellet.test.owlapi.OWLPrimerTests;
@@ -34,6 +36,7 @@ import com.clarkparsia.pellint.test.PellintTestSuite;
 @RunWith(Suite.class)
 @SuiteClasses( { 
 	ATermTests.class,
+	PersistentHashMapTest.class,
 	PellintTestSuite.class,
 	TracingTests.class,
 	MiscTests.class,
@@ -52,6 +55,7 @@ import com.clarkparsia.pellint.test.PellintTestSuite;
 	TBoxTests.class,
 	DatatypesSuite.class,
 	ELTests.class,
+	ConcurrentELTests.class,
 	ExplanationTestSuite.class,
 	TestIsClass.class,
 	TestKnowledgeBase.class,
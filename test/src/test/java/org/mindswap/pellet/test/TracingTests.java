@@ -23,6 +23,7 @@ import static com.clarkparsia.pellet.utils.TermFactory.some;
 import static com.clarkparsia.pellet.utils.TermFactory.term;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mindswap.pellet.test.PelletTestCase.assertIteratorValues;
 import static org.mindswap.pellet.utils.ATermUtils.makeList;
@@ -39,6 +40,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mindswap.pellet.DependencySet;
 import org.mindswap.pellet.KnowledgeBase;
 import org.mindswap.pellet.PelletOptions;
 import org.mindswap.pellet.utils.ATermUtils;
@@ -1055,4 +1057,29 @@ public class TracingTests extends AbstractKBTests {
  			ATermUtils.makePropAtom(q, a, literal(2))  
  		);
 	}
+
+	@Test
+	public void testExplanationUnion() {
+		ATermAppl subAB = ATermUtils.makeSub( A, B );
+		ATermAppl subBC = ATermUtils.makeSub( B, C );
+		ATermAppl subCD = ATermUtils.makeSub( C, D );
+
+		DependencySet ds1 = new DependencySet( subAB );
+		DependencySet ds2 = new DependencySet( SetUtils.create( subAB, subBC ) );
+		DependencySet ds3 = new DependencySet( subCD );
+
+		// explanations that do not add any axioms are shared
+		assertSame( ds2.getExplain(), ds1.union( ds2, true ).getExplain() );
+		assertSame( ds2.getExplain(), ds2.union( ds1, true ).getExplain() );
+		assertSame( ds2, ds2.union( SetUtils.singleton( subBC ), true ) );
+
+		assertEquals( SetUtils.create( subAB, subBC, subCD ), ds2.union( ds3, true ).getExplain() );
+		assertEquals( SetUtils.create( subAB, subCD ), ds1.union( SetUtils.singleton( subCD ), true ).getExplain() );
+		assertTrue( ds1.union( ds3, false ).getExplain().isEmpty() );
+
+		ds2.removeExplain( subCD );
+		assertEquals( SetUtils.create( subAB, subBC ), ds2.getExplain() );
+		ds2.removeExplain( subBC );
+		assertTrue( ds2.getExplain().isEmpty() );
+	}
 }
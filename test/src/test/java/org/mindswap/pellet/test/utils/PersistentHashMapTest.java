@@ -0,0 +1,166 @@
+// Copyright (c) 2006 - 2008, Clark & Parsia, LLC. <http://www.clarkparsia.com>
+// This source code is available under the terms of the Affero General Public License v3.
+//
+// Please see LICENSE.txt for full license terms, including the availability of proprietary exceptions.
+// Questions, comments, or requests for clarification: licensing@clarkparsia.com
+
+package org.mindswap.pellet.test.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import com.clarkparsia.pellet.utils.PersistentHashMap;
+
+public class PersistentHashMapTest {
+	public static junit.framework.Test suite() {
+		return new JUnit4TestAdapter( PersistentHashMapTest.class );
+	}
+
+	/**
+	 * Key with a configurable hash code to force collisions
+	 */
+	private static class Key {
+		private final int	id;
+		private final int	hash;
+
+		Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+	}
+
+	@Test
+	public void copyIsIndependent() {
+		PersistentHashMap<String, Integer> map = new PersistentHashMap<String, Integer>();
+		for( int i = 0; i < 1000; i++ ) {
+			map.put( "k" + i, i );
+		}
+
+		map.freeze();
+		PersistentHashMap<String, Integer> copy = map.copy();
+		copy.put( "k1", -1 );
+		copy.remove( "k2" );
+		copy.put( "new", 0 );
+		map.put( "k3", -3 );
+
+		assertEquals( 1000, map.size() );
+		assertEquals( Integer.valueOf( 1 ), map.get( "k1" ) );
+		assertEquals( Integer.valueOf( 2 ), map.get( "k2" ) );
+		assertFalse( map.containsKey( "new" ) );
+		assertEquals( Integer.valueOf( -3 ), map.get( "k3" ) );
+
+		assertEquals( 1000, copy.size() );
+		assertEquals( Integer.valueOf( -1 ), copy.get( "k1" ) );
+		assertNull( copy.get( "k2" ) );
+		assertTrue( copy.containsKey( "new" ) );
+		assertEquals( Integer.valueOf( 3 ), copy.get( "k3" ) );
+	}
+
+	@Test
+	public void copyDoesNotModifySource() {
+		PersistentHashMap<String, Integer> map = new PersistentHashMap<String, Integer>();
+		map.put( "a", 1 );
+		assertFalse( map.isFrozen() );
+
+		PersistentHashMap<String, Integer> copy = map.copy();
+		assertFalse( map.isFrozen() );
+		map.put( "b", 2 );
+		assertEquals( 1, copy.size() );
+
+		map.freeze();
+		assertTrue( map.isFrozen() );
+		copy = map.copy();
+		assertTrue( map.isFrozen() );
+		assertTrue( copy.isFrozen() );
+
+		map.put( "c", 3 );
+		assertFalse( map.isFrozen() );
+		assertTrue( copy.isFrozen() );
+		assertEquals( 2, copy.size() );
+		assertFalse( copy.containsKey( "c" ) );
+	}
+
+	@Test
+	public void iteratorRemove() {
+		PersistentHashMap<String, Integer> map = new PersistentHashMap<String, Integer>();
+		for( int i = 0; i < 100; i++ ) {
+			map.put( "k" + i, i );
+		}
+		map.freeze();
+		PersistentHashMap<String, Integer> copy = map.copy();
+
+		int count = 0;
+		for( Iterator<Integer> i = map.values().iterator(); i.hasNext(); ) {
+			count++;
+			if( i.next() % 2 == 0 )
+				i.remove();
+		}
+
+		assertEquals( 100, count );
+		assertEquals( 50, map.size() );
+		assertEquals( 100, copy.size() );
+		for( Integer value : map.values() ) {
+			assertTrue( value % 2 == 1 );
+		}
+	}
+
+	@Test
+	public void randomOperations() {
+		Random rand = new Random( 42 );
+		PersistentHashMap<Key, Integer> map = new PersistentHashMap<Key, Integer>();
+		Map<Key, Integer> expected = new HashMap<Key, Integer>();
+		PersistentHashMap<Key, Integer> snapshot = map.copy();
+		Map<Key, Integer> expectedSnapshot = new HashMap<Key, Integer>();
+
+		for( int i = 0; i < 10000; i++ ) {
+			int id = rand.nextInt( 500 );
+			// use few distinct hash codes to test collisions
+			Key key = new Key( id, id % 3 == 0
+				? id % 7
+				: id * 31 );
+
+			switch( rand.nextInt( 4 ) ) {
+			case 0:
+			case 1:
+				assertEquals( expected.put( key, i ), map.put( key, i ) );
+				break;
+			case 2:
+				assertEquals( expected.remove( key ), map.remove( key ) );
+				break;
+			default:
+				if( rand.nextInt( 100 ) == 0 ) {
+					assertEquals( expectedSnapshot, snapshot );
+					map.freeze();
+					snapshot = map.copy();
+					expectedSnapshot = new HashMap<Key, Integer>( expected );
+				}
+			}
+
+			assertEquals( expected.size(), map.size() );
+		}
+
+		assertEquals( expected, map );
+		assertEquals( expectedSnapshot, snapshot );
+	}
+}